@@ -0,0 +1,59 @@
+-- Compression benchmark for chat message payloads (PostgreSQL 14+).
+--
+-- Compares uncompressed, pglz and lz4 TOAST storage for RAG-style rows
+-- (multi-KB assistant replies plus JSONB context chunks) and reports table
+-- size, write time and the cost of reading the payload back.
+--
+-- Usage: psql -d <database> -f benchmark/compression-benchmark.sql
+-- ROWS controls the sample size.
+
+\set ROWS 20000
+\timing on
+
+DROP TABLE IF EXISTS bench_plain, bench_pglz, bench_lz4;
+
+CREATE TABLE bench_plain (content TEXT, context_data JSONB) WITH (toast_tuple_target = 512);
+ALTER TABLE bench_plain ALTER COLUMN content SET STORAGE EXTERNAL;
+ALTER TABLE bench_plain ALTER COLUMN context_data SET STORAGE EXTERNAL;
+
+CREATE TABLE bench_pglz (content TEXT COMPRESSION pglz, context_data JSONB COMPRESSION pglz)
+    WITH (toast_tuple_target = 512);
+
+CREATE TABLE bench_lz4 (content TEXT COMPRESSION lz4, context_data JSONB COMPRESSION lz4)
+    WITH (toast_tuple_target = 512);
+
+-- Synthetic payload: repeated prose with per-row variation, and a handful of retrieved chunks
+CREATE TEMP TABLE bench_source AS
+SELECT repeat('The retrieved passage explains how the service stores chat history. ', 40)
+           || md5(g::text) AS content,
+       jsonb_build_object(
+           'model', 'llama-3.1-8b-instant',
+           'chunks', (SELECT jsonb_agg(jsonb_build_object(
+                               'documentId', 'doc-' || (g % 50 + c),
+                               'score', random(),
+                               'text', repeat('Chunk text from the knowledge base. ', 20)))
+                      FROM generate_series(1, 5) c)) AS context_data
+FROM generate_series(1, :ROWS) g;
+
+\echo '--- write cost ---'
+INSERT INTO bench_plain SELECT * FROM bench_source;
+INSERT INTO bench_pglz SELECT * FROM bench_source;
+INSERT INTO bench_lz4 SELECT * FROM bench_source;
+
+\echo '--- storage (heap + TOAST + indexes) ---'
+SELECT relname,
+       pg_size_pretty(pg_total_relation_size(oid)) AS total_size,
+       pg_total_relation_size(oid)                 AS total_bytes
+FROM pg_class
+WHERE relname IN ('bench_plain', 'bench_pglz', 'bench_lz4')
+ORDER BY total_bytes;
+
+\echo '--- read cost (forces detoast and decompression of every payload) ---'
+SELECT sum(length(content)) + sum(length(context_data::text)) FROM bench_plain;
+SELECT sum(length(content)) + sum(length(context_data::text)) FROM bench_pglz;
+SELECT sum(length(content)) + sum(length(context_data::text)) FROM bench_lz4;
+
+\echo '--- metadata-only scan (payload columns are never decompressed) ---'
+SELECT count(*) FROM bench_lz4 WHERE content IS NOT NULL;
+
+DROP TABLE bench_plain, bench_pglz, bench_lz4;
@@ -0,0 +1,56 @@
+package com.chatbot.storage.config;
+
+import com.chatbot.storage.infrastructure.routing.ReadWriteRoutingDataSource;
+import com.chatbot.storage.infrastructure.routing.ReplicaRegistry;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ *
+ * The type Data source routing config.
+ */
+@Configuration
+// With sharding enabled, ShardingConfig builds the data source and puts the replicas behind the primary shard
+@ConditionalOnExpression("${app.datasource.routing.enabled:false} and !${app.datasource.sharding.enabled:false}")
+public class DataSourceRoutingConfig {
+
+    /**
+     * Primary data source built from spring.datasource.
+     *
+     * @param dataSourceProperties the data source properties
+     * @return the hikari data source
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties dataSourceProperties) {
+        return dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+    }
+
+    /**
+     * Routing data source used by JPA, JdbcTemplate and Liquibase.
+     *
+     * @param primaryDataSource the primary data source
+     * @param replicaRegistry   the replica registry
+     * @return the data source
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, ReplicaRegistry replicaRegistry) {
+        ReadWriteRoutingDataSource routingDataSource = new ReadWriteRoutingDataSource(primaryDataSource, replicaRegistry);
+        routingDataSource.afterPropertiesSet();
+
+        // JPA opens its connection at transaction begin, before the read-only flag is bound;
+        // the lazy proxy postpones the routing decision to the first statement
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+}
@@ -0,0 +1,42 @@
+package com.chatbot.storage.config;
+
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+
+/**
+ *
+ * The type Hibernate cache config.
+ * Region settings live in application.conf (Caffeine JCache format).
+ */
+@Configuration
+public class HibernateCacheConfig {
+
+    /**
+     * Cache manager backing the Hibernate second-level cache regions.
+     *
+     * @return the cache manager
+     */
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager() {
+        CachingProvider provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        return provider.getCacheManager(provider.getDefaultURI(), getClass().getClassLoader());
+    }
+
+    /**
+     * Hands the cache manager to Hibernate so regions and metrics share the same caches.
+     *
+     * @param hibernateCacheManager the hibernate cache manager
+     * @return the hibernate properties customizer
+     */
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+    }
+}
@@ -2,6 +2,7 @@ package com.chatbot.storage.config;
 
 import com.chatbot.storage.infrastructure.ratelimit.RateLimitInterceptor;
 import com.chatbot.storage.infrastructure.security.ApiKeyAuthenticationFilter;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -38,6 +39,8 @@ public class SecurityConfig implements WebMvcConfigurer {
                 .csrf(csrf -> csrf.disable())
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(authz -> authz
+                        // Streaming responses complete on an async dispatch that was already authorized
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .requestMatchers("/actuator/health",
                                 "/swagger-ui/**",
                                 "/swagger-ui.html",
@@ -0,0 +1,77 @@
+package com.chatbot.storage.config;
+
+import com.chatbot.storage.infrastructure.routing.ReadWriteRoutingDataSource;
+import com.chatbot.storage.infrastructure.routing.ReplicaRegistry;
+import com.chatbot.storage.infrastructure.sharding.ShardRegistry;
+import com.chatbot.storage.infrastructure.sharding.ShardRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static com.chatbot.storage.constants.AppConstants.PRIMARY_DATASOURCE;
+
+/**
+ *
+ * The type Sharding config.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.datasource.sharding", name = "enabled", havingValue = "true")
+public class ShardingConfig {
+
+    /**
+     * Primary shard built from spring.datasource.
+     *
+     * @param dataSourceProperties the data source properties
+     * @return the hikari data source
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties dataSourceProperties) {
+        return dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+    }
+
+    /**
+     * Shard routing data source used by JPA, JdbcTemplate and Liquibase. With replica routing
+     * enabled as well, reads of the primary shard are spread over its replicas.
+     *
+     * @param primaryDataSource the primary data source
+     * @param shardRegistry     the shard registry
+     * @param replicaRegistry   the replica registry, present when replica routing is enabled
+     * @return the data source
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource,
+                                 ShardRegistry shardRegistry,
+                                 ObjectProvider<ReplicaRegistry> replicaRegistry) {
+        DataSource primary = primaryDataSource;
+        ReplicaRegistry replicas = replicaRegistry.getIfAvailable();
+        if (replicas != null) {
+            ReadWriteRoutingDataSource readWriteDataSource = new ReadWriteRoutingDataSource(primaryDataSource, replicas);
+            readWriteDataSource.afterPropertiesSet();
+            primary = readWriteDataSource;
+        }
+
+        Map<String, DataSource> shards = new LinkedHashMap<>();
+        shards.put(PRIMARY_DATASOURCE, primary);
+        shards.putAll(shardRegistry.getShards());
+        ShardRoutingDataSource routingDataSource = new ShardRoutingDataSource(shards);
+        routingDataSource.afterPropertiesSet();
+
+        // Services route their transaction by user after it has begun; the lazy proxy
+        // postpones picking the shard to the first statement
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+}
@@ -0,0 +1,30 @@
+package com.chatbot.storage.config;
+
+import com.chatbot.storage.config.properties.VectorIndexProperties;
+import com.chatbot.storage.infrastructure.vector.Embedder;
+import com.chatbot.storage.infrastructure.vector.HashingEmbedder;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ *
+ * The type Vector index config.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.vector", name = "enabled", havingValue = "true")
+public class VectorIndexConfig {
+
+    /**
+     * Offline default embedder, replaced by any other Embedder bean.
+     *
+     * @param properties the properties
+     * @return the embedder
+     */
+    @Bean
+    @ConditionalOnMissingBean(Embedder.class)
+    public Embedder hashingEmbedder(VectorIndexProperties properties) {
+        return new HashingEmbedder(properties.getDimensions());
+    }
+}
@@ -0,0 +1,31 @@
+package com.chatbot.storage.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ *
+ * The type Archive properties.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.archive")
+public class ArchiveProperties {
+
+    private boolean enabled = false;
+    private int inactiveDays = 30;
+    private int batchSize = 100;
+    private String directory = "./data/archive";
+    private long segmentMaxBytes = 256L * 1024 * 1024;
+    // Segments are rolled after this long even when not full, so they can be compacted
+    private Duration segmentMaxAge = Duration.ofDays(1);
+    private String cron = "0 30 2 * * *";
+    private boolean compactionEnabled = true;
+    private String compactionCron = "0 30 5 * * *";
+    // Share of a sealed segment that must be released before its live blobs are moved out
+    private double compactionMinReleasedRatio = 0.5;
+    private int compactionBatchSize = 100;
+}
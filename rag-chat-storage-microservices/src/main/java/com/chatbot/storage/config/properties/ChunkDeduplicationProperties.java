@@ -0,0 +1,42 @@
+package com.chatbot.storage.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ *
+ * The type Chunk deduplication properties.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.chunk-dedup")
+public class ChunkDeduplicationProperties {
+
+    private boolean enabled = false;
+    // contextData keys holding lists of retrieved chunks
+    private List<String> chunkKeys = List.of("chunks", "documents", "sources", "citations");
+    // Identifying fields copied into the reference so they stay queryable
+    private List<String> retainedKeys = List.of("documentId", "source", "title", "url");
+    // Per-retrieval fields kept on the reference and excluded from the hash
+    private List<String> volatileKeys = List.of("score", "rank");
+    private int minBytes = 256;
+    private int cacheSize = 10000;
+    // A cached chunk is only trusted to still be stored for this long; keep it below orphan-grace-period
+    private Duration cacheTtl = Duration.ofHours(1);
+    private boolean migrateOnStartup = false;
+    private int migrationBatchSize = 500;
+    // Deletes chunks that no message or archive has referenced for the grace period
+    private boolean gcEnabled = false;
+    private String gcCron = "0 0 5 * * *";
+    private int gcBatchSize = 500;
+    private Duration orphanGracePeriod = Duration.ofDays(1);
+    private Duration pauseBetweenBatches = Duration.ofMillis(100);
+    // Batches wait while any standby replays further behind than this
+    private Duration maxReplicationLag = Duration.ofSeconds(5);
+    // The run stops if replicas do not catch up within this
+    private Duration maxThrottleWait = Duration.ofMinutes(5);
+}
@@ -0,0 +1,27 @@
+package com.chatbot.storage.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ *
+ * The type History selection properties.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.history-selection")
+public class HistorySelectionProperties {
+
+    private boolean enabled = true;
+    // Most recent messages always sent, newest first while the budget allows
+    private int recentMessages = 6;
+    // Older turns (a user message and its reply) picked by BM25 against the current message
+    private int relevantTurns = 4;
+    // Estimated at four characters per token plus a small per-message overhead
+    private int tokenBudget = 2000;
+    private float k1 = 1.2f;
+    private float b = 0.75f;
+    // Sessions whose BM25 index is kept in memory
+    private int cacheSize = 1000;
+}
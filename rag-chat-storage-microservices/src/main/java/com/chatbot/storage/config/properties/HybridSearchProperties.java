@@ -0,0 +1,30 @@
+package com.chatbot.storage.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ *
+ * The type Hybrid search properties.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.hybrid-search")
+public class HybridSearchProperties {
+
+    private boolean enabled = false;
+    // Reciprocal rank fusion constant; larger values flatten the weight of top ranks
+    private int rrfK = 60;
+    // Results taken from each ranker before fusion
+    private int candidates = 100;
+    private int maxResults = 50;
+    private float k1 = 1.2f;
+    private float b = 0.75f;
+    private int syncBatchSize = 1000;
+    private long syncIntervalMs = 2000;
+    // Re-read window that covers messages committed out of created_at order
+    private Duration syncOverlap = Duration.ofSeconds(10);
+}
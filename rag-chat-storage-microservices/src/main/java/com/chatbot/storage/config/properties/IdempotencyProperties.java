@@ -0,0 +1,26 @@
+package com.chatbot.storage.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ *
+ * The type Idempotency properties.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.idempotency")
+public class IdempotencyProperties {
+
+    private boolean enabled = true;
+    // How long the response of a completed request is replayed for retries with its key
+    private Duration retention = Duration.ofHours(24);
+    // Claim on a key while its request runs; must outlast the slowest request, LLM calls included
+    private Duration lockTimeout = Duration.ofMinutes(2);
+    // How long a retry waits for the original request before it is answered with a conflict
+    private Duration waitTimeout = Duration.ofSeconds(30);
+    private Duration pollInterval = Duration.ofMillis(200);
+}
@@ -0,0 +1,30 @@
+package com.chatbot.storage.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ *
+ * The type Outbox properties.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.outbox")
+public class OutboxProperties {
+
+    private boolean enabled = false;
+    // redis (Redis Streams) or memory (in-process, for tests)
+    private String sink = "redis";
+    private String streamKey = "ragchat:events";
+    // Approximate cap of the stream; consumers further behind than this lose events
+    private long maxStreamLength = 1_000_000;
+    // Events published per relay transaction
+    private int batchSize = 500;
+    private long pollIntervalMs = 200;
+    // Consumer groups of the stream whose lag is exported as a metric
+    private List<String> consumerGroups = new ArrayList<>();
+}
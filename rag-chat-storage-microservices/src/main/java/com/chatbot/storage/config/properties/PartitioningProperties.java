@@ -0,0 +1,32 @@
+package com.chatbot.storage.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ *
+ * The type Partitioning properties.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.partitioning")
+public class PartitioningProperties {
+
+    private boolean enabled = false;
+    private int premakeMonths = 3;
+    // 0 keeps every partition forever
+    private int retentionMonths = 0;
+    private String cron = "0 0 3 * * *";
+    // Row size above which Postgres compresses large columns; 0 keeps the server default (~2KB)
+    private int toastTupleTarget = 0;
+    // Sessions recounted per statement after an expired partition is detached
+    private int recountBatchSize = 500;
+    private Duration pauseBetweenBatches = Duration.ofMillis(100);
+    // Batches wait while any standby replays further behind than this
+    private Duration maxReplicationLag = Duration.ofSeconds(5);
+    // The drop stops, leaving the partition detached for the next run, if replicas do not catch up within this
+    private Duration maxThrottleWait = Duration.ofMinutes(5);
+}
@@ -0,0 +1,41 @@
+package com.chatbot.storage.config.properties;
+
+import com.chatbot.storage.enums.RetentionAction;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ *
+ * The type Retention properties.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.retention")
+public class RetentionProperties {
+
+    private boolean enabled = false;
+    private List<Rule> rules = new ArrayList<>();
+    private int sessionBatchSize = 100;
+    private int messageBatchSize = 5000;
+    private Duration pauseBetweenBatches = Duration.ofMillis(100);
+    private Duration maxReplicationLag = Duration.ofSeconds(5);
+    private Duration maxThrottleWait = Duration.ofMinutes(5);
+    private String cron = "0 30 4 * * *";
+
+    /**
+     * The type Rule. A rule with a user id overrides the global rule for that user.
+     */
+    @Data
+    public static class Rule {
+        private String name;
+        // Null for the global rule
+        private String userId;
+        private Duration maxAge;
+        private RetentionAction action = RetentionAction.DELETE;
+    }
+}
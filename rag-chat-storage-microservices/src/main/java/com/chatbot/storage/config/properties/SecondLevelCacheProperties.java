@@ -0,0 +1,19 @@
+package com.chatbot.storage.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ *
+ * The type Second level cache properties.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.l2cache")
+public class SecondLevelCacheProperties {
+
+    // Broadcast evictions over Redis so other instances drop stale entries
+    private boolean clusterInvalidation = false;
+    private String channel = "ragchat:l2-invalidation";
+}
@@ -0,0 +1,30 @@
+package com.chatbot.storage.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ *
+ * The type Session purge properties.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.purge")
+public class SessionPurgeProperties {
+
+    private boolean enabled = false;
+    // How long a DELETED session is kept before it is removed for good
+    private Duration gracePeriod = Duration.ofDays(30);
+    private int sessionBatchSize = 100;
+    // Messages removed per DELETE statement, each in its own transaction
+    private int messageBatchSize = 5000;
+    private Duration pauseBetweenBatches = Duration.ofMillis(100);
+    // Batches wait while any standby replays further behind than this
+    private Duration maxReplicationLag = Duration.ofSeconds(5);
+    // The run stops, keeping its checkpoint, if replicas do not catch up within this
+    private Duration maxThrottleWait = Duration.ofMinutes(5);
+    private String cron = "0 0 4 * * *";
+}
@@ -0,0 +1,65 @@
+package com.chatbot.storage.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ *
+ * The type Sharding properties.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.datasource.sharding")
+public class ShardingProperties {
+
+    private boolean enabled = false;
+    // Databases besides spring.datasource, which is always the shard named "primary"
+    private List<Shard> shards = new ArrayList<>();
+    // Shards users are placed on; empty means the primary and every configured shard
+    private List<String> ring = new ArrayList<>();
+    // The ring users were placed on before the last topology change, kept until the rebalance finished
+    private List<String> previousRing = new ArrayList<>();
+    // Points per shard on the hash ring; more points spread users more evenly
+    private int virtualNodes = 160;
+    // Run the Liquibase changelog against every shard besides the primary at startup
+    private boolean migrateSchema = true;
+    private Rebalance rebalance = new Rebalance();
+
+    /**
+     * The type Shard.
+     */
+    @Data
+    public static class Shard {
+        private String name;
+        private String url;
+        private String username;
+        private String password;
+        private int maximumPoolSize = 10;
+    }
+
+    /**
+     * The type Rebalance.
+     */
+    @Data
+    public static class Rebalance {
+        private boolean enabled = false;
+        private long intervalMs = 10_000;
+        // Users examined per shard and run
+        private int usersPerRun = 100;
+        // Rows copied or deleted per statement, each batch in its own transaction
+        private int messageBatchSize = 1000;
+        // Time for writes that started before a user was frozen to commit
+        private Duration drainWait = Duration.ofSeconds(2);
+        // A move left unfinished this long, e.g. by a crashed instance, is taken over
+        private Duration staleMoveAfter = Duration.ofMinutes(10);
+        // Batches wait while any standby of the shard written to replays further behind than this
+        private Duration maxReplicationLag = Duration.ofSeconds(5);
+        // Waiting longer than this fails a move still copying, or leaves the rest to a later run
+        private Duration maxThrottleWait = Duration.ofMinutes(1);
+    }
+}
@@ -0,0 +1,29 @@
+package com.chatbot.storage.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ *
+ * The type Streaming properties.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.streaming")
+public class StreamingProperties {
+
+    private boolean enabled = false;
+    // Redis pub/sub channel new messages are fanned out to the other instances on
+    private String channel = "ragchat:session-messages";
+    // Messages held per stream; a client further behind is disconnected and refetches the page
+    private int bufferSize = 256;
+    // Open streams per instance; further subscriptions are refused with 503
+    private int maxSubscribers = 20000;
+    // Comment sent on idle streams, so proxies keep them open and gone clients are noticed
+    private Duration heartbeatInterval = Duration.ofSeconds(20);
+    // Streams are closed after this long and the client reconnects
+    private Duration timeout = Duration.ofMinutes(30);
+}
@@ -0,0 +1,25 @@
+package com.chatbot.storage.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ *
+ * The type Sync properties.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.sync")
+public class SyncProperties {
+
+    private boolean enabled = false;
+    // Change log rows read per sync request
+    private int pageSize = 500;
+    // How long changes are kept; clients with an older cursor are told to reload everything
+    private Duration retention = Duration.ofDays(30);
+    private int pruneBatchSize = 5000;
+    private Duration pauseBetweenBatches = Duration.ofMillis(100);
+}
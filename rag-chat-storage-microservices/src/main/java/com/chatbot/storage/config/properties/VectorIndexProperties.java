@@ -0,0 +1,33 @@
+package com.chatbot.storage.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ *
+ * The type Vector index properties.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.vector")
+public class VectorIndexProperties {
+
+    private boolean enabled = false;
+    // Dimensions of the built-in hashing embedder
+    private int dimensions = 256;
+    // HNSW graph parameters
+    private int m = 16;
+    private int efConstruction = 200;
+    private int efSearch = 64;
+    private int maxResults = 50;
+    private int embedBatchSize = 200;
+    private long embedIntervalMs = 2000;
+    private long syncIntervalMs = 2000;
+    // Re-read window that covers embeddings committed out of embedded_at order
+    private Duration syncOverlap = Duration.ofSeconds(10);
+    private String snapshotDirectory = "./data/vector-index";
+    private long snapshotIntervalMs = 300000;
+}
@@ -0,0 +1,25 @@
+package com.chatbot.storage.config.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ *
+ * The type Write buffer properties.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.write-buffer")
+public class WriteBufferProperties {
+
+    private boolean enabled = false;
+    // A batch is written once it holds this many messages...
+    private int maxBatchSize = 100;
+    // ...or once its first message has waited this long
+    private Duration maxDelay = Duration.ofMillis(5);
+    // Messages that do not fit are written synchronously by the caller
+    private int capacity = 10000;
+}
@@ -5,11 +5,46 @@ public final class AppConstants {
     // API Constants
     public static final String X_FORWARDED_FOR = "X-Forwarded-For";
     public static final String API_CLIENT = "api-client";
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
 
     // Cache Names
     public static final String CACHE_SESSIONS = "sessions";
     public static final String CACHE_FAVORITE_SESSIONS = "favoriteSessions";
 
+    // Batch lookups
+    public static final int SESSION_BATCH_MAX_SIZE = 100;
+
+    // Export
+    public static final String EXPORT_FETCH_SIZE = "500";
+    public static final int EXPORT_FLUSH_INTERVAL = 500;
+
+    // Partitioning
+    public static final String PARTITIONED_TABLE = "chat_messages";
+    public static final String PARTITION_PREFIX = "chat_messages_p";
+
+    // Context chunk deduplication
+    public static final String CHUNK_REF_KEY = "$chunkRef";
+
+    // Read replica routing
+    public static final String PRIMARY_DATASOURCE = "primary";
+    public static final String READ_YOUR_WRITES_KEY_PREFIX = "ryw:";
+
+    // Sharding
+    public static final String SHARD_MOVE_RETRY_AFTER_SECONDS = "2";
+
+    // Idempotency
+    public static final String IDEMPOTENCY_KEY_PREFIX = "idem:";
+    public static final int IDEMPOTENCY_KEY_MAX_LENGTH = 255;
+    public static final String IDEMPOTENT_REQUEST_RETRY_AFTER_SECONDS = "1";
+
+    // Message streaming
+    public static final String STREAM_EVENT_MESSAGE = "message";
+    public static final String STREAM_EVENT_OVERFLOW = "overflow";
+    public static final String STREAM_LIMIT_RETRY_AFTER_SECONDS = "5";
+
+    // Response views
+    public static final int MESSAGE_SNIPPET_LENGTH = 200;
+
     public static final String USER_ID_IS_REQUIRED = "User ID is required";
     public static final String USER_ID_MUST_NOT_EXCEED_100_CHARACTERS = "User ID must not exceed 100 characters";
     public static final String SESSION_NAME_IS_REQUIRED = "Session name is required";
@@ -18,6 +53,7 @@ public final class AppConstants {
     public static final String SENDER_TYPE_IS_REQUIRED = "Sender type is required";
     public static final String CONTENT_IS_REQUIRED = "Content is required";
     public static final String NOT_EXCEED_500_CHARACTERS = "Description must not exceed 500 characters";
+    public static final int SEARCH_QUERY_MAX_LENGTH = 256;
     public static final String CHAT_WITH_LLM = "Chat with LLM";
     public static final String LLM_INTEGRATION_OPTIONAL_FUNCTIONALITY = "Chat endpoints for testing LLM integration. Optional functionality.";
     public static final String SEND_A_USER_MESSAGE_AND_GET_AI_RESPONSE = "Send a user message and get AI response";
@@ -33,6 +69,11 @@ public final class AppConstants {
     public static final String PARAM_SORT_DIR = "sortDir";
     public static final String PARAM_SESSION_ID = "sessionId";
     public static final String PARAM_MESSAGE_ID = "messageId";
+    public static final String PARAM_QUERY = "q";
+    public static final String PARAM_CURSOR = "cursor";
+    public static final String PARAM_LIMIT = "limit";
+    public static final String PARAM_IDS = "ids";
+    public static final String PARAM_VIEW = "view";
 
     // Parameter Descriptions
     public static final String DESC_USER_ID = "User ID";
@@ -40,31 +81,51 @@ public final class AppConstants {
     public static final String DESC_SIZE = "Page size";
     public static final String DESC_SORT_BY = "Sort field";
     public static final String DESC_SORT_DIR = "Sort direction (asc/desc)";
+    public static final String DESC_QUERY = "Search terms; supports \"quoted phrases\", OR and -excluded words";
+    public static final String DESC_CURSOR = "Cursor returned as nextCursor by the previous page";
+    public static final String DESC_LIMIT = "Maximum number of results";
+    public static final String DESC_SYNC_CURSOR = "nextCursor of the previous sync; omit it to get a starting cursor";
+    public static final String DESC_SESSION_IDS = "Comma-separated session IDs, at most 100";
+    public static final String DESC_VIEW = "full (default) or summary: ids, sender, timestamp and a content snippet";
+    public static final String DESC_IDEMPOTENCY_KEY = "Unique key per logical request; retries with it return the original response";
 
     // Error Codes
     public static final String ERROR_RESOURCE_NOT_FOUND = "RESOURCE_NOT_FOUND";
     public static final String ERROR_VALIDATION_FAILED = "VALIDATION_FAILED";
     public static final String ERROR_INTERNAL_SERVER = "INTERNAL_SERVER_ERROR";
+    public static final String ERROR_SHARD_MOVE_IN_PROGRESS = "SHARD_MOVE_IN_PROGRESS";
+    public static final String ERROR_REQUEST_IN_PROGRESS = "REQUEST_IN_PROGRESS";
+    public static final String ERROR_TOO_MANY_STREAMS = "TOO_MANY_STREAMS";
 
     // API Operation Summaries
     public static final class OperationSummary {
         public static final String SEND_MESSAGE = "Send a message to a session";
         public static final String GET_SESSION_MESSAGES = "Get session messages with pagination";
         public static final String GET_ALL_SESSION_MESSAGES = "Get all messages for a session";
+        public static final String EXPORT_SESSION_MESSAGES = "Stream all messages for a session as NDJSON";
+        public static final String STREAM_SESSION_MESSAGES = "Subscribe to new messages of a session as server-sent events";
         public static final String DELETE_MESSAGE = "Delete a specific message";
+        public static final String SEARCH_MESSAGES = "Search messages across sessions by contextData and metadata";
+        public static final String SEARCH_MESSAGE_CONTENT = "Full-text search over message content, best match first";
+        public static final String FIND_SIMILAR_MESSAGES = "Find the user's messages closest in meaning to a text";
+        public static final String HYBRID_SEARCH_MESSAGES = "Search the user's past chats by keywords and meaning combined";
         public static final String CREATE_SESSION = "Create a new chat session";
         public static final String GET_SESSION = "Get session by ID";
+        public static final String GET_SESSIONS_BATCH = "Get several sessions by ID in one request";
         public static final String GET_USER_SESSIONS = "Get user sessions with pagination";
         public static final String GET_FAVORITE_SESSIONS = "Get user's favorite sessions";
         public static final String UPDATE_SESSION = "Update session details";
         public static final String TOGGLE_FAVORITE = "Toggle session favorite status";
         public static final String DELETE_SESSION = "Delete a session";
+        public static final String SYNC_CHANGES = "Get the user's session and message changes since a cursor";
     }
 
     // Tag Descriptions
     public static final class TagDescription {
         public static final String CHAT_MESSAGES = "Manage chat messages within sessions";
         public static final String CHAT_SESSIONS = "Manage chat sessions";
+        public static final String MESSAGE_SEARCH = "Search a user's messages across sessions";
+        public static final String SYNC = "Incremental sync of a user's sessions and messages";
     }
 
     // Success Messages
@@ -5,6 +5,9 @@ import com.chatbot.storage.dto.request.SendMessageRequest;
 import com.chatbot.storage.dto.response.ApiResponse;
 import com.chatbot.storage.dto.response.MessageResponse;
 import com.chatbot.storage.dto.response.PagedResponse;
+import com.chatbot.storage.enums.ResponseView;
+import com.chatbot.storage.infrastructure.idempotency.IdempotencyService;
+import com.chatbot.storage.infrastructure.stream.SessionSubscriptions;
 import com.chatbot.storage.service.ChatMessageService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -15,8 +18,12 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 import java.util.UUID;
@@ -31,15 +38,20 @@ public class ChatMessageController {
 
     private final ChatMessageService chatMessageService;
     private final PaginationProperties paginationProperties;
+    private final IdempotencyService idempotencyService;
+    private final SessionSubscriptions sessionSubscriptions;
 
     @PostMapping
     @Operation(summary = OperationSummary.SEND_MESSAGE)
     public ResponseEntity<ApiResponse<MessageResponse>> sendMessage(
             @PathVariable(PARAM_SESSION_ID) UUID sessionId,
             @Parameter(description = DESC_USER_ID) @RequestParam(PARAM_USER_ID) String userId,
+            @Parameter(description = DESC_IDEMPOTENCY_KEY)
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
             @Valid @RequestBody SendMessageRequest request) {
 
-        MessageResponse response = chatMessageService.sendMessage(sessionId, userId, request);
+        MessageResponse response = idempotencyService.execute(idempotencyKey, "messages:" + sessionId + ":" + userId,
+                request, MessageResponse.class, () -> chatMessageService.sendMessage(sessionId, userId, request));
         return ResponseEntity.status(HttpStatus.CREATED)
                 .body(ApiResponse.success(SuccessMessages.MESSAGE_SENT, response));
     }
@@ -50,7 +62,9 @@ public class ChatMessageController {
             @PathVariable(PARAM_SESSION_ID) UUID sessionId,
             @Parameter(description = DESC_USER_ID) @RequestParam(PARAM_USER_ID) String userId,
             @Parameter(description = DESC_PAGE) @RequestParam(value = PARAM_PAGE, defaultValue = "0") int page,
-            @Parameter(description = DESC_SIZE) @RequestParam(value = PARAM_SIZE, required = false) Integer size) {
+            @Parameter(description = DESC_SIZE) @RequestParam(value = PARAM_SIZE, required = false) Integer size,
+            @Parameter(description = DESC_VIEW) @RequestParam(value = PARAM_VIEW, required = false) String view,
+            WebRequest webRequest) {
 
         // Use configuration-based pagination
         int pageSize = size != null ? size : paginationProperties.getDefaultPageSize();
@@ -63,18 +77,51 @@ public class ChatMessageController {
         Pageable pageable = PageRequest.of(page, pageSize,
                 Sort.by(paginationProperties.getDefaultSortField()).ascending());
 
-        PagedResponse<MessageResponse> response = chatMessageService.getSessionMessages(sessionId, userId, pageable);
-        return ResponseEntity.ok(ApiResponse.success(response));
+        // checkNotModified sets the ETag, and turns the response into a 304 when the client's copy is current
+        return chatMessageService.getSessionMessagesIfModified(sessionId, userId, pageable,
+                        ResponseView.fromString(view), webRequest::checkNotModified)
+                .map(response -> ResponseEntity.ok(ApiResponse.success(response)))
+                .orElse(null);
     }
 
     @GetMapping("/all")
     @Operation(summary = OperationSummary.GET_ALL_SESSION_MESSAGES)
     public ResponseEntity<ApiResponse<List<MessageResponse>>> getAllSessionMessages(
+            @PathVariable(PARAM_SESSION_ID) UUID sessionId,
+            @Parameter(description = DESC_USER_ID) @RequestParam(PARAM_USER_ID) String userId,
+            @Parameter(description = DESC_VIEW) @RequestParam(value = PARAM_VIEW, required = false) String view,
+            WebRequest webRequest) {
+
+        return chatMessageService.getAllSessionMessagesIfModified(sessionId, userId, ResponseView.fromString(view),
+                        webRequest::checkNotModified)
+                .map(response -> ResponseEntity.ok(ApiResponse.success(response)))
+                .orElse(null);
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = OperationSummary.EXPORT_SESSION_MESSAGES)
+    public ResponseEntity<StreamingResponseBody> exportSessionMessages(
+            @PathVariable(PARAM_SESSION_ID) UUID sessionId,
+            @Parameter(description = DESC_USER_ID) @RequestParam(PARAM_USER_ID) String userId) {
+
+        // Fail fast with a regular 404 before the response is committed
+        chatMessageService.verifySessionOwnership(sessionId, userId);
+
+        StreamingResponseBody body = outputStream ->
+                chatMessageService.exportSessionMessages(sessionId, userId, outputStream);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = OperationSummary.STREAM_SESSION_MESSAGES)
+    public SseEmitter streamSessionMessages(
             @PathVariable(PARAM_SESSION_ID) UUID sessionId,
             @Parameter(description = DESC_USER_ID) @RequestParam(PARAM_USER_ID) String userId) {
 
-        List<MessageResponse> response = chatMessageService.getAllSessionMessages(sessionId, userId);
-        return ResponseEntity.ok(ApiResponse.success(response));
+        chatMessageService.verifySessionOwnership(sessionId, userId);
+        return sessionSubscriptions.subscribe(sessionId);
     }
 
     @DeleteMapping("/{messageId}")
@@ -18,6 +18,7 @@ import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.UUID;
@@ -47,9 +48,22 @@ public class ChatSessionController {
     @Operation(summary = OperationSummary.GET_SESSION)
     public ResponseEntity<ApiResponse<SessionResponse>> getSession(
             @PathVariable(PARAM_SESSION_ID) UUID sessionId,
+            @Parameter(description = DESC_USER_ID) @RequestParam(PARAM_USER_ID) String userId,
+            WebRequest webRequest) {
+
+        // checkNotModified sets the ETag, and turns the response into a 304 when the client's copy is current
+        return chatSessionService.getSessionIfModified(sessionId, userId, webRequest::checkNotModified)
+                .map(response -> ResponseEntity.ok(ApiResponse.success(response)))
+                .orElse(null);
+    }
+
+    @GetMapping("/batch")
+    @Operation(summary = OperationSummary.GET_SESSIONS_BATCH)
+    public ResponseEntity<ApiResponse<List<SessionResponse>>> getSessions(
+            @Parameter(description = DESC_SESSION_IDS) @RequestParam(PARAM_IDS) List<UUID> sessionIds,
             @Parameter(description = DESC_USER_ID) @RequestParam(PARAM_USER_ID) String userId) {
 
-        SessionResponse response = chatSessionService.getSessionById(sessionId, userId);
+        List<SessionResponse> response = chatSessionService.getSessionsByIds(sessionIds, userId);
         return ResponseEntity.ok(ApiResponse.success(response));
     }
 
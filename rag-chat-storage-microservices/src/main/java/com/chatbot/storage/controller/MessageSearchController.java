@@ -0,0 +1,97 @@
+package com.chatbot.storage.controller;
+
+import com.chatbot.storage.config.properties.PaginationProperties;
+import com.chatbot.storage.dto.request.MessageSearchRequest;
+import com.chatbot.storage.dto.response.ApiResponse;
+import com.chatbot.storage.dto.response.CursorPagedResponse;
+import com.chatbot.storage.dto.response.HybridSearchResult;
+import com.chatbot.storage.dto.response.MessageResponse;
+import com.chatbot.storage.dto.response.MessageSearchHit;
+import com.chatbot.storage.dto.response.PagedResponse;
+import com.chatbot.storage.dto.response.SimilarMessageResponse;
+import com.chatbot.storage.service.HybridSearchService;
+import com.chatbot.storage.service.MessageSearchService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+import static com.chatbot.storage.constants.AppConstants.*;
+
+@RestController
+@RequestMapping("/api/v1/messages")
+@RequiredArgsConstructor
+@Tag(name = "Message Search", description = TagDescription.MESSAGE_SEARCH)
+public class MessageSearchController {
+
+    private final MessageSearchService messageSearchService;
+    private final HybridSearchService hybridSearchService;
+    private final PaginationProperties paginationProperties;
+
+    @PostMapping("/search")
+    @Operation(summary = OperationSummary.SEARCH_MESSAGES)
+    public ResponseEntity<ApiResponse<PagedResponse<MessageResponse>>> searchMessages(
+            @Parameter(description = DESC_USER_ID) @RequestParam(PARAM_USER_ID) String userId,
+            @Parameter(description = DESC_PAGE) @RequestParam(value = PARAM_PAGE, defaultValue = "0") int page,
+            @Parameter(description = DESC_SIZE) @RequestParam(value = PARAM_SIZE, required = false) Integer size,
+            @Valid @RequestBody MessageSearchRequest request) {
+
+        int pageSize = size != null ? size : paginationProperties.getDefaultPageSize();
+        if (pageSize > paginationProperties.getMaxPageSize()) {
+            pageSize = paginationProperties.getMaxPageSize();
+        }
+
+        // Results are always newest first
+        Pageable pageable = PageRequest.of(page, pageSize);
+
+        PagedResponse<MessageResponse> response = messageSearchService.searchMessages(userId, request, pageable);
+        return ResponseEntity.ok(ApiResponse.success(response));
+    }
+
+    @GetMapping("/search")
+    @Operation(summary = OperationSummary.SEARCH_MESSAGE_CONTENT)
+    public ResponseEntity<ApiResponse<CursorPagedResponse<MessageSearchHit>>> searchMessageContent(
+            @Parameter(description = DESC_USER_ID) @RequestParam(PARAM_USER_ID) String userId,
+            @Parameter(description = DESC_QUERY) @RequestParam(PARAM_QUERY) String query,
+            @Parameter(description = DESC_CURSOR) @RequestParam(value = PARAM_CURSOR, required = false) String cursor,
+            @Parameter(description = DESC_SIZE) @RequestParam(value = PARAM_SIZE, required = false) Integer size) {
+
+        int pageSize = size != null ? size : paginationProperties.getDefaultPageSize();
+        if (pageSize > paginationProperties.getMaxPageSize()) {
+            pageSize = paginationProperties.getMaxPageSize();
+        }
+
+        CursorPagedResponse<MessageSearchHit> response =
+                messageSearchService.searchContent(userId, query, cursor, pageSize);
+        return ResponseEntity.ok(ApiResponse.success(response));
+    }
+
+    @GetMapping("/similar")
+    @Operation(summary = OperationSummary.FIND_SIMILAR_MESSAGES)
+    public ResponseEntity<ApiResponse<List<SimilarMessageResponse>>> findSimilarMessages(
+            @Parameter(description = DESC_USER_ID) @RequestParam(PARAM_USER_ID) String userId,
+            @Parameter(description = DESC_QUERY) @RequestParam(PARAM_QUERY) String query,
+            @Parameter(description = DESC_LIMIT) @RequestParam(value = PARAM_LIMIT, defaultValue = "10") int limit) {
+
+        List<SimilarMessageResponse> response = messageSearchService.findSimilar(userId, query, limit);
+        return ResponseEntity.ok(ApiResponse.success(response));
+    }
+
+    @GetMapping("/search/hybrid")
+    @Operation(summary = OperationSummary.HYBRID_SEARCH_MESSAGES)
+    public ResponseEntity<ApiResponse<List<HybridSearchResult>>> hybridSearchMessages(
+            @Parameter(description = DESC_USER_ID) @RequestParam(PARAM_USER_ID) String userId,
+            @Parameter(description = DESC_QUERY) @RequestParam(PARAM_QUERY) String query,
+            @Parameter(description = DESC_LIMIT) @RequestParam(value = PARAM_LIMIT, defaultValue = "10") int limit) {
+
+        List<HybridSearchResult> response = hybridSearchService.search(userId, query, limit);
+        return ResponseEntity.ok(ApiResponse.success(response));
+    }
+}
@@ -0,0 +1,35 @@
+package com.chatbot.storage.controller;
+
+import com.chatbot.storage.dto.response.ApiResponse;
+import com.chatbot.storage.dto.response.SyncResponse;
+import com.chatbot.storage.service.SyncService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import static com.chatbot.storage.constants.AppConstants.*;
+
+@RestController
+@RequestMapping("/api/v1/sync")
+@RequiredArgsConstructor
+@Tag(name = "Sync", description = TagDescription.SYNC)
+public class SyncController {
+
+    private final SyncService syncService;
+
+    @GetMapping
+    @Operation(summary = OperationSummary.SYNC_CHANGES)
+    public ResponseEntity<ApiResponse<SyncResponse>> sync(
+            @Parameter(description = DESC_USER_ID) @RequestParam(PARAM_USER_ID) String userId,
+            @Parameter(description = DESC_SYNC_CURSOR) @RequestParam(value = PARAM_CURSOR, required = false) String cursor) {
+
+        SyncResponse response = syncService.sync(userId, cursor);
+        return ResponseEntity.ok(ApiResponse.success(response));
+    }
+}
@@ -0,0 +1,26 @@
+package com.chatbot.storage.dto.projection;
+
+import com.chatbot.storage.enums.MessageSender;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ *
+ * Read-only projection of a chat message for list views. Only the head of the content
+ * is selected and the JSONB columns are left out, so large messages are neither
+ * detoasted in full nor shipped over the wire.
+ *
+ * @param id         the id
+ * @param sessionId  the session id
+ * @param senderType the sender type
+ * @param snippet    the first characters of the content
+ * @param createdAt  the created at
+ */
+public record MessageSummaryView(
+        UUID id,
+        UUID sessionId,
+        MessageSender senderType,
+        String snippet,
+        LocalDateTime createdAt) {
+}
@@ -0,0 +1,30 @@
+package com.chatbot.storage.dto.projection;
+
+import com.chatbot.storage.enums.MessageSender;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ *
+ * Read-only projection of a chat message, selected column by column so no
+ * managed entity, snapshot or session proxy is created.
+ *
+ * @param id          the id
+ * @param sessionId   the session id
+ * @param senderType  the sender type
+ * @param content     the content
+ * @param contextData the context data
+ * @param metadata    the metadata
+ * @param createdAt   the created at
+ */
+public record MessageView(
+        UUID id,
+        UUID sessionId,
+        MessageSender senderType,
+        String content,
+        Map<String, Object> contextData,
+        Map<String, Object> metadata,
+        LocalDateTime createdAt) {
+}
@@ -0,0 +1,33 @@
+package com.chatbot.storage.dto.projection;
+
+import com.chatbot.storage.enums.SessionStatus;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ *
+ * Read-only projection of a chat session with its message count computed in the
+ * same query instead of by initializing the messages collection.
+ *
+ * @param id           the id
+ * @param userId       the user id
+ * @param sessionName  the session name
+ * @param description  the description
+ * @param isFavorite   the is favorite
+ * @param status       the status
+ * @param messageCount the message count
+ * @param createdAt    the created at
+ * @param updatedAt    the updated at
+ */
+public record SessionView(
+        UUID id,
+        String userId,
+        String sessionName,
+        String description,
+        Boolean isFavorite,
+        SessionStatus status,
+        Long messageCount,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt) {
+}
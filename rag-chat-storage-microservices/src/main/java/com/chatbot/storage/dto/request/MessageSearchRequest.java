@@ -0,0 +1,46 @@
+package com.chatbot.storage.dto.request;
+
+import com.chatbot.storage.enums.JsonbField;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ *
+ * The type Message search request.
+ */
+@Data
+public class MessageSearchRequest {
+
+    // Documents the stored contextData / metadata must contain (jsonb @>)
+    private Map<String, Object> contextData;
+    private Map<String, Object> metadata;
+
+    @Valid
+    private List<FieldFilter> filters = new ArrayList<>();
+
+    /**
+     * The type Field filter. A key/value predicate on a path such as
+     * {@code chunks[].documentId}, where {@code []} steps into array elements.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class FieldFilter {
+
+        @NotNull
+        private JsonbField field;
+
+        @NotBlank
+        private String path;
+
+        private Object value;
+    }
+}
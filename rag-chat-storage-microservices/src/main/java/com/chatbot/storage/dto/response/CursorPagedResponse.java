@@ -0,0 +1,21 @@
+package com.chatbot.storage.dto.response;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ *
+ * The type Cursor paged response. Keyset pagination: pass {@code nextCursor} back to get the following page.
+ *
+ * @param <T> the type parameter
+ */
+@Data
+@Builder
+public class CursorPagedResponse<T> {
+    private List<T> content;
+    private String nextCursor;
+    private int size;
+    private boolean hasNext;
+}
@@ -0,0 +1,18 @@
+package com.chatbot.storage.dto.response;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ *
+ * The type Hybrid search result.
+ */
+@Data
+@Builder
+public class HybridSearchResult {
+    private MessageResponse message;
+    private float score;
+    // 1-based positions in each ranking; null when that ranking did not return the message
+    private Integer lexicalRank;
+    private Integer vectorRank;
+}
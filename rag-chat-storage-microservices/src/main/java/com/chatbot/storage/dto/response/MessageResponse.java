@@ -1,8 +1,11 @@
 package com.chatbot.storage.dto.response;
 
 import com.chatbot.storage.enums.MessageSender;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
 import java.util.Map;
@@ -14,11 +17,17 @@ import java.util.UUID;
  */
 @Data
 @Builder
+@NoArgsConstructor
+@AllArgsConstructor
 public class MessageResponse {
     private UUID id;
     private UUID sessionId;
     private MessageSender senderType;
+    // Left out of the summary view, which carries the snippet instead
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     private String content;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String snippet;
     private Map<String, Object> contextData;
     private Map<String, Object> metadata;
     private LocalDateTime createdAt;
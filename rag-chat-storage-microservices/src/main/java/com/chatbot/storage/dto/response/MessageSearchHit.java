@@ -0,0 +1,24 @@
+package com.chatbot.storage.dto.response;
+
+import com.chatbot.storage.enums.MessageSender;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ *
+ * The type Message search hit.
+ */
+@Data
+@Builder
+public class MessageSearchHit {
+    private UUID messageId;
+    private UUID sessionId;
+    private MessageSender senderType;
+    // Matching fragments with the terms wrapped in <mark></mark>
+    private String highlight;
+    private float rank;
+    private LocalDateTime createdAt;
+}
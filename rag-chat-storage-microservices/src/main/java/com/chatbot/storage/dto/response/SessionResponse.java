@@ -4,6 +4,7 @@ import com.chatbot.storage.enums.SessionStatus;
 import lombok.Builder;
 import lombok.Data;
 
+import java.io.Serializable;
 import java.time.LocalDateTime;
 import java.util.UUID;
 
@@ -13,7 +14,11 @@ import java.util.UUID;
  */
 @Data
 @Builder
-public class SessionResponse {
+public class SessionResponse implements Serializable {
+
+    // Cached in Redis by the JDK serializer of the session caches
+    private static final long serialVersionUID = 1L;
+
     private UUID id;
     private String userId;
     private String sessionName;
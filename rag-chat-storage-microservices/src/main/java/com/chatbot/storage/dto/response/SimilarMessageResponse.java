@@ -0,0 +1,16 @@
+package com.chatbot.storage.dto.response;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ *
+ * The type Similar message response.
+ */
+@Data
+@Builder
+public class SimilarMessageResponse {
+    private MessageResponse message;
+    // Cosine similarity to the query, higher is closer
+    private float score;
+}
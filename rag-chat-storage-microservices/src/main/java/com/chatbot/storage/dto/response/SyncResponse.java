@@ -0,0 +1,28 @@
+package com.chatbot.storage.dto.response;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ *
+ * The type Sync response. Changes of a user since a cursor: the current state of every
+ * created or updated session and message, and the ids of deleted ones. Sessions whose
+ * messages changed are included too, as their counters moved. Pass {@code nextCursor}
+ * back to get the following changes.
+ */
+@Data
+@Builder
+public class SyncResponse {
+    private List<SessionResponse> sessions;
+    private List<MessageResponse> messages;
+    private List<UUID> deletedSessionIds;
+    private List<UUID> deletedMessageIds;
+    private String nextCursor;
+    // More changes are ready; request them right away instead of waiting for the next poll
+    private boolean hasMore;
+    // The cursor could not be served: drop the local copy, reload it, then sync from nextCursor
+    private boolean reset;
+}
@@ -7,6 +7,8 @@ import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
 import lombok.experimental.SuperBuilder;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.type.SqlTypes;
 
@@ -19,10 +21,10 @@ import java.util.Map;
 @EqualsAndHashCode(callSuper = true)
 @Entity
 @Table(name = "chat_messages", indexes = {
-        @Index(name = "idx_session_id", columnList = "session_id"),
-        @Index(name = "idx_sender_type", columnList = "senderType"),
-        @Index(name = "idx_created_at", columnList = "created_at")
+        @Index(name = "idx_session_created", columnList = "session_id, created_at"),
+        @Index(name = "idx_messages_created_id", columnList = "created_at, id")
 })
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Data
 @SuperBuilder
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
@@ -9,7 +9,9 @@ import lombok.experimental.SuperBuilder;
 import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.Cache;
 import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -23,7 +25,8 @@ import java.util.List;
 @Table(name = "chat_sessions", indexes = {
         @Index(name = "idx_user_id", columnList = "userId"),
         @Index(name = "idx_status", columnList = "status"),
-        @Index(name = "idx_favorite", columnList = "isFavorite")
+        @Index(name = "idx_favorite", columnList = "isFavorite"),
+        @Index(name = "idx_sessions_updated", columnList = "updatedAt, id")
 })
 @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Data
@@ -50,8 +53,24 @@ public class ChatSession extends BaseEntity {
     @Column(name = "description", length = 500)
     private String description;
 
+    // Maintained by SessionAggregateRepository; never written through the entity
+    @Column(name = "message_count", nullable = false, insertable = false, updatable = false)
+    @ColumnDefault("0")
+    @Builder.Default
+    private Long messageCount = 0L;
+
+    @Column(name = "last_message_at", insertable = false, updatable = false)
+    private LocalDateTime lastMessageAt;
+
+    // Bumped by SessionAggregateRepository whenever messages are added or removed
+    @Column(name = "message_version", nullable = false, insertable = false, updatable = false)
+    @ColumnDefault("0")
+    @Builder.Default
+    private Long messageVersion = 0L;
+
     @OneToMany(mappedBy = "session", cascade = CascadeType.ALL, fetch = FetchType.LAZY, orphanRemoval = true)
     @BatchSize(size = 20)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     @Builder.Default
     private List<ChatMessage> messages = new ArrayList<>();
 
@@ -0,0 +1,43 @@
+package com.chatbot.storage.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ *
+ * A retrieved RAG chunk stored once and keyed by the SHA-256 of its canonical JSON.
+ * Rows are immutable once written; ContextChunkCollector deletes the ones nothing references.
+ */
+@Entity
+@Immutable
+@Table(name = "context_chunks")
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class ContextChunk {
+
+    @Id
+    @Column(name = "hash", length = 64)
+    private String hash;
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "payload", nullable = false, columnDefinition = "jsonb")
+    private Map<String, Object> payload;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
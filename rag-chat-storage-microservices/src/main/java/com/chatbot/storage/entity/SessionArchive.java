@@ -0,0 +1,45 @@
+package com.chatbot.storage.entity;
+
+import jakarta.persistence.*;
+import lombok.AccessLevel;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.experimental.SuperBuilder;
+
+import java.util.UUID;
+
+/**
+ *
+ * Pointer to the compressed, archived messages of a cold chat session.
+ */
+@EqualsAndHashCode(callSuper = true)
+@Entity
+@Table(name = "session_archives")
+@Data
+@SuperBuilder
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class SessionArchive extends BaseEntity {
+
+    @Column(name = "session_id", nullable = false, unique = true)
+    private UUID sessionId;
+
+    @Column(name = "segment", nullable = false, length = 255)
+    private String segment;
+
+    @Column(name = "segment_offset", nullable = false)
+    private Long segmentOffset;
+
+    @Column(name = "length", nullable = false)
+    private Integer length;
+
+    @Column(name = "checksum", nullable = false)
+    private Long checksum;
+
+    @Column(name = "message_count", nullable = false)
+    private Long messageCount;
+
+    // Whether session_archive_chunks holds the chunk references inside the blob
+    @Column(name = "chunks_indexed", nullable = false)
+    private Boolean chunksIndexed;
+}
@@ -0,0 +1,23 @@
+package com.chatbot.storage.enums;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ *
+ * The enum Jsonb field. Only columns backed by a GIN jsonb_path_ops index are listed.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum JsonbField {
+    /**
+     * Context data jsonb field.
+     */
+    CONTEXT_DATA("context_data"),
+    /**
+     * Metadata jsonb field.
+     */
+    METADATA("metadata");
+
+    private final String column;
+}
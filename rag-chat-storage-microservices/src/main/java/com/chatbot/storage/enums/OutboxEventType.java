@@ -0,0 +1,28 @@
+package com.chatbot.storage.enums;
+
+/**
+ *
+ * The enum Outbox event type.
+ */
+public enum OutboxEventType {
+    /**
+     * A message was stored.
+     */
+    MESSAGE_CREATED,
+    /**
+     * A message was deleted.
+     */
+    MESSAGE_DELETED,
+    /**
+     * A session was created.
+     */
+    SESSION_CREATED,
+    /**
+     * A session was renamed, described or (un)favorited.
+     */
+    SESSION_UPDATED,
+    /**
+     * A session was marked as deleted.
+     */
+    SESSION_DELETED
+}
@@ -0,0 +1,37 @@
+package com.chatbot.storage.enums;
+
+import com.chatbot.storage.exception.ValidationException;
+
+import java.util.Locale;
+
+/**
+ *
+ * The enum Response view. Selects how much of each message a list endpoint loads and returns.
+ */
+public enum ResponseView {
+    /**
+     * Every field, including the content and the JSONB context data and metadata.
+     */
+    FULL,
+    /**
+     * Ids, sender, timestamp and a snippet of the content; the JSONB columns are not read.
+     */
+    SUMMARY;
+
+    /**
+     * Parse a view name, case-insensitively; no name means the full view.
+     *
+     * @param view the view name, may be null
+     * @return the response view
+     */
+    public static ResponseView fromString(String view) {
+        if (view == null || view.isBlank()) {
+            return FULL;
+        }
+        try {
+            return valueOf(view.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("Unknown view '" + view + "', expected full or summary");
+        }
+    }
+}
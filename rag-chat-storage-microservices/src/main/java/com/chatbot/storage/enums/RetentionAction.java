@@ -0,0 +1,16 @@
+package com.chatbot.storage.enums;
+
+/**
+ *
+ * The enum Retention action.
+ */
+public enum RetentionAction {
+    /**
+     * Delete expired messages, then sessions left without messages.
+     */
+    DELETE,
+    /**
+     * Move expired sessions into the archive tier.
+     */
+    ARCHIVE
+}
@@ -0,0 +1,16 @@
+package com.chatbot.storage.enums;
+
+/**
+ *
+ * The enum Sync entity type.
+ */
+public enum SyncEntityType {
+    /**
+     * A chat session.
+     */
+    SESSION,
+    /**
+     * A chat message.
+     */
+    MESSAGE
+}
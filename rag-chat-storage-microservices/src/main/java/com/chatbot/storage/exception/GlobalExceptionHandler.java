@@ -2,6 +2,7 @@ package com.chatbot.storage.exception;
 
 import com.chatbot.storage.dto.response.ApiResponse;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -48,6 +49,48 @@ public class GlobalExceptionHandler {
                 .body(ApiResponse.error(ex.getMessage(), ERROR_VALIDATION_FAILED));
     }
 
+    /**
+     * Handle shard move in progress response entity.
+     *
+     * @param ex the ex
+     * @return the response entity
+     */
+    @ExceptionHandler(ShardMoveInProgressException.class)
+    public ResponseEntity<ApiResponse<Void>> handleShardMoveInProgress(ShardMoveInProgressException ex) {
+        log.warn("Write refused: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, SHARD_MOVE_RETRY_AFTER_SECONDS)
+                .body(ApiResponse.error(ex.getMessage(), ERROR_SHARD_MOVE_IN_PROGRESS));
+    }
+
+    /**
+     * Handle stream limit exceeded response entity.
+     *
+     * @param ex the ex
+     * @return the response entity
+     */
+    @ExceptionHandler(StreamLimitExceededException.class)
+    public ResponseEntity<ApiResponse<Void>> handleStreamLimitExceeded(StreamLimitExceededException ex) {
+        log.warn("Stream refused: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, STREAM_LIMIT_RETRY_AFTER_SECONDS)
+                .body(ApiResponse.error(ex.getMessage(), ERROR_TOO_MANY_STREAMS));
+    }
+
+    /**
+     * Handle idempotent request in progress response entity.
+     *
+     * @param ex the ex
+     * @return the response entity
+     */
+    @ExceptionHandler(IdempotentRequestInProgressException.class)
+    public ResponseEntity<ApiResponse<Void>> handleIdempotentRequestInProgress(IdempotentRequestInProgressException ex) {
+        log.warn("Retry refused: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .header(HttpHeaders.RETRY_AFTER, IDEMPOTENT_REQUEST_RETRY_AFTER_SECONDS)
+                .body(ApiResponse.error(ex.getMessage(), ERROR_REQUEST_IN_PROGRESS));
+    }
+
     /**
      * Handle method argument not valid response entity.
      *
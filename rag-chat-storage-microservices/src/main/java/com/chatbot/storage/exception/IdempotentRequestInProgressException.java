@@ -0,0 +1,16 @@
+package com.chatbot.storage.exception;
+
+/**
+ *
+ * Thrown for a retry whose original request is still being processed.
+ */
+public class IdempotentRequestInProgressException extends RuntimeException {
+    /**
+     * Instantiates a new Idempotent request in progress exception.
+     *
+     * @param message the message
+     */
+    public IdempotentRequestInProgressException(String message) {
+        super(message);
+    }
+}
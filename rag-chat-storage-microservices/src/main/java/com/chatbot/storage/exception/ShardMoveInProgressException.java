@@ -0,0 +1,16 @@
+package com.chatbot.storage.exception;
+
+/**
+ *
+ * Thrown for writes of a user whose data is being moved to another shard.
+ */
+public class ShardMoveInProgressException extends RuntimeException {
+    /**
+     * Instantiates a new Shard move in progress exception.
+     *
+     * @param message the message
+     */
+    public ShardMoveInProgressException(String message) {
+        super(message);
+    }
+}
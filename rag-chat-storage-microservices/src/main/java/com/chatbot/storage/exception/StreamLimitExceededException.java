@@ -0,0 +1,16 @@
+package com.chatbot.storage.exception;
+
+/**
+ *
+ * Thrown when an instance already holds as many message streams as it is configured for.
+ */
+public class StreamLimitExceededException extends RuntimeException {
+    /**
+     * Instantiates a new Stream limit exceeded exception.
+     *
+     * @param message the message
+     */
+    public StreamLimitExceededException(String message) {
+        super(message);
+    }
+}
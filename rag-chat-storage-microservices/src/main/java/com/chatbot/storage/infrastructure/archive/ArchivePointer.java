@@ -0,0 +1,7 @@
+package com.chatbot.storage.infrastructure.archive;
+
+/**
+ *
+ * Location of one archived blob inside a segment.
+ */
+public record ArchivePointer(String segment, long offset, int length) {}
@@ -0,0 +1,116 @@
+package com.chatbot.storage.infrastructure.archive;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ *
+ * Releases the segment blobs of archives that go away. A blob may only be released once
+ * the row pointing at it is gone for good, so jobs deleting sessions look the pointers up
+ * first and release them after the delete; inside a transaction the release waits for the
+ * outcome. The chunk references of an archive go with its row, see ContextChunkCollector.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ArchiveReclaimer {
+
+    private static final String SELECT_POINTERS_SQL =
+            "SELECT session_id, segment, segment_offset, length FROM session_archives WHERE session_id IN (";
+
+    private final ArchiveSegmentStore segmentStore;
+    private final JdbcTemplate jdbcTemplate;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Find the archive pointers of the sessions on the current shard.
+     *
+     * @param sessionIds the session ids
+     * @return the pointers by session id, without the sessions that are not archived
+     */
+    public Map<UUID, ArchivePointer> findPointers(Collection<UUID> sessionIds) {
+        Map<UUID, ArchivePointer> pointers = new HashMap<>();
+        if (sessionIds.isEmpty()) {
+            return pointers;
+        }
+        String sql = SELECT_POINTERS_SQL + String.join(", ", Collections.nCopies(sessionIds.size(), "?")) + ")";
+        jdbcTemplate.query(sql, (RowCallbackHandler) rs -> pointers.put(rs.getObject("session_id", UUID.class),
+                new ArchivePointer(rs.getString("segment"), rs.getLong("segment_offset"), rs.getInt("length"))),
+                sessionIds.toArray());
+        return pointers;
+    }
+
+    /**
+     * Release blobs whose pointer rows were deleted. A blob that cannot be released is only
+     * logged; compaction still reclaims it when it rewrites the rest of its segment.
+     *
+     * @param pointers the pointers
+     * @return the number of released blobs
+     */
+    public int release(Collection<ArchivePointer> pointers) {
+        int released = 0;
+        for (ArchivePointer pointer : pointers) {
+            try {
+                segmentStore.delete(pointer);
+                released++;
+            } catch (IOException e) {
+                meterRegistry.counter("ragchat.archive.release.failures").increment();
+                log.warn("Failed to release archive blob at {}:{}", pointer.segment(), pointer.offset(), e);
+            }
+        }
+        meterRegistry.counter("ragchat.archive.blobs.released").increment(released);
+        return released;
+    }
+
+    /**
+     * Release the blob once the current transaction commits, or right away without one.
+     *
+     * @param pointer the pointer
+     */
+    public void releaseAfterCommit(ArchivePointer pointer) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            release(List.of(pointer));
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                release(List.of(pointer));
+            }
+        });
+    }
+
+    /**
+     * Release a freshly appended blob if the current transaction rolls back, since no row
+     * will ever point at it then.
+     *
+     * @param pointer the pointer
+     */
+    public void releaseOnRollback(ArchivePointer pointer) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    release(List.of(pointer));
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,7 @@
+package com.chatbot.storage.infrastructure.archive;
+
+/**
+ *
+ * A sealed archive segment and how many of its bytes belong to released blobs.
+ */
+public record ArchiveSegment(String name, long size, long releasedBytes) {}
@@ -0,0 +1,146 @@
+package com.chatbot.storage.infrastructure.archive;
+
+import com.chatbot.storage.config.properties.ArchiveProperties;
+import com.chatbot.storage.infrastructure.sharding.ShardRouter;
+import com.chatbot.storage.infrastructure.sharding.ShardRoutingContext;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ *
+ * Reclaims the space of released archive blobs. A sealed segment no archive points at
+ * any more is deleted. One that is mostly released has its live blobs copied into the
+ * current segment and their pointers moved, so that a later run deletes it; readers that
+ * still hold an old pointer get the time in between. Pointers are looked up on every
+ * shard, since the archives of a moved user keep their blobs.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "app.archive", name = "compaction-enabled", havingValue = "true", matchIfMissing = true)
+public class ArchiveSegmentCompactor {
+
+    private static final String COUNT_POINTERS_SQL = "SELECT COUNT(*) FROM session_archives WHERE segment = ?";
+    private static final String SELECT_POINTERS_SQL =
+            "SELECT id, segment_offset, length FROM session_archives " +
+            "WHERE segment = ? AND id > ? ORDER BY id LIMIT ?";
+    private static final String MOVE_POINTER_SQL =
+            "UPDATE session_archives SET segment = ?, segment_offset = ?, updated_at = ? " +
+            "WHERE id = ? AND segment = ? AND segment_offset = ?";
+
+    private final ArchiveSegmentStore segmentStore;
+    private final JdbcTemplate jdbcTemplate;
+    private final ShardRouter shardRouter;
+    private final ArchiveProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    private record LiveBlob(UUID archiveId, ArchivePointer pointer) {
+    }
+
+    /**
+     * Delete unreferenced sealed segments and move the live blobs out of mostly released ones.
+     */
+    @Scheduled(cron = "${app.archive.compaction-cron:0 30 5 * * *}")
+    public void compactSegments() {
+        List<ArchiveSegment> segments;
+        try {
+            segments = segmentStore.listSealedSegments();
+        } catch (IOException e) {
+            log.error("Failed to list archive segments", e);
+            return;
+        }
+
+        for (ArchiveSegment segment : segments) {
+            try {
+                compact(segment);
+            } catch (IOException | RuntimeException e) {
+                log.error("Failed to compact archive segment {}", segment.name(), e);
+            }
+        }
+    }
+
+    // ---------- Helper Methods ----------
+
+    private void compact(ArchiveSegment segment) throws IOException {
+        if (countPointers(segment.name()) == 0) {
+            segmentStore.deleteSegment(segment.name());
+            meterRegistry.counter("ragchat.archive.segments.deleted").increment();
+            meterRegistry.counter("ragchat.archive.bytes.reclaimed").increment(segment.size());
+            return;
+        }
+        if (segment.releasedBytes() < segment.size() * properties.getCompactionMinReleasedRatio()) {
+            return;
+        }
+
+        AtomicLong moved = new AtomicLong();
+        shardRouter.forEachShard(() -> moved.addAndGet(moveLiveBlobs(segment.name())));
+        meterRegistry.counter("ragchat.archive.blobs.moved").increment(moved.get());
+        log.info("Moved {} live blobs out of archive segment {} ({} of {} bytes released)",
+                moved.get(), segment.name(), segment.releasedBytes(), segment.size());
+    }
+
+    private long countPointers(String segment) {
+        if (!shardRouter.isEnabled()) {
+            return countPointersOnShard(segment);
+        }
+        // Unlike forEachShard, a shard that cannot be asked fails the count instead of adding nothing
+        long referenced = 0;
+        for (String shard : shardRouter.getShardNames()) {
+            referenced += ShardRoutingContext.callOn(shard, () -> countPointersOnShard(segment));
+        }
+        return referenced;
+    }
+
+    private long countPointersOnShard(String segment) {
+        Long count = jdbcTemplate.queryForObject(COUNT_POINTERS_SQL, Long.class, segment);
+        return count != null ? count : 0;
+    }
+
+    private long moveLiveBlobs(String segment) {
+        long moved = 0;
+        UUID lastId = new UUID(0, 0);
+        while (true) {
+            List<LiveBlob> batch = jdbcTemplate.query(SELECT_POINTERS_SQL, (rs, rowNum) -> new LiveBlob(
+                            rs.getObject("id", UUID.class),
+                            new ArchivePointer(segment, rs.getLong("segment_offset"), rs.getInt("length"))),
+                    segment, lastId, properties.getCompactionBatchSize());
+            if (batch.isEmpty()) {
+                return moved;
+            }
+            for (LiveBlob blob : batch) {
+                if (move(blob)) {
+                    moved++;
+                }
+            }
+            lastId = batch.get(batch.size() - 1).archiveId();
+        }
+    }
+
+    private boolean move(LiveBlob blob) {
+        ArchivePointer from = blob.pointer();
+        try {
+            byte[] payload = segmentStore.read(from);
+            ArchivePointer to = segmentStore.append(out -> out.write(payload));
+            // Only a pointer still at the old place moves; one rehydrated meanwhile leaves the copy unused
+            int updated = jdbcTemplate.update(MOVE_POINTER_SQL, to.segment(), to.offset(),
+                    Timestamp.valueOf(LocalDateTime.now()), blob.archiveId(), from.segment(), from.offset());
+            segmentStore.delete(updated == 1 ? from : to);
+            return updated == 1;
+        } catch (IOException e) {
+            log.warn("Failed to move archive blob {} out of segment {}", blob.archiveId(), from.segment(), e);
+            return false;
+        }
+    }
+}
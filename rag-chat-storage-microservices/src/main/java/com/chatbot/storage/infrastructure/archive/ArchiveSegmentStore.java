@@ -0,0 +1,74 @@
+package com.chatbot.storage.infrastructure.archive;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ *
+ * Append-only blob storage for archived sessions. Implementations may be backed
+ * by local segment files or an object store. Released blobs are reclaimed by
+ * compacting the segments holding them, see ArchiveSegmentCompactor.
+ */
+public interface ArchiveSegmentStore {
+
+    /**
+     * Append a blob produced by the writer and return where it was written. The blob is
+     * streamed into storage as the writer produces it, so it never has to fit in memory.
+     * It must be durable once this method returns; if the writer fails, nothing is kept.
+     *
+     * @param writer the writer of the blob
+     * @return the archive pointer
+     * @throws IOException the io exception
+     */
+    ArchivePointer append(BlobWriter writer) throws IOException;
+
+    /**
+     * Read a previously appended blob.
+     *
+     * @param pointer the pointer
+     * @return the payload
+     * @throws IOException the io exception
+     */
+    byte[] read(ArchivePointer pointer) throws IOException;
+
+    /**
+     * Release a blob nothing references any more. Its bytes are reclaimed once the
+     * segment holding it is compacted; releasing a blob twice is harmless.
+     *
+     * @param pointer the pointer
+     * @throws IOException the io exception
+     */
+    void delete(ArchivePointer pointer) throws IOException;
+
+    /**
+     * List the segments no blob will be appended to any more.
+     *
+     * @return the sealed segments
+     * @throws IOException the io exception
+     */
+    List<ArchiveSegment> listSealedSegments() throws IOException;
+
+    /**
+     * Remove a sealed segment. Only call it once no pointer refers to the segment.
+     *
+     * @param segment the segment name
+     * @throws IOException the io exception
+     */
+    void deleteSegment(String segment) throws IOException;
+
+    /**
+     * Writes one blob. The stream may be closed by the writer; that does not end the segment.
+     */
+    @FunctionalInterface
+    interface BlobWriter {
+
+        /**
+         * Write the blob.
+         *
+         * @param out the stream to write to
+         * @throws IOException the io exception
+         */
+        void writeTo(OutputStream out) throws IOException;
+    }
+}
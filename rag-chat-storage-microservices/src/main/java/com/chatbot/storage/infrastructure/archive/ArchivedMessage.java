@@ -0,0 +1,22 @@
+package com.chatbot.storage.infrastructure.archive;
+
+import com.chatbot.storage.enums.MessageSender;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ *
+ * The serialized form of a chat message inside an archive segment.
+ */
+public record ArchivedMessage(
+        UUID id,
+        MessageSender senderType,
+        String content,
+        Map<String, Object> contextData,
+        Map<String, Object> metadata,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt,
+        Long version
+) {}
@@ -0,0 +1,218 @@
+package com.chatbot.storage.infrastructure.archive;
+
+import com.chatbot.storage.config.properties.ArchiveProperties;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.EOFException;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ *
+ * Archive segment store writing to rolling append-only files on local disk. Blobs are
+ * streamed straight into the current segment, which is rolled once it reaches the size
+ * or age limit; a single blob may therefore take a segment past it. Released blobs are
+ * recorded in a sidecar file next to their segment.
+ */
+@Slf4j
+@Component
+public class LocalFileArchiveSegmentStore implements ArchiveSegmentStore {
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final String RELEASED_SUFFIX = ".released";
+    // offset (long) and length (int) of one released blob
+    private static final int RELEASE_RECORD_BYTES = Long.BYTES + Integer.BYTES;
+    private static final int WRITE_BUFFER_BYTES = 64 * 1024;
+
+    private final Path directory;
+    private final long segmentMaxBytes;
+    private final long segmentMaxAgeMillis;
+    private FileChannel currentChannel;
+    private String currentSegment;
+    private long currentOpenedAt;
+
+    public LocalFileArchiveSegmentStore(ArchiveProperties properties) {
+        this.directory = Paths.get(properties.getDirectory());
+        this.segmentMaxBytes = properties.getSegmentMaxBytes();
+        this.segmentMaxAgeMillis = properties.getSegmentMaxAge().toMillis();
+    }
+
+    @Override
+    public synchronized ArchivePointer append(BlobWriter writer) throws IOException {
+        if (currentChannel == null || currentChannel.size() >= segmentMaxBytes
+                || System.currentTimeMillis() - currentOpenedAt >= segmentMaxAgeMillis) {
+            rollSegment();
+        }
+
+        long offset = currentChannel.size();
+        try {
+            SegmentOutputStream out = new SegmentOutputStream(currentChannel);
+            writer.writeTo(out);
+            out.flush();
+        } catch (IOException | RuntimeException e) {
+            // A partial blob must not sit in front of the next one
+            currentChannel.truncate(offset);
+            throw e;
+        }
+
+        long length = currentChannel.size() - offset;
+        if (length > Integer.MAX_VALUE) {
+            currentChannel.truncate(offset);
+            throw new IOException("Archive blob of " + length + " bytes exceeds the per-blob limit");
+        }
+        currentChannel.force(false);
+
+        return new ArchivePointer(currentSegment, offset, (int) length);
+    }
+
+    @Override
+    public byte[] read(ArchivePointer pointer) throws IOException {
+        Path segment = directory.resolve(pointer.segment());
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(pointer.length());
+            long position = pointer.offset();
+            while (buffer.hasRemaining()) {
+                int read = channel.read(buffer, position);
+                if (read < 0) {
+                    throw new EOFException("Archive segment " + pointer.segment() + " is truncated");
+                }
+                position += read;
+            }
+            return buffer.array();
+        }
+    }
+
+    @Override
+    public void delete(ArchivePointer pointer) throws IOException {
+        ByteBuffer record = ByteBuffer.allocate(RELEASE_RECORD_BYTES)
+                .putLong(pointer.offset())
+                .putInt(pointer.length())
+                .flip();
+        // A single append-mode write, so instances sharing the directory never interleave records
+        try (FileChannel channel = FileChannel.open(releasedFile(pointer.segment()),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            channel.write(record);
+        }
+    }
+
+    @Override
+    public List<ArchiveSegment> listSealedSegments() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+
+        // An instance appends to its segment for at most the max age; the same again
+        // covers a blob still being streamed and the transaction storing its pointer
+        long sealedBefore = System.currentTimeMillis() - 2 * segmentMaxAgeMillis;
+        List<ArchiveSegment> sealed = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(SEGMENT_SUFFIX) && !name.equals(currentSegment)
+                        && openedAt(name) < sealedBefore) {
+                    sealed.add(new ArchiveSegment(name, Files.size(file), releasedBytes(name)));
+                }
+            }
+        }
+        return sealed;
+    }
+
+    @Override
+    public synchronized void deleteSegment(String segment) throws IOException {
+        if (segment.equals(currentSegment)) {
+            throw new IllegalArgumentException("Archive segment " + segment + " is still being written");
+        }
+        Files.deleteIfExists(directory.resolve(segment));
+        Files.deleteIfExists(releasedFile(segment));
+        log.info("Deleted archive segment {}", segment);
+    }
+
+    // ---------- Helper Methods ----------
+
+    private void rollSegment() throws IOException {
+        closeCurrent();
+        Files.createDirectories(directory);
+
+        // Random suffix keeps names unique when several instances share the directory
+        currentOpenedAt = System.currentTimeMillis();
+        currentSegment = SEGMENT_PREFIX + currentOpenedAt + "-"
+                + UUID.randomUUID().toString().substring(0, 8) + SEGMENT_SUFFIX;
+        currentChannel = FileChannel.open(directory.resolve(currentSegment),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        log.info("Opened archive segment {}", currentSegment);
+    }
+
+    private Path releasedFile(String segment) {
+        return directory.resolve(segment + RELEASED_SUFFIX);
+    }
+
+    private long releasedBytes(String segment) throws IOException {
+        Path file = releasedFile(segment);
+        if (!Files.exists(file)) {
+            return 0;
+        }
+
+        // Keyed by offset, a blob released twice is only counted once
+        Map<Long, Integer> released = new HashMap<>();
+        ByteBuffer records = ByteBuffer.wrap(Files.readAllBytes(file));
+        while (records.remaining() >= RELEASE_RECORD_BYTES) {
+            released.put(records.getLong(), records.getInt());
+        }
+        return released.values().stream().mapToLong(Integer::longValue).sum();
+    }
+
+    private static long openedAt(String segment) {
+        try {
+            int start = SEGMENT_PREFIX.length();
+            return Long.parseLong(segment.substring(start, segment.indexOf('-', start)));
+        } catch (RuntimeException e) {
+            // Not a name this store wrote, never treat it as sealed
+            return Long.MAX_VALUE;
+        }
+    }
+
+    @PreDestroy
+    public synchronized void closeCurrent() throws IOException {
+        if (currentChannel != null) {
+            currentChannel.close();
+            currentChannel = null;
+        }
+    }
+
+    /**
+     * Buffers writes into the segment channel. Closing it only flushes, the channel stays open.
+     */
+    private static final class SegmentOutputStream extends FilterOutputStream {
+
+        SegmentOutputStream(FileChannel channel) {
+            super(new BufferedOutputStream(Channels.newOutputStream(channel), WRITE_BUFFER_BYTES));
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+}
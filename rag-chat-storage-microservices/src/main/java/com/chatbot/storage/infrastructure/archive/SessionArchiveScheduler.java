@@ -0,0 +1,55 @@
+package com.chatbot.storage.infrastructure.archive;
+
+import com.chatbot.storage.infrastructure.sharding.ShardRouter;
+import com.chatbot.storage.service.SessionArchiveService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ *
+ * Periodically moves inactive and ARCHIVED sessions into the archive tier.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "app.archive", name = "enabled", havingValue = "true")
+public class SessionArchiveScheduler {
+
+    private final SessionArchiveService sessionArchiveService;
+    private final ShardRouter shardRouter;
+
+    /**
+     * Archive inactive sessions of every shard, one transaction per session.
+     */
+    @Scheduled(cron = "${app.archive.cron:0 30 2 * * *}")
+    public void archiveInactiveSessions() {
+        shardRouter.forEachShard(this::archiveInactiveSessionsOnShard);
+    }
+
+    // ---------- Helper Methods ----------
+
+    private void archiveInactiveSessionsOnShard() {
+        List<UUID> candidates = sessionArchiveService.findArchivalCandidates();
+        int archived = 0;
+
+        for (UUID sessionId : candidates) {
+            try {
+                if (sessionArchiveService.archiveSession(sessionId)) {
+                    archived++;
+                }
+            } catch (RuntimeException e) {
+                log.error("Failed to archive session {}", sessionId, e);
+            }
+        }
+
+        if (!candidates.isEmpty()) {
+            log.info("Archived {} of {} candidate sessions", archived, candidates.size());
+        }
+    }
+}
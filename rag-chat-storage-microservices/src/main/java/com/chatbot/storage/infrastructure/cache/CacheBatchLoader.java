@@ -0,0 +1,159 @@
+package com.chatbot.storage.infrastructure.cache;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.support.NullValue;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.util.ByteUtils;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ *
+ * Reads many entries of a Spring cache at once. On a Redis cache the hits come from one
+ * MGET and the loaded misses are written back in one pipeline, using the cache's own key
+ * prefix, serializer and time to live, so the entries are shared with @Cacheable methods.
+ * Other caches are read entry by entry. When Redis is unavailable everything is loaded.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CacheBatchLoader {
+
+    private final CacheManager cacheManager;
+    private final RedisConnectionFactory redisConnectionFactory;
+
+    /**
+     * Get the values of many ids, loading the ones not cached.
+     *
+     * @param <K>       the id type
+     * @param <V>       the value type
+     * @param cacheName the cache name
+     * @param ids       the ids
+     * @param cacheKey  the cache key of an id, as the matching @Cacheable computes it
+     * @param type      the value type
+     * @param loader    loads the values of the missed ids; ids it does not return are left out
+     * @return the values by id
+     */
+    public <K, V> Map<K, V> getAll(String cacheName,
+                                   Collection<K> ids,
+                                   Function<K, String> cacheKey,
+                                   Class<V> type,
+                                   Function<Collection<K>, Map<K, V>> loader) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (ids.isEmpty() || cache == null) {
+            return ids.isEmpty() ? new HashMap<>() : new HashMap<>(loader.apply(ids));
+        }
+
+        Map<K, String> keys = new HashMap<>();
+        ids.forEach(id -> keys.put(id, cacheKey.apply(id)));
+
+        Map<K, V> values = cache instanceof RedisCache redisCache
+                ? multiGet(redisCache, keys, type)
+                : getEach(cache, keys, type);
+
+        List<K> misses = ids.stream().filter(id -> !values.containsKey(id)).toList();
+        if (!misses.isEmpty()) {
+            Map<K, V> loaded = loader.apply(misses);
+            values.putAll(loaded);
+
+            Map<String, V> entries = new HashMap<>();
+            loaded.forEach((id, value) -> entries.put(keys.get(id), value));
+            if (cache instanceof RedisCache redisCache) {
+                multiPut(redisCache, entries);
+            } else {
+                entries.forEach(cache::put);
+            }
+        }
+
+        log.debug("Cache {}: {} of {} entries hit", cacheName, ids.size() - misses.size(), ids.size());
+        return values;
+    }
+
+    // ---------- Helper Methods ----------
+
+    private <K, V> Map<K, V> multiGet(RedisCache cache, Map<K, String> keys, Class<V> type) {
+        RedisCacheConfiguration config = cache.getCacheConfiguration();
+        List<K> ids = new ArrayList<>(keys.keySet());
+        byte[][] redisKeys = ids.stream()
+                .map(id -> redisKey(cache, keys.get(id)))
+                .toArray(byte[][]::new);
+
+        Map<K, V> values = new HashMap<>();
+        List<byte[]> stored;
+        try (RedisConnection connection = redisConnectionFactory.getConnection()) {
+            stored = connection.stringCommands().mGet(redisKeys);
+        } catch (DataAccessException e) {
+            log.warn("Cache {} unavailable, loading all entries: {}", cache.getName(), e.getMessage());
+            return values;
+        }
+
+        for (int i = 0; stored != null && i < ids.size(); i++) {
+            byte[] bytes = stored.get(i);
+            if (bytes == null) {
+                continue;
+            }
+            Object value = config.getValueSerializationPair().read(ByteBuffer.wrap(bytes));
+            if (type.isInstance(value)) {
+                values.put(ids.get(i), type.cast(value));
+            }
+        }
+        return values;
+    }
+
+    private void multiPut(RedisCache cache, Map<String, ?> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        RedisCacheConfiguration config = cache.getCacheConfiguration();
+        try (RedisConnection connection = redisConnectionFactory.getConnection()) {
+            connection.openPipeline();
+            entries.forEach((key, value) -> {
+                Duration ttl = config.getTtlFunction().getTimeToLive(key, value);
+                Expiration expiration = ttl == null || ttl.isZero() || ttl.isNegative()
+                        ? Expiration.persistent()
+                        : Expiration.from(ttl);
+                connection.stringCommands().set(redisKey(cache, key),
+                        ByteUtils.getBytes(config.getValueSerializationPair().write(value)),
+                        expiration, RedisStringCommands.SetOption.upsert());
+            });
+            connection.closePipeline();
+        } catch (DataAccessException e) {
+            log.warn("Could not cache {} entries in {}: {}", entries.size(), cache.getName(), e.getMessage());
+        }
+    }
+
+    private <K, V> Map<K, V> getEach(Cache cache, Map<K, String> keys, Class<V> type) {
+        Map<K, V> values = new HashMap<>();
+        keys.forEach((id, key) -> {
+            Cache.ValueWrapper wrapper = cache.get(key);
+            Object value = wrapper == null ? null : wrapper.get();
+            if (value != null && !(value instanceof NullValue) && type.isInstance(value)) {
+                values.put(id, type.cast(value));
+            }
+        });
+        return values;
+    }
+
+    private byte[] redisKey(RedisCache cache, String key) {
+        RedisCacheConfiguration config = cache.getCacheConfiguration();
+        String prefixed = config.usePrefix() ? config.getKeyPrefixFor(cache.getName()) + key : key;
+        return ByteUtils.getBytes(config.getKeySerializationPair().write(prefixed));
+    }
+}
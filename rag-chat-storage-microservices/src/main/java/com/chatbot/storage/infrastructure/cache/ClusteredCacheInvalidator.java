@@ -0,0 +1,185 @@
+package com.chatbot.storage.infrastructure.cache;
+
+import com.chatbot.storage.config.properties.SecondLevelCacheProperties;
+import com.chatbot.storage.entity.ChatMessage;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Cache;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ *
+ * Keeps the in-process second-level caches of several instances coherent. Committed
+ * updates and deletes of cached entities are published on a Redis channel, and every
+ * other instance evicts the matching entry. Inserted or deleted messages also evict
+ * the owning session's messages collection.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "app.l2cache", name = "cluster-invalidation", havingValue = "true")
+public class ClusteredCacheInvalidator implements PostCommitInsertEventListener, PostCommitUpdateEventListener,
+        PostCommitDeleteEventListener, MessageListener {
+
+    private static final String SEPARATOR = "|";
+    private static final String ENTITY = "E";
+    private static final String ENTITY_REGION = "R";
+    private static final String SESSION_MESSAGES = "C";
+    private static final String ALL_MESSAGES = "A";
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final SecondLevelCacheProperties properties;
+
+    /**
+     * Register with Hibernate and subscribe to the invalidation channel.
+     */
+    @PostConstruct
+    public void register() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, this);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+
+        listenerContainer.addMessageListener(this, new ChannelTopic(properties.getChannel()));
+        log.info("Second-level cache cluster invalidation enabled on channel {}", properties.getChannel());
+    }
+
+    /**
+     * Broadcast session messages.
+     *
+     * @param sessionId the session id
+     */
+    public void broadcastSessionMessages(UUID sessionId) {
+        publish(SESSION_MESSAGES, sessionId.toString());
+    }
+
+    /**
+     * Broadcast entity.
+     *
+     * @param entityName the entity name
+     * @param id         the id
+     */
+    public void broadcastEntity(String entityName, UUID id) {
+        publish(ENTITY, entityName, id.toString());
+    }
+
+    /**
+     * Broadcast entity region.
+     *
+     * @param entityName the entity name
+     */
+    public void broadcastEntityRegion(String entityName) {
+        publish(ENTITY_REGION, entityName);
+    }
+
+    /**
+     * Broadcast all messages.
+     */
+    public void broadcastAllMessages() {
+        publish(ALL_MESSAGES);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        broadcastOwningSession(event.getEntity());
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        publish(ENTITY, event.getPersister().getEntityName(), String.valueOf(event.getId()));
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        publish(ENTITY, event.getPersister().getEntityName(), String.valueOf(event.getId()));
+        broadcastOwningSession(event.getEntity());
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+        // Nothing was cached for a rolled back write
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+        // Nothing was cached for a rolled back write
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+        // Nothing was cached for a rolled back write
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return persister.canWriteToCache();
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\\" + SEPARATOR);
+        if (parts.length < 2 || nodeId.equals(parts[0])) {
+            return;
+        }
+
+        Cache cache = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getCache();
+        try {
+            switch (parts[1]) {
+                case ENTITY -> cache.evictEntityData(parts[2], UUID.fromString(parts[3]));
+                case ENTITY_REGION -> cache.evictEntityData(parts[2]);
+                case SESSION_MESSAGES ->
+                        SecondLevelCacheEvictor.evictSessionMessagesLocally(cache, UUID.fromString(parts[2]));
+                case ALL_MESSAGES -> SecondLevelCacheEvictor.evictAllMessagesLocally(cache);
+                default -> log.warn("Unknown cache invalidation message: {}", String.join(SEPARATOR, parts));
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to apply cache invalidation {}: {}", String.join(SEPARATOR, parts), e.getMessage());
+        }
+    }
+
+    // ---------- Helper Methods ----------
+
+    private void broadcastOwningSession(Object entity) {
+        if (entity instanceof ChatMessage message && message.getSession() != null) {
+            broadcastSessionMessages(message.getSession().getId());
+        }
+    }
+
+    private void publish(String... parts) {
+        String payload = nodeId + SEPARATOR + String.join(SEPARATOR, parts);
+        try {
+            redisTemplate.convertAndSend(properties.getChannel(), payload);
+        } catch (DataAccessException e) {
+            // Other instances fall back to the region expiry for this entry
+            log.warn("Failed to publish cache invalidation {}: {}", payload, e.getMessage());
+        }
+    }
+}
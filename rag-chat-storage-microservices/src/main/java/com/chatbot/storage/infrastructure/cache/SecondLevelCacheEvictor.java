@@ -0,0 +1,108 @@
+package com.chatbot.storage.infrastructure.cache;
+
+import com.chatbot.storage.entity.ChatMessage;
+import com.chatbot.storage.entity.ChatSession;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.UUID;
+
+/**
+ *
+ * Evicts message cache entries after writes that bypass Hibernate (JDBC batches, partition drops).
+ * Evictions run after commit, so concurrent readers cannot re-cache the old state,
+ * and are broadcast to the other instances when cluster invalidation is enabled.
+ */
+@Component
+@RequiredArgsConstructor
+public class SecondLevelCacheEvictor {
+
+    /**
+     * Region of the ChatSession.messages collection.
+     */
+    public static final String SESSION_MESSAGES_ROLE = ChatSession.class.getName() + ".messages";
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final ObjectProvider<ClusteredCacheInvalidator> clusteredInvalidator;
+
+    /**
+     * Evict the cached messages collection of a session.
+     *
+     * @param sessionId the session id
+     */
+    public void evictSessionMessages(UUID sessionId) {
+        afterCommit(() -> {
+            evictSessionMessagesLocally(cache(), sessionId);
+            clusteredInvalidator.ifAvailable(invalidator -> invalidator.broadcastSessionMessages(sessionId));
+        });
+    }
+
+    /**
+     * Evict a cached session together with its messages collection.
+     *
+     * @param sessionId the session id
+     */
+    public void evictSession(UUID sessionId) {
+        afterCommit(() -> {
+            Cache cache = cache();
+            cache.evictEntityData(ChatSession.class, sessionId);
+            evictSessionMessagesLocally(cache, sessionId);
+            clusteredInvalidator.ifAvailable(invalidator -> {
+                invalidator.broadcastEntity(ChatSession.class.getName(), sessionId);
+                invalidator.broadcastSessionMessages(sessionId);
+            });
+        });
+    }
+
+    /**
+     * Evict every cached session.
+     */
+    public void evictAllSessions() {
+        afterCommit(() -> {
+            cache().evictEntityData(ChatSession.class);
+            clusteredInvalidator.ifAvailable(invalidator -> invalidator.broadcastEntityRegion(ChatSession.class.getName()));
+        });
+    }
+
+    /**
+     * Evict every cached message and messages collection.
+     */
+    public void evictAllMessages() {
+        afterCommit(() -> {
+            evictAllMessagesLocally(cache());
+            clusteredInvalidator.ifAvailable(ClusteredCacheInvalidator::broadcastAllMessages);
+        });
+    }
+
+    static void evictSessionMessagesLocally(Cache cache, UUID sessionId) {
+        cache.evictCollectionData(SESSION_MESSAGES_ROLE, sessionId);
+    }
+
+    static void evictAllMessagesLocally(Cache cache) {
+        cache.evictEntityData(ChatMessage.class);
+        cache.evictCollectionData(SESSION_MESSAGES_ROLE);
+    }
+
+    private void afterCommit(Runnable eviction) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    eviction.run();
+                }
+            });
+        } else {
+            eviction.run();
+        }
+    }
+
+    private Cache cache() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getCache();
+    }
+}
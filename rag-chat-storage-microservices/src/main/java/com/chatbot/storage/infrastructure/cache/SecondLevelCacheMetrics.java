@@ -0,0 +1,35 @@
+package com.chatbot.storage.infrastructure.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+
+/**
+ *
+ * Exports hit, miss, put and eviction counts of every second-level cache region to Micrometer.
+ */
+@Component
+@RequiredArgsConstructor
+public class SecondLevelCacheMetrics implements MeterBinder {
+
+    private final CacheManager hibernateCacheManager;
+    // Regions are created while the session factory is built, so it has to exist before binding
+    private final EntityManagerFactory entityManagerFactory;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (String region : hibernateCacheManager.getCacheNames()) {
+            Cache<Object, Object> cache = hibernateCacheManager.getCache(region);
+            if (cache != null) {
+                JCacheMetrics.monitor(registry, cache, Tags.of("layer", "hibernate-l2"));
+            }
+        }
+    }
+}
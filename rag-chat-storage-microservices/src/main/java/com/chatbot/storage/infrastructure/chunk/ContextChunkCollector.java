@@ -0,0 +1,196 @@
+package com.chatbot.storage.infrastructure.chunk;
+
+import com.chatbot.storage.config.properties.ChunkDeduplicationProperties;
+import com.chatbot.storage.infrastructure.maintenance.ReplicationLagThrottle;
+import com.chatbot.storage.infrastructure.sharding.ShardRouter;
+import com.chatbot.storage.service.SessionArchiveService;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import static com.chatbot.storage.constants.AppConstants.CHUNK_REF_KEY;
+
+/**
+ *
+ * Deletes the context chunks nothing references any more, on every shard. A chunk neither
+ * a message nor an archive refers to is first marked orphaned, and deleted by a later run
+ * if that still holds after the grace period. Writers take a chunk back by upserting it and
+ * trust their cache for less than the grace period, so a chunk is never deleted under a
+ * message about to reference it. Archives written before their references were recorded
+ * are indexed first; nothing is deleted while any of them could not be.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "app.chunk-dedup", name = "gc-enabled", havingValue = "true")
+public class ContextChunkCollector {
+
+    private static final String SELECT_UNINDEXED_ARCHIVES_SQL =
+            "SELECT session_id FROM session_archives WHERE NOT chunks_indexed AND session_id > ? " +
+            "ORDER BY session_id LIMIT ?";
+    private static final String SELECT_CHUNKS_SQL =
+            "SELECT hash FROM context_chunks WHERE hash > ? ORDER BY hash LIMIT ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ReplicationLagThrottle throttle;
+    private final SessionArchiveService sessionArchiveService;
+    private final ChunkDeduplicationProperties properties;
+    private final ShardRouter shardRouter;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Validate that writers stop trusting their cache before a chunk can be deleted.
+     */
+    @PostConstruct
+    public void validateProperties() {
+        if (properties.getCacheTtl().compareTo(properties.getOrphanGracePeriod()) >= 0) {
+            throw new IllegalStateException("app.chunk-dedup.cache-ttl must be shorter than orphan-grace-period");
+        }
+    }
+
+    /**
+     * Collect unreferenced chunks on every shard.
+     */
+    @Scheduled(cron = "${app.chunk-dedup.gc-cron:0 0 5 * * *}")
+    public void collectChunks() {
+        shardRouter.forEachShard(this::collectChunksOnShard);
+    }
+
+    // ---------- Helper Methods ----------
+
+    private void collectChunksOnShard() {
+        try {
+            if (!indexArchives()) {
+                log.warn("Not all archives have their chunk references indexed, skipping chunk collection");
+                return;
+            }
+            collectUnreferencedChunks();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Context chunk collection interrupted");
+        }
+    }
+
+    /**
+     * Record the chunk references of archives written before they were recorded on archival.
+     *
+     * @return true if every archive is indexed
+     */
+    private boolean indexArchives() throws InterruptedException {
+        boolean complete = true;
+        UUID last = new UUID(0, 0);
+        while (true) {
+            List<UUID> batch = jdbcTemplate.queryForList(SELECT_UNINDEXED_ARCHIVES_SQL, UUID.class,
+                    last, properties.getGcBatchSize());
+            if (batch.isEmpty()) {
+                return complete;
+            }
+            if (!awaitReplicas()) {
+                return false;
+            }
+
+            for (UUID sessionId : batch) {
+                // One transaction per archive, as in the archive scheduler
+                try {
+                    sessionArchiveService.indexChunkReferences(sessionId);
+                } catch (RuntimeException e) {
+                    complete = false;
+                    log.error("Failed to index the chunk references of archived session {}", sessionId, e);
+                }
+            }
+            last = batch.get(batch.size() - 1);
+            pause();
+        }
+    }
+
+    private void collectUnreferencedChunks() throws InterruptedException {
+        LocalDateTime now = LocalDateTime.now();
+        Timestamp markedAt = Timestamp.valueOf(now);
+        Timestamp orphanedBefore = Timestamp.valueOf(now.minus(properties.getOrphanGracePeriod()));
+        String referenced = referencedCondition();
+        long deleted = 0;
+        long orphaned = 0;
+
+        String last = "";
+        while (true) {
+            List<String> batch = jdbcTemplate.queryForList(SELECT_CHUNKS_SQL, String.class,
+                    last, properties.getGcBatchSize());
+            if (batch.isEmpty()) {
+                break;
+            }
+            if (!awaitReplicas()) {
+                break;
+            }
+
+            String hashes = "c.hash IN (" + placeholders(batch.size()) + ")";
+            List<String> keys = properties.getChunkKeys();
+            // An upsert clearing orphaned_at meanwhile is seen by the row recheck and keeps the chunk
+            deleted += jdbcTemplate.update("DELETE FROM context_chunks c WHERE " + hashes +
+                    " AND c.orphaned_at < ? AND NOT " + referenced, args(batch, orphanedBefore, keys));
+            orphaned += jdbcTemplate.update("UPDATE context_chunks c SET orphaned_at = ? WHERE " + hashes +
+                    " AND c.orphaned_at IS NULL AND NOT " + referenced, args(markedAt, batch, keys));
+            jdbcTemplate.update("UPDATE context_chunks c SET orphaned_at = NULL WHERE " + hashes +
+                    " AND c.orphaned_at IS NOT NULL AND " + referenced, args(batch, keys));
+
+            last = batch.get(batch.size() - 1);
+            pause();
+        }
+
+        meterRegistry.counter("ragchat.chunks.deleted").increment(deleted);
+        if (deleted > 0 || orphaned > 0) {
+            log.info("Context chunk collection deleted {} chunks and marked {} as orphaned", deleted, orphaned);
+        }
+    }
+
+    /**
+     * Whether chunk c is referenced by an archive or by a message under any chunk key.
+     * Takes one parameter per chunk key.
+     */
+    private String referencedCondition() {
+        StringBuilder condition = new StringBuilder(
+                "(EXISTS (SELECT 1 FROM session_archive_chunks a WHERE a.hash = c.hash)");
+        for (int i = 0; i < properties.getChunkKeys().size(); i++) {
+            // Containment, so the jsonb_path_ops index on context_data is used
+            condition.append(" OR EXISTS (SELECT 1 FROM chat_messages m WHERE m.context_data @> ")
+                    .append("jsonb_build_object(?::text, jsonb_build_array(jsonb_build_object('")
+                    .append(CHUNK_REF_KEY).append("', c.hash))))");
+        }
+        return condition.append(")").toString();
+    }
+
+    private static Object[] args(Object... parts) {
+        List<Object> args = new ArrayList<>();
+        for (Object part : parts) {
+            if (part instanceof List<?> list) {
+                args.addAll(list);
+            } else {
+                args.add(part);
+            }
+        }
+        return args.toArray();
+    }
+
+    private boolean awaitReplicas() throws InterruptedException {
+        return throttle.awaitCatchUp(properties.getMaxReplicationLag(), properties.getMaxThrottleWait());
+    }
+
+    private void pause() throws InterruptedException {
+        Thread.sleep(properties.getPauseBetweenBatches().toMillis());
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+}
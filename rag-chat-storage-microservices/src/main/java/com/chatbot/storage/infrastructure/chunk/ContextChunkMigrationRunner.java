@@ -0,0 +1,113 @@
+package com.chatbot.storage.infrastructure.chunk;
+
+import com.chatbot.storage.config.properties.ChunkDeduplicationProperties;
+import com.chatbot.storage.infrastructure.cache.SecondLevelCacheEvictor;
+import com.chatbot.storage.service.ContextChunkService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ *
+ * One-off migration that rewrites the context data of existing messages to use
+ * chunk references. Walks chat_messages in keyset order, one transaction per batch,
+ * and is safe to re-run since references are left untouched.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "app.chunk-dedup", name = "migrate-on-startup", havingValue = "true")
+public class ContextChunkMigrationRunner implements ApplicationRunner {
+
+    private static final String SELECT_FIRST_BATCH_SQL =
+            "SELECT id, created_at, context_data::text AS context_data FROM chat_messages " +
+                    "WHERE context_data IS NOT NULL ORDER BY created_at, id LIMIT ?";
+    private static final String SELECT_NEXT_BATCH_SQL =
+            "SELECT id, created_at, context_data::text AS context_data FROM chat_messages " +
+                    "WHERE context_data IS NOT NULL AND (created_at, id) > (?, ?) ORDER BY created_at, id LIMIT ?";
+    private static final String UPDATE_SQL =
+            "UPDATE chat_messages SET context_data = ?::jsonb, version = version + 1 WHERE id = ? AND created_at = ?";
+    private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<>() {};
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ContextChunkService contextChunkService;
+    private final ChunkDeduplicationProperties properties;
+    private final ObjectMapper objectMapper;
+    private final SecondLevelCacheEvictor cacheEvictor;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!properties.isEnabled()) {
+            log.warn("Chunk deduplication is disabled, skipping context chunk migration");
+            return;
+        }
+
+        log.info("Starting context chunk migration");
+        Row last = null;
+        long scanned = 0;
+        long rewritten = 0;
+
+        while (true) {
+            List<Row> batch = fetchBatch(last);
+            if (batch.isEmpty()) {
+                break;
+            }
+
+            Integer updated = transactionTemplate.execute(status -> rewriteBatch(batch));
+            scanned += batch.size();
+            rewritten += updated != null ? updated : 0;
+            last = batch.get(batch.size() - 1);
+        }
+
+        cacheEvictor.evictAllMessages();
+        log.info("Context chunk migration finished: {} messages scanned, {} rewritten", scanned, rewritten);
+    }
+
+    private List<Row> fetchBatch(Row last) {
+        if (last == null) {
+            return jdbcTemplate.query(SELECT_FIRST_BATCH_SQL, this::mapRow, properties.getMigrationBatchSize());
+        }
+        return jdbcTemplate.query(SELECT_NEXT_BATCH_SQL, this::mapRow,
+                last.createdAt(), last.id(), properties.getMigrationBatchSize());
+    }
+
+    private int rewriteBatch(List<Row> batch) {
+        int updated = 0;
+        for (Row row : batch) {
+            try {
+                Map<String, Object> contextData = objectMapper.readValue(row.contextData(), MAP_TYPE);
+                Map<String, Object> deduplicated = contextChunkService.deduplicate(contextData);
+                if (!Objects.equals(contextData, deduplicated)) {
+                    updated += jdbcTemplate.update(UPDATE_SQL,
+                            objectMapper.writeValueAsString(deduplicated), row.id(), row.createdAt());
+                }
+            } catch (JsonProcessingException e) {
+                log.error("Skipping message {} with unreadable context data", row.id(), e);
+            }
+        }
+        return updated;
+    }
+
+    private Row mapRow(ResultSet rs, int rowNum) throws SQLException {
+        return new Row(rs.getObject("id", UUID.class), rs.getTimestamp("created_at"), rs.getString("context_data"));
+    }
+
+    private record Row(UUID id, Timestamp createdAt, String contextData) {}
+}
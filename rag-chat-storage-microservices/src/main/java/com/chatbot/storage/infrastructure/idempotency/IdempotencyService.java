@@ -0,0 +1,211 @@
+package com.chatbot.storage.infrastructure.idempotency;
+
+import com.chatbot.storage.config.properties.IdempotencyProperties;
+import com.chatbot.storage.exception.IdempotentRequestInProgressException;
+import com.chatbot.storage.exception.ValidationException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static com.chatbot.storage.constants.AppConstants.IDEMPOTENCY_KEY_MAX_LENGTH;
+import static com.chatbot.storage.constants.AppConstants.IDEMPOTENCY_KEY_PREFIX;
+
+/**
+ *
+ * Runs a request at most once per Idempotency-Key. The first request claims the key in
+ * Redis and stores its response when it succeeds; retries with the same key and payload
+ * get that response back, waiting for it while the first one still runs. A failed request
+ * releases its key so it can be retried. When Redis is unavailable requests run unguarded.
+ */
+@Slf4j
+@Component
+public class IdempotencyService {
+
+    private static final String IN_FLIGHT = "IN_FLIGHT";
+    private static final String COMPLETED = "COMPLETED";
+    // Releases the claim only while it is still the caller's; an expired claim may have been taken over
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('DEL', KEYS[1]) else return 0 end",
+            Long.class);
+    // Stores the response only over the caller's own claim, for the same reason
+    private static final RedisScript<Long> COMPLETE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then redis.call('SET', KEYS[1], ARGV[2], 'PX', ARGV[3]) " +
+            "return 1 else return 0 end",
+            Long.class);
+
+    private final IdempotencyProperties properties;
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Instantiates a new Idempotency service.
+     *
+     * @param properties    the properties
+     * @param redisTemplate the redis template
+     * @param objectMapper  the object mapper
+     */
+    public IdempotencyService(IdempotencyProperties properties,
+                              StringRedisTemplate redisTemplate,
+                              ObjectMapper objectMapper) {
+        this.properties = properties;
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * State of a key as stored in Redis.
+     *
+     * @param state       IN_FLIGHT or COMPLETED
+     * @param owner       the request holding an in-flight claim
+     * @param fingerprint the hash of the request payload the key was first used with
+     * @param response    the response as JSON, once completed
+     */
+    record StoredRequest(String state, String owner, String fingerprint, String response) {
+    }
+
+    /**
+     * Run an action once per key.
+     *
+     * @param <T>            the response type
+     * @param idempotencyKey the client's key; without one the action simply runs
+     * @param scope          the endpoint and user the key is valid for
+     * @param request        the request payload; a key reused with another payload is rejected
+     * @param responseType   the response type
+     * @param action         the action
+     * @return the action's response, or the stored response of an earlier request with the key
+     */
+    public <T> T execute(String idempotencyKey, String scope, Object request, Class<T> responseType, Supplier<T> action) {
+        if (!properties.isEnabled() || !StringUtils.hasText(idempotencyKey)) {
+            return action.get();
+        }
+        if (idempotencyKey.length() > IDEMPOTENCY_KEY_MAX_LENGTH) {
+            throw new ValidationException("Idempotency-Key must not exceed " + IDEMPOTENCY_KEY_MAX_LENGTH + " characters");
+        }
+
+        String key = IDEMPOTENCY_KEY_PREFIX + scope + ":" + idempotencyKey.trim();
+        String fingerprint = fingerprint(request);
+        StoredRequest claim;
+        try {
+            claim = claim(key, fingerprint);
+        } catch (DataAccessException e) {
+            log.warn("Idempotency store unavailable, processing request without it: {}", e.getMessage());
+            return action.get();
+        }
+        if (COMPLETED.equals(claim.state())) {
+            log.debug("Replaying stored response for {}", key);
+            return fromJson(claim.response(), responseType);
+        }
+
+        T response;
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            release(key, claim);
+            throw e;
+        }
+        complete(key, claim, response);
+        return response;
+    }
+
+    // ---------- Helper Methods ----------
+
+    /**
+     * Claims the key, or waits until the request holding it completed.
+     *
+     * @return the caller's in-flight claim, or the completed request
+     */
+    private StoredRequest claim(String key, String fingerprint) {
+        long deadline = System.nanoTime() + properties.getWaitTimeout().toNanos();
+        while (true) {
+            StoredRequest claim = new StoredRequest(IN_FLIGHT, UUID.randomUUID().toString(), fingerprint, null);
+            if (Boolean.TRUE.equals(redisTemplate.opsForValue()
+                    .setIfAbsent(key, toJson(claim), properties.getLockTimeout()))) {
+                return claim;
+            }
+
+            String stored = redisTemplate.opsForValue().get(key);
+            if (stored == null) {
+                // Released or expired in between
+                continue;
+            }
+            StoredRequest existing = fromJson(stored, StoredRequest.class);
+            if (!fingerprint.equals(existing.fingerprint())) {
+                throw new ValidationException("Idempotency-Key was already used for a different request");
+            }
+            if (COMPLETED.equals(existing.state())) {
+                return existing;
+            }
+            if (System.nanoTime() >= deadline) {
+                throw new IdempotentRequestInProgressException("A request with this Idempotency-Key is still being processed");
+            }
+            try {
+                Thread.sleep(properties.getPollInterval().toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IdempotentRequestInProgressException("Interrupted while waiting for the original request");
+            }
+        }
+    }
+
+    private void complete(String key, StoredRequest claim, Object response) {
+        try {
+            StoredRequest completed = new StoredRequest(COMPLETED, claim.owner(), claim.fingerprint(), toJson(response));
+            Long stored = redisTemplate.execute(COMPLETE_SCRIPT, List.of(key), toJson(claim), toJson(completed),
+                    String.valueOf(properties.getRetention().toMillis()));
+            if (!Long.valueOf(1L).equals(stored)) {
+                // The claim expired and another request took the key over; its record stays
+                log.warn("Claim on {} expired before the response was stored, not storing it", key);
+            }
+        } catch (DataAccessException | IllegalStateException e) {
+            // The response still goes out; a retry of it would run the request again
+            log.warn("Could not store response for {}: {}", key, e.getMessage());
+            release(key, claim);
+        }
+    }
+
+    private void release(String key, StoredRequest claim) {
+        try {
+            redisTemplate.execute(RELEASE_SCRIPT, List.of(key), toJson(claim));
+        } catch (DataAccessException e) {
+            log.warn("Could not release {}, it expires with the lock timeout: {}", key, e.getMessage());
+        }
+    }
+
+    private String fingerprint(Object request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(objectMapper.writeValueAsBytes(request)));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Failed to fingerprint request", e);
+        }
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize idempotent response", e);
+        }
+    }
+
+    private <T> T fromJson(String json, Class<T> type) {
+        try {
+            return objectMapper.readValue(json, type);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to read stored idempotent response", e);
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.chatbot.storage.infrastructure.jsonb;
+
+import com.chatbot.storage.enums.JsonbField;
+import com.chatbot.storage.exception.ValidationException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ *
+ * The type Jsonb filter.
+ * Every predicate is compiled into a single containment document per column, so the
+ * query can only ever be {@code column @> document} and is always served by the
+ * GIN jsonb_path_ops indexes. Filters that such an index cannot narrow down
+ * (no predicate, empty objects or arrays) are rejected instead of falling back to a scan.
+ */
+public final class JsonbFilter {
+
+    private static final Pattern PATH_SEGMENT = Pattern.compile("[A-Za-z0-9_$-]+(\\[])?");
+    private static final String ARRAY_SUFFIX = "[]";
+    private static final int MAX_PATH_DEPTH = 6;
+
+    private final Map<JsonbField, Map<String, Object>> documents;
+
+    private JsonbFilter(Map<JsonbField, Map<String, Object>> documents) {
+        this.documents = Collections.unmodifiableMap(documents);
+    }
+
+    /**
+     * Builder jsonb filter builder.
+     *
+     * @return the builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Gets the containment document per column.
+     *
+     * @return the documents
+     */
+    public Map<JsonbField, Map<String, Object>> getDocuments() {
+        return documents;
+    }
+
+    /**
+     * The type Builder.
+     */
+    public static final class Builder {
+
+        private final Map<JsonbField, Map<String, Object>> documents = new EnumMap<>(JsonbField.class);
+
+        private Builder() {
+        }
+
+        /**
+         * Requires the column to contain the given document.
+         *
+         * @param field    the field
+         * @param document the document
+         * @return the builder
+         */
+        public Builder contains(JsonbField field, Map<String, Object> document) {
+            if (document != null) {
+                requireNarrowing(document, field.name());
+                merge(target(field), document, field.name());
+            }
+            return this;
+        }
+
+        /**
+         * Requires the value at the path to equal the given value.
+         *
+         * @param field the field
+         * @param path  dot separated keys, {@code []} after a key matches any array element
+         * @param value the value
+         * @return the builder
+         */
+        public Builder where(JsonbField field, String path, Object value) {
+            String[] segments = path == null ? new String[0] : path.split("\\.", -1);
+            if (segments.length == 0 || segments.length > MAX_PATH_DEPTH) {
+                throw new ValidationException("Invalid filter path: " + path);
+            }
+
+            Object node = value;
+            for (int i = segments.length - 1; i >= 0; i--) {
+                String segment = segments[i];
+                if (!PATH_SEGMENT.matcher(segment).matches()) {
+                    throw new ValidationException("Invalid filter path: " + path);
+                }
+                if (segment.endsWith(ARRAY_SUFFIX)) {
+                    node = List.of(node);
+                    segment = segment.substring(0, segment.length() - ARRAY_SUFFIX.length());
+                }
+                Map<String, Object> wrapper = new LinkedHashMap<>();
+                wrapper.put(segment, node);
+                node = wrapper;
+            }
+
+            @SuppressWarnings("unchecked")
+            Map<String, Object> document = (Map<String, Object>) node;
+            return contains(field, document);
+        }
+
+        /**
+         * Build jsonb filter.
+         *
+         * @return the jsonb filter
+         */
+        public JsonbFilter build() {
+            if (documents.isEmpty()) {
+                throw new ValidationException("At least one contextData or metadata filter is required");
+            }
+            return new JsonbFilter(new EnumMap<>(documents));
+        }
+
+        // ---------- Helper Methods ----------
+
+        private Map<String, Object> target(JsonbField field) {
+            return documents.computeIfAbsent(field, key -> new LinkedHashMap<>());
+        }
+
+        // Objects merge key by key and arrays concatenate, which is exactly AND under @>
+        @SuppressWarnings("unchecked")
+        private static void merge(Map<String, Object> target, Map<String, Object> source, String path) {
+            source.forEach((key, value) -> {
+                String keyPath = path + "." + key;
+                Object existing = target.get(key);
+                if (!target.containsKey(key)) {
+                    target.put(key, copy(value));
+                } else if (existing instanceof Map<?, ?> existingMap && value instanceof Map<?, ?> valueMap) {
+                    merge((Map<String, Object>) existingMap, (Map<String, Object>) valueMap, keyPath);
+                } else if (existing instanceof List<?> existingList && value instanceof Collection<?> valueList) {
+                    ((List<Object>) existingList).addAll((Collection<Object>) copy(valueList));
+                } else if (existing == null ? value != null : !existing.equals(value)) {
+                    throw new ValidationException("Conflicting filter values for " + keyPath);
+                }
+            });
+        }
+
+        @SuppressWarnings("unchecked")
+        private static Object copy(Object value) {
+            if (value instanceof Map<?, ?> map) {
+                Map<String, Object> copy = new LinkedHashMap<>();
+                map.forEach((key, nested) -> copy.put(String.valueOf(key), copy(nested)));
+                return copy;
+            }
+            if (value instanceof Collection<?> collection) {
+                List<Object> copy = new ArrayList<>(collection.size());
+                collection.forEach(element -> copy.add(copy(element)));
+                return copy;
+            }
+            return value;
+        }
+
+        // An empty object or array yields no index keys and would force a full index scan
+        private static void requireNarrowing(Object value, String path) {
+            if (value instanceof Map<?, ?> map) {
+                if (map.isEmpty()) {
+                    throw new ValidationException("Empty object in filter " + path);
+                }
+                map.forEach((key, nested) -> requireNarrowing(nested, path + "." + key));
+            } else if (value instanceof Collection<?> collection) {
+                if (collection.isEmpty()) {
+                    throw new ValidationException("Empty array in filter " + path);
+                }
+                collection.forEach(element -> requireNarrowing(element, path));
+            }
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.chatbot.storage.infrastructure.maintenance;
+
+import com.chatbot.storage.config.properties.SessionPurgeProperties;
+import com.chatbot.storage.enums.SessionStatus;
+import com.chatbot.storage.infrastructure.archive.ArchivePointer;
+import com.chatbot.storage.infrastructure.archive.ArchiveReclaimer;
+import com.chatbot.storage.infrastructure.cache.SecondLevelCacheEvictor;
+import com.chatbot.storage.infrastructure.sharding.ShardRouter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ *
+ * Hard-deletes sessions that have been DELETED for longer than the grace period. Sessions
+ * are taken in (updated_at, id) order, their messages removed in bounded chunks and then the
+ * sessions themselves, each statement in its own transaction. The archive blobs of purged
+ * sessions are released, and their context chunks left to ContextChunkCollector. Writes wait
+ * for replicas to catch up, and the position is checkpointed after every batch.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "app.purge", name = "enabled", havingValue = "true")
+public class DeletedSessionPurger {
+
+    static final String JOB_NAME = "deleted-session-purge";
+
+    private static final LocalDateTime EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final String CANDIDATES_SQL =
+            "SELECT id, updated_at FROM chat_sessions " +
+            "WHERE status = ? AND updated_at < ? AND (updated_at, id) > (?, ?) " +
+            "ORDER BY updated_at, id LIMIT ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MaintenanceCheckpointStore checkpointStore;
+    private final ReplicationLagThrottle throttle;
+    private final SecondLevelCacheEvictor cacheEvictor;
+    private final ArchiveReclaimer archiveReclaimer;
+    private final SessionPurgeProperties properties;
+    private final ShardRouter shardRouter;
+
+    private record Candidate(UUID id, LocalDateTime updatedAt) {
+    }
+
+    /**
+     * Purge deleted sessions past the grace period, resuming from the last checkpoint.
+     * Every shard keeps its own checkpoint.
+     */
+    @Scheduled(cron = "${app.purge.cron:0 0 4 * * *}")
+    public void purgeDeletedSessions() {
+        shardRouter.forEachShard(this::purgeDeletedSessionsOnShard);
+    }
+
+    // ---------- Helper Methods ----------
+
+    private void purgeDeletedSessionsOnShard() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(properties.getGracePeriod());
+        MaintenanceCheckpointStore.Checkpoint checkpoint = checkpointStore.load(JOB_NAME)
+                .orElse(new MaintenanceCheckpointStore.Checkpoint(EPOCH, new UUID(0, 0), 0));
+        long messagesPurged = 0;
+
+        try {
+            while (true) {
+                List<Candidate> batch = jdbcTemplate.query(CANDIDATES_SQL, (rs, rowNum) -> new Candidate(
+                                rs.getObject("id", UUID.class),
+                                rs.getTimestamp("updated_at").toLocalDateTime()),
+                        SessionStatus.DELETED.name(), Timestamp.valueOf(cutoff),
+                        Timestamp.valueOf(checkpoint.positionTime()), checkpoint.positionId(),
+                        properties.getSessionBatchSize());
+                if (batch.isEmpty()) {
+                    checkpointStore.clear(JOB_NAME);
+                    break;
+                }
+
+                List<UUID> sessionIds = batch.stream().map(Candidate::id).toList();
+                Long purged = purgeMessages(sessionIds);
+                if (purged == null) {
+                    break;
+                }
+                messagesPurged += purged;
+
+                // Looked up first: the pointer rows and chunk references go with the sessions
+                Map<UUID, ArchivePointer> archives = archiveReclaimer.findPointers(sessionIds);
+                List<UUID> purgedIds = jdbcTemplate.queryForList(
+                        "DELETE FROM chat_sessions WHERE status = ? AND id IN (" + placeholders(sessionIds.size()) +
+                                ") RETURNING id",
+                        UUID.class, args(SessionStatus.DELETED.name(), sessionIds));
+                sessionIds.forEach(cacheEvictor::evictSession);
+                archiveReclaimer.release(purgedIds.stream().map(archives::get).filter(Objects::nonNull).toList());
+                int sessionsPurged = purgedIds.size();
+
+                Candidate last = batch.get(batch.size() - 1);
+                checkpoint = new MaintenanceCheckpointStore.Checkpoint(
+                        last.updatedAt(), last.id(), checkpoint.processed() + sessionsPurged);
+                checkpointStore.save(JOB_NAME, checkpoint);
+                Thread.sleep(properties.getPauseBetweenBatches().toMillis());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Session purge interrupted, will resume from the checkpoint");
+        }
+
+        if (messagesPurged > 0) {
+            // Purged messages may still sit in the entity region under their own ids
+            cacheEvictor.evictAllMessages();
+        }
+        log.info("Session purge run removed {} messages; {} sessions purged in the current pass",
+                messagesPurged, checkpoint.processed());
+    }
+
+    /**
+     * Delete the messages of the sessions chunk by chunk.
+     *
+     * @return the number of deleted messages, or null if the replicas did not catch up
+     */
+    private Long purgeMessages(List<UUID> sessionIds) throws InterruptedException {
+        String sql = "DELETE FROM chat_messages WHERE (id, created_at) IN (" +
+                "SELECT id, created_at FROM chat_messages " +
+                "WHERE session_id IN (" + placeholders(sessionIds.size()) + ") LIMIT ?)";
+        List<Object> args = new ArrayList<>(sessionIds.size() + 1);
+        args.addAll(sessionIds);
+        args.add(properties.getMessageBatchSize());
+
+        long total = 0;
+        int deleted;
+        do {
+            if (!throttle.awaitCatchUp(properties.getMaxReplicationLag(), properties.getMaxThrottleWait())) {
+                return null;
+            }
+            deleted = jdbcTemplate.update(sql, args.toArray());
+            total += deleted;
+            if (deleted > 0) {
+                Thread.sleep(properties.getPauseBetweenBatches().toMillis());
+            }
+        } while (deleted == properties.getMessageBatchSize());
+        return total;
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    private static Object[] args(Object first, List<UUID> ids) {
+        Object[] args = new Object[ids.size() + 1];
+        args[0] = first;
+        for (int i = 0; i < ids.size(); i++) {
+            args[i + 1] = ids.get(i);
+        }
+        return args;
+    }
+}
@@ -0,0 +1,75 @@
+package com.chatbot.storage.infrastructure.maintenance;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ *
+ * Keyset position of a long-running maintenance job, saved after every batch so that a
+ * restarted or throttled-out run resumes where the previous one stopped.
+ */
+@Component
+@RequiredArgsConstructor
+public class MaintenanceCheckpointStore {
+
+    private static final String SELECT_SQL =
+            "SELECT position_time, position_id, processed FROM maintenance_checkpoints WHERE job_name = ?";
+    private static final String UPSERT_SQL =
+            "INSERT INTO maintenance_checkpoints (job_name, position_time, position_id, processed, updated_at) " +
+            "VALUES (?, ?, ?, ?, CURRENT_TIMESTAMP) " +
+            "ON CONFLICT (job_name) DO UPDATE SET position_time = EXCLUDED.position_time, " +
+            "position_id = EXCLUDED.position_id, processed = EXCLUDED.processed, updated_at = EXCLUDED.updated_at";
+    private static final String DELETE_SQL = "DELETE FROM maintenance_checkpoints WHERE job_name = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Position after the last completed batch.
+     *
+     * @param positionTime the time component of the keyset
+     * @param positionId   the id component of the keyset
+     * @param processed    the rows processed by the run so far
+     */
+    public record Checkpoint(LocalDateTime positionTime, UUID positionId, long processed) {
+    }
+
+    /**
+     * Load the checkpoint of an unfinished run.
+     *
+     * @param jobName the job name
+     * @return the checkpoint, empty when the last run finished
+     */
+    public Optional<Checkpoint> load(String jobName) {
+        return jdbcTemplate.query(SELECT_SQL, (rs, rowNum) -> new Checkpoint(
+                        rs.getTimestamp("position_time").toLocalDateTime(),
+                        rs.getObject("position_id", UUID.class),
+                        rs.getLong("processed")),
+                jobName).stream().findFirst();
+    }
+
+    /**
+     * Save the checkpoint.
+     *
+     * @param jobName    the job name
+     * @param checkpoint the checkpoint
+     */
+    public void save(String jobName, Checkpoint checkpoint) {
+        jdbcTemplate.update(UPSERT_SQL, jobName, Timestamp.valueOf(checkpoint.positionTime()),
+                checkpoint.positionId(), checkpoint.processed());
+    }
+
+    /**
+     * Clear the checkpoint once a run has gone through everything.
+     *
+     * @param jobName the job name
+     */
+    public void clear(String jobName) {
+        jdbcTemplate.update(DELETE_SQL, jobName);
+    }
+}
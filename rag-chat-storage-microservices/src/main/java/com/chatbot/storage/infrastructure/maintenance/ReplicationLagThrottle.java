@@ -0,0 +1,75 @@
+package com.chatbot.storage.infrastructure.maintenance;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ *
+ * Holds back bulk maintenance writes while streaming replicas are behind. Lag is read from
+ * pg_stat_replication on the primary, so it covers every standby, not only the ones the
+ * application reads from.
+ */
+@Slf4j
+@Component
+public class ReplicationLagThrottle {
+
+    // replay_lag reads as NULL for roles without pg_monitor, which counts as no lag
+    private static final String LAG_SQL =
+            "SELECT COALESCE(MAX(EXTRACT(EPOCH FROM replay_lag)), 0) FROM pg_stat_replication";
+    private static final long INITIAL_BACKOFF_MS = 250;
+    private static final long MAX_BACKOFF_MS = 5000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private boolean lagUnavailableLogged;
+
+    public ReplicationLagThrottle(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Block until replication lag is within the limit.
+     *
+     * @param maxLag  the highest acceptable lag
+     * @param maxWait how long to wait before giving up
+     * @return true when the caller may write, false if the replicas did not catch up in time
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public boolean awaitCatchUp(Duration maxLag, Duration maxWait) throws InterruptedException {
+        long deadline = System.nanoTime() + maxWait.toNanos();
+        long backoff = INITIAL_BACKOFF_MS;
+
+        while (true) {
+            double lagSeconds = currentLagSeconds();
+            if (lagSeconds * 1000 <= maxLag.toMillis()) {
+                return true;
+            }
+            if (System.nanoTime() + backoff * 1_000_000 > deadline) {
+                log.warn("Replication lag still {}s after waiting {}, pausing maintenance", lagSeconds, maxWait);
+                return false;
+            }
+            log.debug("Replication lag {}s above {}, waiting {}ms", lagSeconds, maxLag, backoff);
+            Thread.sleep(backoff);
+            backoff = Math.min(backoff * 2, MAX_BACKOFF_MS);
+        }
+    }
+
+    // ---------- Helper Methods ----------
+
+    private double currentLagSeconds() {
+        try {
+            Double lag = jdbcTemplate.queryForObject(LAG_SQL, Double.class);
+            return lag != null ? lag : 0;
+        } catch (DataAccessException e) {
+            // Not PostgreSQL, or the view is not readable; fall back to the fixed pauses
+            if (!lagUnavailableLogged) {
+                log.warn("Cannot read replication lag, throttling on batch pauses only: {}", e.getMessage());
+                lagUnavailableLogged = true;
+            }
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,324 @@
+package com.chatbot.storage.infrastructure.maintenance;
+
+import com.chatbot.storage.config.properties.RetentionProperties;
+import com.chatbot.storage.enums.RetentionAction;
+import com.chatbot.storage.enums.SessionStatus;
+import com.chatbot.storage.enums.SyncEntityType;
+import com.chatbot.storage.infrastructure.archive.ArchivePointer;
+import com.chatbot.storage.infrastructure.archive.ArchiveReclaimer;
+import com.chatbot.storage.infrastructure.cache.SecondLevelCacheEvictor;
+import com.chatbot.storage.infrastructure.sharding.ShardRouter;
+import com.chatbot.storage.infrastructure.sync.SyncChangeWriter;
+import com.chatbot.storage.service.SessionArchiveService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ *
+ * Applies the configured retention rules. A user rule overrides the global rule for that
+ * user. DELETE removes messages older than the rule's age, then the sessions left without
+ * any, releasing the archive blobs of the ones that were archived; ARCHIVE moves sessions
+ * inactive for that long into the archive tier. Every statement is bounded, waits for
+ * replicas to catch up, and session scans resume from a checkpoint.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "app.retention", name = "enabled", havingValue = "true")
+public class RetentionPolicyEngine {
+
+    static final String JOB_PREFIX = "retention:";
+
+    private static final LocalDateTime EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MaintenanceCheckpointStore checkpointStore;
+    private final ReplicationLagThrottle throttle;
+    private final SessionArchiveService sessionArchiveService;
+    private final ArchiveReclaimer archiveReclaimer;
+    private final SecondLevelCacheEvictor cacheEvictor;
+    private final RetentionProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final ShardRouter shardRouter;
+    private final SyncChangeWriter syncChangeWriter;
+    private final Map<String, AtomicLong> lastCompleted = new ConcurrentHashMap<>();
+
+    /**
+     * Sessions a rule applies to, as a condition on chat_sessions s.
+     */
+    private record Scope(String condition, List<Object> args) {
+    }
+
+    private record Candidate(UUID id, LocalDateTime updatedAt) {
+    }
+
+    /**
+     * Validate the rules and register their progress gauges.
+     */
+    @PostConstruct
+    public void validateRules() {
+        Set<String> names = new HashSet<>();
+        Set<String> users = new HashSet<>();
+        for (RetentionProperties.Rule rule : properties.getRules()) {
+            if (!StringUtils.hasText(rule.getName()) || !names.add(rule.getName())) {
+                throw new IllegalStateException("Every retention rule needs a unique name");
+            }
+            if (rule.getMaxAge() == null || rule.getMaxAge().isNegative() || rule.getMaxAge().isZero()) {
+                throw new IllegalStateException("Retention rule " + rule.getName() + " needs a positive max-age");
+            }
+            if (!users.add(rule.getUserId() == null ? "" : rule.getUserId())) {
+                throw new IllegalStateException("More than one retention rule for user " + rule.getUserId());
+            }
+
+            AtomicLong completed = new AtomicLong();
+            lastCompleted.put(rule.getName(), completed);
+            meterRegistry.gauge("ragchat.retention.last.completed", Tags.of("rule", rule.getName()), completed);
+        }
+    }
+
+    /**
+     * Apply every rule on every shard, user rules first.
+     */
+    @Scheduled(cron = "${app.retention.cron:0 30 4 * * *}")
+    public void applyRules() {
+        shardRouter.forEachShard(this::applyRulesOnShard);
+    }
+
+    // ---------- Helper Methods ----------
+
+    private void applyRulesOnShard() {
+        List<String> overridden = properties.getRules().stream()
+                .map(RetentionProperties.Rule::getUserId)
+                .filter(StringUtils::hasText)
+                .toList();
+        List<RetentionProperties.Rule> ordered = new ArrayList<>(properties.getRules());
+        ordered.sort((a, b) -> Boolean.compare(a.getUserId() == null, b.getUserId() == null));
+
+        for (RetentionProperties.Rule rule : ordered) {
+            try {
+                if (applyRule(rule, scopeOf(rule, overridden))) {
+                    lastCompleted.get(rule.getName()).set(System.currentTimeMillis() / 1000);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                log.warn("Retention run interrupted, will resume from the checkpoint");
+                return;
+            } catch (RuntimeException e) {
+                log.error("Retention rule {} failed", rule.getName(), e);
+            }
+        }
+    }
+
+    /**
+     * Apply one rule.
+     *
+     * @return true if the rule went through everything it applies to
+     */
+    private boolean applyRule(RetentionProperties.Rule rule, Scope scope) throws InterruptedException {
+        LocalDateTime cutoff = LocalDateTime.now().minus(rule.getMaxAge());
+        if (rule.getAction() == RetentionAction.ARCHIVE) {
+            return archiveExpiredSessions(rule, scope, cutoff);
+        }
+        return deleteExpiredMessages(rule, scope, cutoff) && deleteEmptySessions(rule, scope, cutoff);
+    }
+
+    private boolean deleteExpiredMessages(RetentionProperties.Rule rule, Scope scope, LocalDateTime cutoff)
+            throws InterruptedException {
+        // created_at < cutoff keeps the inner scan to the partitions that can hold expired rows;
+        // the session counters are decremented and the deletions recorded for sync in the same statement
+        String sql = "WITH deleted AS (DELETE FROM chat_messages WHERE (id, created_at) IN (" +
+                "SELECT m.id, m.created_at FROM chat_messages m JOIN chat_sessions s ON s.id = m.session_id " +
+                "WHERE m.created_at < ? AND " + scope.condition() + " LIMIT ?) RETURNING id, session_id), " +
+                (syncChangeWriter.isEnabled()
+                        ? "synced AS (INSERT INTO sync_changes (user_id, session_id, entity_type, entity_id, deleted) " +
+                          "SELECT s.user_id, d.session_id, '" + SyncEntityType.MESSAGE.name() + "', d.id, TRUE " +
+                          "FROM deleted d JOIN chat_sessions s ON s.id = d.session_id), "
+                        : "") +
+                "counted AS (SELECT session_id, COUNT(*) AS removed FROM deleted GROUP BY session_id), " +
+                "updated AS (UPDATE chat_sessions s SET message_count = GREATEST(s.message_count - c.removed, 0), " +
+                "message_version = s.message_version + 1 FROM counted c WHERE s.id = c.session_id) " +
+                "SELECT session_id, removed FROM counted";
+        List<Object> args = new ArrayList<>();
+        args.add(Timestamp.valueOf(cutoff));
+        args.addAll(scope.args());
+        args.add(properties.getMessageBatchSize());
+
+        long total = 0;
+        int deleted;
+        try {
+            do {
+                if (!awaitReplicas()) {
+                    return false;
+                }
+                Map<UUID, Long> removed = new HashMap<>();
+                jdbcTemplate.query(sql, (RowCallbackHandler) rs ->
+                        removed.put(rs.getObject("session_id", UUID.class), rs.getLong("removed")), args.toArray());
+                removed.keySet().forEach(cacheEvictor::evictSession);
+                deleted = (int) removed.values().stream().mapToLong(Long::longValue).sum();
+                total += deleted;
+                meterRegistry.counter("ragchat.retention.messages.deleted", "rule", rule.getName()).increment(deleted);
+                pause(deleted);
+            } while (deleted == properties.getMessageBatchSize());
+        } finally {
+            if (total > 0) {
+                cacheEvictor.evictAllMessages();
+                log.info("Retention rule {} deleted {} messages created before {}", rule.getName(), total, cutoff);
+            }
+        }
+        return true;
+    }
+
+    private boolean deleteEmptySessions(RetentionProperties.Rule rule, Scope scope, LocalDateTime cutoff)
+            throws InterruptedException {
+        // Archived sessions hold their messages outside chat_messages; archiving before the cutoff
+        // means every one of them is older than it
+        String candidates = "SELECT s.id, s.updated_at FROM chat_sessions s " +
+                "WHERE s.updated_at < ? AND " + scope.condition() + " AND (s.updated_at, s.id) > (?, ?) " +
+                "AND NOT EXISTS (SELECT 1 FROM chat_messages m WHERE m.session_id = s.id) " +
+                "AND NOT EXISTS (SELECT 1 FROM session_archives a WHERE a.session_id = s.id AND a.created_at >= ?) " +
+                "ORDER BY s.updated_at, s.id LIMIT ?";
+
+        return forEachCandidateBatch(rule, candidates, scope, cutoff, batch -> {
+            List<UUID> ids = batch.stream().map(Candidate::id).toList();
+            // Looked up first: the pointer rows and chunk references go with the sessions
+            Map<UUID, ArchivePointer> archives = archiveReclaimer.findPointers(ids);
+            // Re-checked here: a message may have arrived since the candidates were read
+            String sql = "WITH deleted AS (DELETE FROM chat_sessions s WHERE s.id IN (" + placeholders(ids.size()) +
+                    ") AND NOT EXISTS (SELECT 1 FROM chat_messages m WHERE m.session_id = s.id) " +
+                    "RETURNING s.id, s.user_id)" +
+                    (syncChangeWriter.isEnabled()
+                            ? ", synced AS (INSERT INTO sync_changes (user_id, session_id, entity_type, entity_id, deleted) " +
+                              "SELECT user_id, id, '" + SyncEntityType.SESSION.name() + "', id, TRUE FROM deleted)"
+                            : "") +
+                    " SELECT id FROM deleted";
+            List<UUID> deleted = jdbcTemplate.queryForList(sql, UUID.class, ids.toArray());
+            ids.forEach(cacheEvictor::evictSession);
+            archiveReclaimer.release(deleted.stream().map(archives::get).filter(Objects::nonNull).toList());
+            meterRegistry.counter("ragchat.retention.sessions.deleted", "rule", rule.getName())
+                    .increment(deleted.size());
+            return deleted.size();
+        });
+    }
+
+    private boolean archiveExpiredSessions(RetentionProperties.Rule rule, Scope scope, LocalDateTime cutoff)
+            throws InterruptedException {
+        String candidates = "SELECT s.id, s.updated_at FROM chat_sessions s " +
+                "WHERE s.updated_at < ? AND " + scope.condition() + " AND (s.updated_at, s.id) > (?, ?) " +
+                "AND s.status <> '" + SessionStatus.DELETED.name() + "' " +
+                "AND NOT EXISTS (SELECT 1 FROM session_archives a WHERE a.session_id = s.id) " +
+                "AND NOT EXISTS (SELECT 1 FROM chat_messages m WHERE m.session_id = s.id AND m.created_at >= ?) " +
+                "ORDER BY s.updated_at, s.id LIMIT ?";
+
+        return forEachCandidateBatch(rule, candidates, scope, cutoff, batch -> {
+            int archived = 0;
+            for (Candidate candidate : batch) {
+                // One transaction per session, as in the archive scheduler
+                try {
+                    if (sessionArchiveService.archiveSession(candidate.id())) {
+                        archived++;
+                    }
+                } catch (RuntimeException e) {
+                    log.error("Retention rule {} failed to archive session {}", rule.getName(), candidate.id(), e);
+                }
+            }
+            meterRegistry.counter("ragchat.retention.sessions.archived", "rule", rule.getName()).increment(archived);
+            return archived;
+        });
+    }
+
+    @FunctionalInterface
+    private interface BatchAction {
+        int apply(List<Candidate> batch);
+    }
+
+    /**
+     * Walk the candidate sessions in (updated_at, id) order from the rule's checkpoint.
+     *
+     * @return true when the walk reached the end, false if it stopped for replication lag
+     */
+    private boolean forEachCandidateBatch(RetentionProperties.Rule rule, String sql, Scope scope,
+                                          LocalDateTime cutoff, BatchAction action) throws InterruptedException {
+        String jobName = JOB_PREFIX + rule.getName();
+        MaintenanceCheckpointStore.Checkpoint checkpoint = checkpointStore.load(jobName)
+                .orElse(new MaintenanceCheckpointStore.Checkpoint(EPOCH, new UUID(0, 0), 0));
+
+        while (true) {
+            List<Object> args = new ArrayList<>();
+            args.add(Timestamp.valueOf(cutoff));
+            args.addAll(scope.args());
+            args.add(Timestamp.valueOf(checkpoint.positionTime()));
+            args.add(checkpoint.positionId());
+            args.add(Timestamp.valueOf(cutoff));
+            args.add(properties.getSessionBatchSize());
+
+            List<Candidate> batch = jdbcTemplate.query(sql, (rs, rowNum) -> new Candidate(
+                    rs.getObject("id", UUID.class),
+                    rs.getTimestamp("updated_at").toLocalDateTime()), args.toArray());
+            if (batch.isEmpty()) {
+                checkpointStore.clear(jobName);
+                if (checkpoint.processed() > 0) {
+                    log.info("Retention rule {} ({}) processed {} sessions", rule.getName(), rule.getAction(),
+                            checkpoint.processed());
+                }
+                return true;
+            }
+            if (!awaitReplicas()) {
+                return false;
+            }
+
+            int processed = action.apply(batch);
+            Candidate last = batch.get(batch.size() - 1);
+            checkpoint = new MaintenanceCheckpointStore.Checkpoint(
+                    last.updatedAt(), last.id(), checkpoint.processed() + processed);
+            checkpointStore.save(jobName, checkpoint);
+            pause(processed);
+        }
+    }
+
+    private Scope scopeOf(RetentionProperties.Rule rule, List<String> overridden) {
+        if (StringUtils.hasText(rule.getUserId())) {
+            return new Scope("s.user_id = ?", List.of(rule.getUserId()));
+        }
+        if (overridden.isEmpty()) {
+            return new Scope("TRUE", List.of());
+        }
+        return new Scope("s.user_id NOT IN (" + placeholders(overridden.size()) + ")", List.copyOf(overridden));
+    }
+
+    private boolean awaitReplicas() throws InterruptedException {
+        return throttle.awaitCatchUp(properties.getMaxReplicationLag(), properties.getMaxThrottleWait());
+    }
+
+    private void pause(int affected) throws InterruptedException {
+        if (affected > 0) {
+            Thread.sleep(properties.getPauseBetweenBatches().toMillis());
+        }
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+}
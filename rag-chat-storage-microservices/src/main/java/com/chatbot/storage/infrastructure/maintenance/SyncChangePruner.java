@@ -0,0 +1,61 @@
+package com.chatbot.storage.infrastructure.maintenance;
+
+import com.chatbot.storage.config.properties.SyncProperties;
+import com.chatbot.storage.infrastructure.sharding.ShardRouter;
+import com.chatbot.storage.repository.SyncChangeRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ *
+ * Deletes sync change log rows past the retention in bounded batches. Rows are kept a
+ * day longer than cursors stay valid: a row is stamped with the start of its transaction,
+ * which may be well before the cursor that has to include it was issued.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "app.sync", name = "enabled", havingValue = "true")
+public class SyncChangePruner {
+
+    private static final Duration GRACE = Duration.ofDays(1);
+
+    private final SyncChangeRepository changeRepository;
+    private final SyncProperties properties;
+    private final ShardRouter shardRouter;
+
+    /**
+     * Prune the change log of every shard.
+     */
+    @Scheduled(cron = "${app.sync.prune-cron:0 15 4 * * *}")
+    public void pruneChanges() {
+        shardRouter.forEachShard(this::pruneChangesOnShard);
+    }
+
+    // ---------- Helper Methods ----------
+
+    private void pruneChangesOnShard() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(properties.getRetention()).minus(GRACE);
+        long total = 0;
+        int deleted;
+        try {
+            do {
+                deleted = changeRepository.pruneBefore(cutoff, properties.getPruneBatchSize());
+                total += deleted;
+                if (deleted > 0) {
+                    Thread.sleep(properties.getPauseBetweenBatches().toMillis());
+                }
+            } while (deleted == properties.getPruneBatchSize());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Sync change pruning interrupted");
+        }
+        log.info("Pruned {} sync changes recorded before {}", total, cutoff);
+    }
+}
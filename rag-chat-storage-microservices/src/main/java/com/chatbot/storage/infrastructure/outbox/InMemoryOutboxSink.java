@@ -0,0 +1,39 @@
+package com.chatbot.storage.infrastructure.outbox;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ *
+ * Keeps published events in memory, for tests and local runs without Redis.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.outbox", name = "sink", havingValue = "memory")
+public class InMemoryOutboxSink implements OutboxSink {
+
+    private final List<OutboxEvent> events = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(List<OutboxEvent> batch) {
+        events.addAll(batch);
+    }
+
+    /**
+     * Gets the published events, oldest first.
+     *
+     * @return the events
+     */
+    public List<OutboxEvent> getEvents() {
+        return List.copyOf(events);
+    }
+
+    /**
+     * Clear.
+     */
+    public void clear() {
+        events.clear();
+    }
+}
@@ -0,0 +1,21 @@
+package com.chatbot.storage.infrastructure.outbox;
+
+import com.chatbot.storage.enums.MessageSender;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ *
+ * Payload of the message events.
+ *
+ * @param id         the message id
+ * @param sessionId  the session id
+ * @param userId     the owner of the session
+ * @param senderType the sender type
+ * @param content    the content, absent for deletions
+ * @param createdAt  the created at
+ */
+public record MessageEvent(UUID id, UUID sessionId, String userId, MessageSender senderType, String content,
+                           LocalDateTime createdAt) {
+}
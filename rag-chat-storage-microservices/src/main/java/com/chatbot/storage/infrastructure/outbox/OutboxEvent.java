@@ -0,0 +1,19 @@
+package com.chatbot.storage.infrastructure.outbox;
+
+import com.chatbot.storage.enums.OutboxEventType;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ *
+ * A committed change event, as read from the outbox.
+ *
+ * @param id        the position in the outbox, increasing in commit order per session
+ * @param sessionId the session the change belongs to
+ * @param eventType the event type
+ * @param payload   the JSON payload
+ * @param createdAt the created at
+ */
+public record OutboxEvent(long id, UUID sessionId, OutboxEventType eventType, String payload, LocalDateTime createdAt) {
+}
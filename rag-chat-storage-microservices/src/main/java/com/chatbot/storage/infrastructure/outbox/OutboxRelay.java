@@ -0,0 +1,157 @@
+package com.chatbot.storage.infrastructure.outbox;
+
+import com.chatbot.storage.config.properties.OutboxProperties;
+import com.chatbot.storage.enums.OutboxEventType;
+import com.chatbot.storage.infrastructure.sharding.ShardRouter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ *
+ * Moves committed outbox events to the sink in outbox order. Each batch is published
+ * before its rows are deleted, in one transaction: a crash in between publishes the batch
+ * again, so delivery is at-least-once and consumers deduplicate on the event id.
+ * An advisory lock keeps a single instance relaying at a time, which preserves the order.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "app.outbox", name = "enabled", havingValue = "true")
+public class OutboxRelay {
+
+    // Arbitrary application-wide key of the relay's advisory lock
+    static final long RELAY_LOCK_KEY = 0x6f7574626f78L;
+
+    private static final String TRY_LOCK_SQL = "SELECT pg_try_advisory_xact_lock(?)";
+    private static final String CLAIM_SQL =
+            "SELECT id, session_id, event_type, payload::text AS payload, created_at FROM outbox_events " +
+            "ORDER BY id LIMIT ?";
+    // Exact ids: a smaller id that committed after the claim must stay for the next batch
+    private static final String DELETE_SQL = "DELETE FROM outbox_events WHERE id = ANY(?)";
+    private static final String BACKLOG_SQL = "SELECT COUNT(*) AS backlog, MIN(created_at) AS oldest FROM outbox_events";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final OutboxSink sink;
+    private final OutboxProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final ShardRouter shardRouter;
+    private final Counter published;
+    private final Counter failures;
+    private final AtomicLong backlog = new AtomicLong();
+    private final AtomicLong oldestAgeMillis = new AtomicLong();
+
+    public OutboxRelay(JdbcTemplate jdbcTemplate,
+                       PlatformTransactionManager transactionManager,
+                       OutboxSink sink,
+                       OutboxProperties properties,
+                       MeterRegistry meterRegistry,
+                       ShardRouter shardRouter) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.sink = sink;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.shardRouter = shardRouter;
+        this.published = meterRegistry.counter("ragchat.outbox.published");
+        this.failures = meterRegistry.counter("ragchat.outbox.publish.failures");
+    }
+
+    /**
+     * Register the backlog and consumer lag gauges.
+     */
+    @PostConstruct
+    public void registerMetrics() {
+        meterRegistry.gauge("ragchat.outbox.backlog", backlog);
+        meterRegistry.gauge("ragchat.outbox.oldest.age", oldestAgeMillis);
+        for (String group : properties.getConsumerGroups()) {
+            Gauge.builder("ragchat.outbox.consumer.lag",
+                            () -> sink.consumerLag(group).map(lag -> (double) lag.toMillis()).orElse(Double.NaN))
+                    .tag("group", group)
+                    .baseUnit("milliseconds")
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Relay batches until the outbox of every shard is drained.
+     */
+    @Scheduled(fixedDelayString = "${app.outbox.poll-interval-ms:200}")
+    public void relay() {
+        AtomicLong totalBacklog = new AtomicLong();
+        AtomicLong oldestAge = new AtomicLong();
+        shardRouter.forEachShard(() -> {
+            relayShard();
+            readBacklog(totalBacklog, oldestAge);
+        });
+        backlog.set(totalBacklog.get());
+        oldestAgeMillis.set(oldestAge.get());
+    }
+
+    // ---------- Helper Methods ----------
+
+    private void relayShard() {
+        int relayed;
+        try {
+            do {
+                relayed = transactionTemplate.execute(status -> relayBatch());
+            } while (relayed == properties.getBatchSize());
+        } catch (RuntimeException e) {
+            // The batch stays in the outbox and is published again on the next run
+            failures.increment();
+            log.warn("Failed to relay outbox events: {}", e.getMessage());
+        }
+    }
+
+    private int relayBatch() {
+        if (!Boolean.TRUE.equals(jdbcTemplate.queryForObject(TRY_LOCK_SQL, Boolean.class, RELAY_LOCK_KEY))) {
+            return 0;
+        }
+
+        List<OutboxEvent> events = jdbcTemplate.query(CLAIM_SQL, (rs, rowNum) -> new OutboxEvent(
+                rs.getLong("id"),
+                rs.getObject("session_id", UUID.class),
+                OutboxEventType.valueOf(rs.getString("event_type")),
+                rs.getString("payload"),
+                rs.getTimestamp("created_at").toLocalDateTime()), properties.getBatchSize());
+        if (events.isEmpty()) {
+            return 0;
+        }
+
+        sink.publish(events);
+        Long[] ids = events.stream().map(OutboxEvent::id).toArray(Long[]::new);
+        jdbcTemplate.update(DELETE_SQL, ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", ids)));
+        published.increment(events.size());
+        return events.size();
+    }
+
+    private void readBacklog(AtomicLong totalBacklog, AtomicLong oldestAge) {
+        try {
+            jdbcTemplate.query(BACKLOG_SQL, (RowCallbackHandler) rs -> {
+                totalBacklog.addAndGet(rs.getLong("backlog"));
+                Timestamp oldest = rs.getTimestamp("oldest");
+                long age = oldest == null ? 0
+                        : Math.max(0, Duration.between(oldest.toLocalDateTime(), LocalDateTime.now()).toMillis());
+                oldestAge.accumulateAndGet(age, Math::max);
+            });
+        } catch (RuntimeException e) {
+            log.debug("Failed to read outbox backlog: {}", e.getMessage());
+        }
+    }
+}
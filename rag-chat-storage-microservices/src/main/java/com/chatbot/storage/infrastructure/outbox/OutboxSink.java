@@ -0,0 +1,30 @@
+package com.chatbot.storage.infrastructure.outbox;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ *
+ * The interface Outbox sink.
+ */
+public interface OutboxSink {
+
+    /**
+     * Publish events in the given order. Returns only once the sink holds all of them durably
+     * and throws otherwise; the relay then keeps them and publishes them again.
+     *
+     * @param events the events
+     */
+    void publish(List<OutboxEvent> events);
+
+    /**
+     * How far a consumer group is behind the newest published event.
+     *
+     * @param group the consumer group
+     * @return the lag, or empty if the sink does not know the group
+     */
+    default Optional<Duration> consumerLag(String group) {
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,81 @@
+package com.chatbot.storage.infrastructure.outbox;
+
+import com.chatbot.storage.config.properties.OutboxProperties;
+import com.chatbot.storage.enums.OutboxEventType;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ *
+ * Writes change events into the outbox within the caller's transaction, so an event
+ * exists exactly when its change committed. Does nothing while the outbox is disabled.
+ */
+@Component
+@RequiredArgsConstructor
+public class OutboxWriter {
+
+    private static final String INSERT_SQL = "INSERT INTO outbox_events (session_id, event_type, payload) VALUES ";
+    private static final String ROW_VALUES = "(?, ?, ?::jsonb)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final OutboxProperties properties;
+
+    /**
+     * An event to write.
+     *
+     * @param sessionId the session the change belongs to
+     * @param eventType the event type
+     * @param payload   the payload, serialized as JSON
+     */
+    public record PendingEvent(UUID sessionId, OutboxEventType eventType, Object payload) {
+    }
+
+    /**
+     * Append an event. Call it after the change locked the session row, so events of
+     * one session get increasing ids in commit order.
+     *
+     * @param sessionId the session id
+     * @param eventType the event type
+     * @param payload   the payload
+     */
+    public void append(UUID sessionId, OutboxEventType eventType, Object payload) {
+        appendAll(List.of(new PendingEvent(sessionId, eventType, payload)));
+    }
+
+    /**
+     * Append several events with one statement, in list order.
+     *
+     * @param events the events
+     */
+    public void appendAll(List<PendingEvent> events) {
+        if (!properties.isEnabled() || events.isEmpty()) {
+            return;
+        }
+
+        List<Object> args = new ArrayList<>(events.size() * 3);
+        for (PendingEvent event : events) {
+            Collections.addAll(args, event.sessionId(), event.eventType().name(), toJson(event.payload()));
+        }
+        jdbcTemplate.update(INSERT_SQL + String.join(", ", Collections.nCopies(events.size(), ROW_VALUES)),
+                args.toArray());
+    }
+
+    // ---------- Helper Methods ----------
+
+    private String toJson(Object payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize outbox event payload", e);
+        }
+    }
+}
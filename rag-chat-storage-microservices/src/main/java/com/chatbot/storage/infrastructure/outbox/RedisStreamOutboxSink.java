@@ -0,0 +1,91 @@
+package com.chatbot.storage.infrastructure.outbox;
+
+import com.chatbot.storage.config.properties.OutboxProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.stream.StreamInfo;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StreamOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ *
+ * Publishes outbox events to a Redis stream, one entry per event, in a single pipeline
+ * per batch. Consumers read the stream with their own consumer group.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "app.outbox", name = "sink", havingValue = "redis", matchIfMissing = true)
+public class RedisStreamOutboxSink implements OutboxSink {
+
+    private final StringRedisTemplate redisTemplate;
+    private final OutboxProperties properties;
+
+    @Override
+    public void publish(List<OutboxEvent> events) {
+        // A failed command surfaces when the pipeline closes, failing the whole batch
+        redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                StreamOperations<String, String, String> streams =
+                        ((RedisOperations<String, String>) operations).opsForStream();
+                for (OutboxEvent event : events) {
+                    streams.add(StreamRecords.newRecord().in(properties.getStreamKey()).ofMap(fields(event)));
+                }
+                return null;
+            }
+        });
+        redisTemplate.opsForStream().trim(properties.getStreamKey(), properties.getMaxStreamLength(), true);
+    }
+
+    @Override
+    public Optional<Duration> consumerLag(String group) {
+        try {
+            StreamInfo.XInfoStream stream = redisTemplate.opsForStream().info(properties.getStreamKey());
+            for (StreamInfo.XInfoGroup info : redisTemplate.opsForStream().groups(properties.getStreamKey())) {
+                if (info.groupName().equals(group)) {
+                    return Optional.of(Duration.ofMillis(lagMillis(stream.lastGeneratedId(), info.lastDeliveredId())));
+                }
+            }
+        } catch (DataAccessException e) {
+            log.debug("Failed to read lag of consumer group {}: {}", group, e.getMessage());
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Time between the newest entry and the newest one delivered to the group. Stream
+     * entry ids start with their creation time in milliseconds.
+     */
+    static long lagMillis(String lastGeneratedId, String lastDeliveredId) {
+        return Math.max(0, timestampOf(lastGeneratedId) - timestampOf(lastDeliveredId));
+    }
+
+    // ---------- Helper Methods ----------
+
+    private static long timestampOf(String entryId) {
+        int separator = entryId.indexOf('-');
+        return Long.parseLong(separator < 0 ? entryId : entryId.substring(0, separator));
+    }
+
+    private static Map<String, String> fields(OutboxEvent event) {
+        return Map.of(
+                "eventId", String.valueOf(event.id()),
+                "sessionId", event.sessionId().toString(),
+                "type", event.eventType().name(),
+                "payload", event.payload(),
+                "createdAt", event.createdAt().toString());
+    }
+}
@@ -0,0 +1,272 @@
+package com.chatbot.storage.infrastructure.partition;
+
+import com.chatbot.storage.config.properties.PartitioningProperties;
+import com.chatbot.storage.infrastructure.cache.SecondLevelCacheEvictor;
+import com.chatbot.storage.infrastructure.maintenance.ReplicationLagThrottle;
+import com.chatbot.storage.infrastructure.sharding.ShardRouter;
+import com.chatbot.storage.infrastructure.sharding.ShardRoutingContext;
+import com.chatbot.storage.repository.SessionAggregateRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.chatbot.storage.constants.AppConstants.PARTITION_PREFIX;
+import static com.chatbot.storage.constants.AppConstants.PARTITIONED_TABLE;
+
+/**
+ *
+ * Creates upcoming monthly partitions of chat_messages and drops the ones
+ * that fell out of the retention window. Months that could not be created are
+ * reported per shard in ragchat.partitions.missing, so a gap is visible before
+ * inserts at the month boundary start landing in the default partition.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "app.partitioning", name = "enabled", havingValue = "true")
+public class ChatMessagePartitionManager {
+
+    private static final DateTimeFormatter SUFFIX_FORMAT = DateTimeFormatter.ofPattern("yyyyMM");
+    // Tables named like monthly partitions that are no longer attached: left by a drop that stopped midway
+    private static final String DETACHED_PARTITIONS_SQL =
+            "SELECT c.relname FROM pg_class c WHERE c.relkind = 'r' AND c.relname LIKE ? " +
+            "AND NOT EXISTS (SELECT 1 FROM pg_inherits i WHERE i.inhrelid = c.oid)";
+    private static final String PARTITION_SESSIONS_SQL =
+            "SELECT DISTINCT session_id FROM %s WHERE session_id > ? ORDER BY session_id LIMIT ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PartitioningProperties properties;
+    private final SecondLevelCacheEvictor cacheEvictor;
+    private final SessionAggregateRepository sessionAggregateRepository;
+    private final ShardRouter shardRouter;
+    private final ReplicationLagThrottle throttle;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, AtomicInteger> missingPartitions = new ConcurrentHashMap<>();
+
+    /**
+     * Run maintenance once the application is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        maintainPartitions();
+    }
+
+    /**
+     * Maintain partitions on every shard.
+     */
+    @Scheduled(cron = "${app.partitioning.cron:0 0 3 * * *}")
+    public void maintainPartitions() {
+        shardRouter.forEachShard(this::maintainPartitionsOnShard);
+    }
+
+    private void maintainPartitionsOnShard() {
+        if (!isPartitioned()) {
+            log.warn("Table {} is not partitioned, skipping partition maintenance", PARTITIONED_TABLE);
+            return;
+        }
+
+        YearMonth current = YearMonth.now();
+        int missing = 0;
+        for (int i = 0; i <= properties.getPremakeMonths(); i++) {
+            if (!createPartition(current.plusMonths(i))) {
+                missing++;
+            }
+        }
+        missingPartitionsGauge(ShardRoutingContext.currentShardOrPrimary()).set(missing);
+
+        if (properties.getToastTupleTarget() > 0) {
+            applyToastTupleTarget();
+        }
+
+        if (properties.getRetentionMonths() > 0) {
+            dropPartitionsBefore(current.minusMonths(properties.getRetentionMonths()));
+        }
+    }
+
+    /**
+     * Create partition for the given month if it does not exist yet.
+     *
+     * @param month the month
+     * @return whether the partition exists afterwards
+     */
+    public boolean createPartition(YearMonth month) {
+        String name = partitionName(month);
+        LocalDate from = month.atDay(1);
+        LocalDate to = month.plusMonths(1).atDay(1);
+
+        try {
+            jdbcTemplate.execute(String.format(
+                    "CREATE TABLE IF NOT EXISTS %s PARTITION OF %s FOR VALUES FROM ('%s') TO ('%s')%s",
+                    name, PARTITIONED_TABLE, from, to, storageParameters()));
+            log.debug("Ensured partition {} [{}, {})", name, from, to);
+            return true;
+        } catch (DataAccessException e) {
+            // Typically rows for this range already landed in the default partition
+            log.error("Failed to create partition {}: {}", name, e.getMessage());
+            meterRegistry.counter("ragchat.partitions.create.failures",
+                    "shard", ShardRoutingContext.currentShardOrPrimary()).increment();
+            return false;
+        }
+    }
+
+    /**
+     * Detach and drop every monthly partition that ends before the cutoff month. Once a
+     * partition is detached its rows no longer count, so the sessions that had rows in it
+     * are recounted, in keyset batches read from the detached table, before it is dropped.
+     * A run that stops in between picks the detached table up again on the next one.
+     *
+     * @param cutoff the first month to keep
+     */
+    public void dropPartitionsBefore(YearMonth cutoff) {
+        for (String partition : listPartitions()) {
+            if (!isExpired(partition, cutoff)) {
+                continue;
+            }
+            try {
+                jdbcTemplate.execute(String.format("ALTER TABLE %s DETACH PARTITION %s", PARTITIONED_TABLE, partition));
+            } catch (DataAccessException e) {
+                log.error("Failed to detach partition {}: {}", partition, e.getMessage());
+            }
+        }
+
+        boolean dropped = false;
+        try {
+            for (String partition : listDetachedPartitions()) {
+                if (!isExpired(partition, cutoff)) {
+                    continue;
+                }
+                try {
+                    if (!recountSessionsOf(partition)) {
+                        break;
+                    }
+                    jdbcTemplate.execute(String.format("DROP TABLE %s", partition));
+                    log.info("Dropped expired partition {}", partition);
+                    dropped = true;
+                } catch (DataAccessException e) {
+                    log.error("Failed to drop partition {}: {}", partition, e.getMessage());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Partition drop interrupted, detached partitions are dropped on the next run");
+        }
+
+        if (dropped) {
+            // Dropped messages may still sit in the entity region under their own ids
+            cacheEvictor.evictAllMessages();
+        }
+    }
+
+    /**
+     * Apply the configured toast_tuple_target to every partition. Storage parameters
+     * cannot be set on the partitioned parent, so each partition carries its own.
+     */
+    public void applyToastTupleTarget() {
+        for (String partition : listPartitions()) {
+            try {
+                jdbcTemplate.execute(String.format("ALTER TABLE %s SET (toast_tuple_target = %d)",
+                        partition, properties.getToastTupleTarget()));
+            } catch (DataAccessException e) {
+                log.error("Failed to set toast_tuple_target on {}: {}", partition, e.getMessage());
+            }
+        }
+    }
+
+    private AtomicInteger missingPartitionsGauge(String shard) {
+        return missingPartitions.computeIfAbsent(shard, key ->
+                meterRegistry.gauge("ragchat.partitions.missing", Tags.of("shard", key), new AtomicInteger()));
+    }
+
+    /**
+     * Recount the sessions that had rows in a detached partition, batch by batch.
+     *
+     * @return true when every session was recounted, false if the replicas did not catch up
+     */
+    private boolean recountSessionsOf(String partition) throws InterruptedException {
+        String sql = String.format(PARTITION_SESSIONS_SQL, partition);
+        UUID position = new UUID(0, 0);
+        int recounted = 0;
+
+        while (true) {
+            List<UUID> sessionIds = jdbcTemplate.queryForList(sql, UUID.class,
+                    position, properties.getRecountBatchSize());
+            if (sessionIds.isEmpty()) {
+                break;
+            }
+            if (!throttle.awaitCatchUp(properties.getMaxReplicationLag(), properties.getMaxThrottleWait())) {
+                return false;
+            }
+            recounted += sessionAggregateRepository.recountSessions(sessionIds);
+            sessionIds.forEach(cacheEvictor::evictSession);
+            position = sessionIds.get(sessionIds.size() - 1);
+            Thread.sleep(properties.getPauseBetweenBatches().toMillis());
+        }
+
+        log.info("Recounted messages of {} sessions that had rows in {}", recounted, partition);
+        return true;
+    }
+
+    private static boolean isExpired(String partition, YearMonth cutoff) {
+        Optional<YearMonth> month = parseMonth(partition);
+        return month.isPresent() && month.get().isBefore(cutoff);
+    }
+
+    private String storageParameters() {
+        return properties.getToastTupleTarget() > 0
+                ? String.format(" WITH (toast_tuple_target = %d)", properties.getToastTupleTarget())
+                : "";
+    }
+
+    private boolean isPartitioned() {
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM pg_partitioned_table pt JOIN pg_class c ON c.oid = pt.partrelid " +
+                        "WHERE c.relname = ?", Integer.class, PARTITIONED_TABLE);
+        return count != null && count > 0;
+    }
+
+    private List<String> listPartitions() {
+        return jdbcTemplate.queryForList(
+                "SELECT child.relname FROM pg_inherits i " +
+                        "JOIN pg_class parent ON parent.oid = i.inhparent " +
+                        "JOIN pg_class child ON child.oid = i.inhrelid " +
+                        "WHERE parent.relname = ?", String.class, PARTITIONED_TABLE);
+    }
+
+    private List<String> listDetachedPartitions() {
+        return jdbcTemplate.queryForList(DETACHED_PARTITIONS_SQL, String.class, PARTITION_PREFIX + "%");
+    }
+
+    static String partitionName(YearMonth month) {
+        return PARTITION_PREFIX + month.format(SUFFIX_FORMAT);
+    }
+
+    static Optional<YearMonth> parseMonth(String partitionName) {
+        if (!partitionName.startsWith(PARTITION_PREFIX)) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(YearMonth.parse(partitionName.substring(PARTITION_PREFIX.length()), SUFFIX_FORMAT));
+        } catch (RuntimeException e) {
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.chatbot.storage.infrastructure.routing;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.chatbot.storage.constants.AppConstants.PRIMARY_DATASOURCE;
+
+/**
+ *
+ * Sends read-only transactions to a healthy replica and everything else to the primary.
+ * Must sit behind a LazyConnectionDataSourceProxy so the lookup happens after the
+ * transaction's read-only flag has been bound.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    private final ReplicaRegistry replicaRegistry;
+
+    /**
+     * Instantiates a new Read write routing data source.
+     *
+     * @param primary         the primary data source
+     * @param replicaRegistry the replica registry
+     */
+    public ReadWriteRoutingDataSource(DataSource primary, ReplicaRegistry replicaRegistry) {
+        this.replicaRegistry = replicaRegistry;
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.putAll(replicaRegistry.getReplicas());
+        targets.put(PRIMARY_DATASOURCE, primary);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                || ReplicaRoutingContext.isPrimaryPinned()) {
+            return PRIMARY_DATASOURCE;
+        }
+
+        String replica = replicaRegistry.nextAvailableReplica();
+        return replica != null ? replica : PRIMARY_DATASOURCE;
+    }
+}
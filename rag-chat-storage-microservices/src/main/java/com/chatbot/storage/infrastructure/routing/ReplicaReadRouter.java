@@ -0,0 +1,91 @@
+package com.chatbot.storage.infrastructure.routing;
+
+import com.chatbot.storage.config.properties.ReplicaRoutingProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.function.BooleanSupplier;
+
+import static com.chatbot.storage.constants.AppConstants.READ_YOUR_WRITES_KEY_PREFIX;
+
+/**
+ *
+ * Read-your-writes stickiness for replica routing. Writes leave a short-lived marker in
+ * Redis so every instance keeps that user's reads on the primary until replicas catch up.
+ */
+@Slf4j
+@Component
+public class ReplicaReadRouter {
+
+    private final ReplicaRoutingProperties properties;
+    private final StringRedisTemplate redisTemplate;
+    private final TransactionTemplate precheckTemplate;
+
+    /**
+     * Instantiates a new Replica read router.
+     *
+     * @param properties         the properties
+     * @param redisTemplate      the redis template
+     * @param transactionManager the transaction manager
+     */
+    public ReplicaReadRouter(ReplicaRoutingProperties properties,
+                             StringRedisTemplate redisTemplate,
+                             PlatformTransactionManager transactionManager) {
+        this.properties = properties;
+        this.redisTemplate = redisTemplate;
+        this.precheckTemplate = new TransactionTemplate(transactionManager);
+        this.precheckTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.precheckTemplate.setReadOnly(true);
+    }
+
+    /**
+     * Records a write so the user's next reads go to the primary.
+     *
+     * @param userId the user id
+     */
+    public void recordWrite(String userId) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+
+        try {
+            redisTemplate.opsForValue().set(READ_YOUR_WRITES_KEY_PREFIX + userId, "1", properties.getStickyWindow());
+        } catch (DataAccessException e) {
+            log.warn("Could not record write marker for user {}: {}", userId, e.getMessage());
+        }
+    }
+
+    /**
+     * Decides where the current read-only transaction goes. Must be called before its first statement.
+     *
+     * @param userId          the user id
+     * @param primaryRequired checked in a separate read-only transaction when the user has no recent write
+     */
+    public void routeRead(String userId, BooleanSupplier primaryRequired) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+
+        if (hasRecentWrite(userId)
+                || Boolean.TRUE.equals(precheckTemplate.execute(status -> primaryRequired.getAsBoolean()))) {
+            ReplicaRoutingContext.pinToPrimary();
+        }
+    }
+
+    // ---------- Helper Methods ----------
+
+    private boolean hasRecentWrite(String userId) {
+        try {
+            return Boolean.TRUE.equals(redisTemplate.hasKey(READ_YOUR_WRITES_KEY_PREFIX + userId));
+        } catch (DataAccessException e) {
+            // Without the marker there is no way to tell whether a replica is fresh enough
+            log.warn("Could not read write marker for user {}: {}", userId, e.getMessage());
+            return true;
+        }
+    }
+}
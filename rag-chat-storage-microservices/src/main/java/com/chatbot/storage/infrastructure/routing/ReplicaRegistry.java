@@ -0,0 +1,172 @@
+package com.chatbot.storage.infrastructure.routing;
+
+import com.chatbot.storage.config.properties.ReplicaRoutingProperties;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.chatbot.storage.constants.AppConstants.PRIMARY_DATASOURCE;
+
+/**
+ *
+ * Owns the read replica pools and tracks which of them are within the lag tolerance.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "app.datasource.routing", name = "enabled", havingValue = "true")
+public class ReplicaRegistry implements DisposableBean {
+
+    // A server that is not in recovery (e.g. a second standalone instance used locally) reports no lag
+    private static final String LAG_SQL = """
+            SELECT CASE
+                       WHEN NOT pg_is_in_recovery() THEN 0
+                       WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                       ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp())
+                   END""";
+
+    private final ReplicaRoutingProperties properties;
+    private final Map<String, DataSource> replicas;
+    private final Map<String, JdbcTemplate> probes = new LinkedHashMap<>();
+    private final AtomicInteger cursor = new AtomicInteger();
+    private volatile List<String> healthyReplicas = List.of();
+
+    /**
+     * Instantiates a new Replica registry.
+     *
+     * @param properties the properties
+     */
+    @Autowired
+    public ReplicaRegistry(ReplicaRoutingProperties properties) {
+        this(properties, createPools(properties));
+    }
+
+    /**
+     * Instantiates a new Replica registry.
+     *
+     * @param properties the properties
+     * @param replicas   the replica data sources by name
+     */
+    ReplicaRegistry(ReplicaRoutingProperties properties, Map<String, DataSource> replicas) {
+        this.properties = properties;
+        this.replicas = Collections.unmodifiableMap(replicas);
+        replicas.forEach((name, dataSource) -> {
+            JdbcTemplate probe = new JdbcTemplate(dataSource);
+            probe.setQueryTimeout(1);
+            probes.put(name, probe);
+        });
+    }
+
+    /**
+     * Gets replicas.
+     *
+     * @return the replica data sources by name
+     */
+    public Map<String, DataSource> getReplicas() {
+        return replicas;
+    }
+
+    /**
+     * Picks the next healthy replica round-robin.
+     *
+     * @return the replica name, or null when every replica is lagging or down
+     */
+    public String nextAvailableReplica() {
+        List<String> healthy = healthyReplicas;
+        if (healthy.isEmpty()) {
+            return null;
+        }
+        return healthy.get(Math.floorMod(cursor.getAndIncrement(), healthy.size()));
+    }
+
+    /**
+     * Re-measures replication lag on every replica.
+     */
+    @Scheduled(fixedDelayString = "${app.datasource.routing.lag-check-interval-ms:2000}")
+    public void refreshLag() {
+        List<String> healthy = new ArrayList<>();
+        probes.forEach((name, probe) -> {
+            if (isWithinTolerance(name, measureLag(name, probe))) {
+                healthy.add(name);
+            }
+        });
+
+        if (!healthy.equals(healthyReplicas)) {
+            log.info("Healthy read replicas changed to {}", healthy);
+        }
+        healthyReplicas = List.copyOf(healthy);
+    }
+
+    @Override
+    public void destroy() {
+        replicas.values().forEach(dataSource -> {
+            if (dataSource instanceof HikariDataSource hikari) {
+                hikari.close();
+            }
+        });
+    }
+
+    // ---------- Helper Methods ----------
+
+    private Double measureLag(String name, JdbcTemplate probe) {
+        try {
+            return probe.queryForObject(LAG_SQL, Double.class);
+        } catch (DataAccessException e) {
+            log.warn("Lag check failed for replica {}: {}", name, e.getMessage());
+            return null;
+        }
+    }
+
+    private boolean isWithinTolerance(String name, Double lagSeconds) {
+        if (lagSeconds == null) {
+            return false;
+        }
+        boolean healthy = lagSeconds * 1000 <= properties.getMaxLag().toMillis();
+        if (!healthy) {
+            log.debug("Replica {} is {}s behind, skipping", name, lagSeconds);
+        }
+        return healthy;
+    }
+
+    private static Map<String, DataSource> createPools(ReplicaRoutingProperties properties) {
+        if (properties.getReplicas().isEmpty()) {
+            throw new IllegalStateException("Replica routing is enabled but no replicas are configured");
+        }
+
+        Map<String, DataSource> pools = new LinkedHashMap<>();
+        for (ReplicaRoutingProperties.Replica replica : properties.getReplicas()) {
+            if (!StringUtils.hasText(replica.getName()) || !StringUtils.hasText(replica.getUrl())) {
+                throw new IllegalStateException("Every replica needs a name and a url");
+            }
+            if (PRIMARY_DATASOURCE.equals(replica.getName()) || pools.containsKey(replica.getName())) {
+                throw new IllegalStateException("Duplicate replica name: " + replica.getName());
+            }
+
+            HikariDataSource pool = new HikariDataSource();
+            pool.setPoolName("replica-" + replica.getName());
+            pool.setJdbcUrl(replica.getUrl());
+            pool.setUsername(replica.getUsername());
+            pool.setPassword(replica.getPassword());
+            pool.setMaximumPoolSize(replica.getMaximumPoolSize());
+            pool.setReadOnly(true);
+            // Start even if a replica is down; the lag check keeps it out of rotation
+            pool.setInitializationFailTimeout(-1);
+            pools.put(replica.getName(), pool);
+        }
+        return pools;
+    }
+}
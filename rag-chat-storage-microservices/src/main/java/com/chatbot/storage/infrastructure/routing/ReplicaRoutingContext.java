@@ -0,0 +1,43 @@
+package com.chatbot.storage.infrastructure.routing;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ *
+ * Thread-bound flag forcing the current read-only transaction onto the primary.
+ */
+public final class ReplicaRoutingContext {
+
+    private static final ThreadLocal<Boolean> PRIMARY_PINNED = new ThreadLocal<>();
+
+    private ReplicaRoutingContext() {
+    }
+
+    /**
+     * Pins the current transaction to the primary. Has to run before its first statement,
+     * the flag is cleared when the transaction completes.
+     */
+    public static void pinToPrimary() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive() || isPrimaryPinned()) {
+            return;
+        }
+
+        PRIMARY_PINNED.set(Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                PRIMARY_PINNED.remove();
+            }
+        });
+    }
+
+    /**
+     * Is primary pinned boolean.
+     *
+     * @return the boolean
+     */
+    public static boolean isPrimaryPinned() {
+        return Boolean.TRUE.equals(PRIMARY_PINNED.get());
+    }
+}
@@ -0,0 +1,82 @@
+package com.chatbot.storage.infrastructure.sharding;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ *
+ * Consistent hash ring with virtual nodes. Adding a node to a ring of n nodes moves about
+ * 1/(n+1) of the keys, all of them onto the new node. Placement depends only on the node
+ * names, so every instance computes the same owner for a key.
+ */
+public final class ConsistentHashRing {
+
+    private final NavigableMap<Long, String> points = new TreeMap<>();
+    private final Set<String> nodes;
+
+    /**
+     * Instantiates a new Consistent hash ring.
+     *
+     * @param nodes        the node names
+     * @param virtualNodes the points per node
+     */
+    public ConsistentHashRing(Collection<String> nodes, int virtualNodes) {
+        if (nodes.isEmpty() || virtualNodes < 1) {
+            throw new IllegalArgumentException("A hash ring needs at least one node and one point per node");
+        }
+
+        // Sorted, so a rare point collision is resolved the same way whatever the configured order
+        this.nodes = Set.copyOf(new TreeSet<>(nodes));
+        for (String node : new TreeSet<>(nodes)) {
+            for (int i = 0; i < virtualNodes; i++) {
+                points.putIfAbsent(hash(node + "#" + i), node);
+            }
+        }
+    }
+
+    /**
+     * The node owning a key: the first point at or after the key's hash, wrapping around.
+     *
+     * @param key the key
+     * @return the node name
+     */
+    public String nodeFor(String key) {
+        Map.Entry<Long, String> point = points.ceilingEntry(hash(key));
+        return (point != null ? point : points.firstEntry()).getValue();
+    }
+
+    /**
+     * Gets nodes.
+     *
+     * @return the node names
+     */
+    public Set<String> getNodes() {
+        return nodes;
+    }
+
+    // ---------- Helper Methods ----------
+
+    private static long hash(String value) {
+        byte[] digest = md5().digest(value.getBytes(StandardCharsets.UTF_8));
+        long hash = 0;
+        for (int i = 0; i < Long.BYTES; i++) {
+            hash = (hash << 8) | (digest[i] & 0xFF);
+        }
+        return hash;
+    }
+
+    private static MessageDigest md5() {
+        try {
+            return MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("MD5 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.chatbot.storage.infrastructure.sharding;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import static com.chatbot.storage.constants.AppConstants.PRIMARY_DATASOURCE;
+
+/**
+ *
+ * Progress of users being moved between shards, kept on the primary shard. Every call runs
+ * in a transaction of its own, so it can be made before a routed transaction's first
+ * statement without pinning that transaction to the primary.
+ */
+@Component
+public class ShardMoveStore {
+
+    private static final String SELECT_SQL =
+            "SELECT source_shard, target_shard, status FROM shard_moves WHERE user_id = ?";
+    // Takes over a move that is unfinished for too long, or one recorded for an older ring
+    private static final String CLAIM_SQL =
+            "INSERT INTO shard_moves (user_id, source_shard, target_shard, status, updated_at) " +
+            "VALUES (?, ?, ?, 'MOVING', CURRENT_TIMESTAMP) " +
+            "ON CONFLICT (user_id) DO UPDATE SET source_shard = EXCLUDED.source_shard, " +
+            "target_shard = EXCLUDED.target_shard, status = 'MOVING', updated_at = EXCLUDED.updated_at " +
+            "WHERE shard_moves.target_shard <> EXCLUDED.target_shard " +
+            "OR (shard_moves.status = 'MOVING' AND shard_moves.updated_at < ?)";
+    private static final String MARK_MOVED_SQL =
+            "UPDATE shard_moves SET status = 'MOVED', updated_at = CURRENT_TIMESTAMP WHERE user_id = ? AND target_shard = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Instantiates a new Shard move store.
+     *
+     * @param jdbcTemplate       the jdbc template
+     * @param transactionManager the transaction manager
+     */
+    public ShardMoveStore(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * State of a user's move.
+     *
+     * @param sourceShard the shard the user is moved from
+     * @param targetShard the shard the user is moved to
+     * @param moved       true once the target holds all of the user's data
+     */
+    public record Move(String sourceShard, String targetShard, boolean moved) {
+    }
+
+    /**
+     * Find the user's move.
+     *
+     * @param userId the user id
+     * @return the move, empty if the user was never moved
+     */
+    public Optional<Move> find(String userId) {
+        return onPrimary(() -> jdbcTemplate.query(SELECT_SQL, (rs, rowNum) -> new Move(
+                        rs.getString("source_shard"),
+                        rs.getString("target_shard"),
+                        "MOVED".equals(rs.getString("status"))),
+                userId).stream().findFirst());
+    }
+
+    /**
+     * Start moving a user, which freezes its writes.
+     *
+     * @param userId      the user id
+     * @param sourceShard the source shard
+     * @param targetShard the target shard
+     * @param staleBefore an unfinished move last touched before this is taken over
+     * @return false if another instance is moving the user, or already moved it
+     */
+    public boolean claim(String userId, String sourceShard, String targetShard, LocalDateTime staleBefore) {
+        Integer claimed = onPrimary(() -> jdbcTemplate.update(CLAIM_SQL, userId, sourceShard, targetShard,
+                Timestamp.valueOf(staleBefore)));
+        return claimed != null && claimed > 0;
+    }
+
+    /**
+     * Record that the target shard holds all of the user's data.
+     *
+     * @param userId      the user id
+     * @param targetShard the target shard
+     */
+    public void markMoved(String userId, String targetShard) {
+        onPrimary(() -> jdbcTemplate.update(MARK_MOVED_SQL, userId, targetShard));
+    }
+
+    // ---------- Helper Methods ----------
+
+    private <T> T onPrimary(Supplier<T> action) {
+        return ShardRoutingContext.callOn(PRIMARY_DATASOURCE, () -> transactionTemplate.execute(status -> action.get()));
+    }
+}
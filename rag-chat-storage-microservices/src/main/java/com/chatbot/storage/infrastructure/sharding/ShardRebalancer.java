@@ -0,0 +1,409 @@
+package com.chatbot.storage.infrastructure.sharding;
+
+import com.chatbot.storage.config.properties.ShardingProperties;
+import com.chatbot.storage.infrastructure.cache.SecondLevelCacheEvictor;
+import com.chatbot.storage.infrastructure.maintenance.ReplicationLagThrottle;
+import com.chatbot.storage.service.SessionArchiveService;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.chatbot.storage.constants.AppConstants.PRIMARY_DATASOURCE;
+
+/**
+ *
+ * Moves users whose shard changed with the hash ring, one user at a time. A move freezes
+ * the user's writes, copies sessions, archives, messages and their context chunks to the
+ * target, flips the user's reads and writes over, copies whatever a straggling write added
+ * meanwhile and finally deletes the user from the source. Rows are copied and deleted in
+ * bounded batches, each in its own transaction and after the shard's replicas caught up;
+ * copies skip rows the target already has, so an interrupted step is simply run again.
+ * Works on the shard pools directly, outside the routing data source. Archive blobs stay where they
+ * are; the chunks they reference are copied along, after indexing archives that predate
+ * the chunk references.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "app.datasource.sharding.rebalance", name = "enabled", havingValue = "true")
+public class ShardRebalancer {
+
+    private static final String USERS_SQL =
+            "SELECT DISTINCT user_id FROM chat_sessions WHERE user_id > ? ORDER BY user_id LIMIT ?";
+    private static final String SELECT_SESSIONS_SQL =
+            "SELECT id, user_id, session_name, description, is_favorite, status, message_count, last_message_at, " +
+            "message_version, created_at, updated_at, version FROM chat_sessions WHERE user_id = ?";
+    private static final String INSERT_SESSION_SQL =
+            "INSERT INTO chat_sessions (id, user_id, session_name, description, is_favorite, status, message_count, " +
+            "last_message_at, message_version, created_at, updated_at, version) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT (id) DO NOTHING";
+    private static final String SELECT_UNINDEXED_ARCHIVES_SQL =
+            "SELECT a.session_id FROM session_archives a JOIN chat_sessions s ON s.id = a.session_id " +
+            "WHERE s.user_id = ? AND NOT a.chunks_indexed";
+    private static final String SELECT_ARCHIVES_SQL =
+            "SELECT a.id, a.session_id, a.segment, a.segment_offset, a.length, a.checksum, a.message_count, " +
+            "a.chunks_indexed, a.created_at, a.updated_at, a.version FROM session_archives a " +
+            "JOIN chat_sessions s ON s.id = a.session_id WHERE s.user_id = ?";
+    private static final String INSERT_ARCHIVE_SQL =
+            "INSERT INTO session_archives (id, session_id, segment, segment_offset, length, checksum, message_count, " +
+            "chunks_indexed, created_at, updated_at, version) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT (session_id) DO NOTHING";
+    private static final String SELECT_CHUNK_REFERENCES_SQL =
+            "SELECT r.session_id, r.hash FROM session_archive_chunks r " +
+            "JOIN chat_sessions s ON s.id = r.session_id WHERE s.user_id = ?";
+    private static final String INSERT_CHUNK_REFERENCE_SQL =
+            "INSERT INTO session_archive_chunks (session_id, hash) VALUES (?, ?) ON CONFLICT DO NOTHING";
+    // Embeddings are left behind; the embedding worker of the target shard recomputes them
+    private static final String SELECT_MESSAGES_SQL =
+            "SELECT id, session_id, sender_type, content, context_data::text, metadata::text, created_at, updated_at, " +
+            "version FROM chat_messages WHERE session_id = ? AND (created_at, id) > (?, ?) ORDER BY created_at, id LIMIT ?";
+    private static final String INSERT_MESSAGE_SQL =
+            "INSERT INTO chat_messages (id, session_id, sender_type, content, context_data, metadata, created_at, " +
+            "updated_at, version) VALUES (?, ?, ?, ?, ?::jsonb, ?::jsonb, ?, ?, ?) ON CONFLICT DO NOTHING";
+    // Chunks referenced from hot messages and from archived ones, which keep their references in the blob
+    private static final String SELECT_CHUNKS_SQL =
+            "SELECT hash, payload::text, created_at FROM context_chunks WHERE hash IN (" +
+            "SELECT jsonb_path_query(m.context_data, '$.*[*].\"$chunkRef\"') #>> '{}' " +
+            "FROM chat_messages m JOIN chat_sessions s ON s.id = m.session_id " +
+            "WHERE s.user_id = ? AND m.context_data IS NOT NULL " +
+            "UNION SELECT r.hash FROM session_archive_chunks r JOIN chat_sessions s ON s.id = r.session_id " +
+            "WHERE s.user_id = ?)";
+    // Takes back a chunk the target's collector marked orphaned, as ContextChunkServiceImpl does
+    private static final String INSERT_CHUNK_SQL =
+            "INSERT INTO context_chunks (hash, payload, created_at) VALUES (?, ?::jsonb, ?) " +
+            "ON CONFLICT (hash) DO UPDATE SET orphaned_at = NULL WHERE context_chunks.orphaned_at IS NOT NULL";
+    private static final String RECOUNT_USER_SQL =
+            "UPDATE chat_sessions s SET message_count = COALESCE(" +
+            "(SELECT a.message_count FROM session_archives a WHERE a.session_id = s.id), 0) + " +
+            "(SELECT COUNT(*) FROM chat_messages m WHERE m.session_id = s.id), " +
+            "last_message_at = GREATEST(s.last_message_at, " +
+            "(SELECT MAX(m.created_at) FROM chat_messages m WHERE m.session_id = s.id)), " +
+            "message_version = s.message_version + 1 WHERE s.user_id = ?";
+    private static final String SESSION_IDS_SQL = "SELECT id FROM chat_sessions WHERE user_id = ?";
+    private static final String DELETE_MESSAGES_SQL =
+            "DELETE FROM chat_messages WHERE (id, created_at) IN (" +
+            "SELECT id, created_at FROM chat_messages WHERE session_id = ? LIMIT ?)";
+    // session_archives rows go with their session through the cascading foreign key
+    private static final String DELETE_SESSIONS_SQL = "DELETE FROM chat_sessions WHERE user_id = ? AND id IN (";
+    private static final LocalDateTime EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+    // Rows are copied column by column in select order; JSONB travels as text
+    private static final RowMapper<Object[]> ROW = (rs, rowNum) -> {
+        Object[] row = new Object[rs.getMetaData().getColumnCount()];
+        for (int i = 0; i < row.length; i++) {
+            row[i] = rs.getObject(i + 1);
+        }
+        return row;
+    };
+
+    private final ShardRouter shardRouter;
+    private final Map<String, ShardAccess> shards;
+    private final ShardMoveStore moveStore;
+    private final SecondLevelCacheEvictor cacheEvictor;
+    private final SessionArchiveService sessionArchiveService;
+    private final ShardingProperties properties;
+    private final Counter movedUsers;
+    private final Counter failedMoves;
+    // Keyset position of the user scan per source shard; wraps around at the end
+    private final Map<String, String> scanPositions = new ConcurrentHashMap<>();
+
+    /**
+     * Instantiates a new Shard rebalancer.
+     *
+     * @param shardRouter       the shard router
+     * @param shardRegistry     the shard registry
+     * @param primaryDataSource the primary shard's pool
+     * @param moveStore         the move store
+     * @param cacheEvictor          the cache evictor
+     * @param sessionArchiveService the session archive service
+     * @param properties            the properties
+     * @param meterRegistry         the meter registry
+     */
+    @Autowired
+    public ShardRebalancer(ShardRouter shardRouter,
+                           ShardRegistry shardRegistry,
+                           HikariDataSource primaryDataSource,
+                           ShardMoveStore moveStore,
+                           SecondLevelCacheEvictor cacheEvictor,
+                           SessionArchiveService sessionArchiveService,
+                           ShardingProperties properties,
+                           MeterRegistry meterRegistry) {
+        this(shardRouter, accessTo(primaryDataSource, shardRegistry), moveStore, cacheEvictor, sessionArchiveService,
+                properties, meterRegistry);
+    }
+
+    /**
+     * Instantiates a new Shard rebalancer.
+     *
+     * @param shardRouter           the shard router
+     * @param shards                direct access to every shard, by name
+     * @param moveStore             the move store
+     * @param cacheEvictor          the cache evictor
+     * @param sessionArchiveService the session archive service
+     * @param properties            the properties
+     * @param meterRegistry         the meter registry
+     */
+    ShardRebalancer(ShardRouter shardRouter,
+                    Map<String, ShardAccess> shards,
+                    ShardMoveStore moveStore,
+                    SecondLevelCacheEvictor cacheEvictor,
+                    SessionArchiveService sessionArchiveService,
+                    ShardingProperties properties,
+                    MeterRegistry meterRegistry) {
+        this.shardRouter = shardRouter;
+        this.shards = shards;
+        this.moveStore = moveStore;
+        this.cacheEvictor = cacheEvictor;
+        this.sessionArchiveService = sessionArchiveService;
+        this.properties = properties;
+        this.movedUsers = meterRegistry.counter("ragchat.sharding.moved.users");
+        this.failedMoves = meterRegistry.counter("ragchat.sharding.move.failures");
+    }
+
+    /**
+     * Statements and transactions against one shard's pool.
+     *
+     * @param jdbcTemplate        the jdbc template
+     * @param transactionTemplate the transaction template
+     * @param throttle            the throttle reading the lag of the shard's replicas
+     */
+    record ShardAccess(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                       ReplicationLagThrottle throttle) {
+
+        /**
+         * Instantiates a new Shard access throttled on the shard's own replicas.
+         *
+         * @param jdbcTemplate        the jdbc template
+         * @param transactionTemplate the transaction template
+         */
+        ShardAccess(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate) {
+            this(jdbcTemplate, transactionTemplate, new ReplicationLagThrottle(jdbcTemplate));
+        }
+    }
+
+    /**
+     * Move the next users found on a shard they no longer belong on.
+     */
+    @Scheduled(fixedDelayString = "${app.datasource.sharding.rebalance.interval-ms:10000}")
+    public void rebalance() {
+        shards.forEach((shard, access) -> {
+            try {
+                rebalanceShard(shard, access);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                log.error("Rebalancing shard {} failed", shard, e);
+            }
+        });
+    }
+
+    // ---------- Helper Methods ----------
+
+    private void rebalanceShard(String shard, ShardAccess source) throws InterruptedException {
+        String after = scanPositions.getOrDefault(shard, "");
+        List<String> users = source.jdbcTemplate().queryForList(USERS_SQL, String.class,
+                after, properties.getRebalance().getUsersPerRun());
+        scanPositions.put(shard, users.size() < properties.getRebalance().getUsersPerRun()
+                ? "" : users.get(users.size() - 1));
+
+        for (String userId : users) {
+            if (Thread.currentThread().isInterrupted()) {
+                return;
+            }
+            String target = shardRouter.targetShardOf(userId);
+            if (!target.equals(shard)) {
+                try {
+                    moveUser(userId, shard, target);
+                } catch (RuntimeException e) {
+                    // The move stays MOVING and is taken over once it went stale
+                    failedMoves.increment();
+                    log.error("Failed to move user {} from shard {} to {}", userId, shard, target, e);
+                }
+            }
+        }
+    }
+
+    private void moveUser(String userId, String sourceShard, String targetShard) throws InterruptedException {
+        ShardAccess source = shards.get(sourceShard);
+        ShardAccess target = shards.get(targetShard);
+
+        Optional<ShardMoveStore.Move> finished = moveStore.find(userId)
+                .filter(move -> move.moved() && move.targetShard().equals(targetShard));
+        if (finished.isEmpty()) {
+            indexArchives(userId, sourceShard, source);
+            // Not freezing the user while the target's replicas are behind keeps the freeze short
+            if (!awaitReplicas(target)) {
+                log.warn("Replicas of shard {} are behind, not moving user {} this run", targetShard, userId);
+                return;
+            }
+            LocalDateTime staleBefore = LocalDateTime.now().minus(properties.getRebalance().getStaleMoveAfter());
+            if (!moveStore.claim(userId, sourceShard, targetShard, staleBefore)) {
+                return;
+            }
+
+            // Writes that were routed before the claim get to commit on the source first
+            Thread.sleep(properties.getRebalance().getDrainWait().toMillis());
+            if (!copyUser(userId, source, target)) {
+                // The move stays MOVING and is taken over once it went stale
+                throw new IllegalStateException("Replicas of shard " + targetShard + " fell behind while copying");
+            }
+            moveStore.markMoved(userId, targetShard);
+        }
+
+        // Copy anything a write still routed to the source added, then drop the source's rows.
+        // The user is served from the target now; a later run picks up where this one stopped.
+        Thread.sleep(properties.getRebalance().getDrainWait().toMillis());
+        if (!copyUser(userId, source, target)) {
+            log.warn("Replicas of shard {} are behind, finishing the move of user {} in a later run",
+                    targetShard, userId);
+            return;
+        }
+        target.jdbcTemplate().update(RECOUNT_USER_SQL, userId);
+        List<UUID> sessionIds = source.jdbcTemplate().queryForList(SESSION_IDS_SQL, UUID.class, userId);
+        boolean deleted = deleteUser(userId, sessionIds, source);
+        sessionIds.forEach(cacheEvictor::evictSession);
+        if (!deleted) {
+            log.warn("Replicas of shard {} are behind, finishing the move of user {} in a later run",
+                    sourceShard, userId);
+            return;
+        }
+
+        movedUsers.increment();
+        log.info("Moved user {} with {} sessions from shard {} to {}", userId, sessionIds.size(), sourceShard, targetShard);
+    }
+
+    /**
+     * Copy the user's rows to the target, parents first.
+     *
+     * @return false if the target's replicas did not catch up
+     */
+    private boolean copyUser(String userId, ShardAccess source, ShardAccess target) throws InterruptedException {
+        List<Object[]> sessions = source.jdbcTemplate().query(SELECT_SESSIONS_SQL, ROW, userId);
+        if (!insert(target, INSERT_SESSION_SQL, sessions)
+                || !insert(target, INSERT_ARCHIVE_SQL, source.jdbcTemplate().query(SELECT_ARCHIVES_SQL, ROW, userId))
+                || !insert(target, INSERT_CHUNK_SQL,
+                        source.jdbcTemplate().query(SELECT_CHUNKS_SQL, ROW, userId, userId))
+                || !insert(target, INSERT_CHUNK_REFERENCE_SQL,
+                        source.jdbcTemplate().query(SELECT_CHUNK_REFERENCES_SQL, ROW, userId))) {
+            return false;
+        }
+
+        int batchSize = properties.getRebalance().getMessageBatchSize();
+        for (Object[] session : sessions) {
+            Object afterTime = Timestamp.valueOf(EPOCH);
+            Object afterId = new UUID(0, 0);
+            List<Object[]> messages;
+            do {
+                messages = source.jdbcTemplate().query(SELECT_MESSAGES_SQL, ROW, session[0], afterTime, afterId, batchSize);
+                if (!insert(target, INSERT_MESSAGE_SQL, messages)) {
+                    return false;
+                }
+                if (!messages.isEmpty()) {
+                    Object[] last = messages.get(messages.size() - 1);
+                    afterTime = last[6];
+                    afterId = last[0];
+                }
+            } while (messages.size() == batchSize);
+        }
+        return true;
+    }
+
+    /**
+     * Delete the user's messages and then its sessions from the source.
+     *
+     * @return false if the source's replicas did not catch up
+     */
+    private boolean deleteUser(String userId, List<UUID> sessionIds, ShardAccess source) throws InterruptedException {
+        int batchSize = properties.getRebalance().getMessageBatchSize();
+        for (UUID sessionId : sessionIds) {
+            int deleted;
+            do {
+                if (!awaitReplicas(source)) {
+                    return false;
+                }
+                deleted = source.jdbcTemplate().update(DELETE_MESSAGES_SQL, sessionId, batchSize);
+            } while (deleted == batchSize);
+        }
+
+        for (int from = 0; from < sessionIds.size(); from += batchSize) {
+            if (!awaitReplicas(source)) {
+                return false;
+            }
+            List<UUID> batch = sessionIds.subList(from, Math.min(from + batchSize, sessionIds.size()));
+            Object[] args = new Object[batch.size() + 1];
+            args[0] = userId;
+            for (int i = 0; i < batch.size(); i++) {
+                args[i + 1] = batch.get(i);
+            }
+            source.jdbcTemplate().update(DELETE_SESSIONS_SQL + placeholders(batch.size()) + ")", args);
+        }
+        return true;
+    }
+
+    /**
+     * Record the chunk references of the user's archives written before they were recorded
+     * on archival, so that the chunks those archives need are found and copied.
+     */
+    private void indexArchives(String userId, String sourceShard, ShardAccess source) {
+        List<UUID> unindexed = source.jdbcTemplate().queryForList(SELECT_UNINDEXED_ARCHIVES_SQL, UUID.class, userId);
+        // Before the claim, so that a failure leaves the user's writes alone; archives written later are indexed
+        unindexed.forEach(sessionId -> ShardRoutingContext.runOn(sourceShard,
+                () -> sessionArchiveService.indexChunkReferences(sessionId)));
+    }
+
+    /**
+     * Insert rows into the target, one transaction per batch.
+     *
+     * @return false if the target's replicas did not catch up
+     */
+    private boolean insert(ShardAccess target, String sql, List<Object[]> rows) throws InterruptedException {
+        int batchSize = properties.getRebalance().getMessageBatchSize();
+        for (int from = 0; from < rows.size(); from += batchSize) {
+            if (!awaitReplicas(target)) {
+                return false;
+            }
+            List<Object[]> batch = rows.subList(from, Math.min(from + batchSize, rows.size()));
+            target.transactionTemplate().executeWithoutResult(status -> target.jdbcTemplate().batchUpdate(sql, batch));
+        }
+        return true;
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    private boolean awaitReplicas(ShardAccess shard) throws InterruptedException {
+        ShardingProperties.Rebalance rebalance = properties.getRebalance();
+        return shard.throttle().awaitCatchUp(rebalance.getMaxReplicationLag(), rebalance.getMaxThrottleWait());
+    }
+
+    private static Map<String, ShardAccess> accessTo(DataSource primaryDataSource, ShardRegistry shardRegistry) {
+        Map<String, DataSource> dataSources = new LinkedHashMap<>();
+        dataSources.put(PRIMARY_DATASOURCE, primaryDataSource);
+        dataSources.putAll(shardRegistry.getShards());
+
+        Map<String, ShardAccess> access = new LinkedHashMap<>();
+        dataSources.forEach((name, dataSource) -> access.put(name, new ShardAccess(new JdbcTemplate(dataSource),
+                new TransactionTemplate(new DataSourceTransactionManager(dataSource)))));
+        return access;
+    }
+}
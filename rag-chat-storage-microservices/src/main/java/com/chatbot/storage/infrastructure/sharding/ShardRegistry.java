@@ -0,0 +1,87 @@
+package com.chatbot.storage.infrastructure.sharding;
+
+import com.chatbot.storage.config.properties.ShardingProperties;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static com.chatbot.storage.constants.AppConstants.PRIMARY_DATASOURCE;
+
+/**
+ *
+ * Owns the connection pools of the shards besides the primary.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.datasource.sharding", name = "enabled", havingValue = "true")
+public class ShardRegistry implements DisposableBean {
+
+    private final Map<String, DataSource> shards;
+
+    /**
+     * Instantiates a new Shard registry.
+     *
+     * @param properties the properties
+     */
+    @Autowired
+    public ShardRegistry(ShardingProperties properties) {
+        this(createPools(properties));
+    }
+
+    /**
+     * Instantiates a new Shard registry.
+     *
+     * @param shards the shard data sources by name
+     */
+    ShardRegistry(Map<String, DataSource> shards) {
+        this.shards = Collections.unmodifiableMap(shards);
+    }
+
+    /**
+     * Gets shards.
+     *
+     * @return the data sources of the shards besides the primary, by name
+     */
+    public Map<String, DataSource> getShards() {
+        return shards;
+    }
+
+    @Override
+    public void destroy() {
+        shards.values().forEach(dataSource -> {
+            if (dataSource instanceof HikariDataSource hikari) {
+                hikari.close();
+            }
+        });
+    }
+
+    // ---------- Helper Methods ----------
+
+    private static Map<String, DataSource> createPools(ShardingProperties properties) {
+        Map<String, DataSource> pools = new LinkedHashMap<>();
+        for (ShardingProperties.Shard shard : properties.getShards()) {
+            if (!StringUtils.hasText(shard.getName()) || !StringUtils.hasText(shard.getUrl())) {
+                throw new IllegalStateException("Every shard needs a name and a url");
+            }
+            if (PRIMARY_DATASOURCE.equals(shard.getName()) || pools.containsKey(shard.getName())) {
+                throw new IllegalStateException("Duplicate shard name: " + shard.getName());
+            }
+
+            HikariDataSource pool = new HikariDataSource();
+            pool.setPoolName("shard-" + shard.getName());
+            pool.setJdbcUrl(shard.getUrl());
+            pool.setUsername(shard.getUsername());
+            pool.setPassword(shard.getPassword());
+            pool.setMaximumPoolSize(shard.getMaximumPoolSize());
+            pools.put(shard.getName(), pool);
+        }
+        return pools;
+    }
+}
@@ -0,0 +1,220 @@
+package com.chatbot.storage.infrastructure.sharding;
+
+import com.chatbot.storage.config.properties.ShardingProperties;
+import com.chatbot.storage.exception.ResourceNotFoundException;
+import com.chatbot.storage.exception.ShardMoveInProgressException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import static com.chatbot.storage.constants.AppConstants.PRIMARY_DATASOURCE;
+
+/**
+ *
+ * Places every user on one shard through a consistent hash ring over the user id. While a
+ * rebalance moves users from the previous ring, a user stays on its old shard until its
+ * move finished, its writes are refused during the copy, and reads that miss on one shard
+ * are retried on the other.
+ */
+@Slf4j
+@Component
+public class ShardRouter {
+
+    private final ShardingProperties properties;
+    private final ShardMoveStore moveStore;
+    private final TransactionTemplate fallbackTemplate;
+    private final List<String> shardNames;
+    private final ConsistentHashRing ring;
+    private final ConsistentHashRing previousRing;
+    // A finished move never reverts for the same ring, so it is only looked up once
+    private final Set<String> movedUsers = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Instantiates a new Shard router.
+     *
+     * @param properties         the properties
+     * @param moveStore          the move store
+     * @param transactionManager the transaction manager
+     */
+    public ShardRouter(ShardingProperties properties,
+                       ShardMoveStore moveStore,
+                       PlatformTransactionManager transactionManager) {
+        this.properties = properties;
+        this.moveStore = moveStore;
+        this.fallbackTemplate = new TransactionTemplate(transactionManager);
+        this.fallbackTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.fallbackTemplate.setReadOnly(true);
+
+        List<String> names = new ArrayList<>();
+        names.add(PRIMARY_DATASOURCE);
+        properties.getShards().forEach(shard -> names.add(shard.getName()));
+        this.shardNames = List.copyOf(names);
+
+        if (properties.isEnabled()) {
+            this.ring = createRing(properties.getRing().isEmpty() ? shardNames : properties.getRing());
+            this.previousRing = properties.getPreviousRing().isEmpty() ? null : createRing(properties.getPreviousRing());
+        } else {
+            this.ring = null;
+            this.previousRing = null;
+        }
+    }
+
+    /**
+     * Where a user's data lives right now.
+     *
+     * @param owner    the shard reads and writes go to
+     * @param fallback the other shard of a user affected by the rebalance, or null
+     * @param frozen   true while the user's data is copied; writes are refused then
+     */
+    public record Placement(String owner, String fallback, boolean frozen) {
+    }
+
+    /**
+     * Is sharding enabled.
+     *
+     * @return the boolean
+     */
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * Gets shard names.
+     *
+     * @return the primary followed by the configured shards
+     */
+    public List<String> getShardNames() {
+        return shardNames;
+    }
+
+    /**
+     * The shard a user belongs on once the rebalance finished.
+     *
+     * @param userId the user id
+     * @return the shard name
+     */
+    public String targetShardOf(String userId) {
+        return ring == null ? PRIMARY_DATASOURCE : ring.nodeFor(userId);
+    }
+
+    /**
+     * Where a user's data lives right now.
+     *
+     * @param userId the user id
+     * @return the placement
+     */
+    public Placement placementOf(String userId) {
+        String target = targetShardOf(userId);
+        String source = previousRing == null ? target : previousRing.nodeFor(userId);
+        if (source.equals(target)) {
+            return new Placement(target, null, false);
+        }
+        if (movedUsers.contains(userId)) {
+            return new Placement(target, source, false);
+        }
+
+        ShardMoveStore.Move move = moveStore.find(userId)
+                .filter(found -> found.targetShard().equals(target))
+                .orElse(null);
+        if (move == null) {
+            return new Placement(source, target, false);
+        }
+        if (move.moved()) {
+            movedUsers.add(userId);
+            return new Placement(target, source, false);
+        }
+        return new Placement(source, target, true);
+    }
+
+    /**
+     * Routes the current transaction to the user's shard for reading. Must be called before its first statement.
+     *
+     * @param userId the user id
+     */
+    public void route(String userId) {
+        if (!isEnabled()) {
+            return;
+        }
+        ShardRoutingContext.bindToTransaction(placementOf(userId).owner());
+    }
+
+    /**
+     * Routes the current transaction to the user's shard for writing. Must be called before its first statement.
+     *
+     * @param userId the user id
+     * @throws ShardMoveInProgressException while the user's data is being moved
+     */
+    public void routeWrite(String userId) {
+        if (!isEnabled()) {
+            return;
+        }
+        Placement placement = placementOf(userId);
+        if (placement.frozen()) {
+            throw new ShardMoveInProgressException("The user's data is being moved, retry shortly");
+        }
+        ShardRoutingContext.bindToTransaction(placement.owner());
+    }
+
+    /**
+     * Runs a read on the user's shard and, if it finds nothing there while the user is
+     * affected by a rebalance, once more in a new read-only transaction on the other shard.
+     * Covers reads that were routed just before a move completed.
+     *
+     * @param <T>    the result type
+     * @param userId the user id
+     * @param read   the read, throwing ResourceNotFoundException when it finds nothing
+     * @return the read's result
+     */
+    public <T> T readWithFallback(String userId, Supplier<T> read) {
+        try {
+            return read.get();
+        } catch (ResourceNotFoundException e) {
+            String fallback = isEnabled() ? placementOf(userId).fallback() : null;
+            if (fallback == null) {
+                throw e;
+            }
+            log.debug("User {} not found on its shard, reading from {}", userId, fallback);
+            return ShardRoutingContext.callOn(fallback, () -> fallbackTemplate.execute(status -> read.get()));
+        }
+    }
+
+    /**
+     * Runs an action once per shard with its connections taken from that shard. A failure
+     * on one shard is logged and does not keep the action from running on the others.
+     *
+     * @param action the action
+     */
+    public void forEachShard(Runnable action) {
+        if (!isEnabled()) {
+            action.run();
+            return;
+        }
+
+        for (String shard : shardNames) {
+            try {
+                ShardRoutingContext.runOn(shard, action);
+            } catch (RuntimeException e) {
+                log.error("Failed on shard {}", shard, e);
+            }
+        }
+    }
+
+    // ---------- Helper Methods ----------
+
+    private ConsistentHashRing createRing(List<String> nodes) {
+        for (String node : nodes) {
+            if (!shardNames.contains(node)) {
+                throw new IllegalStateException("Unknown shard on the hash ring: " + node);
+            }
+        }
+        return new ConsistentHashRing(nodes, properties.getVirtualNodes());
+    }
+}
@@ -0,0 +1,103 @@
+package com.chatbot.storage.infrastructure.sharding;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Supplier;
+
+import static com.chatbot.storage.constants.AppConstants.PRIMARY_DATASOURCE;
+
+/**
+ *
+ * Thread-bound shard the next connection is taken from.
+ */
+public final class ShardRoutingContext {
+
+    private static final ThreadLocal<String> CURRENT_SHARD = new ThreadLocal<>();
+
+    private ShardRoutingContext() {
+    }
+
+    /**
+     * Routes the current transaction to a shard. Has to run before its first statement,
+     * the binding is cleared when the transaction completes.
+     *
+     * @param shard the shard name
+     */
+    public static void bindToTransaction(String shard) {
+        String current = CURRENT_SHARD.get();
+        if (shard.equals(current)) {
+            return;
+        }
+        if (current != null) {
+            // The transaction may already hold a connection to the other shard
+            throw new IllegalStateException("Already routed to shard " + current + ", cannot switch to " + shard);
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Routing to a shard requires an active transaction");
+        }
+
+        CURRENT_SHARD.set(shard);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                CURRENT_SHARD.remove();
+            }
+        });
+    }
+
+    /**
+     * Runs an action with every connection it opens taken from a shard. Transactions it
+     * joins keep the connection they already hold.
+     *
+     * @param <T>    the result type
+     * @param shard  the shard name
+     * @param action the action
+     * @return the action's result
+     */
+    public static <T> T callOn(String shard, Supplier<T> action) {
+        String previous = CURRENT_SHARD.get();
+        CURRENT_SHARD.set(shard);
+        try {
+            return action.get();
+        } finally {
+            if (previous != null) {
+                CURRENT_SHARD.set(previous);
+            } else {
+                CURRENT_SHARD.remove();
+            }
+        }
+    }
+
+    /**
+     * Runs an action with every connection it opens taken from a shard.
+     *
+     * @param shard  the shard name
+     * @param action the action
+     */
+    public static void runOn(String shard, Runnable action) {
+        callOn(shard, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * Current shard.
+     *
+     * @return the shard name, or null when nothing is routed
+     */
+    public static String currentShard() {
+        return CURRENT_SHARD.get();
+    }
+
+    /**
+     * Current shard, where unrouted connections go to the primary.
+     *
+     * @return the shard name
+     */
+    public static String currentShardOrPrimary() {
+        String shard = CURRENT_SHARD.get();
+        return shard != null ? shard : PRIMARY_DATASOURCE;
+    }
+}
@@ -0,0 +1,39 @@
+package com.chatbot.storage.infrastructure.sharding;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.chatbot.storage.constants.AppConstants.PRIMARY_DATASOURCE;
+
+/**
+ *
+ * Sends each connection to the shard bound in {@link ShardRoutingContext}, and to the
+ * primary shard when none is. Must sit behind a LazyConnectionDataSourceProxy so the lookup
+ * happens after the service has routed its transaction.
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource {
+
+    /**
+     * Instantiates a new Shard routing data source.
+     *
+     * @param shards the data sources by shard name, including the primary
+     */
+    public ShardRoutingDataSource(Map<String, DataSource> shards) {
+        if (!shards.containsKey(PRIMARY_DATASOURCE)) {
+            throw new IllegalArgumentException("The shards must include the primary");
+        }
+
+        setTargetDataSources(new HashMap<>(shards));
+        setDefaultTargetDataSource(shards.get(PRIMARY_DATASOURCE));
+        // An unknown shard name is a configuration error, never a reason to write to the primary
+        setLenientFallback(false);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return ShardRoutingContext.currentShardOrPrimary();
+    }
+}
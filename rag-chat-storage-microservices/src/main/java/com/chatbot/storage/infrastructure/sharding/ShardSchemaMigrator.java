@@ -0,0 +1,55 @@
+package com.chatbot.storage.infrastructure.sharding;
+
+import com.chatbot.storage.config.properties.ShardingProperties;
+import liquibase.integration.spring.SpringLiquibase;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ *
+ * Applies the Liquibase changelog to every shard besides the primary, which Spring Boot
+ * migrates itself, so a new shard is usable as soon as the instance has started.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "app.datasource.sharding", name = "enabled", havingValue = "true")
+public class ShardSchemaMigrator implements InitializingBean {
+
+    private final ShardRegistry shardRegistry;
+    private final ShardingProperties properties;
+    private final ResourceLoader resourceLoader;
+    private final String changeLog;
+
+    public ShardSchemaMigrator(ShardRegistry shardRegistry,
+                               ShardingProperties properties,
+                               ResourceLoader resourceLoader,
+                               @Value("${spring.liquibase.change-log:classpath:db/changelog/db.changelog-master.xml}") String changeLog) {
+        this.shardRegistry = shardRegistry;
+        this.properties = properties;
+        this.resourceLoader = resourceLoader;
+        this.changeLog = changeLog;
+    }
+
+    @Override
+    public void afterPropertiesSet() throws Exception {
+        if (!properties.isMigrateSchema()) {
+            return;
+        }
+
+        for (Map.Entry<String, DataSource> shard : shardRegistry.getShards().entrySet()) {
+            log.info("Applying {} to shard {}", changeLog, shard.getKey());
+            SpringLiquibase liquibase = new SpringLiquibase();
+            liquibase.setDataSource(shard.getValue());
+            liquibase.setChangeLog(changeLog);
+            liquibase.setResourceLoader(resourceLoader);
+            liquibase.afterPropertiesSet();
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.chatbot.storage.infrastructure.stream;
+
+import com.chatbot.storage.config.properties.StreamingProperties;
+import com.chatbot.storage.dto.response.MessageResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ *
+ * Fans stored messages out to the message streams of every instance. A message is handed
+ * to this instance's streams directly and published on a Redis channel for the others, once
+ * its transaction committed. Each instance holds a single subscription to the channel,
+ * however many streams it serves. Delivery is best effort: clients that reconnect refetch
+ * the messages they may have missed.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "app.streaming", name = "enabled", havingValue = "true")
+public class SessionMessageBroadcaster implements MessageListener {
+
+    private static final String SEPARATOR = "|";
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final ObjectMapper objectMapper;
+    private final SessionSubscriptions subscriptions;
+    private final StreamingProperties properties;
+
+    /**
+     * Subscribe to the fan-out channel.
+     */
+    @PostConstruct
+    public void register() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(properties.getChannel()));
+        log.info("Message streaming enabled on channel {}", properties.getChannel());
+    }
+
+    /**
+     * Publish a stored message once the current transaction commits, or right away outside one.
+     *
+     * @param message the message
+     */
+    public void publish(MessageResponse message) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    broadcast(message);
+                }
+            });
+        } else {
+            broadcast(message);
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int separator = body.indexOf(SEPARATOR);
+        // This instance's own messages were delivered locally already
+        if (separator < 0 || nodeId.equals(body.substring(0, separator))) {
+            return;
+        }
+
+        try {
+            subscriptions.deliver(objectMapper.readValue(body.substring(separator + 1), MessageResponse.class));
+        } catch (JsonProcessingException e) {
+            log.warn("Failed to read streamed message: {}", e.getMessage());
+        }
+    }
+
+    // ---------- Helper Methods ----------
+
+    private void broadcast(MessageResponse message) {
+        subscriptions.deliver(message);
+        try {
+            redisTemplate.convertAndSend(properties.getChannel(),
+                    nodeId + SEPARATOR + objectMapper.writeValueAsString(message));
+        } catch (JsonProcessingException | DataAccessException e) {
+            // Streams on other instances miss it; their clients catch up when they reconnect
+            log.warn("Failed to broadcast message {} of session {}: {}", message.getId(), message.getSessionId(),
+                    e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.chatbot.storage.infrastructure.stream;
+
+import com.chatbot.storage.config.properties.StreamingProperties;
+import com.chatbot.storage.dto.response.MessageResponse;
+import com.chatbot.storage.exception.StreamLimitExceededException;
+import com.chatbot.storage.exception.ValidationException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.chatbot.storage.constants.AppConstants.STREAM_EVENT_MESSAGE;
+import static com.chatbot.storage.constants.AppConstants.STREAM_EVENT_OVERFLOW;
+
+/**
+ *
+ * The message streams open on this instance. Each stream has a bounded buffer drained by
+ * its own virtual thread, so an idle stream holds no platform thread and a slow client only
+ * blocks its own drain. Delivery never waits: a stream whose buffer is full is told so and
+ * closed, and its client refetches the messages and subscribes again.
+ */
+@Slf4j
+@Component
+public class SessionSubscriptions {
+
+    private static final String HEARTBEAT = "heartbeat";
+
+    private final StreamingProperties properties;
+    private final Map<UUID, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final ThreadFactory drainThreads = Thread.ofVirtual().name("session-stream-", 0).factory();
+    private final Counter delivered;
+    private final Counter overflows;
+
+    public SessionSubscriptions(StreamingProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.delivered = meterRegistry.counter("ragchat.stream.delivered");
+        this.overflows = meterRegistry.counter("ragchat.stream.overflows");
+        meterRegistry.gauge("ragchat.stream.subscribers", subscriberCount);
+    }
+
+    /**
+     * Open a stream of the messages stored in a session from now on. The caller checks
+     * that the session belongs to the user.
+     *
+     * @param sessionId the session id
+     * @return the emitter to return from the controller
+     */
+    public SseEmitter subscribe(UUID sessionId) {
+        if (!properties.isEnabled()) {
+            throw new ValidationException("Message streaming is not enabled");
+        }
+        if (subscriberCount.incrementAndGet() > properties.getMaxSubscribers()) {
+            subscriberCount.decrementAndGet();
+            throw new StreamLimitExceededException("Too many open message streams, retry later");
+        }
+
+        SseEmitter emitter = new SseEmitter(properties.getTimeout().toMillis());
+        Subscriber subscriber = new Subscriber(sessionId, emitter, new ArrayBlockingQueue<>(properties.getBufferSize()));
+        // Added under the map's lock, so a concurrent close cannot drop the set it lands in
+        subscribers.compute(sessionId, (id, sessionSubscribers) -> {
+            Set<Subscriber> updated = sessionSubscribers != null ? sessionSubscribers : ConcurrentHashMap.newKeySet();
+            updated.add(subscriber);
+            return updated;
+        });
+        emitter.onCompletion(() -> close(subscriber));
+        emitter.onTimeout(() -> close(subscriber));
+        emitter.onError(e -> close(subscriber));
+
+        subscriber.drainer = drainThreads.newThread(() -> drain(subscriber));
+        subscriber.drainer.start();
+        log.debug("Stream opened on session {}", sessionId);
+        return subscriber.emitter;
+    }
+
+    /**
+     * Hand a message to the streams of its session on this instance, without waiting.
+     *
+     * @param message the message
+     */
+    public void deliver(MessageResponse message) {
+        Set<Subscriber> sessionSubscribers = subscribers.get(message.getSessionId());
+        if (sessionSubscribers == null) {
+            return;
+        }
+        for (Subscriber subscriber : sessionSubscribers) {
+            if (!subscriber.buffer.offer(message) && !subscriber.overflowed) {
+                subscriber.overflowed = true;
+                overflows.increment();
+                log.debug("Stream on session {} fell behind, closing it", message.getSessionId());
+            }
+        }
+    }
+
+    /**
+     * Gets the number of open streams.
+     *
+     * @return the subscriber count
+     */
+    public int getSubscriberCount() {
+        return subscriberCount.get();
+    }
+
+    /**
+     * Close all streams, so their clients reconnect to another instance.
+     */
+    @PreDestroy
+    public void closeAll() {
+        subscribers.values().forEach(sessionSubscribers -> sessionSubscribers.forEach(subscriber -> {
+            close(subscriber);
+            subscriber.emitter.complete();
+        }));
+    }
+
+    // ---------- Helper Methods ----------
+
+    private void drain(Subscriber subscriber) {
+        long heartbeatMillis = properties.getHeartbeatInterval().toMillis();
+        try {
+            while (!subscriber.closed.get()) {
+                if (subscriber.overflowed) {
+                    subscriber.emitter.send(SseEmitter.event().name(STREAM_EVENT_OVERFLOW).data(STREAM_EVENT_OVERFLOW));
+                    subscriber.emitter.complete();
+                    return;
+                }
+                MessageResponse message = subscriber.buffer.poll(heartbeatMillis, TimeUnit.MILLISECONDS);
+                if (message == null) {
+                    subscriber.emitter.send(SseEmitter.event().comment(HEARTBEAT));
+                } else {
+                    subscriber.emitter.send(SseEmitter.event()
+                            .id(message.getId().toString())
+                            .name(STREAM_EVENT_MESSAGE)
+                            .data(message, MediaType.APPLICATION_JSON));
+                    delivered.increment();
+                }
+            }
+        } catch (InterruptedException e) {
+            // Closed while waiting for a message
+            Thread.currentThread().interrupt();
+        } catch (IOException | IllegalStateException e) {
+            // The client went away, or the emitter completed meanwhile; the container completes the request
+            log.debug("Stream on session {} ended: {}", subscriber.sessionId, e.getMessage());
+            close(subscriber);
+        }
+    }
+
+    private void close(Subscriber subscriber) {
+        if (!subscriber.closed.compareAndSet(false, true)) {
+            return;
+        }
+        subscribers.computeIfPresent(subscriber.sessionId, (id, sessionSubscribers) -> {
+            sessionSubscribers.remove(subscriber);
+            return sessionSubscribers.isEmpty() ? null : sessionSubscribers;
+        });
+        subscriberCount.decrementAndGet();
+
+        Thread drainer = subscriber.drainer;
+        if (drainer != null && drainer != Thread.currentThread()) {
+            drainer.interrupt();
+        }
+    }
+
+    private static final class Subscriber {
+        private final UUID sessionId;
+        private final SseEmitter emitter;
+        private final BlockingQueue<MessageResponse> buffer;
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private volatile boolean overflowed;
+        private volatile Thread drainer;
+
+        private Subscriber(UUID sessionId, SseEmitter emitter, BlockingQueue<MessageResponse> buffer) {
+            this.sessionId = sessionId;
+            this.emitter = emitter;
+            this.buffer = buffer;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.chatbot.storage.infrastructure.sync;
+
+import com.chatbot.storage.config.properties.SyncProperties;
+import com.chatbot.storage.enums.SyncEntityType;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ *
+ * Records session and message changes in the sync change log within the caller's
+ * transaction, so a change is listed exactly when it committed. Archiving, rehydration
+ * and shard moves do not change what a user sees and are not recorded. Does nothing
+ * while delta sync is disabled.
+ */
+@Component
+@RequiredArgsConstructor
+public class SyncChangeWriter {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO sync_changes (user_id, session_id, entity_type, entity_id, deleted) VALUES ";
+    private static final String ROW_VALUES = "(?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SyncProperties properties;
+
+    /**
+     * A change to record.
+     *
+     * @param userId     the user the entity belongs to
+     * @param sessionId  the session, or the session the message belongs to
+     * @param entityType the entity type
+     * @param entityId   the entity id
+     * @param deleted    true for a deletion
+     */
+    public record Change(String userId, UUID sessionId, SyncEntityType entityType, UUID entityId, boolean deleted) {
+
+        /**
+         * A created or updated session.
+         *
+         * @param userId    the user id
+         * @param sessionId the session id
+         * @return the change
+         */
+        public static Change session(String userId, UUID sessionId) {
+            return new Change(userId, sessionId, SyncEntityType.SESSION, sessionId, false);
+        }
+
+        /**
+         * A created message.
+         *
+         * @param userId    the user id
+         * @param sessionId the session id
+         * @param messageId the message id
+         * @return the change
+         */
+        public static Change message(String userId, UUID sessionId, UUID messageId) {
+            return new Change(userId, sessionId, SyncEntityType.MESSAGE, messageId, false);
+        }
+
+        /**
+         * This change as a deletion.
+         *
+         * @return the change
+         */
+        public Change asDeleted() {
+            return new Change(userId, sessionId, entityType, entityId, true);
+        }
+    }
+
+    /**
+     * Is delta sync enabled.
+     *
+     * @return the boolean
+     */
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * Record a change.
+     *
+     * @param change the change
+     */
+    public void record(Change change) {
+        recordAll(List.of(change));
+    }
+
+    /**
+     * Record several changes with one statement.
+     *
+     * @param changes the changes
+     */
+    public void recordAll(List<Change> changes) {
+        if (!properties.isEnabled() || changes.isEmpty()) {
+            return;
+        }
+
+        List<Object> args = new ArrayList<>(changes.size() * 5);
+        for (Change change : changes) {
+            Collections.addAll(args, change.userId(), change.sessionId(), change.entityType().name(),
+                    change.entityId(), change.deleted());
+        }
+        jdbcTemplate.update(INSERT_SQL + String.join(", ", Collections.nCopies(changes.size(), ROW_VALUES)),
+                args.toArray());
+    }
+}
@@ -0,0 +1,174 @@
+package com.chatbot.storage.infrastructure.text;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ *
+ * Append-only in-memory BM25 index. Documents are numbered in insertion order and each
+ * term keeps its postings in parallel int arrays, so there is no boxing per posting.
+ */
+public final class Bm25Index {
+
+    private static final float DEFAULT_K1 = 1.2f;
+    private static final float DEFAULT_B = 0.75f;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final float k1;
+    private final float b;
+    private final Map<String, PostingList> postings = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private int[] documentLengths = new int[INITIAL_CAPACITY];
+    private int documentCount;
+    private long totalLength;
+
+    /**
+     * Instantiates a new Bm25 index with the usual k1 = 1.2 and b = 0.75.
+     */
+    public Bm25Index() {
+        this(DEFAULT_K1, DEFAULT_B);
+    }
+
+    /**
+     * Instantiates a new Bm25 index.
+     *
+     * @param k1 term frequency saturation
+     * @param b  document length normalisation
+     */
+    public Bm25Index(float k1, float b) {
+        this.k1 = k1;
+        this.b = b;
+    }
+
+    /**
+     * Document matched by a search.
+     *
+     * @param document the document number
+     * @param score    the score
+     */
+    public record ScoredDocument(int document, float score) {
+    }
+
+    /**
+     * Add a document.
+     *
+     * @param text the text
+     * @return the document number
+     */
+    public int add(String text) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        List<String> tokens = TextTokenizer.tokenize(text);
+        for (String token : tokens) {
+            frequencies.merge(token, 1, Integer::sum);
+        }
+
+        lock.writeLock().lock();
+        try {
+            int document = documentCount++;
+            if (document == documentLengths.length) {
+                documentLengths = Arrays.copyOf(documentLengths, document * 2);
+            }
+            documentLengths[document] = tokens.size();
+            totalLength += tokens.size();
+            frequencies.forEach((term, frequency) ->
+                    postings.computeIfAbsent(term, key -> new PostingList()).add(document, frequency));
+            return document;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Size int.
+     *
+     * @return the number of documents
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documentCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Top documents for the query, best first. Documents sharing no term with it are left out.
+     *
+     * @param query the query
+     * @param limit the maximum number of documents
+     * @return the scored documents
+     */
+    public List<ScoredDocument> search(String query, int limit) {
+        lock.readLock().lock();
+        try {
+            if (documentCount == 0 || limit <= 0) {
+                return List.of();
+            }
+
+            float[] scores = new float[documentCount];
+            boolean[] matched = new boolean[documentCount];
+            float averageLength = (float) totalLength / documentCount;
+
+            for (String term : new LinkedHashSet<>(TextTokenizer.tokenize(query))) {
+                PostingList list = postings.get(term);
+                if (list == null) {
+                    continue;
+                }
+                float idf = (float) Math.log(1 + (documentCount - list.size + 0.5) / (list.size + 0.5));
+                for (int i = 0; i < list.size; i++) {
+                    int document = list.documents[i];
+                    float frequency = list.frequencies[i];
+                    float norm = k1 * (1 - b + b * documentLengths[document] / averageLength);
+                    scores[document] += idf * frequency * (k1 + 1) / (frequency + norm);
+                    matched[document] = true;
+                }
+            }
+
+            PriorityQueue<ScoredDocument> top = new PriorityQueue<>(Comparator.comparingDouble(ScoredDocument::score));
+            for (int document = 0; document < documentCount; document++) {
+                if (!matched[document]) {
+                    continue;
+                }
+                if (top.size() < limit) {
+                    top.add(new ScoredDocument(document, scores[document]));
+                } else if (scores[document] > top.peek().score()) {
+                    top.poll();
+                    top.add(new ScoredDocument(document, scores[document]));
+                }
+            }
+
+            List<ScoredDocument> results = new ArrayList<>(top);
+            results.sort(Comparator.comparingDouble(ScoredDocument::score).reversed());
+            return results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ---------- Helper Methods ----------
+
+    private static final class PostingList {
+
+        private int[] documents = new int[2];
+        private int[] frequencies = new int[2];
+        private int size;
+
+        private void add(int document, int frequency) {
+            if (size == documents.length) {
+                documents = Arrays.copyOf(documents, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            documents[size] = document;
+            frequencies[size] = frequency;
+            size++;
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.chatbot.storage.infrastructure.text;
+
+import com.chatbot.storage.config.properties.HybridSearchProperties;
+import com.chatbot.storage.infrastructure.sharding.ShardRouter;
+import com.chatbot.storage.infrastructure.sharding.ShardRoutingContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ *
+ * Per-user BM25 indexes over message content. Messages saved on this instance are added
+ * as soon as their transaction commits; everything else, including the full corpus after
+ * a restart, is read from the database by following created_at.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "app.hybrid-search", name = "enabled", havingValue = "true")
+public class LexicalIndexService {
+
+    private static final LocalDateTime EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final String CREATED_SINCE_SQL =
+            "SELECT m.id, s.user_id, m.content, m.created_at " +
+            "FROM chat_messages m JOIN chat_sessions s ON s.id = m.session_id " +
+            "WHERE (m.created_at, m.id) > (?, ?) ORDER BY m.created_at, m.id LIMIT ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final HybridSearchProperties properties;
+    private final ShardRouter shardRouter;
+    private final Map<String, UserIndex> indexes = new ConcurrentHashMap<>();
+    // Each shard's messages are followed separately; their clocks and commit order differ
+    private final Map<String, LocalDateTime> watermarks = new ConcurrentHashMap<>();
+
+    public LexicalIndexService(JdbcTemplate jdbcTemplate, HybridSearchProperties properties, ShardRouter shardRouter) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+        this.shardRouter = shardRouter;
+    }
+
+    /**
+     * Message matched by a search.
+     *
+     * @param id    the message id
+     * @param score the BM25 score
+     */
+    public record Match(UUID id, float score) {
+    }
+
+    private record StoredMessage(UUID id, String userId, String content, LocalDateTime createdAt) {
+    }
+
+    /**
+     * Pull messages created on every shard since the last sync. The first run after startup reads them all.
+     */
+    @Scheduled(fixedDelayString = "${app.hybrid-search.sync-interval-ms:2000}")
+    public void syncFromDatabase() {
+        shardRouter.forEachShard(this::syncShard);
+    }
+
+    /**
+     * Add a message to its user's index.
+     *
+     * @param userId    the user id
+     * @param messageId the message id
+     * @param content   the content
+     * @return false if the message was already indexed
+     */
+    public boolean add(String userId, UUID messageId, String content) {
+        return indexes.computeIfAbsent(userId, key -> new UserIndex(new Bm25Index(properties.getK1(), properties.getB())))
+                .add(messageId, content);
+    }
+
+    /**
+     * Messages of the user ranked by BM25 against the query, best first.
+     *
+     * @param userId the user id
+     * @param query  the query
+     * @param limit  the maximum number of results
+     * @return the matches
+     */
+    public List<Match> search(String userId, String query, int limit) {
+        UserIndex index = indexes.get(userId);
+        return index == null ? List.of() : index.search(query, limit);
+    }
+
+    // ---------- Helper Methods ----------
+
+    private void syncShard() {
+        String shard = ShardRoutingContext.currentShardOrPrimary();
+        LocalDateTime watermark = watermarks.getOrDefault(shard, EPOCH);
+        LocalDateTime afterTime = watermark.equals(EPOCH) ? EPOCH : watermark.minus(properties.getSyncOverlap());
+        UUID afterId = new UUID(0, 0);
+        int batchSize = properties.getSyncBatchSize();
+        int added = 0;
+
+        List<StoredMessage> batch;
+        do {
+            batch = jdbcTemplate.query(CREATED_SINCE_SQL, (rs, rowNum) -> new StoredMessage(
+                            rs.getObject("id", UUID.class),
+                            rs.getString("user_id"),
+                            rs.getString("content"),
+                            rs.getTimestamp("created_at").toLocalDateTime()),
+                    Timestamp.valueOf(afterTime), afterId, batchSize);
+
+            for (StoredMessage message : batch) {
+                if (add(message.userId(), message.id(), message.content())) {
+                    added++;
+                }
+            }
+            if (!batch.isEmpty()) {
+                StoredMessage last = batch.get(batch.size() - 1);
+                afterTime = last.createdAt();
+                afterId = last.id();
+                if (afterTime.isAfter(watermark)) {
+                    watermark = afterTime;
+                    watermarks.put(shard, watermark);
+                }
+            }
+        } while (batch.size() == batchSize);
+
+        if (added > 0) {
+            log.debug("Indexed {} new messages for lexical search", added);
+        }
+    }
+
+    /**
+     * Maps the document numbers of a user's BM25 index back to message ids.
+     */
+    private static final class UserIndex {
+
+        private final Bm25Index index;
+        private final Set<UUID> indexed = new HashSet<>();
+        private UUID[] messageIds = new UUID[16];
+
+        private UserIndex(Bm25Index index) {
+            this.index = index;
+        }
+
+        private synchronized boolean add(UUID messageId, String content) {
+            if (!indexed.add(messageId)) {
+                return false;
+            }
+            int document = index.add(content);
+            if (document == messageIds.length) {
+                messageIds = Arrays.copyOf(messageIds, document * 2);
+            }
+            messageIds[document] = messageId;
+            return true;
+        }
+
+        private List<Match> search(String query, int limit) {
+            List<Bm25Index.ScoredDocument> documents = index.search(query, limit);
+            UUID[] ids;
+            synchronized (this) {
+                ids = messageIds;
+            }
+            List<Match> matches = new ArrayList<>(documents.size());
+            for (Bm25Index.ScoredDocument document : documents) {
+                matches.add(new Match(ids[document.document()], document.score()));
+            }
+            return matches;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.chatbot.storage.infrastructure.text;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ *
+ * Reciprocal rank fusion: every ranking contributes 1 / (k + rank) for each result, so
+ * rankers with incomparable scores (BM25, cosine similarity) can be merged by position alone.
+ */
+public final class RankFusion {
+
+    private RankFusion() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Fused result. The ranks are 1-based and null when the ranking did not return it.
+     *
+     * @param id          the id
+     * @param score       the fused score
+     * @param lexicalRank the lexical rank
+     * @param vectorRank  the vector rank
+     */
+    public record Fused(UUID id, float score, Integer lexicalRank, Integer vectorRank) {
+    }
+
+    /**
+     * Fuse two rankings, best first.
+     *
+     * @param lexical the lexical ranking, best first
+     * @param vector  the vector ranking, best first
+     * @param k       the rank constant
+     * @param limit   the maximum number of results
+     * @return the fused ranking
+     */
+    public static List<Fused> fuse(List<UUID> lexical, List<UUID> vector, int k, int limit) {
+        Map<UUID, Fused> fused = new LinkedHashMap<>();
+        for (int i = 0; i < lexical.size(); i++) {
+            int rank = i + 1;
+            fused.merge(lexical.get(i), new Fused(lexical.get(i), 1f / (k + rank), rank, null),
+                    (current, next) -> current);
+        }
+        for (int i = 0; i < vector.size(); i++) {
+            int rank = i + 1;
+            UUID id = vector.get(i);
+            Fused current = fused.get(id);
+            if (current == null) {
+                fused.put(id, new Fused(id, 1f / (k + rank), null, rank));
+            } else if (current.vectorRank() == null) {
+                fused.put(id, new Fused(id, current.score() + 1f / (k + rank), current.lexicalRank(), rank));
+            }
+        }
+
+        List<Fused> results = new ArrayList<>(fused.values());
+        results.sort(Comparator.comparingDouble(Fused::score).reversed());
+        return results.size() > limit ? results.subList(0, limit) : results;
+    }
+}
@@ -0,0 +1,38 @@
+package com.chatbot.storage.infrastructure.text;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ *
+ * Lower-cases text and splits it on anything that is not a letter or digit.
+ */
+public final class TextTokenizer {
+
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+
+    private TextTokenizer() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Tokenize list.
+     *
+     * @param text the text
+     * @return the tokens in order, duplicates included
+     */
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        for (String token : TOKEN_SEPARATOR.split(text.toLowerCase(Locale.ROOT))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+}
@@ -0,0 +1,24 @@
+package com.chatbot.storage.infrastructure.vector;
+
+/**
+ *
+ * Turns message text into a unit-length vector. Declare a bean of this type to
+ * replace the built-in {@link HashingEmbedder}.
+ */
+public interface Embedder {
+
+    /**
+     * Dimensions int.
+     *
+     * @return the number of dimensions of every embedding
+     */
+    int dimensions();
+
+    /**
+     * Embed text.
+     *
+     * @param text the text
+     * @return the L2-normalised embedding, all zeros when the text has no tokens
+     */
+    float[] embed(String text);
+}
@@ -0,0 +1,87 @@
+package com.chatbot.storage.infrastructure.vector;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ *
+ * Deterministic offline embedder using signed feature hashing of word unigrams and
+ * bigrams. Captures lexical overlap rather than meaning, but needs no model or network
+ * and gives the same vector for the same text on every node.
+ */
+public class HashingEmbedder implements Embedder {
+
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+    private static final float BIGRAM_WEIGHT = 0.5f;
+    private static final int FNV_OFFSET = 0x811c9dc5;
+    private static final int FNV_PRIME = 0x01000193;
+
+    private final int dimensions;
+
+    /**
+     * Instantiates a new Hashing embedder.
+     *
+     * @param dimensions the dimensions
+     */
+    public HashingEmbedder(int dimensions) {
+        this.dimensions = dimensions;
+    }
+
+    @Override
+    public int dimensions() {
+        return dimensions;
+    }
+
+    @Override
+    public float[] embed(String text) {
+        float[] vector = new float[dimensions];
+        if (text == null) {
+            return vector;
+        }
+
+        String previous = null;
+        for (String token : TOKEN_SEPARATOR.split(text.toLowerCase(Locale.ROOT))) {
+            if (token.isEmpty()) {
+                continue;
+            }
+            accumulate(vector, token, 1f);
+            if (previous != null) {
+                accumulate(vector, previous + ' ' + token, BIGRAM_WEIGHT);
+            }
+            previous = token;
+        }
+        return normalize(vector);
+    }
+
+    // ---------- Helper Methods ----------
+
+    private void accumulate(float[] vector, String feature, float weight) {
+        int hash = fnv1a(feature);
+        // The top bit picks the sign so colliding features tend to cancel out instead of adding up
+        vector[Math.floorMod(hash, dimensions)] += hash < 0 ? -weight : weight;
+    }
+
+    private static float[] normalize(float[] vector) {
+        double norm = 0;
+        for (float value : vector) {
+            norm += value * value;
+        }
+        if (norm > 0) {
+            float scale = (float) (1 / Math.sqrt(norm));
+            for (int i = 0; i < vector.length; i++) {
+                vector[i] *= scale;
+            }
+        }
+        return vector;
+    }
+
+    private static int fnv1a(String feature) {
+        int hash = FNV_OFFSET;
+        for (byte b : feature.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+}
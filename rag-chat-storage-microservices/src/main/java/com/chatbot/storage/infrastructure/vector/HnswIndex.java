@@ -0,0 +1,438 @@
+package com.chatbot.storage.infrastructure.vector;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ *
+ * In-memory HNSW graph (Malkov and Yashunin) over unit-length vectors, scored by dot product.
+ * Inserts are serialised; searches run concurrently with each other.
+ */
+public final class HnswIndex {
+
+    private static final int MAGIC = 0x484E5357;
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 8 * Integer.BYTES;
+    private static final int INITIAL_CAPACITY = 64;
+    private static final int[] NO_LINKS = new int[0];
+    private static final Comparator<Candidate> BEST_FIRST = Comparator.comparingDouble(Candidate::score).reversed();
+    private static final Comparator<Candidate> WORST_FIRST = Comparator.comparingDouble(Candidate::score);
+
+    private final int dimensions;
+    private final int m;
+    private final int maxM0;
+    private final int efConstruction;
+    private final double levelMultiplier;
+    private final SplittableRandom random;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<UUID, Integer> ordinals = new HashMap<>();
+
+    private UUID[] ids = new UUID[INITIAL_CAPACITY];
+    private float[][] vectors = new float[INITIAL_CAPACITY][];
+    // links[node][level] holds the neighbours of node on that level
+    private int[][][] links = new int[INITIAL_CAPACITY][][];
+    private int size;
+    private int entryPoint = -1;
+    private int maxLevel = -1;
+
+    /**
+     * Instantiates a new Hnsw index.
+     *
+     * @param dimensions     the dimensions
+     * @param m              the number of links per node above level 0, twice that on level 0
+     * @param efConstruction the candidate list size used while inserting
+     */
+    public HnswIndex(int dimensions, int m, int efConstruction) {
+        this(dimensions, m, efConstruction, System.nanoTime());
+    }
+
+    HnswIndex(int dimensions, int m, int efConstruction, long seed) {
+        this.dimensions = dimensions;
+        this.m = m;
+        this.maxM0 = 2 * m;
+        this.efConstruction = efConstruction;
+        this.levelMultiplier = 1 / Math.log(m);
+        this.random = new SplittableRandom(seed);
+    }
+
+    /**
+     * Neighbour found by a search.
+     *
+     * @param id    the id
+     * @param score the dot product with the query, cosine similarity for unit vectors
+     */
+    public record Neighbor(UUID id, float score) {
+    }
+
+    private record Candidate(int node, float score) {
+    }
+
+    /**
+     * Dimensions int.
+     *
+     * @return the int
+     */
+    public int dimensions() {
+        return dimensions;
+    }
+
+    /**
+     * Size int.
+     *
+     * @return the int
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Add a vector, ignoring ids that are already indexed.
+     *
+     * @param id     the id
+     * @param vector the unit-length vector
+     * @return true if the vector was added
+     */
+    public boolean add(UUID id, float[] vector) {
+        if (vector.length != dimensions) {
+            throw new IllegalArgumentException("Expected " + dimensions + " dimensions but got " + vector.length);
+        }
+
+        lock.writeLock().lock();
+        try {
+            if (ordinals.containsKey(id)) {
+                return false;
+            }
+
+            int node = size;
+            int level = randomLevel();
+            ensureCapacity(node + 1);
+            ids[node] = id;
+            vectors[node] = vector.clone();
+            links[node] = new int[level + 1][];
+            Arrays.fill(links[node], NO_LINKS);
+            ordinals.put(id, node);
+            size++;
+
+            if (entryPoint < 0) {
+                entryPoint = node;
+                maxLevel = level;
+                return true;
+            }
+
+            int enterNode = entryPoint;
+            for (int l = maxLevel; l > level; l--) {
+                enterNode = greedyClosest(vector, enterNode, l);
+            }
+            for (int l = Math.min(level, maxLevel); l >= 0; l--) {
+                List<Candidate> candidates = searchLayer(vector, enterNode, efConstruction, l);
+                int[] selected = selectNeighbors(candidates, m);
+                links[node][l] = selected;
+                int maxLinks = l == 0 ? maxM0 : m;
+                for (int neighbor : selected) {
+                    connect(neighbor, node, l, maxLinks);
+                }
+                enterNode = candidates.get(0).node();
+            }
+
+            if (level > maxLevel) {
+                entryPoint = node;
+                maxLevel = level;
+            }
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Approximate k nearest neighbours, best first.
+     *
+     * @param query the unit-length query vector
+     * @param k     the number of neighbours
+     * @param ef    the candidate list size, higher trades latency for recall
+     * @return the neighbours
+     */
+    public List<Neighbor> search(float[] query, int k, int ef) {
+        if (query.length != dimensions) {
+            throw new IllegalArgumentException("Expected " + dimensions + " dimensions but got " + query.length);
+        }
+
+        lock.readLock().lock();
+        try {
+            if (entryPoint < 0) {
+                return List.of();
+            }
+
+            int enterNode = entryPoint;
+            for (int l = maxLevel; l > 0; l--) {
+                enterNode = greedyClosest(query, enterNode, l);
+            }
+
+            List<Candidate> candidates = searchLayer(query, enterNode, Math.max(ef, k), 0);
+            List<Neighbor> neighbors = new ArrayList<>(Math.min(k, candidates.size()));
+            for (int i = 0; i < k && i < candidates.size(); i++) {
+                Candidate candidate = candidates.get(i);
+                neighbors.add(new Neighbor(ids[candidate.node()], candidate.score()));
+            }
+            return neighbors;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Write the graph to a memory-mapped file. The file is written next to the target
+     * and moved into place, so readers never see a partial snapshot.
+     *
+     * @param file   the file
+     * @param header opaque bytes stored ahead of the graph
+     * @throws IOException the io exception
+     */
+    public void writeSnapshot(Path file, byte[] header) throws IOException {
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+
+        lock.readLock().lock();
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long length = Integer.BYTES + (long) header.length + serializedSize();
+            if (length > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot of " + size + " vectors exceeds 2 GB");
+            }
+
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, length);
+            buffer.putInt(header.length).put(header);
+            buffer.putInt(MAGIC).putInt(VERSION).putInt(dimensions).putInt(m).putInt(efConstruction)
+                    .putInt(size).putInt(entryPoint).putInt(maxLevel);
+            for (int node = 0; node < size; node++) {
+                buffer.putLong(ids[node].getMostSignificantBits()).putLong(ids[node].getLeastSignificantBits());
+                buffer.putInt(links[node].length);
+                for (float value : vectors[node]) {
+                    buffer.putFloat(value);
+                }
+                for (int[] levelLinks : links[node]) {
+                    buffer.putInt(levelLinks.length);
+                    for (int neighbor : levelLinks) {
+                        buffer.putInt(neighbor);
+                    }
+                }
+            }
+            buffer.force();
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Read a snapshot written by {@link #writeSnapshot}.
+     *
+     * @param file the file
+     * @return the header and the index
+     * @throws IOException the io exception
+     */
+    public static Snapshot readSnapshot(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            byte[] header = new byte[buffer.getInt()];
+            buffer.get(header);
+
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                throw new IOException("Not an HNSW snapshot: " + file);
+            }
+            HnswIndex index = new HnswIndex(buffer.getInt(), buffer.getInt(), buffer.getInt());
+            int count = buffer.getInt();
+            index.ensureCapacity(count);
+            index.entryPoint = buffer.getInt();
+            index.maxLevel = buffer.getInt();
+
+            for (int node = 0; node < count; node++) {
+                UUID id = new UUID(buffer.getLong(), buffer.getLong());
+                int[][] nodeLinks = new int[buffer.getInt()][];
+                float[] vector = new float[index.dimensions];
+                buffer.asFloatBuffer().get(vector);
+                buffer.position(buffer.position() + index.dimensions * Float.BYTES);
+                for (int l = 0; l < nodeLinks.length; l++) {
+                    nodeLinks[l] = new int[buffer.getInt()];
+                    buffer.asIntBuffer().get(nodeLinks[l]);
+                    buffer.position(buffer.position() + nodeLinks[l].length * Integer.BYTES);
+                }
+                index.ids[node] = id;
+                index.vectors[node] = vector;
+                index.links[node] = nodeLinks;
+                index.ordinals.put(id, node);
+            }
+            index.size = count;
+            return new Snapshot(header, index);
+        }
+    }
+
+    /**
+     * Snapshot read back from disk.
+     *
+     * @param header the header
+     * @param index  the index
+     */
+    public record Snapshot(byte[] header, HnswIndex index) {
+    }
+
+    // ---------- Helper Methods ----------
+
+    private int randomLevel() {
+        return (int) (-Math.log(1 - random.nextDouble()) * levelMultiplier);
+    }
+
+    private int greedyClosest(float[] query, int enterNode, int level) {
+        int current = enterNode;
+        float best = dot(query, vectors[current]);
+        boolean improved = true;
+        while (improved) {
+            improved = false;
+            for (int neighbor : links[current][level]) {
+                float score = dot(query, vectors[neighbor]);
+                if (score > best) {
+                    best = score;
+                    current = neighbor;
+                    improved = true;
+                }
+            }
+        }
+        return current;
+    }
+
+    private List<Candidate> searchLayer(float[] query, int enterNode, int ef, int level) {
+        BitSet visited = new BitSet(size);
+        PriorityQueue<Candidate> candidates = new PriorityQueue<>(BEST_FIRST);
+        PriorityQueue<Candidate> results = new PriorityQueue<>(WORST_FIRST);
+
+        Candidate start = new Candidate(enterNode, dot(query, vectors[enterNode]));
+        visited.set(enterNode);
+        candidates.add(start);
+        results.add(start);
+
+        while (!candidates.isEmpty()) {
+            Candidate current = candidates.poll();
+            if (results.size() >= ef && current.score() < results.peek().score()) {
+                break;
+            }
+            for (int neighbor : links[current.node()][level]) {
+                if (visited.get(neighbor)) {
+                    continue;
+                }
+                visited.set(neighbor);
+                float score = dot(query, vectors[neighbor]);
+                if (results.size() < ef || score > results.peek().score()) {
+                    Candidate candidate = new Candidate(neighbor, score);
+                    candidates.add(candidate);
+                    results.add(candidate);
+                    if (results.size() > ef) {
+                        results.poll();
+                    }
+                }
+            }
+        }
+
+        List<Candidate> sorted = new ArrayList<>(results);
+        sorted.sort(BEST_FIRST);
+        return sorted;
+    }
+
+    // Neighbour selection heuristic: skip a candidate that is closer to an already selected
+    // neighbour than to the base node, then top up with the skipped ones
+    private int[] selectNeighbors(List<Candidate> sortedCandidates, int max) {
+        int[] selected = new int[Math.min(max, sortedCandidates.size())];
+        int count = 0;
+        List<Candidate> skipped = new ArrayList<>();
+
+        for (Candidate candidate : sortedCandidates) {
+            if (count == selected.length) {
+                break;
+            }
+            boolean diverse = true;
+            for (int i = 0; i < count; i++) {
+                if (dot(vectors[candidate.node()], vectors[selected[i]]) > candidate.score()) {
+                    diverse = false;
+                    break;
+                }
+            }
+            if (diverse) {
+                selected[count++] = candidate.node();
+            } else {
+                skipped.add(candidate);
+            }
+        }
+        for (int i = 0; i < skipped.size() && count < selected.length; i++) {
+            selected[count++] = skipped.get(i).node();
+        }
+        return selected;
+    }
+
+    private void connect(int node, int newNeighbor, int level, int maxLinks) {
+        int[] current = links[node][level];
+        if (current.length < maxLinks) {
+            int[] extended = Arrays.copyOf(current, current.length + 1);
+            extended[current.length] = newNeighbor;
+            links[node][level] = extended;
+            return;
+        }
+
+        float[] base = vectors[node];
+        List<Candidate> candidates = new ArrayList<>(current.length + 1);
+        for (int neighbor : current) {
+            candidates.add(new Candidate(neighbor, dot(base, vectors[neighbor])));
+        }
+        candidates.add(new Candidate(newNeighbor, dot(base, vectors[newNeighbor])));
+        candidates.sort(BEST_FIRST);
+        links[node][level] = selectNeighbors(candidates, maxLinks);
+    }
+
+    private void ensureCapacity(int required) {
+        if (required <= ids.length) {
+            return;
+        }
+        int capacity = Math.max(required, ids.length * 2);
+        ids = Arrays.copyOf(ids, capacity);
+        vectors = Arrays.copyOf(vectors, capacity);
+        links = Arrays.copyOf(links, capacity);
+    }
+
+    private long serializedSize() {
+        long bytes = HEADER_BYTES;
+        for (int node = 0; node < size; node++) {
+            bytes += 2 * Long.BYTES + Integer.BYTES + (long) dimensions * Float.BYTES;
+            for (int[] levelLinks : links[node]) {
+                bytes += Integer.BYTES + (long) levelLinks.length * Integer.BYTES;
+            }
+        }
+        return bytes;
+    }
+
+    private static float dot(float[] a, float[] b) {
+        float sum = 0;
+        for (int i = 0; i < a.length; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,98 @@
+package com.chatbot.storage.infrastructure.vector;
+
+import com.chatbot.storage.config.properties.VectorIndexProperties;
+import com.chatbot.storage.infrastructure.sharding.ShardRouter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ *
+ * Fills chat_messages.embedding off the request path. Rows are claimed with SKIP LOCKED,
+ * so several instances can run the worker without embedding the same message twice.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "app.vector", name = "enabled", havingValue = "true")
+public class MessageEmbeddingWorker {
+
+    private static final String CLAIM_PENDING_SQL =
+            "SELECT id, created_at, content FROM chat_messages WHERE embedding IS NULL " +
+            "ORDER BY created_at LIMIT ? FOR UPDATE SKIP LOCKED";
+    private static final String STORE_EMBEDDING_SQL =
+            "UPDATE chat_messages SET embedding = ?, embedded_at = CURRENT_TIMESTAMP WHERE id = ? AND created_at = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Embedder embedder;
+    private final VectorIndexProperties properties;
+    private final ShardRouter shardRouter;
+
+    public MessageEmbeddingWorker(JdbcTemplate jdbcTemplate,
+                                  PlatformTransactionManager transactionManager,
+                                  Embedder embedder,
+                                  VectorIndexProperties properties,
+                                  ShardRouter shardRouter) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.embedder = embedder;
+        this.properties = properties;
+        this.shardRouter = shardRouter;
+    }
+
+    private record PendingMessage(UUID id, Timestamp createdAt, String content) {
+    }
+
+    /**
+     * Embed pending messages of every shard, one transaction per batch, until none are left.
+     */
+    @Scheduled(fixedDelayString = "${app.vector.embed-interval-ms:2000}")
+    public void embedPending() {
+        shardRouter.forEachShard(this::embedPendingOnShard);
+    }
+
+    // ---------- Helper Methods ----------
+
+    private void embedPendingOnShard() {
+        int total = 0;
+        int embedded;
+        do {
+            embedded = transactionTemplate.execute(status -> embedBatch());
+            total += embedded;
+        } while (embedded == properties.getEmbedBatchSize());
+
+        if (total > 0) {
+            log.debug("Embedded {} messages", total);
+        }
+    }
+
+    private int embedBatch() {
+        List<PendingMessage> pending = jdbcTemplate.query(CLAIM_PENDING_SQL,
+                (rs, rowNum) -> new PendingMessage(
+                        rs.getObject("id", UUID.class), rs.getTimestamp("created_at"), rs.getString("content")),
+                properties.getEmbedBatchSize());
+        if (pending.isEmpty()) {
+            return 0;
+        }
+
+        jdbcTemplate.batchUpdate(STORE_EMBEDDING_SQL, pending, pending.size(), (ps, message) -> {
+            float[] vector = embedder.embed(message.content());
+            Float[] boxed = new Float[vector.length];
+            for (int i = 0; i < vector.length; i++) {
+                boxed[i] = vector[i];
+            }
+            ps.setArray(1, ps.getConnection().createArrayOf("float4", boxed));
+            ps.setObject(2, message.id());
+            ps.setTimestamp(3, message.createdAt());
+        });
+        return pending.size();
+    }
+}
@@ -0,0 +1,218 @@
+package com.chatbot.storage.infrastructure.vector;
+
+import com.chatbot.storage.config.properties.VectorIndexProperties;
+import com.chatbot.storage.infrastructure.sharding.ShardRouter;
+import com.chatbot.storage.infrastructure.sharding.ShardRoutingContext;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.sql.Array;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ *
+ * Per-user HNSW indexes over stored message embeddings. Every instance builds its own
+ * indexes from the database by following embedded_at, so it also picks up embeddings
+ * written by other instances. Snapshots only shorten that catch-up after a restart.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "app.vector", name = "enabled", havingValue = "true")
+public class VectorIndexService {
+
+    private static final LocalDateTime EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final String EMBEDDED_SINCE_SQL =
+            "SELECT m.id, s.user_id, m.embedding, m.embedded_at " +
+            "FROM chat_messages m JOIN chat_sessions s ON s.id = m.session_id " +
+            "WHERE (m.embedded_at, m.id) > (?, ?) ORDER BY m.embedded_at, m.id LIMIT ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Embedder embedder;
+    private final VectorSnapshotStore snapshotStore;
+    private final VectorIndexProperties properties;
+    private final ShardRouter shardRouter;
+    private final Map<String, HnswIndex> indexes = new ConcurrentHashMap<>();
+    private final Set<String> dirtyUsers = ConcurrentHashMap.newKeySet();
+    // Each shard's embeddings are followed separately; the snapshot keeps the oldest position
+    private final Map<String, LocalDateTime> watermarks = new ConcurrentHashMap<>();
+    private volatile LocalDateTime restoredWatermark = EPOCH;
+
+    public VectorIndexService(JdbcTemplate jdbcTemplate,
+                              Embedder embedder,
+                              VectorSnapshotStore snapshotStore,
+                              VectorIndexProperties properties,
+                              ShardRouter shardRouter) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.embedder = embedder;
+        this.snapshotStore = snapshotStore;
+        this.properties = properties;
+        this.shardRouter = shardRouter;
+    }
+
+    private record EmbeddedMessage(UUID id, String userId, float[] embedding, LocalDateTime embeddedAt) {
+    }
+
+    /**
+     * Restore snapshots; the first sync then only has to catch up from their watermark.
+     *
+     * @throws IOException the io exception
+     */
+    @PostConstruct
+    public void restore() throws IOException {
+        LocalDateTime saved = snapshotStore.loadWatermark();
+        AtomicBoolean complete = new AtomicBoolean(saved != null);
+        snapshotStore.loadAll((userId, index) -> {
+            if (index.dimensions() == embedder.dimensions()) {
+                indexes.put(userId, index);
+            } else {
+                complete.set(false);
+            }
+        });
+
+        // Missing or stale snapshots are rebuilt from scratch; vectors already loaded are skipped
+        restoredWatermark = complete.get() ? saved : EPOCH;
+        log.info("Restored vector indexes for {} users up to {}", indexes.size(), restoredWatermark);
+    }
+
+    /**
+     * Pull embeddings written on every shard since the last sync into the per-user indexes.
+     */
+    @Scheduled(fixedDelayString = "${app.vector.sync-interval-ms:2000}")
+    public void syncFromDatabase() {
+        shardRouter.forEachShard(this::syncShard);
+    }
+
+    /**
+     * Snapshot the indexes that changed since the last snapshot.
+     */
+    @PreDestroy
+    @Scheduled(fixedDelayString = "${app.vector.snapshot-interval-ms:300000}",
+            initialDelayString = "${app.vector.snapshot-interval-ms:300000}")
+    public void snapshot() {
+        // Every index already holds everything embedded up to this point
+        LocalDateTime snapshotWatermark = shardRouter.getShardNames().stream()
+                .map(shard -> watermarks.getOrDefault(shard, restoredWatermark))
+                .min(Comparator.naturalOrder())
+                .orElse(restoredWatermark);
+        boolean failed = false;
+
+        for (String userId : Set.copyOf(dirtyUsers)) {
+            dirtyUsers.remove(userId);
+            try {
+                snapshotStore.save(userId, indexes.get(userId));
+            } catch (IOException e) {
+                dirtyUsers.add(userId);
+                failed = true;
+                log.error("Failed to snapshot vector index for user {}", userId, e);
+            }
+        }
+
+        if (!failed) {
+            try {
+                snapshotStore.saveWatermark(snapshotWatermark);
+            } catch (IOException e) {
+                log.error("Failed to save vector index watermark", e);
+            }
+        }
+    }
+
+    /**
+     * Approximate nearest messages of the user to the text, best first.
+     *
+     * @param userId the user id
+     * @param text   the text
+     * @param limit  the maximum number of results
+     * @return the neighbours
+     */
+    public List<HnswIndex.Neighbor> search(String userId, String text, int limit) {
+        HnswIndex index = indexes.get(userId);
+        float[] query = embedder.embed(text);
+        if (index == null || isZero(query)) {
+            return List.of();
+        }
+        return index.search(query, limit, Math.max(properties.getEfSearch(), limit));
+    }
+
+    // ---------- Helper Methods ----------
+
+    private void syncShard() {
+        String shard = ShardRoutingContext.currentShardOrPrimary();
+        LocalDateTime watermark = watermarks.getOrDefault(shard, restoredWatermark);
+        LocalDateTime afterTime = watermark.equals(EPOCH) ? EPOCH : watermark.minus(properties.getSyncOverlap());
+        UUID afterId = new UUID(0, 0);
+        int batchSize = properties.getEmbedBatchSize();
+        int added = 0;
+
+        List<EmbeddedMessage> batch;
+        do {
+            batch = jdbcTemplate.query(EMBEDDED_SINCE_SQL, (rs, rowNum) -> new EmbeddedMessage(
+                            rs.getObject("id", UUID.class),
+                            rs.getString("user_id"),
+                            toVector(rs.getArray("embedding")),
+                            rs.getTimestamp("embedded_at").toLocalDateTime()),
+                    Timestamp.valueOf(afterTime), afterId, batchSize);
+
+            for (EmbeddedMessage message : batch) {
+                // Vectors from a different embedder, or of text without tokens, cannot be ranked
+                if (message.embedding().length != embedder.dimensions() || isZero(message.embedding())) {
+                    continue;
+                }
+                if (index(message.userId()).add(message.id(), message.embedding())) {
+                    dirtyUsers.add(message.userId());
+                    added++;
+                }
+            }
+            if (!batch.isEmpty()) {
+                EmbeddedMessage last = batch.get(batch.size() - 1);
+                afterTime = last.embeddedAt();
+                afterId = last.id();
+                if (afterTime.isAfter(watermark)) {
+                    watermark = afterTime;
+                    watermarks.put(shard, watermark);
+                }
+            }
+        } while (batch.size() == batchSize);
+
+        if (added > 0) {
+            log.debug("Indexed {} new message embeddings", added);
+        }
+    }
+
+    private HnswIndex index(String userId) {
+        return indexes.computeIfAbsent(userId,
+                key -> new HnswIndex(embedder.dimensions(), properties.getM(), properties.getEfConstruction()));
+    }
+
+    private static float[] toVector(Array array) throws SQLException {
+        Object[] values = (Object[]) array.getArray();
+        float[] vector = new float[values.length];
+        for (int i = 0; i < values.length; i++) {
+            vector[i] = ((Number) values[i]).floatValue();
+        }
+        return vector;
+    }
+
+    private static boolean isZero(float[] vector) {
+        for (float value : vector) {
+            if (value != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
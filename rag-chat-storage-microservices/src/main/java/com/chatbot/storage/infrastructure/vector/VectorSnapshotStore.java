@@ -0,0 +1,116 @@
+package com.chatbot.storage.infrastructure.vector;
+
+import com.chatbot.storage.config.properties.VectorIndexProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.function.BiConsumer;
+
+/**
+ *
+ * Stores one memory-mapped HNSW snapshot per user plus a watermark file recording the
+ * embedded_at up to which the snapshots are complete.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "app.vector", name = "enabled", havingValue = "true")
+public class VectorSnapshotStore {
+
+    private static final String SNAPSHOT_GLOB = "*.hnsw";
+    private static final String SNAPSHOT_SUFFIX = ".hnsw";
+    private static final String WATERMARK_FILE = "watermark";
+
+    private final Path directory;
+
+    public VectorSnapshotStore(VectorIndexProperties properties) {
+        this.directory = Paths.get(properties.getSnapshotDirectory());
+    }
+
+    /**
+     * Save the user's index.
+     *
+     * @param userId the user id
+     * @param index  the index
+     * @throws IOException the io exception
+     */
+    public void save(String userId, HnswIndex index) throws IOException {
+        Files.createDirectories(directory);
+        // User ids are free-form, so files are named by hash and the id travels in the header
+        index.writeSnapshot(directory.resolve(sha256(userId) + SNAPSHOT_SUFFIX), userId.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Load every readable snapshot. Unreadable files are skipped and rebuilt from the database.
+     *
+     * @param consumer receives the user id and the index
+     * @throws IOException the io exception
+     */
+    public void loadAll(BiConsumer<String, HnswIndex> consumer) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, SNAPSHOT_GLOB)) {
+            for (Path file : files) {
+                try {
+                    HnswIndex.Snapshot snapshot = HnswIndex.readSnapshot(file);
+                    consumer.accept(new String(snapshot.header(), StandardCharsets.UTF_8), snapshot.index());
+                } catch (IOException | RuntimeException e) {
+                    log.warn("Skipping unreadable vector snapshot {}: {}", file, e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Load watermark local date time.
+     *
+     * @return the watermark, null when there is none
+     */
+    public LocalDateTime loadWatermark() {
+        Path file = directory.resolve(WATERMARK_FILE);
+        try {
+            return Files.exists(file) ? LocalDateTime.parse(Files.readString(file).trim()) : null;
+        } catch (IOException | RuntimeException e) {
+            log.warn("Ignoring unreadable vector index watermark: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Save watermark.
+     *
+     * @param watermark the watermark
+     * @throws IOException the io exception
+     */
+    public void saveWatermark(LocalDateTime watermark) throws IOException {
+        Files.createDirectories(directory);
+        Path temporary = directory.resolve(WATERMARK_FILE + ".tmp");
+        Files.writeString(temporary, watermark.toString());
+        Files.move(temporary, directory.resolve(WATERMARK_FILE),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // ---------- Helper Methods ----------
+
+    private static String sha256(String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
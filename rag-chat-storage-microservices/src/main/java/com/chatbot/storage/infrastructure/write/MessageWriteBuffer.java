@@ -0,0 +1,314 @@
+package com.chatbot.storage.infrastructure.write;
+
+import com.chatbot.storage.config.properties.WriteBufferProperties;
+import com.chatbot.storage.dto.response.MessageResponse;
+import com.chatbot.storage.enums.MessageSender;
+import com.chatbot.storage.enums.OutboxEventType;
+import com.chatbot.storage.infrastructure.cache.SecondLevelCacheEvictor;
+import com.chatbot.storage.infrastructure.outbox.MessageEvent;
+import com.chatbot.storage.infrastructure.outbox.OutboxWriter;
+import com.chatbot.storage.infrastructure.sharding.ShardRoutingContext;
+import com.chatbot.storage.infrastructure.stream.SessionMessageBroadcaster;
+import com.chatbot.storage.infrastructure.sync.SyncChangeWriter;
+import com.chatbot.storage.infrastructure.text.LexicalIndexService;
+import com.chatbot.storage.repository.SessionAggregateRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ *
+ * Group-commits message inserts. Request threads enqueue rows and get a future; a single
+ * writer thread collects them into batches bounded by size and delay, and writes each batch
+ * with one multi-row INSERT in one transaction, so a batch costs a single WAL flush.
+ * The futures complete only after that transaction committed. With sharding, rows are
+ * written to the shard their caller's transaction was routed to, one transaction per shard.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "app.write-buffer", name = "enabled", havingValue = "true")
+public class MessageWriteBuffer {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO chat_messages (id, session_id, sender_type, content, context_data, metadata, " +
+            "created_at, updated_at, version) VALUES ";
+    private static final String ROW_VALUES = "(?, ?, ?, ?, ?::jsonb, ?::jsonb, ?, ?, 0)";
+    private static final long IDLE_POLL_MILLIS = 100;
+    private static final long SHUTDOWN_WAIT_MILLIS = 10_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final SessionAggregateRepository sessionAggregateRepository;
+    private final SecondLevelCacheEvictor cacheEvictor;
+    private final OutboxWriter outboxWriter;
+    private final SyncChangeWriter syncChangeWriter;
+    private final ObjectProvider<LexicalIndexService> lexicalIndexService;
+    private final ObjectProvider<SessionMessageBroadcaster> messageBroadcaster;
+    private final ObjectMapper objectMapper;
+    private final WriteBufferProperties properties;
+    private final BlockingQueue<PendingWrite> queue;
+    private final DistributionSummary batchSizes;
+    private final Thread writer;
+    private volatile boolean running;
+
+    public MessageWriteBuffer(JdbcTemplate jdbcTemplate,
+                              PlatformTransactionManager transactionManager,
+                              SessionAggregateRepository sessionAggregateRepository,
+                              SecondLevelCacheEvictor cacheEvictor,
+                              OutboxWriter outboxWriter,
+                              SyncChangeWriter syncChangeWriter,
+                              ObjectProvider<LexicalIndexService> lexicalIndexService,
+                              ObjectProvider<SessionMessageBroadcaster> messageBroadcaster,
+                              ObjectMapper objectMapper,
+                              WriteBufferProperties properties,
+                              MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.sessionAggregateRepository = sessionAggregateRepository;
+        this.cacheEvictor = cacheEvictor;
+        this.outboxWriter = outboxWriter;
+        this.syncChangeWriter = syncChangeWriter;
+        this.lexicalIndexService = lexicalIndexService;
+        this.messageBroadcaster = messageBroadcaster;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+        this.queue = new ArrayBlockingQueue<>(properties.getCapacity());
+        this.batchSizes = meterRegistry.summary("ragchat.write.buffer.batch.size");
+        meterRegistry.gaugeCollectionSize("ragchat.write.buffer.pending", Tags.empty(), queue);
+        this.writer = new Thread(this::writeLoop, "message-write-buffer");
+        this.writer.setDaemon(true);
+    }
+
+    /**
+     * A message row as it is inserted.
+     *
+     * @param id          the id
+     * @param sessionId   the session id
+     * @param senderType  the sender type
+     * @param content     the content
+     * @param contextData the context data, already deduplicated
+     * @param metadata    the metadata
+     * @param createdAt   the created at
+     */
+    public record MessageRow(UUID id, UUID sessionId, MessageSender senderType, String content,
+                             Map<String, Object> contextData, Map<String, Object> metadata,
+                             LocalDateTime createdAt) {
+    }
+
+    private record PendingWrite(String userId, String shard, MessageRow row, CompletableFuture<Void> committed) {
+    }
+
+    /**
+     * Start the writer thread.
+     */
+    @PostConstruct
+    public void start() {
+        running = true;
+        writer.start();
+    }
+
+    /**
+     * Stop accepting messages and write what is queued.
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        writer.join(SHUTDOWN_WAIT_MILLIS);
+
+        List<PendingWrite> abandoned = new ArrayList<>();
+        queue.drainTo(abandoned);
+        abandoned.forEach(write -> write.committed().completeExceptionally(
+                new IllegalStateException("Message write buffer stopped before the message was written")));
+    }
+
+    /**
+     * Queue a message for the next batch.
+     *
+     * @param userId    the owner of the session, used for search indexing
+     * @param row       the row, written to the shard the calling transaction is routed to
+     * @param committed completed once the row is committed, or exceptionally if it could not be written
+     * @return false if the buffer is full or stopped; the caller writes the message itself then
+     */
+    public boolean offer(String userId, MessageRow row, CompletableFuture<Void> committed) {
+        return running && queue.offer(new PendingWrite(userId, ShardRoutingContext.currentShard(), row, committed));
+    }
+
+    // ---------- Helper Methods ----------
+
+    private void writeLoop() {
+        List<PendingWrite> batch = new ArrayList<>(properties.getMaxBatchSize());
+        while (running || !queue.isEmpty()) {
+            try {
+                if (collect(batch)) {
+                    write(batch);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Message write buffer failed to write a batch", e);
+                batch.forEach(write -> write.committed().completeExceptionally(e));
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Wait for a first message, then take more until the batch is full or its delay ran out.
+     */
+    private boolean collect(List<PendingWrite> batch) throws InterruptedException {
+        PendingWrite first = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return false;
+        }
+        batch.add(first);
+
+        long deadline = System.nanoTime() + properties.getMaxDelay().toNanos();
+        while (batch.size() < properties.getMaxBatchSize()) {
+            queue.drainTo(batch, properties.getMaxBatchSize() - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= properties.getMaxBatchSize() || remaining <= 0) {
+                break;
+            }
+            PendingWrite next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                break;
+            }
+            batch.add(next);
+        }
+        return true;
+    }
+
+    private void write(List<PendingWrite> batch) {
+        Map<String, List<PendingWrite>> byShard = new LinkedHashMap<>();
+        batch.forEach(write -> byShard.computeIfAbsent(write.shard(), shard -> new ArrayList<>()).add(write));
+
+        byShard.forEach((shard, writes) -> {
+            if (shard == null) {
+                writeShard(writes);
+            } else {
+                ShardRoutingContext.runOn(shard, () -> writeShard(writes));
+            }
+        });
+    }
+
+    private void writeShard(List<PendingWrite> writes) {
+        try {
+            commit(writes);
+        } catch (RuntimeException e) {
+            // One bad row (e.g. its session was purged meanwhile) must not fail its neighbours
+            log.warn("Batch of {} messages failed, writing them one by one: {}", writes.size(), e.getMessage());
+            for (PendingWrite write : writes) {
+                try {
+                    commit(List.of(write));
+                } catch (RuntimeException rowFailure) {
+                    write.committed().completeExceptionally(rowFailure);
+                }
+            }
+        }
+    }
+
+    private void commit(List<PendingWrite> writes) {
+        transactionTemplate.executeWithoutResult(status -> {
+            insert(writes);
+            sessionAggregateRepository.recordAppends(appendsPerSession(writes));
+            outboxWriter.appendAll(writes.stream().map(MessageWriteBuffer::createdEvent).toList());
+            syncChangeWriter.recordAll(writes.stream().map(MessageWriteBuffer::createdChange).toList());
+            writes.forEach(write -> cacheEvictor.evictSession(write.row().sessionId()));
+        });
+        batchSizes.record(writes.size());
+
+        writes.forEach(write -> write.committed().complete(null));
+
+        LexicalIndexService index = lexicalIndexService.getIfAvailable();
+        if (index != null) {
+            writes.forEach(write -> index.add(write.userId(), write.row().id(), write.row().content()));
+        }
+        SessionMessageBroadcaster broadcaster = messageBroadcaster.getIfAvailable();
+        if (broadcaster != null) {
+            writes.forEach(write -> broadcaster.publish(toResponse(write.row())));
+        }
+    }
+
+    private void insert(List<PendingWrite> writes) {
+        List<Object> args = new ArrayList<>(writes.size() * 8);
+        for (PendingWrite write : writes) {
+            MessageRow row = write.row();
+            Timestamp createdAt = Timestamp.valueOf(row.createdAt());
+            Collections.addAll(args, row.id(), row.sessionId(), row.senderType().name(), row.content(),
+                    toJson(row.contextData()), toJson(row.metadata()), createdAt, createdAt);
+        }
+        jdbcTemplate.update(INSERT_SQL + String.join(", ", Collections.nCopies(writes.size(), ROW_VALUES)),
+                args.toArray());
+    }
+
+    private static OutboxWriter.PendingEvent createdEvent(PendingWrite write) {
+        MessageRow row = write.row();
+        return new OutboxWriter.PendingEvent(row.sessionId(), OutboxEventType.MESSAGE_CREATED, new MessageEvent(
+                row.id(), row.sessionId(), write.userId(), row.senderType(), row.content(), row.createdAt()));
+    }
+
+    private static MessageResponse toResponse(MessageRow row) {
+        return MessageResponse.builder()
+                .id(row.id())
+                .sessionId(row.sessionId())
+                .senderType(row.senderType())
+                .content(row.content())
+                .metadata(row.metadata())
+                .createdAt(row.createdAt())
+                .build();
+    }
+
+    private static SyncChangeWriter.Change createdChange(PendingWrite write) {
+        return SyncChangeWriter.Change.message(write.userId(), write.row().sessionId(), write.row().id());
+    }
+
+    private static List<SessionAggregateRepository.Appends> appendsPerSession(List<PendingWrite> writes) {
+        // Sorted, so batches of several instances lock shared session rows in one order
+        Map<UUID, SessionAggregateRepository.Appends> appends = new TreeMap<>();
+        for (PendingWrite write : writes) {
+            MessageRow row = write.row();
+            appends.merge(row.sessionId(), new SessionAggregateRepository.Appends(row.sessionId(), 1, row.createdAt()),
+                    (a, b) -> new SessionAggregateRepository.Appends(a.sessionId(), a.count() + b.count(),
+                            a.lastCreatedAt().isAfter(b.lastCreatedAt()) ? a.lastCreatedAt() : b.lastCreatedAt()));
+        }
+        return new ArrayList<>(appends.values());
+    }
+
+    private String toJson(Map<String, Object> value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize message payload", e);
+        }
+    }
+}
@@ -5,18 +5,23 @@ import com.chatbot.storage.dto.request.CreateSessionRequest;
 import com.chatbot.storage.dto.response.MessageResponse;
 import com.chatbot.storage.dto.response.SessionResponse;
 import com.chatbot.storage.enums.MessageSender;
+import com.chatbot.storage.infrastructure.idempotency.IdempotencyService;
 import com.chatbot.storage.llm.model.LlmStatusResponse;
 import com.chatbot.storage.llm.service.LLMIntegrationService;
 import com.chatbot.storage.service.ChatMessageService;
 import com.chatbot.storage.service.ChatSessionService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  *
@@ -32,13 +37,15 @@ public class ChatController {
     private final LLMIntegrationService llmIntegrationService;
     private final ChatSessionService chatSessionService;
     private final ChatMessageService chatMessageService;
+    private final IdempotencyService idempotencyService;
 
     /**
      * Chat with session response entity.
      *
-     * @param sessionId the session id
-     * @param userId    the user id
-     * @param message   the message
+     * @param sessionId      the session id
+     * @param userId         the user id
+     * @param message        the message
+     * @param idempotencyKey the idempotency key; a retry with it returns the original answer without a new LLM call
      * @return the response entity
      */
     @PostMapping("/sessions/{sessionId}")
@@ -46,33 +53,21 @@ public class ChatController {
     public ResponseEntity<MessageResponse> chatWithSession(
             @PathVariable UUID sessionId,
             @RequestParam String userId,
-            @RequestParam String message) {
-
-        // 1. Get conversation history BEFORE adding new message
-        List<MessageResponse> conversationHistory = chatMessageService.getAllSessionMessages(sessionId, userId);
-
-        // 2. Store user message
-        MessageResponse userMessage = chatMessageService.addMessage(
-                sessionId, userId, MessageSender.USER, message
-        );
-
-        // 3. Get AI response WITH conversation context
-        String aiResponse = llmIntegrationService.processMessageWithContext(message, conversationHistory);
-
-        // 4. Store AI response
-        MessageResponse aiMessage = chatMessageService.addMessage(
-                sessionId, userId, MessageSender.ASSISTANT, aiResponse
-        );
+            @RequestParam String message,
+            @Parameter(description = AppConstants.DESC_IDEMPOTENCY_KEY)
+            @RequestHeader(value = AppConstants.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
 
-        return ResponseEntity.ok(aiMessage);
+        return ResponseEntity.ok(idempotencyService.execute(idempotencyKey, "chat:" + sessionId + ":" + userId,
+                message, MessageResponse.class, () -> chat(sessionId, userId, message)));
     }
 
     /**
      * Start new chat response entity.
      *
-     * @param userId  the user id
-     * @param message the message
-     * @param title   the title
+     * @param userId         the user id
+     * @param message        the message
+     * @param title          the title
+     * @param idempotencyKey the idempotency key; a retry with it returns the original session
      * @return the response entity
      */
     @PostMapping("/sessions")
@@ -80,20 +75,12 @@ public class ChatController {
     public ResponseEntity<SessionResponse> startNewChat(
             @RequestParam String userId,
             @RequestParam String message,
-            @RequestParam(required = false) String title) {
-
-        CreateSessionRequest createRequest = new CreateSessionRequest();
-        createRequest.setUserId(userId);
-        createRequest.setSessionName(title != null ? title : AppConstants.NEW_CHAT);
-
-        SessionResponse session = chatSessionService.createSession(createRequest);
-
-        chatMessageService.addMessage(session.getId(), userId, MessageSender.USER, message);
+            @RequestParam(required = false) String title,
+            @Parameter(description = AppConstants.DESC_IDEMPOTENCY_KEY)
+            @RequestHeader(value = AppConstants.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
 
-        String aiResponse = llmIntegrationService.processMessage(message);
-        chatMessageService.addMessage(session.getId(), userId, MessageSender.ASSISTANT, aiResponse);
-
-        return ResponseEntity.ok(session);
+        return ResponseEntity.ok(idempotencyService.execute(idempotencyKey, "chat-start:" + userId,
+                Arrays.asList(message, title), SessionResponse.class, () -> startChat(userId, message, title)));
     }
 
     /**
@@ -110,4 +97,46 @@ public class ChatController {
         ));
     }
 
+    private MessageResponse chat(UUID sessionId, String userId, String message) {
+        // 1. Get conversation history BEFORE adding new message
+        List<MessageResponse> conversationHistory = chatMessageService.getAllSessionMessages(sessionId, userId);
+
+        // 2. Store user message, and make sure it is durable before paying for an answer to it;
+        // a failed write then costs no LLM call and never leaves a reply without its question
+        awaitWrite(chatMessageService.appendMessage(sessionId, userId, MessageSender.USER, message));
+
+        // 3. Get AI response WITH conversation context
+        String aiResponse = llmIntegrationService.processMessageWithContext(message, conversationHistory);
+
+        // 4. Store AI response, and respond once it is durable
+        return awaitWrite(chatMessageService.appendMessage(sessionId, userId, MessageSender.ASSISTANT, aiResponse));
+    }
+
+    private SessionResponse startChat(String userId, String message, String title) {
+        CreateSessionRequest createRequest = new CreateSessionRequest();
+        createRequest.setUserId(userId);
+        createRequest.setSessionName(title != null ? title : AppConstants.NEW_CHAT);
+
+        SessionResponse session = chatSessionService.createSession(createRequest);
+
+        chatMessageService.addMessage(session.getId(), userId, MessageSender.USER, message);
+
+        String aiResponse = llmIntegrationService.processMessage(message);
+        chatMessageService.addMessage(session.getId(), userId, MessageSender.ASSISTANT, aiResponse);
+
+        return session;
+    }
+
+    private static <T> T awaitWrite(CompletableFuture<T> write) {
+        try {
+            return write.join();
+        } catch (CompletionException e) {
+            // Surface the write failure itself to the exception handler
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,199 @@
+package com.chatbot.storage.llm.service;
+
+import com.chatbot.storage.config.properties.HistorySelectionProperties;
+import com.chatbot.storage.dto.response.MessageResponse;
+import com.chatbot.storage.enums.MessageSender;
+import com.chatbot.storage.infrastructure.text.Bm25Index;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeSet;
+import java.util.UUID;
+
+/**
+ *
+ * Picks the part of a session's history worth sending to the LLM: the last few messages plus
+ * the older turns that BM25 ranks closest to the current message, kept within a token budget.
+ * The BM25 index of each session is cached and extended as the session grows.
+ */
+@Slf4j
+@Component
+public class ConversationHistorySelector {
+
+    private static final int CHARS_PER_TOKEN = 4;
+    private static final int MESSAGE_OVERHEAD_TOKENS = 4;
+
+    private final HistorySelectionProperties properties;
+    private final Map<UUID, SessionIndex> indexes;
+
+    /**
+     * Instantiates a new Conversation history selector.
+     *
+     * @param properties the properties
+     */
+    public ConversationHistorySelector(HistorySelectionProperties properties) {
+        this.properties = properties;
+        this.indexes = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, SessionIndex> eldest) {
+                return size() > properties.getCacheSize();
+            }
+        });
+    }
+
+    /**
+     * Select the history to send, in chronological order. The history is returned as is when
+     * selection is disabled or it already fits the budget.
+     *
+     * @param currentMessage      the current user message
+     * @param conversationHistory the full chronological history of the session
+     * @return the selected messages
+     */
+    public List<MessageResponse> select(String currentMessage, List<MessageResponse> conversationHistory) {
+        if (!properties.isEnabled() || conversationHistory.isEmpty()) {
+            return conversationHistory;
+        }
+
+        int size = conversationHistory.size();
+        int[] tokens = new int[size];
+        long total = 0;
+        for (int i = 0; i < size; i++) {
+            tokens[i] = estimateTokens(conversationHistory.get(i));
+            total += tokens[i];
+        }
+        if (total <= properties.getTokenBudget()) {
+            return conversationHistory;
+        }
+
+        TreeSet<Integer> selected = new TreeSet<>();
+        int remaining = properties.getTokenBudget();
+
+        int recentStart = Math.max(0, size - properties.getRecentMessages());
+        for (int i = size - 1; i >= recentStart && tokens[i] <= remaining; i--) {
+            selected.add(i);
+            remaining -= tokens[i];
+        }
+        // Older turns only come from before the recent window, even if part of it did not fit
+        int firstRecent = selected.isEmpty() ? size : selected.first();
+
+        int turns = 0;
+        Bm25Index index = indexFor(conversationHistory);
+        for (Bm25Index.ScoredDocument hit : index.search(currentMessage, index.size())) {
+            if (turns >= properties.getRelevantTurns()) {
+                break;
+            }
+            int position = hit.document();
+            if (position >= firstRecent || selected.contains(position)) {
+                continue;
+            }
+            int partner = partnerOf(conversationHistory, position, firstRecent);
+            int cost = tokens[position] + (partner >= 0 && !selected.contains(partner) ? tokens[partner] : 0);
+            if (cost > remaining) {
+                continue;
+            }
+            selected.add(position);
+            if (partner >= 0) {
+                selected.add(partner);
+            }
+            remaining -= cost;
+            turns++;
+        }
+
+        List<MessageResponse> result = new ArrayList<>(selected.size());
+        for (int position : selected) {
+            result.add(conversationHistory.get(position));
+        }
+        log.debug("Selected {} of {} history messages ({} relevant turns)", result.size(), size, turns);
+        return result;
+    }
+
+    // ---------- Helper Methods ----------
+
+    private Bm25Index indexFor(List<MessageResponse> history) {
+        UUID sessionId = history.get(0).getSessionId();
+        if (sessionId == null) {
+            return build(history).index;
+        }
+
+        SessionIndex cached = indexes.get(sessionId);
+        if (cached == null || !cached.isPrefixOf(history)) {
+            cached = build(history);
+            indexes.put(sessionId, cached);
+        } else {
+            cached.extend(history);
+        }
+        return cached.index;
+    }
+
+    private SessionIndex build(List<MessageResponse> history) {
+        SessionIndex sessionIndex = new SessionIndex(new Bm25Index(properties.getK1(), properties.getB()));
+        sessionIndex.extend(history);
+        return sessionIndex;
+    }
+
+    /**
+     * The other half of the turn the message belongs to: the reply to a user message, or the
+     * user message an assistant reply answers. Returns -1 when there is none before the cut-off.
+     */
+    private static int partnerOf(List<MessageResponse> history, int position, int cutoff) {
+        MessageSender sender = history.get(position).getSenderType();
+        if (sender == MessageSender.USER && position + 1 < cutoff
+                && history.get(position + 1).getSenderType() == MessageSender.ASSISTANT) {
+            return position + 1;
+        }
+        if (sender == MessageSender.ASSISTANT && position > 0
+                && history.get(position - 1).getSenderType() == MessageSender.USER) {
+            return position - 1;
+        }
+        return -1;
+    }
+
+    private static int estimateTokens(MessageResponse message) {
+        String content = message.getContent();
+        int length = content == null ? 0 : content.length();
+        return (length + CHARS_PER_TOKEN - 1) / CHARS_PER_TOKEN + MESSAGE_OVERHEAD_TOKENS;
+    }
+
+    /**
+     * Session index whose document numbers are positions in the session history.
+     */
+    private static final class SessionIndex {
+
+        private final Bm25Index index;
+        private final List<UUID> messageIds = new ArrayList<>();
+
+        private SessionIndex(Bm25Index index) {
+            this.index = index;
+        }
+
+        /**
+         * Messages are only ever appended to a session; anything else (a deleted message, a
+         * different ordering) means the index has to be rebuilt.
+         */
+        private synchronized boolean isPrefixOf(List<MessageResponse> history) {
+            if (messageIds.size() > history.size()) {
+                return false;
+            }
+            for (int i = messageIds.size() - 1; i >= 0; i--) {
+                if (!Objects.equals(messageIds.get(i), history.get(i).getId())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private synchronized void extend(List<MessageResponse> history) {
+            for (int i = messageIds.size(); i < history.size(); i++) {
+                MessageResponse message = history.get(i);
+                index.add(message.getContent());
+                messageIds.add(message.getId());
+            }
+        }
+    }
+}
@@ -21,6 +21,7 @@ import java.util.List;
 public class LLMIntegrationService {
     
     private final LLMClient llmClient;
+    private final ConversationHistorySelector historySelector;
 
     /**
      * Process message string.
@@ -50,7 +51,7 @@ public class LLMIntegrationService {
      * Process message with conversation context.
      *
      * @param currentMessage the current user message
-     * @param conversationHistory the conversation history
+     * @param conversationHistory the full chronological conversation history
      * @return the AI response
      */
     public String processMessageWithContext(String currentMessage, List<MessageResponse> conversationHistory) {
@@ -62,12 +63,15 @@ public class LLMIntegrationService {
         }
 
         try {
+            // Send the recent and most relevant turns rather than the whole session
+            List<MessageResponse> context = historySelector.select(currentMessage, conversationHistory);
+
             // Check if the client supports contextual conversations
             if (llmClient instanceof GroqClientImpl groqClient) {
-                return groqClient.getChatCompletionWithContext(conversationHistory, currentMessage);
+                return groqClient.getChatCompletionWithContext(context, currentMessage);
             } else {
                 // Fallback: build contextual message as string for other clients
-                String contextualMessage = buildContextualMessage(currentMessage, conversationHistory);
+                String contextualMessage = buildContextualMessage(currentMessage, context);
                 return llmClient.getChatCompletion(contextualMessage);
             }
         } catch (Exception e) {
@@ -1,5 +1,7 @@
 package com.chatbot.storage.mapper;
 
+import com.chatbot.storage.dto.projection.MessageSummaryView;
+import com.chatbot.storage.dto.projection.MessageView;
 import com.chatbot.storage.dto.response.MessageResponse;
 import com.chatbot.storage.dto.response.PagedResponse;
 import com.chatbot.storage.entity.ChatMessage;
@@ -23,15 +25,44 @@ public interface MessageMapper {
      * @return the message response
      */
     @Mapping(target = "sessionId", source = "session.id")
+    @Mapping(target = "snippet", ignore = true)
     MessageResponse toResponse(ChatMessage message);
 
+    /**
+     * To response message response.
+     *
+     * @param view the message view
+     * @return the message response
+     */
+    @Mapping(target = "snippet", ignore = true)
+    MessageResponse toResponse(MessageView view);
+
+    /**
+     * To summary response message response.
+     *
+     * @param view the message summary view
+     * @return the message response
+     */
+    @Mapping(target = "content", ignore = true)
+    @Mapping(target = "contextData", ignore = true)
+    @Mapping(target = "metadata", ignore = true)
+    MessageResponse toSummaryResponse(MessageSummaryView view);
+
     /**
      * To response list list.
      *
-     * @param messages the messages
+     * @param views the message views
+     * @return the list
+     */
+    List<MessageResponse> toResponseList(List<MessageView> views);
+
+    /**
+     * To summary response list list.
+     *
+     * @param views the message summary views
      * @return the list
      */
-    List<MessageResponse> toResponseList(List<ChatMessage> messages);
+    List<MessageResponse> toSummaryResponseList(List<MessageSummaryView> views);
 
     /**
      * To paged response paged response.
@@ -39,9 +70,30 @@ public interface MessageMapper {
      * @param page the page
      * @return the paged response
      */
-    default PagedResponse<MessageResponse> toPagedResponse(Page<ChatMessage> page) {
+    default PagedResponse<MessageResponse> toPagedResponse(Page<MessageView> page) {
+        return toPagedResponse(page, toResponseList(page.getContent()));
+    }
+
+    /**
+     * To summary paged response paged response.
+     *
+     * @param page the page
+     * @return the paged response
+     */
+    default PagedResponse<MessageResponse> toSummaryPagedResponse(Page<MessageSummaryView> page) {
+        return toPagedResponse(page, toSummaryResponseList(page.getContent()));
+    }
+
+    /**
+     * To paged response paged response.
+     *
+     * @param page    the page
+     * @param content the mapped page content
+     * @return the paged response
+     */
+    default PagedResponse<MessageResponse> toPagedResponse(Page<?> page, List<MessageResponse> content) {
         return PagedResponse.<MessageResponse>builder()
-                .content(toResponseList(page.getContent()))
+                .content(content)
                 .totalElements(page.getTotalElements())
                 .totalPages(page.getTotalPages())
                 .currentPage(page.getNumber())
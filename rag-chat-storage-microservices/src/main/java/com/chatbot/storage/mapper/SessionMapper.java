@@ -1,10 +1,10 @@
 package com.chatbot.storage.mapper;
 
+import com.chatbot.storage.dto.projection.SessionView;
 import com.chatbot.storage.dto.response.PagedResponse;
 import com.chatbot.storage.dto.response.SessionResponse;
 import com.chatbot.storage.entity.ChatSession;
 import org.mapstruct.Mapper;
-import org.mapstruct.Mapping;
 import org.springframework.data.domain.Page;
 
 import java.util.List;
@@ -22,16 +22,23 @@ public interface SessionMapper {
      * @param session the session
      * @return the session response
      */
-    @Mapping(target = "messageCount", expression = "java(Long.valueOf(session.getMessages().size()))")
     SessionResponse toResponse(ChatSession session);
 
+    /**
+     * To response session response.
+     *
+     * @param view the session view
+     * @return the session response
+     */
+    SessionResponse toResponse(SessionView view);
+
     /**
      * To response list list.
      *
-     * @param sessions the sessions
+     * @param views the session views
      * @return the list
      */
-    List<SessionResponse> toResponseList(List<ChatSession> sessions);
+    List<SessionResponse> toResponseList(List<SessionView> views);
 
     /**
      * To paged response paged response.
@@ -39,7 +46,7 @@ public interface SessionMapper {
      * @param page the page
      * @return the paged response
      */
-    default PagedResponse<SessionResponse> toPagedResponse(Page<ChatSession> page) {
+    default PagedResponse<SessionResponse> toPagedResponse(Page<SessionView> page) {
         return PagedResponse.<SessionResponse>builder()
                 .content(toResponseList(page.getContent()))
                 .totalElements(page.getTotalElements())
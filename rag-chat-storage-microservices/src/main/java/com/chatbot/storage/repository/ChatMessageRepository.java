@@ -1,16 +1,29 @@
 package com.chatbot.storage.repository;
 
+import com.chatbot.storage.dto.projection.MessageSummaryView;
+import com.chatbot.storage.dto.projection.MessageView;
 import com.chatbot.storage.entity.ChatMessage;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
+
+import static com.chatbot.storage.constants.AppConstants.EXPORT_FETCH_SIZE;
+import static com.chatbot.storage.constants.AppConstants.MESSAGE_SNIPPET_LENGTH;
+import static org.hibernate.jpa.HibernateHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 /**
  *
@@ -19,6 +32,25 @@ import java.util.UUID;
 @Repository
 public interface ChatMessageRepository extends JpaRepository<ChatMessage, UUID> {
 
+    /**
+     * Select clause of the message view projection.
+     */
+    String MESSAGE_VIEW_SELECT = "SELECT new com.chatbot.storage.dto.projection.MessageView(" +
+            "m.id, m.session.id, m.senderType, m.content, m.contextData, m.metadata, m.createdAt) FROM ChatMessage m ";
+    /**
+     * Select clause of the message summary projection; skips the JSONB columns and the content's tail.
+     */
+    String MESSAGE_SUMMARY_SELECT = "SELECT new com.chatbot.storage.dto.projection.MessageSummaryView(" +
+            "m.id, m.session.id, m.senderType, SUBSTRING(m.content, 1, " + MESSAGE_SNIPPET_LENGTH + "), m.createdAt) " +
+            "FROM ChatMessage m ";
+    /**
+     * Predicate selecting a session's messages. Deliberately not bounded by the session's
+     * start: both timestamps come from application clocks, so a message stamped by a node
+     * running behind would fall outside the bound. Each partition's session_id index keeps
+     * the unpruned lookup cheap.
+     */
+    String SESSION_MESSAGES_WHERE = "WHERE m.session.id = :sessionId ";
+
     /**
      * Find by session id order by created at asc page.
      *
@@ -36,6 +68,88 @@ public interface ChatMessageRepository extends JpaRepository<ChatMessage, UUID>
      */
     List<ChatMessage> findBySessionIdOrderByCreatedAtAsc(UUID sessionId);
 
+    /**
+     * Find views by session id page.
+     *
+     * @param sessionId the session id
+     * @param pageable  the pageable
+     * @return the page
+     */
+    @Query(value = MESSAGE_VIEW_SELECT + SESSION_MESSAGES_WHERE + "ORDER BY m.createdAt ASC",
+            countQuery = "SELECT COUNT(m) FROM ChatMessage m " + SESSION_MESSAGES_WHERE)
+    Page<MessageView> findViewsBySessionId(@Param("sessionId") UUID sessionId, Pageable pageable);
+
+    /**
+     * Find views by session id list.
+     *
+     * @param sessionId the session id
+     * @return the list
+     */
+    @Query(MESSAGE_VIEW_SELECT + SESSION_MESSAGES_WHERE + "ORDER BY m.createdAt ASC")
+    List<MessageView> findViewsBySessionId(@Param("sessionId") UUID sessionId);
+
+    /**
+     * Find summaries by session id page.
+     *
+     * @param sessionId the session id
+     * @param pageable  the pageable
+     * @return the page
+     */
+    @Query(value = MESSAGE_SUMMARY_SELECT + SESSION_MESSAGES_WHERE + "ORDER BY m.createdAt ASC",
+            countQuery = "SELECT COUNT(m) FROM ChatMessage m " + SESSION_MESSAGES_WHERE)
+    Page<MessageSummaryView> findSummariesBySessionId(@Param("sessionId") UUID sessionId, Pageable pageable);
+
+    /**
+     * Find summaries by session id list.
+     *
+     * @param sessionId the session id
+     * @return the list
+     */
+    @Query(MESSAGE_SUMMARY_SELECT + SESSION_MESSAGES_WHERE + "ORDER BY m.createdAt ASC")
+    List<MessageSummaryView> findSummariesBySessionId(@Param("sessionId") UUID sessionId);
+
+    /**
+     * Stream by session id in chronological order.
+     * Rows are pulled through a forward-only cursor in fetch-size chunks, so the
+     * caller must consume the stream inside a transaction and close it.
+     *
+     * @param sessionId the session id
+     * @return the stream
+     */
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE),
+            @QueryHint(name = HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HINT_CACHEABLE, value = "false")
+    })
+    @Query("SELECT m FROM ChatMessage m " + SESSION_MESSAGES_WHERE + "ORDER BY m.createdAt ASC")
+    Stream<ChatMessage> streamBySessionId(@Param("sessionId") UUID sessionId);
+
+    /**
+     * Find views by ids of the user's non-deleted sessions.
+     *
+     * @param ids    the ids
+     * @param userId the user id
+     * @return the list
+     */
+    @Query(MESSAGE_VIEW_SELECT + "WHERE m.id IN :ids AND m.session.userId = :userId " +
+            "AND m.session.status <> com.chatbot.storage.enums.SessionStatus.DELETED")
+    List<MessageView> findViewsByIdInAndUserId(@Param("ids") Collection<UUID> ids, @Param("userId") String userId);
+
+    /**
+     * Stream views by session id in chronological order.
+     * Same cursor semantics as {@link #streamBySessionId}, but rows are never attached
+     * to the persistence context, so nothing has to be detached while streaming.
+     *
+     * @param sessionId the session id
+     * @return the stream
+     */
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE),
+            @QueryHint(name = HINT_CACHEABLE, value = "false")
+    })
+    @Query(MESSAGE_VIEW_SELECT + SESSION_MESSAGES_WHERE + "ORDER BY m.createdAt ASC")
+    Stream<MessageView> streamViewsBySessionId(@Param("sessionId") UUID sessionId);
+
     /**
      * Find recent messages list.
      *
@@ -55,9 +169,14 @@ public interface ChatMessageRepository extends JpaRepository<ChatMessage, UUID>
     long countBySessionId(UUID sessionId);
 
     /**
-     * Delete by session id.
+     * Bulk delete the given messages of a session in a single statement, without loading entities.
+     * Messages of the session not listed are kept, whenever they were written.
      *
      * @param sessionId the session id
+     * @param ids       the ids of the messages to delete
+     * @return the number of deleted rows
      */
-    void deleteBySessionId(UUID sessionId);
+    @Modifying
+    @Query("DELETE FROM ChatMessage m WHERE m.session.id = :sessionId AND m.id IN :ids")
+    int bulkDeleteBySessionIdAndIdIn(@Param("sessionId") UUID sessionId, @Param("ids") Collection<UUID> ids);
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package com.chatbot.storage.repository;
 
+import com.chatbot.storage.dto.projection.SessionView;
 import com.chatbot.storage.entity.ChatSession;
 import com.chatbot.storage.enums.SessionStatus;
 import org.springframework.data.domain.Page;
@@ -9,6 +10,8 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -20,6 +23,13 @@ import java.util.UUID;
 @Repository
 public interface ChatSessionRepository extends JpaRepository<ChatSession, UUID> {
 
+    /**
+     * Select clause of the session view projection; the message count is the denormalized counter.
+     */
+    String SESSION_VIEW_SELECT = "SELECT new com.chatbot.storage.dto.projection.SessionView(" +
+            "s.id, s.userId, s.sessionName, s.description, s.isFavorite, s.status, " +
+            "s.messageCount, s.createdAt, s.updatedAt) FROM ChatSession s ";
+
     /**
      * Find by user id and status page.
      *
@@ -40,6 +50,49 @@ public interface ChatSessionRepository extends JpaRepository<ChatSession, UUID>
      */
     List<ChatSession> findByUserIdAndIsFavoriteAndStatus(String userId, Boolean isFavorite, SessionStatus status);
 
+    /**
+     * Find views by user id and status page.
+     *
+     * @param userId   the user id
+     * @param status   the status
+     * @param pageable the pageable
+     * @return the page
+     */
+    @Query(value = SESSION_VIEW_SELECT + "WHERE s.userId = :userId AND s.status = :status",
+            countQuery = "SELECT COUNT(s) FROM ChatSession s WHERE s.userId = :userId AND s.status = :status")
+    Page<SessionView> findViewsByUserIdAndStatus(@Param("userId") String userId, @Param("status") SessionStatus status,
+                                                 Pageable pageable);
+
+    /**
+     * Find favorite views by user id list.
+     *
+     * @param userId the user id
+     * @param status the status
+     * @return the list
+     */
+    @Query(SESSION_VIEW_SELECT + "WHERE s.userId = :userId AND s.isFavorite = true AND s.status = :status")
+    List<SessionView> findFavoriteViewsByUserId(@Param("userId") String userId, @Param("status") SessionStatus status);
+
+    /**
+     * Find view by id and user id optional.
+     *
+     * @param id     the id
+     * @param userId the user id
+     * @return the optional
+     */
+    @Query(SESSION_VIEW_SELECT + "WHERE s.id = :id AND s.userId = :userId")
+    Optional<SessionView> findViewByIdAndUserId(@Param("id") UUID id, @Param("userId") String userId);
+
+    /**
+     * Find views by ids and user id list.
+     *
+     * @param ids    the ids
+     * @param userId the user id
+     * @return the list, in no particular order
+     */
+    @Query(SESSION_VIEW_SELECT + "WHERE s.id IN :ids AND s.userId = :userId")
+    List<SessionView> findViewsByIdInAndUserId(@Param("ids") Collection<UUID> ids, @Param("userId") String userId);
+
     /**
      * Find active sessions by user list.
      *
@@ -52,12 +105,36 @@ public interface ChatSessionRepository extends JpaRepository<ChatSession, UUID>
 
     /**
      * Find by id and user id optional.
+     * Loads by primary key so the lookup is served from the second-level cache,
+     * then checks ownership in memory.
      *
      * @param id     the id
      * @param userId the user id
      * @return the optional
      */
-    Optional<ChatSession> findByIdAndUserId(UUID id, String userId);
+    default Optional<ChatSession> findByIdAndUserId(UUID id, String userId) {
+        return findById(id).filter(session -> session.getUserId().equals(userId));
+    }
+
+    /**
+     * Find archival candidates list.
+     * A session qualifies when it is ARCHIVED, or when neither it nor any of its
+     * messages changed since the cutoff, and it has not been archived yet.
+     *
+     * @param cutoff   the inactivity cutoff
+     * @param archived the archived status
+     * @param deleted  the deleted status
+     * @param pageable the pageable
+     * @return the list
+     */
+    @Query("SELECT s.id FROM ChatSession s WHERE s.status <> :deleted " +
+            "AND NOT EXISTS (SELECT a.id FROM SessionArchive a WHERE a.sessionId = s.id) " +
+            "AND (s.status = :archived OR (s.updatedAt < :cutoff " +
+            "AND NOT EXISTS (SELECT m.id FROM ChatMessage m WHERE m.session = s AND m.createdAt >= :cutoff)))")
+    List<UUID> findArchivalCandidates(@Param("cutoff") LocalDateTime cutoff,
+                                      @Param("archived") SessionStatus archived,
+                                      @Param("deleted") SessionStatus deleted,
+                                      Pageable pageable);
 
     /**
      * Count by user id and status long.
@@ -0,0 +1,13 @@
+package com.chatbot.storage.repository;
+
+import com.chatbot.storage.entity.ContextChunk;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ *
+ * The interface Context chunk repository.
+ */
+@Repository
+public interface ContextChunkRepository extends JpaRepository<ContextChunk, String> {
+}
@@ -0,0 +1,160 @@
+package com.chatbot.storage.repository;
+
+import com.chatbot.storage.dto.projection.MessageView;
+import com.chatbot.storage.dto.response.MessageSearchHit;
+import com.chatbot.storage.enums.JsonbField;
+import com.chatbot.storage.enums.MessageSender;
+import com.chatbot.storage.enums.SessionStatus;
+import com.chatbot.storage.infrastructure.jsonb.JsonbFilter;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ *
+ * The type Message search repository.
+ * Cross-session message lookups. JSONB predicates are rendered only as {@code @>}
+ * containment so they match the GIN jsonb_path_ops indexes; text queries go through
+ * the generated content_tsv column and its GIN index.
+ */
+@Repository
+@RequiredArgsConstructor
+public class MessageSearchRepository {
+
+    private static final TypeReference<Map<String, Object>> JSON_MAP = new TypeReference<>() {
+    };
+
+    private static final String SELECT_COLUMNS =
+            "SELECT m.id, m.session_id, m.sender_type, m.content, m.context_data, m.metadata, m.created_at ";
+    private static final String FROM_USER_MESSAGES =
+            "FROM chat_messages m JOIN chat_sessions s ON s.id = m.session_id " +
+            "WHERE s.user_id = ? AND s.status <> ?";
+
+    // Must match the configuration of the generated content_tsv column
+    private static final String TEXT_SEARCH_CONFIG = "english";
+    private static final String HEADLINE_OPTIONS =
+            "StartSel=<mark>, StopSel=</mark>, MaxFragments=2, MaxWords=20, MinWords=5, FragmentDelimiter=\" ... \"";
+
+    // Rank every match of the user, keep one page by (rank, id) keyset, and only build
+    // headlines for that page since ts_headline re-parses the full content
+    private static final String CONTENT_SEARCH_SQL =
+            "WITH q AS (SELECT websearch_to_tsquery('" + TEXT_SEARCH_CONFIG + "', ?) AS query), " +
+            "ranked AS (" +
+            "  SELECT m.id, m.session_id, m.sender_type, m.content, m.created_at, " +
+            "         ts_rank_cd(m.content_tsv, q.query) AS rank " +
+            "  FROM chat_messages m JOIN chat_sessions s ON s.id = m.session_id CROSS JOIN q " +
+            "  WHERE s.user_id = ? AND s.status <> ? AND m.content_tsv @@ q.query), " +
+            "page AS (" +
+            "  SELECT * FROM ranked WHERE (CAST(? AS real) IS NULL OR (rank, id) < (CAST(? AS real), CAST(? AS uuid))) " +
+            "  ORDER BY rank DESC, id DESC LIMIT ?) " +
+            "SELECT page.id, page.session_id, page.sender_type, page.created_at, page.rank, " +
+            "       ts_headline('" + TEXT_SEARCH_CONFIG + "', page.content, q.query, '" + HEADLINE_OPTIONS + "') AS highlight " +
+            "FROM page CROSS JOIN q ORDER BY page.rank DESC, page.id DESC";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Find the user's messages matching the filter, newest first.
+     *
+     * @param userId   the user id
+     * @param filter   the filter
+     * @param pageable the pageable
+     * @return the page
+     */
+    public Page<MessageView> search(String userId, JsonbFilter filter, Pageable pageable) {
+        List<Object> args = new ArrayList<>();
+        String where = FROM_USER_MESSAGES + containment(filter, userId, args);
+
+        Long total = jdbcTemplate.queryForObject("SELECT COUNT(*) " + where, Long.class, args.toArray());
+        if (total == null || total == 0 || pageable.getOffset() >= total) {
+            return new PageImpl<>(List.of(), pageable, total == null ? 0 : total);
+        }
+
+        args.add(pageable.getPageSize());
+        args.add(pageable.getOffset());
+        List<MessageView> content = jdbcTemplate.query(
+                SELECT_COLUMNS + where + " ORDER BY m.created_at DESC LIMIT ? OFFSET ?",
+                messageViewMapper(), args.toArray());
+        return new PageImpl<>(content, pageable, total);
+    }
+
+    /**
+     * Full-text search over the user's message content, best match first.
+     *
+     * @param userId    the user id
+     * @param query     web search syntax: words, "quoted phrases", OR, -excluded
+     * @param afterRank rank of the last hit of the previous page, null for the first page
+     * @param afterId   id of the last hit of the previous page, null for the first page
+     * @param limit     the maximum number of hits
+     * @return the hits
+     */
+    public List<MessageSearchHit> searchContent(String userId, String query, Float afterRank, UUID afterId, int limit) {
+        return jdbcTemplate.query(CONTENT_SEARCH_SQL, (rs, rowNum) -> MessageSearchHit.builder()
+                        .messageId(rs.getObject("id", UUID.class))
+                        .sessionId(rs.getObject("session_id", UUID.class))
+                        .senderType(MessageSender.valueOf(rs.getString("sender_type")))
+                        .highlight(rs.getString("highlight"))
+                        .rank(rs.getFloat("rank"))
+                        .createdAt(rs.getTimestamp("created_at").toLocalDateTime())
+                        .build(),
+                query, userId, SessionStatus.DELETED.name(), afterRank, afterRank, afterId, limit);
+    }
+
+    // ---------- Helper Methods ----------
+
+    private String containment(JsonbFilter filter, String userId, List<Object> args) {
+        args.add(userId);
+        args.add(SessionStatus.DELETED.name());
+
+        StringBuilder sql = new StringBuilder();
+        filter.getDocuments().forEach((field, document) -> {
+            sql.append(" AND m.").append(field.getColumn()).append(" @> ?::jsonb");
+            args.add(toJson(document));
+        });
+        return sql.toString();
+    }
+
+    private RowMapper<MessageView> messageViewMapper() {
+        return (rs, rowNum) -> new MessageView(
+                rs.getObject("id", UUID.class),
+                rs.getObject("session_id", UUID.class),
+                MessageSender.valueOf(rs.getString("sender_type")),
+                rs.getString("content"),
+                fromJson(rs.getString(JsonbField.CONTEXT_DATA.getColumn())),
+                fromJson(rs.getString(JsonbField.METADATA.getColumn())),
+                rs.getTimestamp("created_at").toLocalDateTime());
+    }
+
+    private String toJson(Map<String, Object> document) {
+        try {
+            return objectMapper.writeValueAsString(document);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Filter is not serializable to JSON", e);
+        }
+    }
+
+    private Map<String, Object> fromJson(String json) throws SQLException {
+        if (json == null) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(json, JSON_MAP);
+        } catch (JsonProcessingException e) {
+            throw new SQLException("Invalid JSONB value", e);
+        }
+    }
+}
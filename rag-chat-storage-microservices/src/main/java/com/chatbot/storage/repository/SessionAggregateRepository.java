@@ -0,0 +1,141 @@
+package com.chatbot.storage.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ *
+ * The type Session aggregate repository.
+ * Maintains the denormalized message_count, last_message_at and message_version of
+ * chat_sessions with relative SQL updates. They never go through the versioned ChatSession entity, so
+ * concurrent appends to one session cannot conflict on its version; they only queue on
+ * the row lock for the remainder of the appending transaction.
+ */
+@Repository
+@RequiredArgsConstructor
+public class SessionAggregateRepository {
+
+    private static final String RECORD_APPEND_SQL =
+            "UPDATE chat_sessions SET message_count = message_count + 1, message_version = message_version + 1, " +
+            "last_message_at = GREATEST(last_message_at, ?) WHERE id = ?";
+    private static final String RECORD_APPENDS_SQL =
+            "UPDATE chat_sessions SET message_count = message_count + ?, message_version = message_version + 1, " +
+            "last_message_at = GREATEST(last_message_at, ?) WHERE id = ?";
+    private static final String RECORD_REMOVAL_SQL =
+            "UPDATE chat_sessions SET message_count = GREATEST(message_count - ?, 0), " +
+            "message_version = message_version + 1 WHERE id = ?";
+    // Archived sessions keep the count of their archived rows in session_archives, next to any hot rows
+    private static final String RECOUNT_SQL =
+            "UPDATE chat_sessions s SET message_count = COALESCE(" +
+            "(SELECT a.message_count FROM session_archives a WHERE a.session_id = s.id), 0) + " +
+            "(SELECT COUNT(*) FROM chat_messages m WHERE m.session_id = s.id), " +
+            "message_version = s.message_version + 1 WHERE s.id IN (";
+    private static final String MESSAGE_VERSION_SQL =
+            "SELECT message_version FROM chat_sessions WHERE id = ? AND user_id = ?";
+    private static final String VERSIONS_SQL =
+            "SELECT version, message_version FROM chat_sessions WHERE id = ? AND user_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Messages appended to one session by a batch.
+     *
+     * @param sessionId     the session id
+     * @param count         the number of appended messages
+     * @param lastCreatedAt the creation time of the newest one
+     */
+    public record Appends(UUID sessionId, long count, LocalDateTime lastCreatedAt) {
+    }
+
+    /**
+     * Count a message appended to the session.
+     *
+     * @param sessionId the session id
+     * @param createdAt the creation time of the message
+     */
+    public void recordAppend(UUID sessionId, LocalDateTime createdAt) {
+        jdbcTemplate.update(RECORD_APPEND_SQL, Timestamp.valueOf(createdAt), sessionId);
+    }
+
+    /**
+     * Count the messages appended by a batch, one statement per session. Callers pass
+     * the sessions in a stable order so concurrent batches lock their rows in that order.
+     *
+     * @param appends the appends per session
+     */
+    public void recordAppends(List<Appends> appends) {
+        jdbcTemplate.batchUpdate(RECORD_APPENDS_SQL, appends, appends.size(), (ps, append) -> {
+            ps.setLong(1, append.count());
+            ps.setTimestamp(2, Timestamp.valueOf(append.lastCreatedAt()));
+            ps.setObject(3, append.sessionId());
+        });
+    }
+
+    /**
+     * Uncount messages removed from the session.
+     *
+     * @param sessionId the session id
+     * @param count     the number of removed messages
+     */
+    public void recordRemoval(UUID sessionId, long count) {
+        jdbcTemplate.update(RECORD_REMOVAL_SQL, count, sessionId);
+    }
+
+    /**
+     * Find the message version of a session, which changes whenever messages are added
+     * to or removed from it. Doubles as an ownership check.
+     *
+     * @param sessionId the session id
+     * @param userId    the user id
+     * @return the message version, or empty if the user has no such session
+     */
+    public Optional<Long> findMessageVersion(UUID sessionId, String userId) {
+        return jdbcTemplate.queryForList(MESSAGE_VERSION_SQL, Long.class, sessionId, userId).stream().findFirst();
+    }
+
+    /**
+     * Find the entity version and the message version of a session, straight from its row
+     * rather than from the second-level cache. Doubles as an ownership check.
+     *
+     * @param sessionId the session id
+     * @param userId    the user id
+     * @return the versions, or empty if the user has no such session
+     */
+    public Optional<SessionVersions> findVersions(UUID sessionId, String userId) {
+        return jdbcTemplate.query(VERSIONS_SQL,
+                (rs, rowNum) -> new SessionVersions(rs.getLong("version"), rs.getLong("message_version")),
+                sessionId, userId).stream().findFirst();
+    }
+
+    /**
+     * Versions of a session row.
+     *
+     * @param version        the entity version, bumped by every session update
+     * @param messageVersion the message version, bumped whenever messages are added or removed
+     */
+    public record SessionVersions(long version, long messageVersion) {
+    }
+
+    /**
+     * Recount the messages of the given sessions after rows were removed without going
+     * through {@link #recordRemoval} (a dropped partition). Bumps their message version.
+     *
+     * @param sessionIds the session ids
+     * @return the number of recounted sessions
+     */
+    public int recountSessions(List<UUID> sessionIds) {
+        if (sessionIds.isEmpty()) {
+            return 0;
+        }
+        String placeholders = String.join(", ", Collections.nCopies(sessionIds.size(), "?"));
+        return jdbcTemplate.update(RECOUNT_SQL + placeholders + ")", sessionIds.toArray());
+    }
+}
@@ -0,0 +1,46 @@
+package com.chatbot.storage.repository;
+
+import com.chatbot.storage.entity.SessionArchive;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ *
+ * The interface Session archive repository.
+ */
+@Repository
+public interface SessionArchiveRepository extends JpaRepository<SessionArchive, UUID> {
+
+    /**
+     * Find by session id optional.
+     *
+     * @param sessionId the session id
+     * @return the optional
+     */
+    Optional<SessionArchive> findBySessionId(UUID sessionId);
+
+    /**
+     * Find for update by session id optional.
+     *
+     * @param sessionId the session id
+     * @return the optional
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM SessionArchive a WHERE a.sessionId = :sessionId")
+    Optional<SessionArchive> findForUpdateBySessionId(@Param("sessionId") UUID sessionId);
+
+    /**
+     * Exists by session id boolean.
+     *
+     * @param sessionId the session id
+     * @return the boolean
+     */
+    boolean existsBySessionId(UUID sessionId);
+}
@@ -0,0 +1,91 @@
+package com.chatbot.storage.repository;
+
+import com.chatbot.storage.enums.SyncEntityType;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ *
+ * The type Sync change repository.
+ * Reads the sync change log in (txid, id) order. Transaction ids are handed out when a
+ * transaction first writes, not when it commits, so only rows below the horizon, the id
+ * of the oldest transaction still running, are final: nothing can commit below it later.
+ */
+@Repository
+@RequiredArgsConstructor
+public class SyncChangeRepository {
+
+    private static final String HORIZON_SQL = "SELECT pg_snapshot_xmin(pg_current_snapshot())::text";
+    private static final String CHANGES_SQL =
+            "SELECT id, txid::text AS txid, session_id, entity_type, entity_id, deleted FROM sync_changes " +
+            "WHERE user_id = ? AND (txid, id) > (CAST(? AS xid8), ?) AND txid < CAST(? AS xid8) " +
+            "ORDER BY txid, id LIMIT ?";
+    // The oldest rows come first in id order, so the scan stops at the first young row
+    private static final String PRUNE_SQL =
+            "DELETE FROM sync_changes WHERE id IN (" +
+            "SELECT id FROM sync_changes WHERE changed_at < ? ORDER BY id LIMIT ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * A change log row.
+     *
+     * @param id         the id
+     * @param txid       the id of the transaction that made the change
+     * @param sessionId  the session, or the session the message belongs to
+     * @param entityType the entity type
+     * @param entityId   the entity id
+     * @param deleted    true for a deletion
+     */
+    public record Change(long id, long txid, UUID sessionId, SyncEntityType entityType, UUID entityId,
+                         boolean deleted) {
+    }
+
+    /**
+     * The horizon: every row with a lower txid is committed or rolled back.
+     *
+     * @return the transaction id
+     */
+    public long currentHorizon() {
+        String horizon = jdbcTemplate.queryForObject(HORIZON_SQL, String.class);
+        return Long.parseLong(horizon);
+    }
+
+    /**
+     * Find the user's changes after a position and below a horizon.
+     *
+     * @param userId    the user id
+     * @param afterTxid the txid of the position
+     * @param afterId   the id of the position
+     * @param horizon   the horizon
+     * @param limit     the maximum number of rows
+     * @return the changes in (txid, id) order
+     */
+    public List<Change> findChanges(String userId, long afterTxid, long afterId, long horizon, int limit) {
+        return jdbcTemplate.query(CHANGES_SQL, (rs, rowNum) -> new Change(
+                        rs.getLong("id"),
+                        Long.parseLong(rs.getString("txid")),
+                        rs.getObject("session_id", UUID.class),
+                        SyncEntityType.valueOf(rs.getString("entity_type")),
+                        rs.getObject("entity_id", UUID.class),
+                        rs.getBoolean("deleted")),
+                userId, Long.toString(afterTxid), afterId, Long.toString(horizon), limit);
+    }
+
+    /**
+     * Delete a batch of rows recorded before the cutoff.
+     *
+     * @param cutoff    the cutoff
+     * @param batchSize the batch size
+     * @return the number of deleted rows
+     */
+    public int pruneBefore(LocalDateTime cutoff, int batchSize) {
+        return jdbcTemplate.update(PRUNE_SQL, Timestamp.valueOf(cutoff), batchSize);
+    }
+}
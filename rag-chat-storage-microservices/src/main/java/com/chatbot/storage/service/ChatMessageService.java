@@ -4,11 +4,17 @@ import com.chatbot.storage.dto.request.SendMessageRequest;
 import com.chatbot.storage.dto.response.MessageResponse;
 import com.chatbot.storage.dto.response.PagedResponse;
 import com.chatbot.storage.enums.MessageSender;
+import com.chatbot.storage.enums.ResponseView;
 import org.springframework.data.domain.Pageable;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Predicate;
 
 /**
  *
@@ -44,6 +50,54 @@ public interface ChatMessageService {
      */
     List<MessageResponse> getAllSessionMessages(UUID sessionId, String userId);
 
+    /**
+     * Gets session messages unless the client already holds them. The entity tag is
+     * derived from the session's message version, so an unchanged session costs one
+     * row lookup and no message is loaded.
+     *
+     * @param sessionId the session id
+     * @param userId    the user id
+     * @param pageable  the pageable
+     * @param view      how much of each message to load and return
+     * @param isCurrent tells whether the client holds the messages with the given entity tag
+     * @return the session messages, or empty if the client's copy is current
+     */
+    Optional<PagedResponse<MessageResponse>> getSessionMessagesIfModified(UUID sessionId, String userId,
+                                                                          Pageable pageable, ResponseView view,
+                                                                          Predicate<String> isCurrent);
+
+    /**
+     * Gets all session messages unless the client already holds them.
+     *
+     * @param sessionId the session id
+     * @param userId    the user id
+     * @param view      how much of each message to load and return
+     * @param isCurrent tells whether the client holds the messages with the given entity tag
+     * @return the all session messages, or empty if the client's copy is current
+     */
+    Optional<List<MessageResponse>> getAllSessionMessagesIfModified(UUID sessionId, String userId,
+                                                                    ResponseView view,
+                                                                    Predicate<String> isCurrent);
+
+    /**
+     * Export session messages as NDJSON, one message per line, without
+     * materializing the whole history in memory.
+     *
+     * @param sessionId    the session id
+     * @param userId       the user id
+     * @param outputStream the output stream
+     * @throws IOException if writing to the stream fails
+     */
+    void exportSessionMessages(UUID sessionId, String userId, OutputStream outputStream) throws IOException;
+
+    /**
+     * Verify session ownership.
+     *
+     * @param sessionId the session id
+     * @param userId    the user id
+     */
+    void verifySessionOwnership(UUID sessionId, String userId);
+
     /**
      * Delete message.
      *
@@ -82,4 +136,18 @@ public interface ChatMessageService {
      * @return the message response
      */
     MessageResponse addMessage(UUID sessionId, String userId, MessageSender senderType, String content, Map<String, Object> contextData);
+
+    /**
+     * Append message completable future.
+     * With the write buffer enabled the message is group-committed with others and the
+     * future completes once it is durable; otherwise it is written before this returns.
+     * Do not wait for the future inside a transaction that wrote to the same session.
+     *
+     * @param sessionId  the session id
+     * @param userId     the user id
+     * @param senderType the sender type
+     * @param content    the content
+     * @return the future message response
+     */
+    CompletableFuture<MessageResponse> appendMessage(UUID sessionId, String userId, MessageSender senderType, String content);
 }
\ No newline at end of file
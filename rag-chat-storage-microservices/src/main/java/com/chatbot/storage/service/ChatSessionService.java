@@ -7,7 +7,9 @@ import com.chatbot.storage.dto.response.SessionResponse;
 import org.springframework.data.domain.Pageable;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Predicate;
 
 /**
  *
@@ -31,6 +33,27 @@ public interface ChatSessionService {
      */
     SessionResponse getSessionById(UUID sessionId, String userId);
 
+    /**
+     * Gets a session unless the client already holds its current state. The entity tag
+     * combines the session's version with its message version, read from the session row,
+     * so an unchanged session costs one row lookup and is not mapped.
+     *
+     * @param sessionId the session id
+     * @param userId    the user id
+     * @param isCurrent tells whether the client holds the session with the given entity tag
+     * @return the session, or empty if the client's copy is current
+     */
+    Optional<SessionResponse> getSessionIfModified(UUID sessionId, String userId, Predicate<String> isCurrent);
+
+    /**
+     * Gets sessions by ids in one round trip to the cache and at most one query.
+     *
+     * @param sessionIds the session ids
+     * @param userId     the user id
+     * @return the user's sessions among the ids, in the order of the ids; unknown ids are left out
+     */
+    List<SessionResponse> getSessionsByIds(List<UUID> sessionIds, String userId);
+
     /**
      * Gets user sessions.
      *
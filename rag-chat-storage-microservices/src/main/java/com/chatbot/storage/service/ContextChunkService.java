@@ -0,0 +1,38 @@
+package com.chatbot.storage.service;
+
+import com.chatbot.storage.dto.response.MessageResponse;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ *
+ * The interface Context chunk service.
+ */
+public interface ContextChunkService {
+
+    /**
+     * Replace retrieved chunks in the context data with references to the chunk
+     * store, storing any chunk not seen before.
+     *
+     * @param contextData the context data
+     * @return the context data holding references
+     */
+    Map<String, Object> deduplicate(Map<String, Object> contextData);
+
+    /**
+     * Expand chunk references in place, fetching every missing chunk of the
+     * batch in a single query.
+     *
+     * @param messages the messages
+     */
+    void resolve(Collection<MessageResponse> messages);
+
+    /**
+     * Add the hash of every chunk the context data references to the given collection.
+     *
+     * @param contextData the context data
+     * @param hashes      the collection receiving the hashes
+     */
+    void collectReferences(Map<String, Object> contextData, Collection<String> hashes);
+}
@@ -0,0 +1,22 @@
+package com.chatbot.storage.service;
+
+import com.chatbot.storage.dto.response.HybridSearchResult;
+
+import java.util.List;
+
+/**
+ *
+ * The interface Hybrid search service.
+ */
+public interface HybridSearchService {
+
+    /**
+     * Search all of the user's messages, fusing BM25 and vector rankings, best first.
+     *
+     * @param userId the user id
+     * @param query  the query
+     * @param limit  the maximum number of results
+     * @return the results
+     */
+    List<HybridSearchResult> search(String userId, String query, int limit);
+}
@@ -0,0 +1,49 @@
+package com.chatbot.storage.service;
+
+import com.chatbot.storage.dto.request.MessageSearchRequest;
+import com.chatbot.storage.dto.response.CursorPagedResponse;
+import com.chatbot.storage.dto.response.MessageSearchHit;
+import com.chatbot.storage.dto.response.MessageResponse;
+import com.chatbot.storage.dto.response.PagedResponse;
+import com.chatbot.storage.dto.response.SimilarMessageResponse;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+
+/**
+ *
+ * The interface Message search service.
+ */
+public interface MessageSearchService {
+
+    /**
+     * Search the user's messages across sessions by contextData and metadata content.
+     *
+     * @param userId   the user id
+     * @param request  the request
+     * @param pageable the pageable
+     * @return the paged response
+     */
+    PagedResponse<MessageResponse> searchMessages(String userId, MessageSearchRequest request, Pageable pageable);
+
+    /**
+     * Full-text search over the user's message content, ranked and keyset-paginated.
+     *
+     * @param userId the user id
+     * @param query  the query
+     * @param cursor the cursor of the previous page, null for the first page
+     * @param size   the page size
+     * @return the cursor paged response
+     */
+    CursorPagedResponse<MessageSearchHit> searchContent(String userId, String query, String cursor, int size);
+
+    /**
+     * Find the user's messages nearest to the text in the vector index, best first.
+     *
+     * @param userId the user id
+     * @param text   the text
+     * @param limit  the maximum number of results
+     * @return the similar messages
+     */
+    List<SimilarMessageResponse> findSimilar(String userId, String text, int limit);
+}
@@ -0,0 +1,50 @@
+package com.chatbot.storage.service;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ *
+ * The interface Session archive service.
+ */
+public interface SessionArchiveService {
+
+    /**
+     * Find sessions that are due for archival, bounded by the configured batch size.
+     *
+     * @return the session ids
+     */
+    List<UUID> findArchivalCandidates();
+
+    /**
+     * Move the messages of a session into the archive tier.
+     *
+     * @param sessionId the session id
+     * @return true if the session was archived, false if it already was
+     */
+    boolean archiveSession(UUID sessionId);
+
+    /**
+     * Is archived boolean.
+     *
+     * @param sessionId the session id
+     * @return the boolean
+     */
+    boolean isArchived(UUID sessionId);
+
+    /**
+     * Restore the archived messages of a session into the hot tables.
+     *
+     * @param sessionId the session id
+     */
+    void rehydrate(UUID sessionId);
+
+    /**
+     * Record the context chunks referenced inside an archive written before chunk
+     * references were recorded on archival.
+     *
+     * @param sessionId the session id
+     * @return true if the archive was indexed, false if there was nothing to do
+     */
+    boolean indexChunkReferences(UUID sessionId);
+}
@@ -0,0 +1,19 @@
+package com.chatbot.storage.service;
+
+import com.chatbot.storage.dto.response.SyncResponse;
+
+/**
+ *
+ * The interface Sync service.
+ */
+public interface SyncService {
+
+    /**
+     * Get the user's session and message changes since a cursor.
+     *
+     * @param userId the user id
+     * @param cursor the nextCursor of the previous sync, null to get a starting cursor
+     * @return the sync response
+     */
+    SyncResponse sync(String userId, String cursor);
+}
@@ -1,26 +1,58 @@
 package com.chatbot.storage.service.impl;
 
+import com.chatbot.storage.dto.projection.MessageSummaryView;
+import com.chatbot.storage.dto.projection.MessageView;
 import com.chatbot.storage.dto.request.SendMessageRequest;
 import com.chatbot.storage.dto.response.MessageResponse;
 import com.chatbot.storage.dto.response.PagedResponse;
 import com.chatbot.storage.entity.ChatMessage;
 import com.chatbot.storage.entity.ChatSession;
 import com.chatbot.storage.enums.MessageSender;
+import com.chatbot.storage.enums.OutboxEventType;
+import com.chatbot.storage.enums.ResponseView;
 import com.chatbot.storage.exception.ResourceNotFoundException;
+import com.chatbot.storage.infrastructure.cache.SecondLevelCacheEvictor;
+import com.chatbot.storage.infrastructure.outbox.MessageEvent;
+import com.chatbot.storage.infrastructure.outbox.OutboxWriter;
+import com.chatbot.storage.infrastructure.routing.ReplicaReadRouter;
+import com.chatbot.storage.infrastructure.sharding.ShardRouter;
+import com.chatbot.storage.infrastructure.stream.SessionMessageBroadcaster;
+import com.chatbot.storage.infrastructure.sync.SyncChangeWriter;
+import com.chatbot.storage.infrastructure.text.LexicalIndexService;
+import com.chatbot.storage.infrastructure.write.MessageWriteBuffer;
 import com.chatbot.storage.mapper.MessageMapper;
 import com.chatbot.storage.repository.ChatMessageRepository;
 import com.chatbot.storage.repository.ChatSessionRepository;
+import com.chatbot.storage.repository.SessionAggregateRepository;
 import com.chatbot.storage.service.ChatMessageService;
+import com.chatbot.storage.service.ContextChunkService;
+import com.chatbot.storage.service.SessionArchiveService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+import static com.chatbot.storage.constants.AppConstants.EXPORT_FLUSH_INTERVAL;
 
 /**
  *
@@ -35,35 +67,112 @@ public class ChatMessageServiceImpl implements ChatMessageService {
     private final ChatMessageRepository messageRepository;
     private final ChatSessionRepository sessionRepository;
     private final MessageMapper messageMapper;
+    private final SessionArchiveService sessionArchiveService;
+    private final ContextChunkService contextChunkService;
+    private final ReplicaReadRouter replicaReadRouter;
+    private final ObjectMapper objectMapper;
+    private final ObjectProvider<LexicalIndexService> lexicalIndexService;
+    private final SessionAggregateRepository sessionAggregateRepository;
+    private final SecondLevelCacheEvictor cacheEvictor;
+    private final ObjectProvider<MessageWriteBuffer> writeBuffer;
+    private final ObjectProvider<SessionMessageBroadcaster> messageBroadcaster;
+    private final OutboxWriter outboxWriter;
+    private final SyncChangeWriter syncChangeWriter;
+    private final ShardRouter shardRouter;
 
     @Override
     public MessageResponse sendMessage(UUID sessionId, String userId, SendMessageRequest request) {
-        ChatSession session = getSessionForUser(sessionId, userId);
+        shardRouter.routeWrite(userId);
+        ChatSession session = getSessionReferenceForUser(sessionId, userId);
 
         ChatMessage message = buildMessage(session, request.getSenderType(), request.getContent(), request.getContextData(), request.getMetadata());
-        return saveAndMapMessage(message);
+        replicaReadRouter.recordWrite(userId);
+        return saveAndMapMessage(message, userId);
     }
 
     @Override
     @Transactional(readOnly = true)
     public PagedResponse<MessageResponse> getSessionMessages(UUID sessionId, String userId, Pageable pageable) {
-        verifySessionOwnership(sessionId, userId);
-
-        Page<ChatMessage> messages = messageRepository.findBySessionIdOrderByCreatedAtAsc(sessionId, pageable);
-        return messageMapper.toPagedResponse(messages);
+        shardRouter.route(userId);
+        return shardRouter.readWithFallback(userId, () -> {
+            routeRead(sessionId, userId);
+            return findSessionMessages(sessionId, userId, pageable);
+        });
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<MessageResponse> getAllSessionMessages(UUID sessionId, String userId) {
-        verifySessionOwnership(sessionId, userId);
+        shardRouter.route(userId);
+        return shardRouter.readWithFallback(userId, () -> {
+            routeRead(sessionId, userId);
+            return findAllSessionMessages(sessionId, userId);
+        });
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<PagedResponse<MessageResponse>> getSessionMessagesIfModified(UUID sessionId, String userId,
+                                                                                 Pageable pageable,
+                                                                                 ResponseView view,
+                                                                                 Predicate<String> isCurrent) {
+        shardRouter.route(userId);
+        return shardRouter.readWithFallback(userId, () -> {
+            routeRead(sessionId, userId);
+            if (isCurrent.test(messagesEntityTag(sessionId, userId, view))) {
+                return Optional.empty();
+            }
+            return Optional.of(view == ResponseView.SUMMARY
+                    ? findSessionMessageSummaries(sessionId, userId, pageable)
+                    : findSessionMessages(sessionId, userId, pageable));
+        });
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<List<MessageResponse>> getAllSessionMessagesIfModified(UUID sessionId, String userId,
+                                                                           ResponseView view,
+                                                                           Predicate<String> isCurrent) {
+        shardRouter.route(userId);
+        return shardRouter.readWithFallback(userId, () -> {
+            routeRead(sessionId, userId);
+            if (isCurrent.test(messagesEntityTag(sessionId, userId, view))) {
+                return Optional.empty();
+            }
+            return Optional.of(view == ResponseView.SUMMARY
+                    ? findAllSessionMessageSummaries(sessionId, userId)
+                    : findAllSessionMessages(sessionId, userId));
+        });
+    }
 
-        List<ChatMessage> messages = messageRepository.findBySessionIdOrderByCreatedAtAsc(sessionId);
-        return messageMapper.toResponseList(messages);
+    @Override
+    @Transactional(readOnly = true)
+    public void exportSessionMessages(UUID sessionId, String userId, OutputStream outputStream) throws IOException {
+        shardRouter.route(userId);
+        try {
+            // Nothing is written before the session is found, so a miss can still be retried on the other shard
+            shardRouter.readWithFallback(userId, () -> {
+                writeExport(sessionId, userId, outputStream);
+                return null;
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void verifySessionOwnership(UUID sessionId, String userId) {
+        shardRouter.route(userId);
+        shardRouter.readWithFallback(userId, () -> {
+            checkSessionOwnership(sessionId, userId);
+            return null;
+        });
     }
 
     @Override
     public void deleteMessage(UUID messageId, String userId) {
+        shardRouter.routeWrite(userId);
         ChatMessage message = messageRepository.findById(messageId)
                 .orElseThrow(() -> new ResourceNotFoundException("Message not found"));
 
@@ -71,7 +180,14 @@ public class ChatMessageServiceImpl implements ChatMessageService {
             throw new ResourceNotFoundException("Message not found");
         }
 
+        UUID sessionId = message.getSession().getId();
         messageRepository.delete(message);
+        sessionAggregateRepository.recordRemoval(sessionId, 1);
+        outboxWriter.append(sessionId, OutboxEventType.MESSAGE_DELETED, new MessageEvent(
+                messageId, sessionId, userId, message.getSenderType(), null, message.getCreatedAt()));
+        syncChangeWriter.record(SyncChangeWriter.Change.message(userId, sessionId, messageId).asDeleted());
+        cacheEvictor.evictSession(sessionId);
+        replicaReadRouter.recordWrite(userId);
         log.info("Message {} deleted", messageId);
     }
 
@@ -88,40 +204,195 @@ public class ChatMessageServiceImpl implements ChatMessageService {
 
     @Override
     public MessageResponse addMessage(UUID sessionId, String userId, MessageSender senderType, String content, Map<String, Object> contextData) {
-        ChatSession session = getSessionForUser(sessionId, userId);
+        shardRouter.routeWrite(userId);
+        ChatSession session = getSessionReferenceForUser(sessionId, userId);
 
         ChatMessage message = buildMessage(session, senderType, content, contextData, null);
-        return saveAndMapMessage(message);
+        replicaReadRouter.recordWrite(userId);
+        return saveAndMapMessage(message, userId);
+    }
+
+    @Override
+    public CompletableFuture<MessageResponse> appendMessage(UUID sessionId, String userId, MessageSender senderType, String content) {
+        MessageWriteBuffer buffer = writeBuffer.getIfAvailable();
+        if (buffer == null) {
+            return CompletableFuture.completedFuture(addMessage(sessionId, userId, senderType, content));
+        }
+        // The buffer writes the row to the shard this transaction is routed to
+        shardRouter.routeWrite(userId);
+        checkSessionOwnership(sessionId, userId);
+
+        MessageWriteBuffer.MessageRow row = new MessageWriteBuffer.MessageRow(
+                UUID.randomUUID(), sessionId, senderType, content, null, null, LocalDateTime.now());
+        CompletableFuture<Void> committed = new CompletableFuture<>();
+        if (!buffer.offer(userId, row, committed)) {
+            log.debug("Write buffer full, writing message for session {} directly", sessionId);
+            return CompletableFuture.completedFuture(addMessage(sessionId, userId, senderType, content));
+        }
+        replicaReadRouter.recordWrite(userId);
+
+        MessageResponse response = MessageResponse.builder()
+                .id(row.id())
+                .sessionId(sessionId)
+                .senderType(senderType)
+                .content(content)
+                .createdAt(row.createdAt())
+                .build();
+        return committed.thenApply(ignored -> response);
     }
 
     // ---------- Helper Methods ----------
 
-    private ChatSession getSessionForUser(UUID sessionId, String userId) {
-        log.info("Verifying session {} for user {}", sessionId, userId);
-        return sessionRepository.findByIdAndUserId(sessionId, userId)
+    private PagedResponse<MessageResponse> findSessionMessages(UUID sessionId, String userId, Pageable pageable) {
+        checkSessionOwnership(sessionId, userId);
+        rehydrateIfArchived(sessionId);
+
+        Page<MessageView> messages = messageRepository.findViewsBySessionId(sessionId, pageable);
+        PagedResponse<MessageResponse> response = messageMapper.toPagedResponse(messages);
+        contextChunkService.resolve(response.getContent());
+        return response;
+    }
+
+    private List<MessageResponse> findAllSessionMessages(UUID sessionId, String userId) {
+        checkSessionOwnership(sessionId, userId);
+        rehydrateIfArchived(sessionId);
+
+        List<MessageView> messages = messageRepository.findViewsBySessionId(sessionId);
+        List<MessageResponse> responses = messageMapper.toResponseList(messages);
+        contextChunkService.resolve(responses);
+        return responses;
+    }
+
+    // Summaries carry no context data, so there are no chunk references to resolve
+    private PagedResponse<MessageResponse> findSessionMessageSummaries(UUID sessionId, String userId,
+                                                                       Pageable pageable) {
+        checkSessionOwnership(sessionId, userId);
+        rehydrateIfArchived(sessionId);
+
+        Page<MessageSummaryView> messages = messageRepository.findSummariesBySessionId(sessionId, pageable);
+        return messageMapper.toSummaryPagedResponse(messages);
+    }
+
+    private List<MessageResponse> findAllSessionMessageSummaries(UUID sessionId, String userId) {
+        checkSessionOwnership(sessionId, userId);
+        rehydrateIfArchived(sessionId);
+
+        return messageMapper.toSummaryResponseList(messageRepository.findSummariesBySessionId(sessionId));
+    }
+
+    /**
+     * Entity tag of a session's messages. Read from the same database as the messages and
+     * before them, so a message stored in between can only make a body newer than its tag,
+     * never older. Each view is a separate representation, so it gets its own tag.
+     */
+    private String messagesEntityTag(UUID sessionId, String userId, ResponseView view) {
+        String suffix = view == ResponseView.SUMMARY ? ".summary" : "";
+        return sessionAggregateRepository.findMessageVersion(sessionId, userId)
+                .map(messageVersion -> "\"" + messageVersion + suffix + "\"")
                 .orElseThrow(() -> new ResourceNotFoundException("Session not found"));
     }
 
-    private void verifySessionOwnership(UUID sessionId, String userId) {
+    private void writeExport(UUID sessionId, String userId, OutputStream outputStream) {
+        routeRead(sessionId, userId);
+        checkSessionOwnership(sessionId, userId);
+        rehydrateIfArchived(sessionId);
+
+        ObjectWriter writer = objectMapper.writerFor(MessageResponse.class);
+        long written = 0;
+
+        try (Stream<MessageView> messages = messageRepository.streamViewsBySessionId(sessionId)) {
+            Iterator<MessageView> iterator = messages.iterator();
+            while (iterator.hasNext()) {
+                MessageResponse response = messageMapper.toResponse(iterator.next());
+                contextChunkService.resolve(List.of(response));
+                outputStream.write(writer.writeValueAsBytes(response));
+                outputStream.write('\n');
+
+                if (++written % EXPORT_FLUSH_INTERVAL == 0) {
+                    outputStream.flush();
+                }
+            }
+            outputStream.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        log.info("Exported {} messages for session {}", written, sessionId);
+    }
+
+    private void checkSessionOwnership(UUID sessionId, String userId) {
         if (!sessionRepository.existsByIdAndUserId(sessionId, userId)) {
             throw new ResourceNotFoundException("Session not found");
         }
     }
 
+    private ChatSession getSessionReferenceForUser(UUID sessionId, String userId) {
+        log.info("Verifying session {} for user {}", sessionId, userId);
+        // Appends only need the foreign key; loading the versioned session would make
+        // concurrent writers to one session contend on it
+        checkSessionOwnership(sessionId, userId);
+        return sessionRepository.getReferenceById(sessionId);
+    }
+
+    private void routeRead(UUID sessionId, String userId) {
+        // Rehydration writes on the primary, so a read that triggers it has to stay there too
+        replicaReadRouter.routeRead(userId, () -> sessionArchiveService.isArchived(sessionId));
+    }
+
+    private void rehydrateIfArchived(UUID sessionId) {
+        if (sessionArchiveService.isArchived(sessionId)) {
+            sessionArchiveService.rehydrate(sessionId);
+        }
+    }
+
     private ChatMessage buildMessage(ChatSession session, MessageSender senderType, String content,
                                      Map<String, Object> contextData, Map<String, Object> metadata) {
         return ChatMessage.builder()
                 .session(session)
                 .senderType(senderType)
                 .content(content)
-                .contextData(contextData)
+                .contextData(contextChunkService.deduplicate(contextData))
                 .metadata(metadata)
                 .build();
     }
 
-    private MessageResponse saveAndMapMessage(ChatMessage message) {
+    private MessageResponse saveAndMapMessage(ChatMessage message, String userId) {
         ChatMessage savedMessage = messageRepository.save(message);
         log.info("Message saved with ID: {}", savedMessage.getId());
-        return messageMapper.toResponse(savedMessage);
+        UUID sessionId = savedMessage.getSession().getId();
+        sessionAggregateRepository.recordAppend(sessionId, savedMessage.getCreatedAt());
+        outboxWriter.append(sessionId, OutboxEventType.MESSAGE_CREATED, new MessageEvent(savedMessage.getId(),
+                sessionId, userId, savedMessage.getSenderType(), savedMessage.getContent(), savedMessage.getCreatedAt()));
+        syncChangeWriter.record(SyncChangeWriter.Change.message(userId, sessionId, savedMessage.getId()));
+        cacheEvictor.evictSession(sessionId);
+        indexAfterCommit(savedMessage, userId);
+        MessageResponse response = messageMapper.toResponse(savedMessage);
+        contextChunkService.resolve(List.of(response));
+        SessionMessageBroadcaster broadcaster = messageBroadcaster.getIfAvailable();
+        if (broadcaster != null) {
+            broadcaster.publish(response);
+        }
+        return response;
+    }
+
+    private void indexAfterCommit(ChatMessage message, String userId) {
+        LexicalIndexService index = lexicalIndexService.getIfAvailable();
+        if (index == null) {
+            return;
+        }
+        UUID messageId = message.getId();
+        String content = message.getContent();
+
+        // The scheduled sync would pick it up too; this only makes it searchable right away
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    index.add(userId, messageId, content);
+                }
+            });
+        } else {
+            index.add(userId, messageId, content);
+        }
     }
 }
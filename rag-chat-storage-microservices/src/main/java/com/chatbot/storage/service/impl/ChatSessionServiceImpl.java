@@ -1,15 +1,24 @@
 package com.chatbot.storage.service.impl;
 
 
+import com.chatbot.storage.dto.projection.SessionView;
 import com.chatbot.storage.dto.request.CreateSessionRequest;
 import com.chatbot.storage.dto.request.UpdateSessionRequest;
 import com.chatbot.storage.dto.response.PagedResponse;
 import com.chatbot.storage.dto.response.SessionResponse;
 import com.chatbot.storage.entity.ChatSession;
+import com.chatbot.storage.enums.OutboxEventType;
 import com.chatbot.storage.enums.SessionStatus;
 import com.chatbot.storage.exception.ResourceNotFoundException;
+import com.chatbot.storage.exception.ValidationException;
+import com.chatbot.storage.infrastructure.cache.CacheBatchLoader;
+import com.chatbot.storage.infrastructure.outbox.OutboxWriter;
+import com.chatbot.storage.infrastructure.routing.ReplicaReadRouter;
+import com.chatbot.storage.infrastructure.sharding.ShardRouter;
+import com.chatbot.storage.infrastructure.sync.SyncChangeWriter;
 import com.chatbot.storage.mapper.SessionMapper;
 import com.chatbot.storage.repository.ChatSessionRepository;
+import com.chatbot.storage.repository.SessionAggregateRepository;
 import com.chatbot.storage.service.ChatSessionService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -20,11 +29,19 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
 
 import static com.chatbot.storage.constants.AppConstants.CACHE_FAVORITE_SESSIONS;
 import static com.chatbot.storage.constants.AppConstants.CACHE_SESSIONS;
+import static com.chatbot.storage.constants.AppConstants.SESSION_BATCH_MAX_SIZE;
 
 /**
  *
@@ -38,10 +55,17 @@ public class ChatSessionServiceImpl implements ChatSessionService {
 
     private final ChatSessionRepository sessionRepository;
     private final SessionMapper sessionMapper;
+    private final OutboxWriter outboxWriter;
+    private final SyncChangeWriter syncChangeWriter;
+    private final ShardRouter shardRouter;
+    private final CacheBatchLoader cacheBatchLoader;
+    private final SessionAggregateRepository sessionAggregateRepository;
+    private final ReplicaReadRouter replicaReadRouter;
 
     @Override
     public SessionResponse createSession(CreateSessionRequest request) {
         log.info("Creating new chat session for user: {}", request.getUserId());
+        shardRouter.routeWrite(request.getUserId());
 
         ChatSession session = ChatSession.builder()
                 .userId(request.getUserId())
@@ -52,25 +76,74 @@ public class ChatSessionServiceImpl implements ChatSessionService {
         ChatSession savedSession = sessionRepository.save(session);
         log.info("Created chat session with ID: {}", savedSession.getId());
 
-        return sessionMapper.toResponse(savedSession);
+        SessionResponse response = sessionMapper.toResponse(savedSession);
+        outboxWriter.append(savedSession.getId(), OutboxEventType.SESSION_CREATED, response);
+        syncChangeWriter.record(SyncChangeWriter.Change.session(request.getUserId(), savedSession.getId()));
+        return response;
     }
 
     @Override
     @Cacheable(value = CACHE_SESSIONS, key = "#sessionId + '_' + #userId")
     public SessionResponse getSessionById(UUID sessionId, String userId) {
         log.info("Fetching session {} for user {}", sessionId, userId);
+        shardRouter.route(userId);
 
-        ChatSession session = sessionRepository.findByIdAndUserId(sessionId, userId)
-                .orElseThrow(() -> new ResourceNotFoundException("Session not found"));
+        SessionView session = shardRouter.readWithFallback(userId, () -> sessionRepository
+                .findViewByIdAndUserId(sessionId, userId)
+                .orElseThrow(() -> new ResourceNotFoundException("Session not found")));
 
         return sessionMapper.toResponse(session);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<SessionResponse> getSessionIfModified(UUID sessionId, String userId, Predicate<String> isCurrent) {
+        shardRouter.route(userId);
+        return shardRouter.readWithFallback(userId, () -> {
+            replicaReadRouter.routeRead(userId, () -> false);
+
+            // The tag is read from the row, as the second-level cache is not invalidated across
+            // instances, and before the body, so a body can only be newer than its tag
+            String tag = sessionAggregateRepository.findVersions(sessionId, userId)
+                    .map(ChatSessionServiceImpl::entityTag)
+                    .orElseThrow(() -> new ResourceNotFoundException("Session not found"));
+            if (isCurrent.test(tag)) {
+                log.debug("Session {} not modified", sessionId);
+                return Optional.empty();
+            }
+
+            SessionView session = sessionRepository.findViewByIdAndUserId(sessionId, userId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Session not found"));
+            return Optional.of(sessionMapper.toResponse(session));
+        });
+    }
+
+    @Override
+    public List<SessionResponse> getSessionsByIds(List<UUID> sessionIds, String userId) {
+        if (sessionIds.size() > SESSION_BATCH_MAX_SIZE) {
+            throw new ValidationException("At most " + SESSION_BATCH_MAX_SIZE + " session IDs can be fetched at once");
+        }
+        Set<UUID> ids = new LinkedHashSet<>(sessionIds);
+        log.info("Fetching {} sessions for user {}", ids.size(), userId);
+        shardRouter.route(userId);
+
+        Map<UUID, SessionResponse> sessions = cacheBatchLoader.getAll(CACHE_SESSIONS, ids,
+                sessionId -> sessionId + "_" + userId, SessionResponse.class,
+                misses -> sessionRepository.findViewsByIdInAndUserId(misses, userId).stream()
+                        .collect(Collectors.toMap(SessionView::id, sessionMapper::toResponse)));
+
+        return ids.stream()
+                .map(sessions::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
     @Override
     public PagedResponse<SessionResponse> getUserSessions(String userId, Pageable pageable) {
         log.info("Fetching sessions for user: {} with pagination", userId);
+        shardRouter.route(userId);
 
-        Page<ChatSession> sessions = sessionRepository.findByUserIdAndStatus(
+        Page<SessionView> sessions = sessionRepository.findViewsByUserIdAndStatus(
                 userId, SessionStatus.ACTIVE, pageable);
 
         return sessionMapper.toPagedResponse(sessions);
@@ -80,9 +153,10 @@ public class ChatSessionServiceImpl implements ChatSessionService {
     @Cacheable(value = CACHE_FAVORITE_SESSIONS, key = "#userId")
     public List<SessionResponse> getFavoriteSessions(String userId) {
         log.info("Fetching favorite sessions for user: {}", userId);
+        shardRouter.route(userId);
 
-        List<ChatSession> favoriteSessions = sessionRepository
-                .findByUserIdAndIsFavoriteAndStatus(userId, true, SessionStatus.ACTIVE);
+        List<SessionView> favoriteSessions = sessionRepository
+                .findFavoriteViewsByUserId(userId, SessionStatus.ACTIVE);
 
         return sessionMapper.toResponseList(favoriteSessions);
     }
@@ -91,6 +165,7 @@ public class ChatSessionServiceImpl implements ChatSessionService {
     @CacheEvict(value = {CACHE_SESSIONS, CACHE_FAVORITE_SESSIONS}, key = "#sessionId + '_' + #userId")
     public SessionResponse updateSession(UUID sessionId, String userId, UpdateSessionRequest request) {
         log.info("Updating session {} for user {}", sessionId, userId);
+        shardRouter.routeWrite(userId);
 
         ChatSession session = sessionRepository.findByIdAndUserId(sessionId, userId)
                 .orElseThrow(() -> new ResourceNotFoundException("Session not found"));
@@ -103,19 +178,27 @@ public class ChatSessionServiceImpl implements ChatSessionService {
         }
 
         ChatSession updatedSession = sessionRepository.save(session);
-        return sessionMapper.toResponse(updatedSession);
+        replicaReadRouter.recordWrite(userId);
+        SessionResponse response = sessionMapper.toResponse(updatedSession);
+        outboxWriter.append(sessionId, OutboxEventType.SESSION_UPDATED, response);
+        syncChangeWriter.record(SyncChangeWriter.Change.session(userId, sessionId));
+        return response;
     }
 
     @Override
     @CacheEvict(value = {CACHE_SESSIONS, CACHE_FAVORITE_SESSIONS}, key = "#sessionId + '_' + #userId")
     public void deleteSession(UUID sessionId, String userId) {
         log.info("Deleting session {} for user {}", sessionId, userId);
+        shardRouter.routeWrite(userId);
 
         ChatSession session = sessionRepository.findByIdAndUserId(sessionId, userId)
                 .orElseThrow(() -> new ResourceNotFoundException("Session not found"));
 
         session.setStatus(SessionStatus.DELETED);
-        sessionRepository.save(session);
+        ChatSession deletedSession = sessionRepository.save(session);
+        replicaReadRouter.recordWrite(userId);
+        outboxWriter.append(sessionId, OutboxEventType.SESSION_DELETED, sessionMapper.toResponse(deletedSession));
+        syncChangeWriter.record(SyncChangeWriter.Change.session(userId, sessionId).asDeleted());
 
         log.info("Session {} marked as deleted", sessionId);
     }
@@ -124,13 +207,24 @@ public class ChatSessionServiceImpl implements ChatSessionService {
     @CacheEvict(value = {CACHE_SESSIONS, CACHE_FAVORITE_SESSIONS}, key = "#sessionId + '_' + #userId")
     public SessionResponse toggleFavorite(UUID sessionId, String userId) {
         log.info("Toggling favorite status for session {} and user {}", sessionId, userId);
+        shardRouter.routeWrite(userId);
 
         ChatSession session = sessionRepository.findByIdAndUserId(sessionId, userId)
                 .orElseThrow(() -> new ResourceNotFoundException("Session not found"));
 
         session.setIsFavorite(!session.getIsFavorite());
         ChatSession updatedSession = sessionRepository.save(session);
+        replicaReadRouter.recordWrite(userId);
+
+        SessionResponse response = sessionMapper.toResponse(updatedSession);
+        outboxWriter.append(sessionId, OutboxEventType.SESSION_UPDATED, response);
+        syncChangeWriter.record(SyncChangeWriter.Change.session(userId, sessionId));
+        return response;
+    }
+
+    // ---------- Helper Methods ----------
 
-        return sessionMapper.toResponse(updatedSession);
+    private static String entityTag(SessionAggregateRepository.SessionVersions versions) {
+        return "\"" + versions.version() + "." + versions.messageVersion() + "\"";
     }
-}
\ No newline at end of file
+}
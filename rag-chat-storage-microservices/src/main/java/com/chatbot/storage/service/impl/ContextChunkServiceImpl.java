@@ -0,0 +1,289 @@
+package com.chatbot.storage.service.impl;
+
+import com.chatbot.storage.config.properties.ChunkDeduplicationProperties;
+import com.chatbot.storage.dto.response.MessageResponse;
+import com.chatbot.storage.entity.ContextChunk;
+import com.chatbot.storage.infrastructure.sharding.ShardRoutingContext;
+import com.chatbot.storage.repository.ContextChunkRepository;
+import com.chatbot.storage.service.ContextChunkService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import static com.chatbot.storage.constants.AppConstants.CHUNK_REF_KEY;
+
+/**
+ *
+ * The type Context chunk service.
+ * Content-addressed store for retrieved RAG chunks, fronted by an in-process LRU.
+ * Every shard has its own chunk table, so the LRU is keyed by shard and hash: a chunk
+ * known on one shard is still inserted on the next one that references it. Unreferenced
+ * chunks are deleted by ContextChunkCollector, so a chunk is only assumed to be stored
+ * for the cache TTL after this instance last stored it.
+ */
+@Slf4j
+@Service
+public class ContextChunkServiceImpl implements ContextChunkService {
+
+    // DO UPDATE locks an existing row even when the WHERE fails, so the collector cannot delete
+    // a chunk this transaction is about to reference; a chunk marked orphaned is taken back
+    private static final String INSERT_CHUNK_SQL =
+            "INSERT INTO context_chunks (hash, payload, created_at) VALUES (?, ?::jsonb, ?) " +
+                    "ON CONFLICT (hash) DO UPDATE SET orphaned_at = NULL WHERE context_chunks.orphaned_at IS NOT NULL";
+
+    private final ContextChunkRepository chunkRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ChunkDeduplicationProperties properties;
+    private final ObjectMapper canonicalMapper;
+    private final Map<String, CachedChunk> cache;
+
+    private record CachedChunk(Map<String, Object> payload, long storedAt) {
+    }
+
+    public ContextChunkServiceImpl(ContextChunkRepository chunkRepository,
+                                   JdbcTemplate jdbcTemplate,
+                                   ChunkDeduplicationProperties properties,
+                                   ObjectMapper objectMapper) {
+        this.chunkRepository = chunkRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+        // Sorted keys make the hash independent of the order the client sent them in
+        this.canonicalMapper = objectMapper.copy().configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
+        this.cache = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedChunk> eldest) {
+                return size() > properties.getCacheSize();
+            }
+        });
+    }
+
+    @Override
+    public Map<String, Object> deduplicate(Map<String, Object> contextData) {
+        if (!properties.isEnabled() || contextData == null) {
+            return contextData;
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>(contextData);
+        Map<String, Map<String, Object>> newChunks = new LinkedHashMap<>();
+
+        for (String key : properties.getChunkKeys()) {
+            if (result.get(key) instanceof List<?> chunks) {
+                List<Object> references = new ArrayList<>(chunks.size());
+                for (Object chunk : chunks) {
+                    references.add(chunk instanceof Map<?, ?> map ? toReference(map, newChunks) : chunk);
+                }
+                result.put(key, references);
+            }
+        }
+
+        storeChunks(newChunks);
+        return result;
+    }
+
+    @Override
+    public void resolve(Collection<MessageResponse> messages) {
+        Set<String> hashes = new LinkedHashSet<>();
+        for (MessageResponse message : messages) {
+            collectReferences(message.getContextData(), hashes);
+        }
+        if (hashes.isEmpty()) {
+            return;
+        }
+
+        Map<String, Map<String, Object>> payloads = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+        String shard = ShardRoutingContext.currentShardOrPrimary();
+        for (String hash : hashes) {
+            CachedChunk cached = cache.get(cacheKey(shard, hash));
+            if (cached != null) {
+                payloads.put(hash, cached.payload());
+            } else {
+                missing.add(hash);
+            }
+        }
+        if (!missing.isEmpty()) {
+            for (ContextChunk chunk : chunkRepository.findAllById(missing)) {
+                payloads.put(chunk.getHash(), chunk.getPayload());
+                // Only read here, so the next message referencing it still stores it
+                cache.put(cacheKey(shard, chunk.getHash()), new CachedChunk(chunk.getPayload(), 0));
+            }
+        }
+
+        for (MessageResponse message : messages) {
+            message.setContextData(expand(message.getContextData(), payloads));
+        }
+    }
+
+    @Override
+    public void collectReferences(Map<String, Object> contextData, Collection<String> hashes) {
+        forEachChunk(contextData, chunk -> {
+            if (chunk.get(CHUNK_REF_KEY) instanceof String hash) {
+                hashes.add(hash);
+            }
+        });
+    }
+
+    // ---------- Helper Methods ----------
+
+    private Object toReference(Map<?, ?> chunk, Map<String, Map<String, Object>> newChunks) {
+        if (chunk.containsKey(CHUNK_REF_KEY)) {
+            return chunk;
+        }
+
+        Map<String, Object> payload = new LinkedHashMap<>();
+        Map<String, Object> reference = new LinkedHashMap<>();
+        chunk.forEach((key, value) -> {
+            String name = String.valueOf(key);
+            if (properties.getVolatileKeys().contains(name)) {
+                reference.put(name, value);
+            } else {
+                payload.put(name, value);
+                if (properties.getRetainedKeys().contains(name)) {
+                    reference.put(name, value);
+                }
+            }
+        });
+
+        byte[] canonical = toCanonicalJson(payload);
+        if (canonical.length < properties.getMinBytes()) {
+            return chunk;
+        }
+
+        String hash = sha256(canonical);
+        reference.put(CHUNK_REF_KEY, hash);
+        if (!isFresh(cache.get(cacheKey(ShardRoutingContext.currentShardOrPrimary(), hash)))) {
+            newChunks.put(hash, payload);
+        }
+        return reference;
+    }
+
+    private void storeChunks(Map<String, Map<String, Object>> newChunks) {
+        if (newChunks.isEmpty()) {
+            return;
+        }
+
+        Map<String, CachedChunk> stored = new HashMap<>();
+        String shard = ShardRoutingContext.currentShardOrPrimary();
+        long storedAt = System.currentTimeMillis();
+        newChunks.forEach((hash, payload) -> stored.put(cacheKey(shard, hash), new CachedChunk(payload, storedAt)));
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Map.Entry<String, Map<String, Object>>> entries = new ArrayList<>(newChunks.entrySet());
+        jdbcTemplate.batchUpdate(INSERT_CHUNK_SQL, entries, entries.size(), (ps, entry) -> {
+            ps.setString(1, entry.getKey());
+            ps.setString(2, new String(toCanonicalJson(entry.getValue()), StandardCharsets.UTF_8));
+            ps.setTimestamp(3, now);
+        });
+
+        // Only trust the cache once the rows are committed, otherwise a rollback would leave dangling refs
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.putAll(stored);
+                }
+            });
+        } else {
+            cache.putAll(stored);
+        }
+    }
+
+    private boolean isFresh(CachedChunk cached) {
+        return cached != null && System.currentTimeMillis() - cached.storedAt() < properties.getCacheTtl().toMillis();
+    }
+
+    private static String cacheKey(String shard, String hash) {
+        return shard + ":" + hash;
+    }
+
+    private Map<String, Object> expand(Map<String, Object> contextData, Map<String, Map<String, Object>> payloads) {
+        if (contextData == null) {
+            return null;
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>(contextData);
+        for (String key : properties.getChunkKeys()) {
+            if (result.get(key) instanceof List<?> chunks) {
+                List<Object> expanded = new ArrayList<>(chunks.size());
+                for (Object chunk : chunks) {
+                    expanded.add(chunk instanceof Map<?, ?> map ? expandReference(map, payloads) : chunk);
+                }
+                result.put(key, expanded);
+            }
+        }
+        return result;
+    }
+
+    private Object expandReference(Map<?, ?> reference, Map<String, Map<String, Object>> payloads) {
+        if (!(reference.get(CHUNK_REF_KEY) instanceof String hash)) {
+            return reference;
+        }
+
+        Map<String, Object> payload = payloads.get(hash);
+        if (payload == null) {
+            log.warn("Context chunk {} not found, returning the reference", hash);
+            return reference;
+        }
+
+        Map<String, Object> chunk = new LinkedHashMap<>(payload);
+        reference.forEach((key, value) -> {
+            if (!CHUNK_REF_KEY.equals(key)) {
+                chunk.put(String.valueOf(key), value);
+            }
+        });
+        return chunk;
+    }
+
+    private void forEachChunk(Map<String, Object> contextData, Consumer<Map<?, ?>> action) {
+        if (contextData == null) {
+            return;
+        }
+        for (String key : properties.getChunkKeys()) {
+            if (contextData.get(key) instanceof List<?> chunks) {
+                for (Object chunk : chunks) {
+                    if (chunk instanceof Map<?, ?> map) {
+                        action.accept(map);
+                    }
+                }
+            }
+        }
+    }
+
+    private byte[] toCanonicalJson(Map<String, Object> payload) {
+        try {
+            return canonicalMapper.writeValueAsBytes(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize context chunk", e);
+        }
+    }
+
+    private static String sha256(byte[] data) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.chatbot.storage.service.impl;
+
+import com.chatbot.storage.config.properties.HybridSearchProperties;
+import com.chatbot.storage.dto.projection.MessageView;
+import com.chatbot.storage.dto.response.HybridSearchResult;
+import com.chatbot.storage.exception.ValidationException;
+import com.chatbot.storage.infrastructure.routing.ReplicaReadRouter;
+import com.chatbot.storage.infrastructure.sharding.ShardRouter;
+import com.chatbot.storage.infrastructure.text.LexicalIndexService;
+import com.chatbot.storage.infrastructure.text.RankFusion;
+import com.chatbot.storage.infrastructure.vector.HnswIndex;
+import com.chatbot.storage.infrastructure.vector.VectorIndexService;
+import com.chatbot.storage.mapper.MessageMapper;
+import com.chatbot.storage.repository.ChatMessageRepository;
+import com.chatbot.storage.service.ContextChunkService;
+import com.chatbot.storage.service.HybridSearchService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static com.chatbot.storage.constants.AppConstants.SEARCH_QUERY_MAX_LENGTH;
+
+/**
+ *
+ * The type Hybrid search service.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional(readOnly = true)
+public class HybridSearchServiceImpl implements HybridSearchService {
+
+    private final ObjectProvider<LexicalIndexService> lexicalIndexService;
+    private final ObjectProvider<VectorIndexService> vectorIndexService;
+    private final ChatMessageRepository messageRepository;
+    private final MessageMapper messageMapper;
+    private final ContextChunkService contextChunkService;
+    private final ReplicaReadRouter replicaReadRouter;
+    private final ShardRouter shardRouter;
+    private final HybridSearchProperties properties;
+
+    @Override
+    public List<HybridSearchResult> search(String userId, String query, int limit) {
+        LexicalIndexService lexicalIndex = lexicalIndexService.getIfAvailable();
+        if (lexicalIndex == null) {
+            throw new ValidationException("Hybrid search is not enabled");
+        }
+        if (query == null || query.isBlank() || query.length() > SEARCH_QUERY_MAX_LENGTH) {
+            throw new ValidationException("Search query must be between 1 and " + SEARCH_QUERY_MAX_LENGTH + " characters");
+        }
+
+        int candidates = properties.getCandidates();
+        List<UUID> lexical = lexicalIndex.search(userId, query, candidates).stream()
+                .map(LexicalIndexService.Match::id)
+                .toList();
+        // Without the vector index the ranking is plain BM25
+        VectorIndexService vectorIndex = vectorIndexService.getIfAvailable();
+        List<UUID> vector = vectorIndex == null ? List.of() : vectorIndex.search(userId, query, candidates).stream()
+                .map(HnswIndex.Neighbor::id)
+                .toList();
+
+        int boundedLimit = Math.max(1, Math.min(limit, properties.getMaxResults()));
+        List<RankFusion.Fused> fused = RankFusion.fuse(lexical, vector, properties.getRrfK(), boundedLimit);
+        if (fused.isEmpty()) {
+            return List.of();
+        }
+        shardRouter.route(userId);
+        replicaReadRouter.routeRead(userId, () -> false);
+
+        // Both indexes are eventually consistent: messages deleted since they were indexed drop out here
+        Map<UUID, MessageView> views = messageRepository
+                .findViewsByIdInAndUserId(fused.stream().map(RankFusion.Fused::id).toList(), userId).stream()
+                .collect(Collectors.toMap(MessageView::id, Function.identity()));
+        List<HybridSearchResult> results = fused.stream()
+                .filter(result -> views.containsKey(result.id()))
+                .map(result -> HybridSearchResult.builder()
+                        .message(messageMapper.toResponse(views.get(result.id())))
+                        .score(result.score())
+                        .lexicalRank(result.lexicalRank())
+                        .vectorRank(result.vectorRank())
+                        .build())
+                .toList();
+        contextChunkService.resolve(results.stream().map(HybridSearchResult::getMessage).toList());
+        log.debug("Hybrid search for user {} fused {} lexical and {} vector candidates into {} results",
+                userId, lexical.size(), vector.size(), results.size());
+        return results;
+    }
+}
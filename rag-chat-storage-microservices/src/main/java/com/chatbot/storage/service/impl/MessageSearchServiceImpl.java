@@ -0,0 +1,168 @@
+package com.chatbot.storage.service.impl;
+
+import com.chatbot.storage.config.properties.VectorIndexProperties;
+import com.chatbot.storage.dto.projection.MessageView;
+import com.chatbot.storage.dto.request.MessageSearchRequest;
+import com.chatbot.storage.dto.response.CursorPagedResponse;
+import com.chatbot.storage.dto.response.MessageResponse;
+import com.chatbot.storage.dto.response.MessageSearchHit;
+import com.chatbot.storage.dto.response.PagedResponse;
+import com.chatbot.storage.dto.response.SimilarMessageResponse;
+import com.chatbot.storage.enums.JsonbField;
+import com.chatbot.storage.exception.ValidationException;
+import com.chatbot.storage.infrastructure.jsonb.JsonbFilter;
+import com.chatbot.storage.infrastructure.routing.ReplicaReadRouter;
+import com.chatbot.storage.infrastructure.sharding.ShardRouter;
+import com.chatbot.storage.infrastructure.vector.HnswIndex;
+import com.chatbot.storage.infrastructure.vector.VectorIndexService;
+import com.chatbot.storage.mapper.MessageMapper;
+import com.chatbot.storage.repository.ChatMessageRepository;
+import com.chatbot.storage.repository.MessageSearchRepository;
+import com.chatbot.storage.service.ContextChunkService;
+import com.chatbot.storage.service.MessageSearchService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static com.chatbot.storage.constants.AppConstants.SEARCH_QUERY_MAX_LENGTH;
+
+/**
+ *
+ * The type Message search service.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional(readOnly = true)
+public class MessageSearchServiceImpl implements MessageSearchService {
+
+    private final MessageSearchRepository searchRepository;
+    private final MessageMapper messageMapper;
+    private final ContextChunkService contextChunkService;
+    private final ReplicaReadRouter replicaReadRouter;
+    private final ShardRouter shardRouter;
+    private final ChatMessageRepository messageRepository;
+    private final ObjectProvider<VectorIndexService> vectorIndexService;
+    private final VectorIndexProperties vectorIndexProperties;
+
+    @Override
+    public PagedResponse<MessageResponse> searchMessages(String userId, MessageSearchRequest request, Pageable pageable) {
+        JsonbFilter filter = toFilter(request);
+        shardRouter.route(userId);
+        // Archived sessions are not rehydrated for a search, so nothing here needs the primary
+        replicaReadRouter.routeRead(userId, () -> false);
+
+        Page<MessageView> messages = searchRepository.search(userId, filter, pageable);
+        PagedResponse<MessageResponse> response = messageMapper.toPagedResponse(messages);
+        contextChunkService.resolve(response.getContent());
+        log.debug("Message search for user {} matched {} messages", userId, messages.getTotalElements());
+        return response;
+    }
+
+    @Override
+    public CursorPagedResponse<MessageSearchHit> searchContent(String userId, String query, String cursor, int size) {
+        if (query == null || query.isBlank() || query.length() > SEARCH_QUERY_MAX_LENGTH) {
+            throw new ValidationException("Search query must be between 1 and " + SEARCH_QUERY_MAX_LENGTH + " characters");
+        }
+        Float afterRank = null;
+        UUID afterId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            String[] position = decodeCursor(cursor);
+            afterRank = Float.valueOf(position[0]);
+            afterId = UUID.fromString(position[1]);
+        }
+        shardRouter.route(userId);
+        replicaReadRouter.routeRead(userId, () -> false);
+
+        // One extra row tells whether another page exists without a COUNT over all matches
+        List<MessageSearchHit> hits = searchRepository.searchContent(userId, query.trim(), afterRank, afterId, size + 1);
+        boolean hasNext = hits.size() > size;
+        if (hasNext) {
+            hits = hits.subList(0, size);
+        }
+
+        return CursorPagedResponse.<MessageSearchHit>builder()
+                .content(hits)
+                .nextCursor(hasNext ? encodeCursor(hits.get(hits.size() - 1)) : null)
+                .size(hits.size())
+                .hasNext(hasNext)
+                .build();
+    }
+
+    @Override
+    public List<SimilarMessageResponse> findSimilar(String userId, String text, int limit) {
+        VectorIndexService index = vectorIndexService.getIfAvailable();
+        if (index == null) {
+            throw new ValidationException("Vector search is not enabled");
+        }
+        if (text == null || text.isBlank()) {
+            throw new ValidationException("Text to compare with is required");
+        }
+
+        int boundedLimit = Math.max(1, Math.min(limit, vectorIndexProperties.getMaxResults()));
+        List<HnswIndex.Neighbor> neighbors = index.search(userId, text, boundedLimit);
+        if (neighbors.isEmpty()) {
+            return List.of();
+        }
+        shardRouter.route(userId);
+        replicaReadRouter.routeRead(userId, () -> false);
+
+        // The index is eventually consistent: messages deleted since they were indexed drop out here
+        Map<UUID, MessageView> views = messageRepository
+                .findViewsByIdInAndUserId(neighbors.stream().map(HnswIndex.Neighbor::id).toList(), userId).stream()
+                .collect(Collectors.toMap(MessageView::id, Function.identity()));
+        List<SimilarMessageResponse> results = neighbors.stream()
+                .filter(neighbor -> views.containsKey(neighbor.id()))
+                .map(neighbor -> SimilarMessageResponse.builder()
+                        .message(messageMapper.toResponse(views.get(neighbor.id())))
+                        .score(neighbor.score())
+                        .build())
+                .toList();
+        contextChunkService.resolve(results.stream().map(SimilarMessageResponse::getMessage).toList());
+        return results;
+    }
+
+    // ---------- Helper Methods ----------
+
+    private static String encodeCursor(MessageSearchHit last) {
+        String position = Float.toString(last.getRank()) + ':' + last.getMessageId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String[] decodeCursor(String cursor) {
+        try {
+            String[] position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":", 2);
+            if (position.length != 2) {
+                throw new IllegalArgumentException(cursor);
+            }
+            Float.parseFloat(position[0]);
+            UUID.fromString(position[1]);
+            return position;
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("Invalid search cursor");
+        }
+    }
+
+    private JsonbFilter toFilter(MessageSearchRequest request) {
+        JsonbFilter.Builder builder = JsonbFilter.builder()
+                .contains(JsonbField.CONTEXT_DATA, request.getContextData())
+                .contains(JsonbField.METADATA, request.getMetadata());
+        if (request.getFilters() != null) {
+            request.getFilters().forEach(filter ->
+                    builder.where(filter.getField(), filter.getPath(), filter.getValue()));
+        }
+        return builder.build();
+    }
+}
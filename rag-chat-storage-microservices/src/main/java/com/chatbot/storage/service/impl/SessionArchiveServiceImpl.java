@@ -0,0 +1,276 @@
+package com.chatbot.storage.service.impl;
+
+import com.chatbot.storage.config.properties.ArchiveProperties;
+import com.chatbot.storage.entity.ChatMessage;
+import com.chatbot.storage.entity.SessionArchive;
+import com.chatbot.storage.enums.SessionStatus;
+import com.chatbot.storage.exception.ResourceNotFoundException;
+import com.chatbot.storage.infrastructure.archive.ArchivePointer;
+import com.chatbot.storage.infrastructure.archive.ArchiveReclaimer;
+import com.chatbot.storage.infrastructure.archive.ArchiveSegmentStore;
+import com.chatbot.storage.infrastructure.archive.ArchivedMessage;
+import com.chatbot.storage.infrastructure.cache.SecondLevelCacheEvictor;
+import com.chatbot.storage.repository.ChatMessageRepository;
+import com.chatbot.storage.repository.ChatSessionRepository;
+import com.chatbot.storage.repository.SessionArchiveRepository;
+import com.chatbot.storage.service.ContextChunkService;
+import com.chatbot.storage.service.SessionArchiveService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ *
+ * Archives cold sessions as gzip-compressed NDJSON blobs in append-only segments
+ * and restores them on first access. The context chunks an archive references are
+ * recorded next to its pointer, so they stay referenced while the session is cold.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class SessionArchiveServiceImpl implements SessionArchiveService {
+
+    private static final String INSERT_MESSAGE_SQL =
+            "INSERT INTO chat_messages (id, session_id, sender_type, content, context_data, metadata, " +
+                    "created_at, updated_at, version) VALUES (?, ?, ?, ?, ?::jsonb, ?::jsonb, ?, ?, ?)";
+    private static final String INSERT_CHUNK_REFERENCE_SQL =
+            "INSERT INTO session_archive_chunks (session_id, hash) VALUES (?, ?) ON CONFLICT DO NOTHING";
+    private static final int INSERT_BATCH_SIZE = 500;
+    private static final int DELETE_BATCH_SIZE = 1000;
+
+    private final ChatSessionRepository sessionRepository;
+    private final ChatMessageRepository messageRepository;
+    private final SessionArchiveRepository archiveRepository;
+    private final ArchiveSegmentStore segmentStore;
+    private final ArchiveReclaimer archiveReclaimer;
+    private final ContextChunkService contextChunkService;
+    private final ArchiveProperties properties;
+    private final EntityManager entityManager;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final SecondLevelCacheEvictor cacheEvictor;
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<UUID> findArchivalCandidates() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(properties.getInactiveDays());
+        return sessionRepository.findArchivalCandidates(cutoff, SessionStatus.ARCHIVED, SessionStatus.DELETED,
+                PageRequest.of(0, properties.getBatchSize()));
+    }
+
+    @Override
+    public boolean archiveSession(UUID sessionId) {
+        if (archiveRepository.existsBySessionId(sessionId)) {
+            return false;
+        }
+
+        if (!sessionRepository.existsById(sessionId)) {
+            throw new ResourceNotFoundException("Session not found");
+        }
+
+        List<UUID> archivedIds = new ArrayList<>();
+        Set<String> chunkHashes = new HashSet<>();
+        CRC32 crc = new CRC32();
+        ObjectWriter writer = objectMapper.writerFor(ArchivedMessage.class);
+
+        ArchivePointer pointer;
+        try (Stream<ChatMessage> messages = messageRepository.streamBySessionId(sessionId)) {
+            // Rows are compressed straight into the segment, so no session is ever buffered whole.
+            // Durable before the hot rows go away; if the transaction fails below, the blob is released
+            pointer = segmentStore.append(out -> {
+                try (GZIPOutputStream gzip = new GZIPOutputStream(new CheckedOutputStream(out, crc))) {
+                    Iterator<ChatMessage> iterator = messages.iterator();
+                    while (iterator.hasNext()) {
+                        ChatMessage message = iterator.next();
+                        gzip.write(writer.writeValueAsBytes(toArchivedMessage(message)));
+                        gzip.write('\n');
+                        contextChunkService.collectReferences(message.getContextData(), chunkHashes);
+                        entityManager.detach(message);
+                        archivedIds.add(message.getId());
+                    }
+                }
+            });
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to write archive for session " + sessionId, e);
+        }
+        archiveReclaimer.releaseOnRollback(pointer);
+
+        // Flushed so the chunk references below have their pointer row to hang off
+        archiveRepository.saveAndFlush(SessionArchive.builder()
+                .sessionId(sessionId)
+                .segment(pointer.segment())
+                .segmentOffset(pointer.offset())
+                .length(pointer.length())
+                .checksum(crc.getValue())
+                .messageCount((long) archivedIds.size())
+                .chunksIndexed(true)
+                .build());
+        insertChunkReferences(sessionId, chunkHashes);
+        // Appends do not lock the session, so only the rows written to the segment are removed;
+        // a message stored while streaming stays hot next to the archive
+        for (int from = 0; from < archivedIds.size(); from += DELETE_BATCH_SIZE) {
+            messageRepository.bulkDeleteBySessionIdAndIdIn(sessionId,
+                    archivedIds.subList(from, Math.min(from + DELETE_BATCH_SIZE, archivedIds.size())));
+        }
+        cacheEvictor.evictSessionMessages(sessionId);
+
+        log.info("Archived session {} ({} messages, {} compressed bytes) to {}",
+                sessionId, archivedIds.size(), pointer.length(), pointer.segment());
+        return true;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public boolean isArchived(UUID sessionId) {
+        return archiveRepository.existsBySessionId(sessionId);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void rehydrate(UUID sessionId) {
+        // Row lock serializes concurrent readers; the loser finds no pointer afterwards
+        SessionArchive archive = archiveRepository.findForUpdateBySessionId(sessionId).orElse(null);
+        if (archive == null) {
+            return;
+        }
+
+        List<ArchivedMessage> messages = readMessages(archive);
+        jdbcTemplate.batchUpdate(INSERT_MESSAGE_SQL, messages, INSERT_BATCH_SIZE, (ps, message) -> {
+            ps.setObject(1, message.id());
+            ps.setObject(2, sessionId);
+            ps.setString(3, message.senderType().name());
+            ps.setString(4, message.content());
+            ps.setString(5, toJson(message.contextData()));
+            ps.setString(6, toJson(message.metadata()));
+            ps.setTimestamp(7, Timestamp.valueOf(message.createdAt()));
+            ps.setTimestamp(8, message.updatedAt() != null ? Timestamp.valueOf(message.updatedAt()) : null);
+            ps.setObject(9, message.version());
+        });
+        // The chunk references go with the row; the restored messages reference the chunks again
+        archiveRepository.delete(archive);
+        archiveReclaimer.releaseAfterCommit(pointerOf(archive));
+        // Rows were inserted behind Hibernate's back, drop any cached empty collection
+        cacheEvictor.evictSessionMessages(sessionId);
+
+        log.info("Rehydrated {} messages of archived session {}", messages.size(), sessionId);
+    }
+
+    @Override
+    public boolean indexChunkReferences(UUID sessionId) {
+        SessionArchive archive = archiveRepository.findForUpdateBySessionId(sessionId).orElse(null);
+        if (archive == null || Boolean.TRUE.equals(archive.getChunksIndexed())) {
+            return false;
+        }
+
+        Set<String> chunkHashes = new HashSet<>();
+        for (ArchivedMessage message : readMessages(archive)) {
+            contextChunkService.collectReferences(message.contextData(), chunkHashes);
+        }
+        insertChunkReferences(sessionId, chunkHashes);
+        archive.setChunksIndexed(true);
+
+        log.info("Indexed {} chunk references of archived session {}", chunkHashes.size(), sessionId);
+        return true;
+    }
+
+    // ---------- Helper Methods ----------
+
+    private List<ArchivedMessage> readMessages(SessionArchive archive) {
+        try {
+            byte[] payload = segmentStore.read(pointerOf(archive));
+            if (checksum(payload) != archive.getChecksum()) {
+                throw new IllegalStateException("Checksum mismatch in archive of session " + archive.getSessionId());
+            }
+            return decode(payload);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to read archive for session " + archive.getSessionId(), e);
+        }
+    }
+
+    private void insertChunkReferences(UUID sessionId, Set<String> chunkHashes) {
+        if (chunkHashes.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_CHUNK_REFERENCE_SQL, List.copyOf(chunkHashes), INSERT_BATCH_SIZE,
+                (ps, hash) -> {
+                    ps.setObject(1, sessionId);
+                    ps.setString(2, hash);
+                });
+    }
+
+    private static ArchivePointer pointerOf(SessionArchive archive) {
+        return new ArchivePointer(archive.getSegment(), archive.getSegmentOffset(), archive.getLength());
+    }
+
+    private ArchivedMessage toArchivedMessage(ChatMessage message) {
+        return new ArchivedMessage(
+                message.getId(),
+                message.getSenderType(),
+                message.getContent(),
+                message.getContextData(),
+                message.getMetadata(),
+                message.getCreatedAt(),
+                message.getUpdatedAt(),
+                message.getVersion());
+    }
+
+    private List<ArchivedMessage> decode(byte[] payload) throws IOException {
+        List<ArchivedMessage> messages = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(new ByteArrayInputStream(payload)), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isEmpty()) {
+                    messages.add(objectMapper.readValue(line, ArchivedMessage.class));
+                }
+            }
+        }
+        return messages;
+    }
+
+    private String toJson(Map<String, Object> value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize archived JSON payload", e);
+        }
+    }
+
+    private static long checksum(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        return crc.getValue();
+    }
+}
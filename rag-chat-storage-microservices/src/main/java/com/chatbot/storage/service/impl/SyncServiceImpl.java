@@ -0,0 +1,212 @@
+package com.chatbot.storage.service.impl;
+
+import com.chatbot.storage.config.properties.SyncProperties;
+import com.chatbot.storage.dto.projection.MessageView;
+import com.chatbot.storage.dto.projection.SessionView;
+import com.chatbot.storage.dto.response.MessageResponse;
+import com.chatbot.storage.dto.response.SessionResponse;
+import com.chatbot.storage.dto.response.SyncResponse;
+import com.chatbot.storage.enums.SessionStatus;
+import com.chatbot.storage.enums.SyncEntityType;
+import com.chatbot.storage.exception.ValidationException;
+import com.chatbot.storage.infrastructure.sharding.ShardRouter;
+import com.chatbot.storage.mapper.MessageMapper;
+import com.chatbot.storage.mapper.SessionMapper;
+import com.chatbot.storage.repository.ChatMessageRepository;
+import com.chatbot.storage.repository.ChatSessionRepository;
+import com.chatbot.storage.repository.SyncChangeRepository;
+import com.chatbot.storage.service.ContextChunkService;
+import com.chatbot.storage.service.SyncService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static com.chatbot.storage.constants.AppConstants.PRIMARY_DATASOURCE;
+
+/**
+ *
+ * Serves the sync change log. A cursor is a position in the user's (txid, id) order on the
+ * user's shard. Each request reads up to the horizon and keeps it while further pages of
+ * the same range are fetched. A cursor from another shard, or older than the log's
+ * retention, makes the client start over.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional(readOnly = true)
+public class SyncServiceImpl implements SyncService {
+
+    private static final String CURSOR_VERSION = "1";
+
+    private final SyncChangeRepository changeRepository;
+    private final ChatSessionRepository sessionRepository;
+    private final ChatMessageRepository messageRepository;
+    private final SessionMapper sessionMapper;
+    private final MessageMapper messageMapper;
+    private final ContextChunkService contextChunkService;
+    private final ShardRouter shardRouter;
+    private final SyncProperties properties;
+
+    /**
+     * Position of a client in the change log.
+     *
+     * @param shard     the shard the log was read on
+     * @param afterTxid the txid of the last row read
+     * @param afterId   the id of the last row read, 0 before the first row of a txid
+     * @param horizon   the horizon of the range being paged through, 0 once it was read to the end
+     * @param issuedAt  when the range started, in epoch milliseconds
+     */
+    record Cursor(String shard, long afterTxid, long afterId, long horizon, long issuedAt) {
+    }
+
+    @Override
+    public SyncResponse sync(String userId, String cursor) {
+        if (!properties.isEnabled()) {
+            throw new ValidationException("Delta sync is not enabled");
+        }
+        Cursor position = cursor == null || cursor.isBlank() ? null : decodeCursor(cursor);
+        shardRouter.route(userId);
+        String shard = shardRouter.isEnabled() ? shardRouter.placementOf(userId).owner() : PRIMARY_DATASOURCE;
+        long now = System.currentTimeMillis();
+
+        if (position == null || !position.shard().equals(shard)
+                || position.issuedAt() < now - properties.getRetention().toMillis()) {
+            log.info("Sync of user {} starts over", userId);
+            long horizon = changeRepository.currentHorizon();
+            return SyncResponse.builder()
+                    .sessions(List.of())
+                    .messages(List.of())
+                    .deletedSessionIds(List.of())
+                    .deletedMessageIds(List.of())
+                    .nextCursor(encodeCursor(new Cursor(shard, horizon, 0, 0, now)))
+                    .reset(true)
+                    .build();
+        }
+
+        long horizon = position.horizon() > 0 ? position.horizon() : changeRepository.currentHorizon();
+        int pageSize = properties.getPageSize();
+        // One extra row tells whether another page exists
+        List<SyncChangeRepository.Change> changes = changeRepository.findChanges(
+                userId, position.afterTxid(), position.afterId(), horizon, pageSize + 1);
+        boolean hasMore = changes.size() > pageSize;
+        if (hasMore) {
+            changes = changes.subList(0, pageSize);
+        }
+
+        SyncChangeRepository.Change last = hasMore ? changes.get(changes.size() - 1) : null;
+        Cursor next = last != null
+                ? new Cursor(shard, last.txid(), last.id(), horizon, position.issuedAt())
+                : new Cursor(shard, horizon, 0, 0, now);
+        SyncResponse response = toResponse(userId, changes);
+        response.setNextCursor(encodeCursor(next));
+        response.setHasMore(hasMore);
+        log.debug("Sync of user {} returned {} changes", userId, changes.size());
+        return response;
+    }
+
+    // ---------- Helper Methods ----------
+
+    /**
+     * Collapses the changes to the latest one per entity and loads the current state of
+     * what was created or updated. Entities gone since are left out; their deletion is a
+     * change of its own.
+     */
+    private SyncResponse toResponse(String userId, List<SyncChangeRepository.Change> changes) {
+        Map<UUID, SyncChangeRepository.Change> sessionChanges = new LinkedHashMap<>();
+        Map<UUID, SyncChangeRepository.Change> messageChanges = new LinkedHashMap<>();
+        for (SyncChangeRepository.Change change : changes) {
+            if (change.entityType() == SyncEntityType.SESSION) {
+                sessionChanges.put(change.entityId(), change);
+            } else {
+                messageChanges.put(change.entityId(), change);
+            }
+        }
+
+        List<UUID> deletedSessionIds = deletedIds(sessionChanges);
+        List<UUID> deletedMessageIds = deletedIds(messageChanges);
+
+        Set<UUID> sessionIds = new LinkedHashSet<>();
+        sessionChanges.values().stream()
+                .filter(change -> !change.deleted())
+                .forEach(change -> sessionIds.add(change.entityId()));
+        messageChanges.values().forEach(change -> sessionIds.add(change.sessionId()));
+        deletedSessionIds.forEach(sessionIds::remove);
+
+        List<UUID> messageIds = messageChanges.values().stream()
+                .filter(change -> !change.deleted())
+                .map(SyncChangeRepository.Change::entityId)
+                .toList();
+
+        List<SessionResponse> sessions = List.of();
+        if (!sessionIds.isEmpty()) {
+            Map<UUID, SessionView> views = sessionRepository.findViewsByIdInAndUserId(sessionIds, userId).stream()
+                    .filter(view -> view.status() != SessionStatus.DELETED)
+                    .collect(Collectors.toMap(SessionView::id, Function.identity()));
+            sessions = sessionIds.stream()
+                    .map(views::get)
+                    .filter(Objects::nonNull)
+                    .map(sessionMapper::toResponse)
+                    .toList();
+        }
+
+        List<MessageResponse> messages = List.of();
+        if (!messageIds.isEmpty()) {
+            Map<UUID, MessageView> views = messageRepository.findViewsByIdInAndUserId(messageIds, userId).stream()
+                    .collect(Collectors.toMap(MessageView::id, Function.identity()));
+            messages = messageIds.stream()
+                    .map(views::get)
+                    .filter(Objects::nonNull)
+                    .map(messageMapper::toResponse)
+                    .toList();
+            contextChunkService.resolve(messages);
+        }
+
+        return SyncResponse.builder()
+                .sessions(sessions)
+                .messages(messages)
+                .deletedSessionIds(deletedSessionIds)
+                .deletedMessageIds(deletedMessageIds)
+                .build();
+    }
+
+    private static List<UUID> deletedIds(Map<UUID, SyncChangeRepository.Change> changes) {
+        return changes.values().stream()
+                .filter(SyncChangeRepository.Change::deleted)
+                .map(SyncChangeRepository.Change::entityId)
+                .toList();
+    }
+
+    static String encodeCursor(Cursor cursor) {
+        String position = String.join(":", CURSOR_VERSION, Long.toString(cursor.afterTxid()),
+                Long.toString(cursor.afterId()), Long.toString(cursor.horizon()), Long.toString(cursor.issuedAt()),
+                cursor.shard());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static Cursor decodeCursor(String cursor) {
+        try {
+            // The shard name goes last as it may contain the separator
+            String[] position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":", 6);
+            if (position.length != 6 || !CURSOR_VERSION.equals(position[0])) {
+                throw new IllegalArgumentException(cursor);
+            }
+            return new Cursor(position[5], Long.parseLong(position[1]), Long.parseLong(position[2]),
+                    Long.parseLong(position[3]), Long.parseLong(position[4]));
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("Invalid sync cursor");
+        }
+    }
+}
@@ -5,6 +5,11 @@ import com.chatbot.storage.dto.response.ApiResponse;
 import com.chatbot.storage.dto.response.MessageResponse;
 import com.chatbot.storage.dto.response.PagedResponse;
 import com.chatbot.storage.enums.MessageSender;
+import com.chatbot.storage.enums.ResponseView;
+import com.chatbot.storage.exception.ResourceNotFoundException;
+import com.chatbot.storage.exception.ValidationException;
+import com.chatbot.storage.infrastructure.idempotency.IdempotencyService;
+import com.chatbot.storage.infrastructure.stream.SessionSubscriptions;
 import com.chatbot.storage.service.ChatMessageService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -16,11 +21,18 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.ByteArrayOutputStream;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -37,6 +49,15 @@ class ChatMessageControllerTest {
     @Mock
     private ChatMessageService chatMessageService;
 
+    @Mock
+    private IdempotencyService idempotencyService;
+
+    @Mock
+    private SessionSubscriptions sessionSubscriptions;
+
+    @Mock
+    private WebRequest webRequest;
+
     @InjectMocks
     private ChatMessageController chatMessageController;
 
@@ -51,6 +72,8 @@ class ChatMessageControllerTest {
      */
     @BeforeEach
     void setUp() {
+        lenient().when(idempotencyService.execute(any(), any(), any(), any(), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(4).get());
         sessionId = UUID.randomUUID();
         messageId = UUID.randomUUID();
         userId = "user123";
@@ -78,7 +101,7 @@ class ChatMessageControllerTest {
 
         // When
         ResponseEntity<ApiResponse<MessageResponse>> result =
-                chatMessageController.sendMessage(sessionId, userId, sendMessageRequest);
+                chatMessageController.sendMessage(sessionId, userId, null, sendMessageRequest);
 
         // Then
         assertEquals(HttpStatus.CREATED, result.getStatusCode());
@@ -105,12 +128,13 @@ class ChatMessageControllerTest {
                 .build();
 
         Pageable expectedPageable = PageRequest.of(0, 50, Sort.by("createdAt").ascending());
-        when(chatMessageService.getSessionMessages(sessionId, userId, expectedPageable))
-                .thenReturn(pagedResponse);
+        when(chatMessageService.getSessionMessagesIfModified(eq(sessionId), eq(userId), eq(expectedPageable),
+                eq(ResponseView.FULL), any()))
+                .thenReturn(Optional.of(pagedResponse));
 
         // When
         ResponseEntity<ApiResponse<PagedResponse<MessageResponse>>> result =
-                chatMessageController.getSessionMessages(sessionId, userId, 0, 50);
+                chatMessageController.getSessionMessages(sessionId, userId, 0, 50, null, webRequest);
 
         // Then
         assertEquals(HttpStatus.OK, result.getStatusCode());
@@ -119,7 +143,27 @@ class ChatMessageControllerTest {
         assertEquals(pagedResponse, result.getBody().getData());
         assertEquals(1, result.getBody().getData().getContent().size());
 
-        verify(chatMessageService).getSessionMessages(sessionId, userId, expectedPageable);
+        verify(chatMessageService).getSessionMessagesIfModified(eq(sessionId), eq(userId), eq(expectedPageable),
+                eq(ResponseView.FULL), any());
+    }
+
+    /**
+     * Gets session messages when the client's copy is current should return no body.
+     */
+    @Test
+    void getSessionMessages_WhenClientCopyIsCurrent_ShouldReturnNoBody() {
+        // Given
+        Pageable expectedPageable = PageRequest.of(0, 50, Sort.by("createdAt").ascending());
+        when(chatMessageService.getSessionMessagesIfModified(eq(sessionId), eq(userId), eq(expectedPageable),
+                eq(ResponseView.FULL), any()))
+                .thenReturn(Optional.empty());
+
+        // When
+        ResponseEntity<ApiResponse<PagedResponse<MessageResponse>>> result =
+                chatMessageController.getSessionMessages(sessionId, userId, 0, 50, null, webRequest);
+
+        // Then
+        assertNull(result);
     }
 
     /**
@@ -137,12 +181,13 @@ class ChatMessageControllerTest {
                 .build();
 
         Pageable defaultPageable = PageRequest.of(0, 50, Sort.by("createdAt").ascending());
-        when(chatMessageService.getSessionMessages(sessionId, userId, defaultPageable))
-                .thenReturn(pagedResponse);
+        when(chatMessageService.getSessionMessagesIfModified(eq(sessionId), eq(userId), eq(defaultPageable),
+                eq(ResponseView.FULL), any()))
+                .thenReturn(Optional.of(pagedResponse));
 
         // When
         ResponseEntity<ApiResponse<PagedResponse<MessageResponse>>> result =
-                chatMessageController.getSessionMessages(sessionId, userId, 0, 50);
+                chatMessageController.getSessionMessages(sessionId, userId, 0, 50, null, webRequest);
 
         // Then
         assertEquals(HttpStatus.OK, result.getStatusCode());
@@ -150,7 +195,8 @@ class ChatMessageControllerTest {
         assertTrue(result.getBody().isSuccess());
         assertEquals(0, result.getBody().getData().getTotalElements());
 
-        verify(chatMessageService).getSessionMessages(sessionId, userId, defaultPageable);
+        verify(chatMessageService).getSessionMessagesIfModified(eq(sessionId), eq(userId), eq(defaultPageable),
+                eq(ResponseView.FULL), any());
     }
 
     /**
@@ -174,12 +220,13 @@ class ChatMessageControllerTest {
                 .build();
 
         List<MessageResponse> messages = List.of(message1, message2);
-        when(chatMessageService.getAllSessionMessages(sessionId, userId))
-                .thenReturn(messages);
+        when(chatMessageService.getAllSessionMessagesIfModified(eq(sessionId), eq(userId), eq(ResponseView.FULL),
+                any()))
+                .thenReturn(Optional.of(messages));
 
         // When
         ResponseEntity<ApiResponse<List<MessageResponse>>> result =
-                chatMessageController.getAllSessionMessages(sessionId, userId);
+                chatMessageController.getAllSessionMessages(sessionId, userId, null, webRequest);
 
         // Then
         assertEquals(HttpStatus.OK, result.getStatusCode());
@@ -188,7 +235,98 @@ class ChatMessageControllerTest {
         assertEquals(messages, result.getBody().getData());
         assertEquals(2, result.getBody().getData().size());
 
-        verify(chatMessageService).getAllSessionMessages(sessionId, userId);
+        verify(chatMessageService).getAllSessionMessagesIfModified(eq(sessionId), eq(userId), eq(ResponseView.FULL),
+                any());
+    }
+
+    /**
+     * Gets all session messages with the summary view should request summaries.
+     */
+    @Test
+    void getAllSessionMessages_WithSummaryView_ShouldRequestSummaries() {
+        // Given
+        MessageResponse summary = MessageResponse.builder()
+                .id(messageId)
+                .sessionId(sessionId)
+                .senderType(MessageSender.USER)
+                .snippet("Hello")
+                .createdAt(LocalDateTime.now())
+                .build();
+        when(chatMessageService.getAllSessionMessagesIfModified(eq(sessionId), eq(userId), eq(ResponseView.SUMMARY),
+                any()))
+                .thenReturn(Optional.of(List.of(summary)));
+
+        // When
+        ResponseEntity<ApiResponse<List<MessageResponse>>> result =
+                chatMessageController.getAllSessionMessages(sessionId, userId, "Summary", webRequest);
+
+        // Then
+        assertEquals(HttpStatus.OK, result.getStatusCode());
+        assertEquals(List.of(summary), result.getBody().getData());
+    }
+
+    /**
+     * Gets all session messages with an unknown view should be rejected.
+     */
+    @Test
+    void getAllSessionMessages_WithUnknownView_ShouldBeRejected() {
+        // When / Then
+        assertThrows(ValidationException.class,
+                () -> chatMessageController.getAllSessionMessages(sessionId, userId, "compact", webRequest));
+        verifyNoInteractions(chatMessageService);
+    }
+
+    /**
+     * Export session messages should verify ownership before streaming.
+     */
+    @Test
+    void exportSessionMessages_ShouldVerifyOwnershipBeforeStreaming() throws Exception {
+        // When
+        ResponseEntity<StreamingResponseBody> result =
+                chatMessageController.exportSessionMessages(sessionId, userId);
+
+        // Then
+        assertEquals(HttpStatus.OK, result.getStatusCode());
+        assertEquals(MediaType.APPLICATION_NDJSON, result.getHeaders().getContentType());
+        verify(chatMessageService).verifySessionOwnership(sessionId, userId);
+        verify(chatMessageService, never()).exportSessionMessages(any(), any(), any());
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        result.getBody().writeTo(outputStream);
+        verify(chatMessageService).exportSessionMessages(sessionId, userId, outputStream);
+    }
+
+    /**
+     * Stream session messages should subscribe after verifying ownership.
+     */
+    @Test
+    void streamSessionMessages_ShouldSubscribeAfterVerifyingOwnership() {
+        // Given
+        SseEmitter emitter = new SseEmitter();
+        when(sessionSubscriptions.subscribe(sessionId)).thenReturn(emitter);
+
+        // When
+        SseEmitter result = chatMessageController.streamSessionMessages(sessionId, userId);
+
+        // Then
+        assertSame(emitter, result);
+        verify(chatMessageService).verifySessionOwnership(sessionId, userId);
+    }
+
+    /**
+     * Stream session messages of another user should not subscribe.
+     */
+    @Test
+    void streamSessionMessages_OfAnotherUser_ShouldNotSubscribe() {
+        // Given
+        doThrow(new ResourceNotFoundException("Session not found"))
+                .when(chatMessageService).verifySessionOwnership(sessionId, userId);
+
+        // When & Then
+        assertThrows(ResourceNotFoundException.class, () ->
+                chatMessageController.streamSessionMessages(sessionId, userId));
+
+        verifyNoInteractions(sessionSubscriptions);
     }
 
     /**
@@ -224,7 +362,7 @@ class ChatMessageControllerTest {
 
         // When & Then
         assertThrows(RuntimeException.class, () ->
-                chatMessageController.sendMessage(sessionId, userId, sendMessageRequest));
+                chatMessageController.sendMessage(sessionId, userId, null, sendMessageRequest));
 
         verify(chatMessageService).sendMessage(sessionId, userId, sendMessageRequest);
     }
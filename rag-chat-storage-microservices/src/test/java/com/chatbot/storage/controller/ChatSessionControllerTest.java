@@ -9,6 +9,7 @@ import com.chatbot.storage.service.ChatSessionService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -17,10 +18,13 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Predicate;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -36,6 +40,9 @@ class ChatSessionControllerTest {
     @Mock
     private ChatSessionService chatSessionService;
 
+    @Mock
+    private WebRequest webRequest;
+
     @InjectMocks
     private ChatSessionController chatSessionController;
 
@@ -99,12 +106,12 @@ class ChatSessionControllerTest {
     @Test
     void getSession_ShouldReturnSessionResponse() {
         // Given
-        when(chatSessionService.getSessionById(sessionId, userId))
-                .thenReturn(sessionResponse);
+        when(chatSessionService.getSessionIfModified(eq(sessionId), eq(userId), any()))
+                .thenReturn(Optional.of(sessionResponse));
 
         // When
         ResponseEntity<ApiResponse<SessionResponse>> result =
-                chatSessionController.getSession(sessionId, userId);
+                chatSessionController.getSession(sessionId, userId, webRequest);
 
         // Then
         assertEquals(HttpStatus.OK, result.getStatusCode());
@@ -112,7 +119,51 @@ class ChatSessionControllerTest {
         assertTrue(result.getBody().isSuccess());
         assertEquals(sessionResponse, result.getBody().getData());
 
-        verify(chatSessionService).getSessionById(sessionId, userId);
+        verify(chatSessionService).getSessionIfModified(eq(sessionId), eq(userId), any());
+    }
+
+    /**
+     * Gets session when the client's copy is current should leave the not modified response to the request.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void getSession_WhenClientCopyIsCurrent_ShouldLeaveNotModifiedToTheRequest() {
+        // Given
+        when(chatSessionService.getSessionIfModified(eq(sessionId), eq(userId), any()))
+                .thenReturn(Optional.empty());
+        when(webRequest.checkNotModified("\"3.7\"")).thenReturn(true);
+
+        // When
+        ResponseEntity<ApiResponse<SessionResponse>> result =
+                chatSessionController.getSession(sessionId, userId, webRequest);
+
+        // Then
+        assertNull(result);
+        ArgumentCaptor<Predicate<String>> isCurrent = ArgumentCaptor.forClass(Predicate.class);
+        verify(chatSessionService).getSessionIfModified(eq(sessionId), eq(userId), isCurrent.capture());
+        assertTrue(isCurrent.getValue().test("\"3.7\""));
+    }
+
+    /**
+     * Gets sessions should return sessions in requested order.
+     */
+    @Test
+    void getSessions_ShouldReturnSessionsInRequestedOrder() {
+        // Given
+        SessionResponse other = SessionResponse.builder().id(UUID.randomUUID()).userId(userId).build();
+        List<UUID> sessionIds = List.of(other.getId(), sessionId);
+        when(chatSessionService.getSessionsByIds(sessionIds, userId)).thenReturn(List.of(other, sessionResponse));
+
+        // When
+        ResponseEntity<ApiResponse<List<SessionResponse>>> result =
+                chatSessionController.getSessions(sessionIds, userId);
+
+        // Then
+        assertEquals(HttpStatus.OK, result.getStatusCode());
+        assertNotNull(result.getBody());
+        assertEquals(List.of(other, sessionResponse), result.getBody().getData());
+
+        verify(chatSessionService).getSessionsByIds(sessionIds, userId);
     }
 
     /**
@@ -9,6 +9,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BeanPropertyBindingResult;
@@ -66,6 +67,64 @@ class GlobalExceptionHandlerTest {
         assertNull(result.getBody().getData());
     }
 
+    /**
+     * Handle shard move in progress should return service unavailable with retry after.
+     */
+    @Test
+    void handleShardMoveInProgress_ShouldReturnServiceUnavailableWithRetryAfter() {
+        // Given
+        ShardMoveInProgressException exception = new ShardMoveInProgressException("The user's data is being moved");
+
+        // When
+        ResponseEntity<ApiResponse<Void>> result = globalExceptionHandler.handleShardMoveInProgress(exception);
+
+        // Then
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, result.getStatusCode());
+        assertEquals(SHARD_MOVE_RETRY_AFTER_SECONDS, result.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertNotNull(result.getBody());
+        assertFalse(result.getBody().isSuccess());
+        assertEquals(ERROR_SHARD_MOVE_IN_PROGRESS, result.getBody().getErrorCode());
+    }
+
+    /**
+     * Handle stream limit exceeded should return service unavailable with retry after.
+     */
+    @Test
+    void handleStreamLimitExceeded_ShouldReturnServiceUnavailableWithRetryAfter() {
+        // Given
+        StreamLimitExceededException exception = new StreamLimitExceededException("Too many open message streams");
+
+        // When
+        ResponseEntity<ApiResponse<Void>> result = globalExceptionHandler.handleStreamLimitExceeded(exception);
+
+        // Then
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, result.getStatusCode());
+        assertEquals(STREAM_LIMIT_RETRY_AFTER_SECONDS, result.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertNotNull(result.getBody());
+        assertFalse(result.getBody().isSuccess());
+        assertEquals(ERROR_TOO_MANY_STREAMS, result.getBody().getErrorCode());
+    }
+
+    /**
+     * Handle idempotent request in progress should return conflict with retry after.
+     */
+    @Test
+    void handleIdempotentRequestInProgress_ShouldReturnConflictWithRetryAfter() {
+        // Given
+        IdempotentRequestInProgressException exception =
+                new IdempotentRequestInProgressException("A request with this Idempotency-Key is still being processed");
+
+        // When
+        ResponseEntity<ApiResponse<Void>> result = globalExceptionHandler.handleIdempotentRequestInProgress(exception);
+
+        // Then
+        assertEquals(HttpStatus.CONFLICT, result.getStatusCode());
+        assertEquals(IDEMPOTENT_REQUEST_RETRY_AFTER_SECONDS, result.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertNotNull(result.getBody());
+        assertFalse(result.getBody().isSuccess());
+        assertEquals(ERROR_REQUEST_IN_PROGRESS, result.getBody().getErrorCode());
+    }
+
     /**
      * Handle validation should return bad request response.
      */
@@ -0,0 +1,137 @@
+package com.chatbot.storage.infrastructure.archive;
+
+import com.chatbot.storage.config.properties.ArchiveProperties;
+import com.chatbot.storage.config.properties.ShardingProperties;
+import com.chatbot.storage.infrastructure.sharding.ShardMoveStore;
+import com.chatbot.storage.infrastructure.sharding.ShardRouter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ *
+ * The type Archive segment compactor test.
+ */
+@ExtendWith(MockitoExtension.class)
+class ArchiveSegmentCompactorTest {
+
+    private static final String SEGMENT = "segment-1000-0000abcd.seg";
+
+    @Mock
+    private ArchiveSegmentStore segmentStore;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ArchiveSegmentCompactor compactor;
+
+    /**
+     * Sets up.
+     */
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        compactor = new ArchiveSegmentCompactor(segmentStore, jdbcTemplate,
+                new ShardRouter(new ShardingProperties(), mock(ShardMoveStore.class),
+                        mock(PlatformTransactionManager.class)),
+                new ArchiveProperties(), meterRegistry);
+    }
+
+    /**
+     * Compact segments should delete a segment no archive points at.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    void compactSegments_WhenNothingPointsAtSegment_ShouldDeleteIt() throws Exception {
+        // Given
+        when(segmentStore.listSealedSegments()).thenReturn(List.of(new ArchiveSegment(SEGMENT, 100, 40)));
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class), eq(SEGMENT))).thenReturn(0L);
+
+        // When
+        compactor.compactSegments();
+
+        // Then
+        verify(segmentStore).deleteSegment(SEGMENT);
+        assertEquals(100.0, meterRegistry.counter("ragchat.archive.bytes.reclaimed").count());
+    }
+
+    /**
+     * Compact segments should move the live blobs out of a mostly released segment and keep it for now.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    void compactSegments_WhenMostlyReleased_ShouldMoveLiveBlobs() throws Exception {
+        // Given
+        UUID archiveId = UUID.randomUUID();
+        ArchivePointer from = new ArchivePointer(SEGMENT, 60, 40);
+        ArchivePointer to = new ArchivePointer("segment-2000-0000abcd.seg", 0, 40);
+        givenLiveBlob(archiveId, from);
+        when(segmentStore.append(any())).thenReturn(to);
+        when(jdbcTemplate.update(anyString(), any(Object[].class))).thenReturn(1);
+
+        // When
+        compactor.compactSegments();
+
+        // Then
+        verify(jdbcTemplate).update(startsWith("UPDATE session_archives"), eq(to.segment()), eq(0L), any(),
+                eq(archiveId), eq(SEGMENT), eq(60L));
+        verify(segmentStore).delete(from);
+        verify(segmentStore, never()).deleteSegment(anyString());
+        assertEquals(1.0, meterRegistry.counter("ragchat.archive.blobs.moved").count());
+    }
+
+    /**
+     * Compact segments should release the copy when the pointer went away meanwhile.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    void compactSegments_WhenPointerGoneMeanwhile_ShouldReleaseCopy() throws Exception {
+        // Given
+        ArchivePointer from = new ArchivePointer(SEGMENT, 60, 40);
+        ArchivePointer to = new ArchivePointer("segment-2000-0000abcd.seg", 0, 40);
+        givenLiveBlob(UUID.randomUUID(), from);
+        when(segmentStore.append(any())).thenReturn(to);
+        when(jdbcTemplate.update(anyString(), any(Object[].class))).thenReturn(0);
+
+        // When
+        compactor.compactSegments();
+
+        // Then
+        verify(segmentStore).delete(to);
+        verify(segmentStore, never()).delete(from);
+    }
+
+    // ---------- Helper Methods ----------
+
+    @SuppressWarnings("unchecked")
+    private void givenLiveBlob(UUID archiveId, ArchivePointer pointer) throws Exception {
+        when(segmentStore.listSealedSegments()).thenReturn(List.of(new ArchiveSegment(SEGMENT, 100, 60)));
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class), eq(SEGMENT))).thenReturn(1L);
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getObject("id", UUID.class)).thenReturn(archiveId);
+        when(rs.getLong("segment_offset")).thenReturn(pointer.offset());
+        when(rs.getInt("length")).thenReturn(pointer.length());
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), any(Object[].class)))
+                .thenAnswer(invocation -> List.of(((RowMapper<Object>) invocation.getArgument(1)).mapRow(rs, 0)))
+                .thenReturn(List.of());
+        when(segmentStore.read(pointer)).thenReturn(new byte[pointer.length()]);
+    }
+}
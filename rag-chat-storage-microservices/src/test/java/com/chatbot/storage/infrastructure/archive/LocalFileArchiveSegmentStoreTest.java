@@ -0,0 +1,157 @@
+package com.chatbot.storage.infrastructure.archive;
+
+import com.chatbot.storage.config.properties.ArchiveProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ * The type Local file archive segment store test.
+ */
+class LocalFileArchiveSegmentStoreTest {
+
+    @TempDir
+    Path tempDir;
+
+    private LocalFileArchiveSegmentStore store;
+
+    /**
+     * Sets up.
+     */
+    @BeforeEach
+    void setUp() {
+        ArchiveProperties properties = new ArchiveProperties();
+        properties.setDirectory(tempDir.toString());
+        store = new LocalFileArchiveSegmentStore(properties);
+    }
+
+    /**
+     * Tear down.
+     *
+     * @throws IOException the io exception
+     */
+    @AfterEach
+    void tearDown() throws IOException {
+        store.closeCurrent();
+    }
+
+    /**
+     * Append should stream blobs back to back into one segment.
+     *
+     * @throws IOException the io exception
+     */
+    @Test
+    void append_ShouldStreamBlobsBackToBackIntoOneSegment() throws IOException {
+        // When
+        ArchivePointer first = store.append(out -> {
+            out.write(bytes("first "));
+            out.write(bytes("blob"));
+            out.close();
+        });
+        ArchivePointer second = store.append(out -> out.write(bytes("second")));
+
+        // Then
+        assertEquals(first.segment(), second.segment());
+        assertEquals(0, first.offset());
+        assertEquals(first.length(), second.offset());
+        assertEquals("first blob", new String(store.read(first), StandardCharsets.UTF_8));
+        assertEquals("second", new String(store.read(second), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Append when writer fails should leave no partial blob.
+     *
+     * @throws IOException the io exception
+     */
+    @Test
+    void append_WhenWriterFails_ShouldLeaveNoPartialBlob() throws IOException {
+        // Given
+        ArchivePointer first = store.append(out -> out.write(bytes("kept")));
+
+        // When
+        assertThrows(IOException.class, () -> store.append(out -> {
+            out.write(bytes("partial"));
+            out.flush();
+            throw new IOException("cursor failed");
+        }));
+        ArchivePointer next = store.append(out -> out.write(bytes("next")));
+
+        // Then
+        assertEquals(first.length(), next.offset());
+        assertEquals("next", new String(store.read(next), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * List sealed segments should count released blobs once and skip the current segment.
+     *
+     * @throws IOException the io exception
+     */
+    @Test
+    void listSealedSegments_ShouldCountReleasedBlobsOnceAndSkipCurrentSegment() throws IOException {
+        // Given
+        String sealed = "segment-1000-0000abcd.seg";
+        Files.write(tempDir.resolve(sealed), bytes("firstsecond"));
+        store.delete(new ArchivePointer(sealed, 0, 5));
+        store.delete(new ArchivePointer(sealed, 0, 5));
+        store.append(out -> out.write(bytes("current")));
+
+        // When
+        List<ArchiveSegment> segments = store.listSealedSegments();
+
+        // Then
+        assertEquals(List.of(new ArchiveSegment(sealed, 11, 5)), segments);
+    }
+
+    /**
+     * Delete segment should remove the segment with its released blobs.
+     *
+     * @throws IOException the io exception
+     */
+    @Test
+    void deleteSegment_ShouldRemoveSegmentWithItsReleasedBlobs() throws IOException {
+        // Given
+        String sealed = "segment-1000-0000abcd.seg";
+        Files.write(tempDir.resolve(sealed), bytes("blob"));
+        store.delete(new ArchivePointer(sealed, 0, 4));
+
+        // When
+        store.deleteSegment(sealed);
+
+        // Then
+        assertTrue(store.listSealedSegments().isEmpty());
+        try (Stream<Path> files = Files.list(tempDir)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    /**
+     * Delete segment should refuse the segment being written.
+     *
+     * @throws IOException the io exception
+     */
+    @Test
+    void deleteSegment_ShouldRefuseCurrentSegment() throws IOException {
+        // Given
+        ArchivePointer pointer = store.append(out -> out.write(bytes("live")));
+
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> store.deleteSegment(pointer.segment()));
+    }
+
+    // ---------- Helper Methods ----------
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
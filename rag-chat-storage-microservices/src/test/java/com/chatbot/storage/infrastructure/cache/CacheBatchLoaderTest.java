@@ -0,0 +1,175 @@
+package com.chatbot.storage.infrastructure.cache;
+
+import com.chatbot.storage.dto.response.SessionResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.util.ByteUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static com.chatbot.storage.constants.AppConstants.CACHE_SESSIONS;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ *
+ * The type Cache batch loader test.
+ */
+@ExtendWith(MockitoExtension.class)
+class CacheBatchLoaderTest {
+
+    private static final Duration TTL = Duration.ofMinutes(30);
+
+    @Mock
+    private CacheManager cacheManager;
+
+    @Mock
+    private RedisCache redisCache;
+
+    @Mock
+    private RedisConnectionFactory connectionFactory;
+
+    @Mock
+    private RedisConnection connection;
+
+    @Mock
+    private RedisStringCommands stringCommands;
+
+    private RedisCacheConfiguration cacheConfiguration;
+    private SessionResponse cached;
+    private SessionResponse uncached;
+    private List<Collection<UUID>> loads;
+
+    /**
+     * Sets up.
+     */
+    @BeforeEach
+    void setUp() {
+        cacheConfiguration = RedisCacheConfiguration.defaultCacheConfig().entryTtl(TTL);
+        cached = SessionResponse.builder().id(UUID.randomUUID()).userId("user123").sessionName("Cached").build();
+        uncached = SessionResponse.builder().id(UUID.randomUUID()).userId("user123").sessionName("Loaded").build();
+        loads = new ArrayList<>();
+    }
+
+    /**
+     * Get all on redis should read hits with one mget and load only misses.
+     */
+    @Test
+    void getAll_OnRedis_ShouldReadHitsWithOneMgetAndLoadOnlyMisses() {
+        // Given
+        givenRedisCache();
+        byte[] cachedValue = ByteUtils.getBytes(cacheConfiguration.getValueSerializationPair().write(cached));
+        when(stringCommands.mGet(any(byte[][].class))).thenAnswer(invocation -> {
+            byte[][] keys = (byte[][]) invocation.getRawArguments()[0];
+            List<byte[]> values = new ArrayList<>();
+            for (byte[] key : keys) {
+                values.add(new String(key, StandardCharsets.UTF_8).equals(redisKey(cached.getId()))
+                        ? cachedValue
+                        : null);
+            }
+            return values;
+        });
+
+        // When
+        Map<UUID, SessionResponse> result = getAll(List.of(cached.getId(), uncached.getId()));
+
+        // Then
+        assertEquals(cached, result.get(cached.getId()));
+        assertEquals(uncached, result.get(uncached.getId()));
+        assertEquals(List.of(List.of(uncached.getId())), loads);
+        verify(stringCommands, times(1)).mGet(any(byte[][].class));
+        verify(connection).openPipeline();
+        verify(stringCommands).set(eq(redisKey(uncached.getId()).getBytes(StandardCharsets.UTF_8)), any(byte[].class),
+                any(Expiration.class), eq(RedisStringCommands.SetOption.upsert()));
+        verify(connection).closePipeline();
+    }
+
+    /**
+     * Get all when redis is down should load everything.
+     */
+    @Test
+    void getAll_WhenRedisIsDown_ShouldLoadEverything() {
+        // Given
+        when(cacheManager.getCache(CACHE_SESSIONS)).thenReturn(redisCache);
+        when(redisCache.getCacheConfiguration()).thenReturn(cacheConfiguration);
+        when(redisCache.getName()).thenReturn(CACHE_SESSIONS);
+        when(connectionFactory.getConnection()).thenThrow(new RedisConnectionFailureException("down"));
+
+        // When
+        Map<UUID, SessionResponse> result = getAll(List.of(cached.getId(), uncached.getId()));
+
+        // Then
+        assertEquals(2, result.size());
+        assertEquals(1, loads.size());
+        assertEquals(2, loads.get(0).size());
+    }
+
+    /**
+     * Get all on another cache should read entry by entry and store loaded values.
+     */
+    @Test
+    void getAll_OnAnotherCache_ShouldReadEntryByEntryAndStoreLoadedValues() {
+        // Given
+        ConcurrentMapCacheManager mapCacheManager = new ConcurrentMapCacheManager(CACHE_SESSIONS);
+        mapCacheManager.getCache(CACHE_SESSIONS).put(cached.getId() + "_user123", cached);
+        CacheBatchLoader loader = new CacheBatchLoader(mapCacheManager, connectionFactory);
+
+        // When
+        Map<UUID, SessionResponse> result = loader.getAll(CACHE_SESSIONS, List.of(cached.getId(), uncached.getId()),
+                id -> id + "_user123", SessionResponse.class, this::load);
+
+        // Then
+        assertEquals(cached, result.get(cached.getId()));
+        assertEquals(uncached, result.get(uncached.getId()));
+        assertEquals(List.of(List.of(uncached.getId())), loads);
+        assertEquals(uncached, mapCacheManager.getCache(CACHE_SESSIONS).get(uncached.getId() + "_user123").get());
+        verifyNoInteractions(connectionFactory);
+    }
+
+    // ---------- Helper Methods ----------
+
+    private void givenRedisCache() {
+        when(cacheManager.getCache(CACHE_SESSIONS)).thenReturn(redisCache);
+        when(redisCache.getCacheConfiguration()).thenReturn(cacheConfiguration);
+        when(redisCache.getName()).thenReturn(CACHE_SESSIONS);
+        when(connectionFactory.getConnection()).thenReturn(connection);
+        when(connection.stringCommands()).thenReturn(stringCommands);
+    }
+
+    private Map<UUID, SessionResponse> getAll(List<UUID> ids) {
+        return new CacheBatchLoader(cacheManager, connectionFactory)
+                .getAll(CACHE_SESSIONS, ids, id -> id + "_user123", SessionResponse.class, this::load);
+    }
+
+    private Map<UUID, SessionResponse> load(Collection<UUID> ids) {
+        loads.add(List.copyOf(ids));
+        return List.of(cached, uncached).stream()
+                .filter(session -> ids.contains(session.getId()))
+                .collect(Collectors.toMap(SessionResponse::getId, Function.identity()));
+    }
+
+    private String redisKey(UUID id) {
+        return CACHE_SESSIONS + "::" + id + "_user123";
+    }
+}
@@ -0,0 +1,152 @@
+package com.chatbot.storage.infrastructure.cache;
+
+import com.chatbot.storage.config.properties.SecondLevelCacheProperties;
+import com.chatbot.storage.entity.ChatMessage;
+import com.chatbot.storage.entity.ChatSession;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.cache.spi.CacheImplementor;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+
+import static com.chatbot.storage.infrastructure.cache.SecondLevelCacheEvictor.SESSION_MESSAGES_ROLE;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ *
+ * The type Clustered cache invalidator test.
+ */
+@ExtendWith(MockitoExtension.class)
+class ClusteredCacheInvalidatorTest {
+
+    private static final String CHANNEL = "ragchat:l2-invalidation";
+
+    @Mock
+    private EntityManagerFactory entityManagerFactory;
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private RedisMessageListenerContainer listenerContainer;
+
+    @Mock
+    private SessionFactoryImplementor sessionFactory;
+
+    @Mock
+    private CacheImplementor cache;
+
+    private ClusteredCacheInvalidator invalidator;
+    private UUID sessionId;
+
+    /**
+     * Sets up.
+     */
+    @BeforeEach
+    void setUp() {
+        invalidator = new ClusteredCacheInvalidator(entityManagerFactory, redisTemplate, listenerContainer,
+                new SecondLevelCacheProperties());
+        sessionId = UUID.randomUUID();
+    }
+
+    /**
+     * On message from another node should evict entity.
+     */
+    @Test
+    void onMessage_FromAnotherNode_ShouldEvictEntity() {
+        // Given
+        stubCache();
+        String payload = "other-node|E|" + ChatSession.class.getName() + "|" + sessionId;
+
+        // When
+        invalidator.onMessage(message(payload), null);
+
+        // Then
+        verify(cache).evictEntityData(ChatSession.class.getName(), sessionId);
+    }
+
+    /**
+     * On message from another node should evict session messages.
+     */
+    @Test
+    void onMessage_FromAnotherNode_ShouldEvictSessionMessages() {
+        // Given
+        stubCache();
+
+        // When
+        invalidator.onMessage(message("other-node|C|" + sessionId), null);
+
+        // Then
+        verify(cache).evictCollectionData(SESSION_MESSAGES_ROLE, sessionId);
+    }
+
+    /**
+     * On message published by this node should be ignored.
+     */
+    @Test
+    void onMessage_PublishedByThisNode_ShouldBeIgnored() {
+        // Given
+        invalidator.broadcastAllMessages();
+        ArgumentCaptor<String> payload = ArgumentCaptor.forClass(String.class);
+        verify(redisTemplate).convertAndSend(eq(CHANNEL), payload.capture());
+
+        // When
+        invalidator.onMessage(message(payload.getValue()), null);
+
+        // Then
+        verifyNoInteractions(entityManagerFactory);
+    }
+
+    /**
+     * On post delete of message should broadcast entity and owning collection.
+     */
+    @Test
+    void onPostDelete_OfMessage_ShouldBroadcastEntityAndOwningCollection() {
+        // Given
+        UUID messageId = UUID.randomUUID();
+        ChatMessage chatMessage = ChatMessage.builder()
+                .id(messageId)
+                .session(ChatSession.builder().id(sessionId).userId("user123").sessionName("Test").build())
+                .build();
+        EntityPersister persister = mock(EntityPersister.class);
+        when(persister.getEntityName()).thenReturn(ChatMessage.class.getName());
+        PostDeleteEvent event = mock(PostDeleteEvent.class);
+        when(event.getPersister()).thenReturn(persister);
+        when(event.getId()).thenReturn(messageId);
+        when(event.getEntity()).thenReturn(chatMessage);
+
+        // When
+        invalidator.onPostDelete(event);
+
+        // Then
+        ArgumentCaptor<String> payloads = ArgumentCaptor.forClass(String.class);
+        verify(redisTemplate, times(2)).convertAndSend(eq(CHANNEL), payloads.capture());
+        List<String> sent = payloads.getAllValues();
+        assertTrue(sent.get(0).endsWith("|E|" + ChatMessage.class.getName() + "|" + messageId));
+        assertTrue(sent.get(1).endsWith("|C|" + sessionId));
+    }
+
+    private void stubCache() {
+        when(entityManagerFactory.unwrap(SessionFactoryImplementor.class)).thenReturn(sessionFactory);
+        when(sessionFactory.getCache()).thenReturn(cache);
+    }
+
+    private static DefaultMessage message(String payload) {
+        return new DefaultMessage(CHANNEL.getBytes(StandardCharsets.UTF_8), payload.getBytes(StandardCharsets.UTF_8));
+    }
+}
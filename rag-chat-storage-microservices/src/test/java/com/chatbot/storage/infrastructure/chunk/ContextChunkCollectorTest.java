@@ -0,0 +1,131 @@
+package com.chatbot.storage.infrastructure.chunk;
+
+import com.chatbot.storage.config.properties.ChunkDeduplicationProperties;
+import com.chatbot.storage.config.properties.ShardingProperties;
+import com.chatbot.storage.infrastructure.maintenance.ReplicationLagThrottle;
+import com.chatbot.storage.infrastructure.sharding.ShardMoveStore;
+import com.chatbot.storage.infrastructure.sharding.ShardRouter;
+import com.chatbot.storage.service.SessionArchiveService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ *
+ * The type Context chunk collector test.
+ */
+@ExtendWith(MockitoExtension.class)
+class ContextChunkCollectorTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private ReplicationLagThrottle throttle;
+
+    @Mock
+    private SessionArchiveService sessionArchiveService;
+
+    private ChunkDeduplicationProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+    private ContextChunkCollector collector;
+
+    /**
+     * Sets up.
+     */
+    @BeforeEach
+    void setUp() {
+        properties = new ChunkDeduplicationProperties();
+        properties.setChunkKeys(List.of("chunks"));
+        properties.setPauseBetweenBatches(Duration.ZERO);
+        meterRegistry = new SimpleMeterRegistry();
+        collector = new ContextChunkCollector(jdbcTemplate, throttle, sessionArchiveService, properties,
+                new ShardRouter(new ShardingProperties(), mock(ShardMoveStore.class),
+                        mock(PlatformTransactionManager.class)), meterRegistry);
+    }
+
+    /**
+     * Validate properties should reject a cache TTL outliving the grace period.
+     */
+    @Test
+    void validateProperties_ShouldRejectCacheTtlNotBelowGracePeriod() {
+        // Given
+        properties.setCacheTtl(Duration.ofDays(1));
+        properties.setOrphanGracePeriod(Duration.ofDays(1));
+
+        // When & Then
+        assertThrows(IllegalStateException.class, () -> collector.validateProperties());
+    }
+
+    /**
+     * Collect chunks should delete orphaned chunks that are still unreferenced, then mark new orphans.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    void collectChunks_ShouldDeleteStillUnreferencedOrphansAndMarkNewOnes() throws Exception {
+        // Given
+        when(throttle.awaitCatchUp(any(), any())).thenReturn(true);
+        when(jdbcTemplate.queryForList(startsWith("SELECT session_id"), eq(UUID.class), any(Object[].class)))
+                .thenReturn(List.of());
+        when(jdbcTemplate.queryForList(startsWith("SELECT hash"), eq(String.class), any(Object[].class)))
+                .thenReturn(List.of("hash-1"))
+                .thenReturn(List.of());
+        when(jdbcTemplate.update(anyString(), any(Object[].class))).thenReturn(1, 0, 0);
+
+        // When
+        collector.collectChunks();
+
+        // Then
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+        verify(jdbcTemplate, times(3)).update(sql.capture(), args.capture());
+        assertTrue(sql.getAllValues().get(0).contains("c.orphaned_at < ? AND NOT (EXISTS"));
+        assertTrue(sql.getAllValues().get(0).contains("session_archive_chunks"));
+        assertEquals("hash-1", args.getAllValues().get(0)[0]);
+        assertInstanceOf(Timestamp.class, args.getAllValues().get(0)[1]);
+        assertEquals("chunks", args.getAllValues().get(0)[2]);
+        assertTrue(sql.getAllValues().get(1).startsWith("UPDATE context_chunks c SET orphaned_at = ?"));
+        assertTrue(sql.getAllValues().get(2).startsWith("UPDATE context_chunks c SET orphaned_at = NULL"));
+        assertEquals(1.0, meterRegistry.counter("ragchat.chunks.deleted").count());
+    }
+
+    /**
+     * Collect chunks should delete nothing while an archive cannot be indexed.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    void collectChunks_WhenArchiveCannotBeIndexed_ShouldDeleteNothing() throws Exception {
+        // Given
+        UUID sessionId = UUID.randomUUID();
+        when(throttle.awaitCatchUp(any(), any())).thenReturn(true);
+        when(jdbcTemplate.queryForList(startsWith("SELECT session_id"), eq(UUID.class), any(Object[].class)))
+                .thenReturn(List.of(sessionId))
+                .thenReturn(List.of());
+        when(sessionArchiveService.indexChunkReferences(sessionId))
+                .thenThrow(new IllegalStateException("Archive segment missing"));
+
+        // When
+        collector.collectChunks();
+
+        // Then
+        verify(jdbcTemplate, never()).update(anyString(), any(Object[].class));
+        verify(jdbcTemplate, never()).queryForList(startsWith("SELECT hash"), eq(String.class), any(Object[].class));
+    }
+}
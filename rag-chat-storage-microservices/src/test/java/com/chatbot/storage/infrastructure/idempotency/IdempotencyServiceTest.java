@@ -0,0 +1,278 @@
+package com.chatbot.storage.infrastructure.idempotency;
+
+import com.chatbot.storage.config.properties.IdempotencyProperties;
+import com.chatbot.storage.dto.response.MessageResponse;
+import com.chatbot.storage.enums.MessageSender;
+import com.chatbot.storage.exception.IdempotentRequestInProgressException;
+import com.chatbot.storage.exception.ValidationException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ *
+ * The type Idempotency service test.
+ */
+@ExtendWith(MockitoExtension.class)
+class IdempotencyServiceTest {
+
+    private static final String KEY = "idem:messages:user123:retry-1";
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    private ObjectMapper objectMapper;
+    private IdempotencyProperties properties;
+    private IdempotencyService idempotencyService;
+    private MessageResponse response;
+    private AtomicInteger calls;
+
+    /**
+     * Sets up.
+     */
+    @BeforeEach
+    void setUp() {
+        objectMapper = new ObjectMapper().findAndRegisterModules();
+        properties = new IdempotencyProperties();
+        properties.setPollInterval(Duration.ZERO);
+        idempotencyService = new IdempotencyService(properties, redisTemplate, objectMapper);
+        response = MessageResponse.builder()
+                .id(UUID.randomUUID())
+                .senderType(MessageSender.ASSISTANT)
+                .content("Hi there")
+                .createdAt(LocalDateTime.now())
+                .build();
+        calls = new AtomicInteger();
+    }
+
+    /**
+     * Execute without key should run action without redis.
+     */
+    @Test
+    void execute_WithoutKey_ShouldRunActionWithoutRedis() {
+        // When
+        MessageResponse result = execute(null, "hello");
+
+        // Then
+        assertSame(response, result);
+        assertEquals(1, calls.get());
+        verifyNoInteractions(redisTemplate);
+    }
+
+    /**
+     * Execute first request should store its response.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void execute_FirstRequest_ShouldStoreItsResponse() throws Exception {
+        // Given
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.setIfAbsent(eq(KEY), anyString(), eq(properties.getLockTimeout()))).thenReturn(true);
+        when(redisTemplate.execute(any(RedisScript.class), eq(List.of(KEY)), anyString(), anyString(), anyString()))
+                .thenReturn(1L);
+
+        // When
+        MessageResponse result = execute("retry-1", "hello");
+
+        // Then
+        assertSame(response, result);
+        ArgumentCaptor<String> claim = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<String> stored = ArgumentCaptor.forClass(String.class);
+        verify(redisTemplate).execute(any(RedisScript.class), eq(List.of(KEY)), claim.capture(), stored.capture(),
+                eq(String.valueOf(properties.getRetention().toMillis())));
+        verify(valueOperations).setIfAbsent(KEY, claim.getValue(), properties.getLockTimeout());
+        verify(valueOperations, never()).set(anyString(), anyString(), any(Duration.class));
+        IdempotencyService.StoredRequest completed =
+                objectMapper.readValue(stored.getValue(), IdempotencyService.StoredRequest.class);
+        assertEquals("COMPLETED", completed.state());
+        assertEquals(response, objectMapper.readValue(completed.response(), MessageResponse.class));
+    }
+
+    /**
+     * Execute when the claim was taken over should leave the new owner's record.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void execute_WhenClaimWasTakenOver_ShouldLeaveNewOwnersRecord() {
+        // Given
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.setIfAbsent(eq(KEY), anyString(), any(Duration.class))).thenReturn(true);
+        when(redisTemplate.execute(any(RedisScript.class), eq(List.of(KEY)), anyString(), anyString(), anyString()))
+                .thenReturn(0L);
+
+        // When
+        MessageResponse result = execute("retry-1", "hello");
+
+        // Then
+        assertSame(response, result);
+        verify(valueOperations, never()).set(anyString(), anyString(), any(Duration.class));
+        // Nothing to release either, the key is no longer this request's
+        verify(redisTemplate, never()).execute(any(RedisScript.class), eq(List.of(KEY)), anyString());
+    }
+
+    /**
+     * Execute retry of completed request should replay response without running action.
+     */
+    @Test
+    void execute_RetryOfCompletedRequest_ShouldReplayResponseWithoutRunningAction() {
+        // Given
+        storeFirstRequest("hello");
+        IdempotencyService fresh = new IdempotencyService(properties, redisTemplate, objectMapper);
+
+        // When
+        MessageResponse result = fresh.execute("retry-1", "messages:user123", "hello", MessageResponse.class, () -> {
+            calls.incrementAndGet();
+            return response;
+        });
+
+        // Then
+        assertEquals(response, result);
+        assertEquals(1, calls.get());
+    }
+
+    /**
+     * Execute key reused with another payload should be rejected.
+     */
+    @Test
+    void execute_KeyReusedWithAnotherPayload_ShouldBeRejected() {
+        // Given
+        storeFirstRequest("hello");
+
+        // When / Then
+        assertThrows(ValidationException.class, () -> execute("retry-1", "something else"));
+        assertEquals(1, calls.get());
+    }
+
+    /**
+     * Execute retry while original runs should wait for its response.
+     */
+    @Test
+    void execute_RetryWhileOriginalRuns_ShouldWaitForItsResponse() throws Exception {
+        // Given
+        String fingerprint = fingerprintOf("hello");
+        String inFlight = objectMapper.writeValueAsString(
+                new IdempotencyService.StoredRequest("IN_FLIGHT", "other", fingerprint, null));
+        String completed = objectMapper.writeValueAsString(new IdempotencyService.StoredRequest(
+                "COMPLETED", "other", fingerprint, objectMapper.writeValueAsString(response)));
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.setIfAbsent(eq(KEY), anyString(), any(Duration.class))).thenReturn(false);
+        when(valueOperations.get(KEY)).thenReturn(inFlight, inFlight, completed);
+
+        // When
+        MessageResponse result = execute("retry-1", "hello");
+
+        // Then
+        assertEquals(response, result);
+        assertEquals(0, calls.get());
+    }
+
+    /**
+     * Execute retry when original outlasts wait should conflict.
+     */
+    @Test
+    void execute_RetryWhenOriginalOutlastsWait_ShouldConflict() throws Exception {
+        // Given
+        properties.setWaitTimeout(Duration.ZERO);
+        String inFlight = objectMapper.writeValueAsString(
+                new IdempotencyService.StoredRequest("IN_FLIGHT", "other", fingerprintOf("hello"), null));
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.setIfAbsent(eq(KEY), anyString(), any(Duration.class))).thenReturn(false);
+        when(valueOperations.get(KEY)).thenReturn(inFlight);
+
+        // When / Then
+        assertThrows(IdempotentRequestInProgressException.class, () -> execute("retry-1", "hello"));
+        assertEquals(0, calls.get());
+    }
+
+    /**
+     * Execute when action fails should release key for a retry.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void execute_WhenActionFails_ShouldReleaseKeyForRetry() {
+        // Given
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.setIfAbsent(eq(KEY), anyString(), any(Duration.class))).thenReturn(true);
+
+        // When
+        assertThrows(IllegalStateException.class, () -> idempotencyService.execute("retry-1", "messages:user123",
+                "hello", MessageResponse.class, () -> {
+                    throw new IllegalStateException("LLM unavailable");
+                }));
+
+        // Then
+        verify(redisTemplate).execute(any(RedisScript.class), eq(List.of(KEY)), anyString());
+        verify(valueOperations, never()).set(anyString(), anyString(), any(Duration.class));
+    }
+
+    /**
+     * Execute when redis is down should run action.
+     */
+    @Test
+    void execute_WhenRedisIsDown_ShouldRunAction() {
+        // Given
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class)))
+                .thenThrow(new RedisConnectionFailureException("down"));
+
+        // When
+        MessageResponse result = execute("retry-1", "hello");
+
+        // Then
+        assertSame(response, result);
+        assertEquals(1, calls.get());
+    }
+
+    // ---------- Helper Methods ----------
+
+    private MessageResponse execute(String idempotencyKey, String request) {
+        return idempotencyService.execute(idempotencyKey, "messages:user123", request, MessageResponse.class, () -> {
+            calls.incrementAndGet();
+            return response;
+        });
+    }
+
+    /**
+     * Runs a first request and serves what it stored from then on.
+     */
+    @SuppressWarnings("unchecked")
+    private void storeFirstRequest(String request) {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.setIfAbsent(eq(KEY), anyString(), any(Duration.class))).thenReturn(true, false);
+        when(redisTemplate.execute(any(RedisScript.class), eq(List.of(KEY)), anyString(), anyString(), anyString()))
+                .thenReturn(1L);
+        execute("retry-1", request);
+        ArgumentCaptor<String> stored = ArgumentCaptor.forClass(String.class);
+        verify(redisTemplate).execute(any(RedisScript.class), eq(List.of(KEY)), anyString(), stored.capture(),
+                anyString());
+        when(valueOperations.get(KEY)).thenReturn(stored.getValue());
+    }
+
+    private String fingerprintOf(String request) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256")
+                .digest(objectMapper.writeValueAsBytes(request)));
+    }
+}
@@ -0,0 +1,95 @@
+package com.chatbot.storage.infrastructure.jsonb;
+
+import com.chatbot.storage.enums.JsonbField;
+import com.chatbot.storage.exception.ValidationException;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ * The type Jsonb filter test.
+ */
+class JsonbFilterTest {
+
+    /**
+     * Where with array path should build containment document.
+     */
+    @Test
+    void where_WithArrayPath_ShouldBuildContainmentDocument() {
+        // When
+        JsonbFilter filter = JsonbFilter.builder()
+                .where(JsonbField.CONTEXT_DATA, "chunks[].documentId", "doc-1")
+                .build();
+
+        // Then
+        assertEquals(Map.of("chunks", List.of(Map.of("documentId", "doc-1"))),
+                filter.getDocuments().get(JsonbField.CONTEXT_DATA));
+        assertFalse(filter.getDocuments().containsKey(JsonbField.METADATA));
+    }
+
+    /**
+     * Predicates on the same column should merge into one document.
+     */
+    @Test
+    void predicatesOnSameColumn_ShouldMergeIntoOneDocument() {
+        // When
+        JsonbFilter filter = JsonbFilter.builder()
+                .contains(JsonbField.METADATA, Map.of("model", "llama3", "tags", List.of("billing")))
+                .where(JsonbField.METADATA, "tags[]", "urgent")
+                .build();
+
+        // Then
+        assertEquals(Map.of("model", "llama3", "tags", List.of("billing", "urgent")),
+                filter.getDocuments().get(JsonbField.METADATA));
+    }
+
+    /**
+     * Build without predicates should be rejected.
+     */
+    @Test
+    void build_WithoutPredicates_ShouldBeRejected() {
+        // When & Then
+        JsonbFilter.Builder builder = JsonbFilter.builder().contains(JsonbField.METADATA, null);
+        assertThrows(ValidationException.class, builder::build);
+    }
+
+    /**
+     * Empty containers should be rejected.
+     */
+    @Test
+    void emptyContainers_ShouldBeRejected() {
+        // When & Then
+        assertThrows(ValidationException.class,
+                () -> JsonbFilter.builder().contains(JsonbField.METADATA, Map.of()));
+        assertThrows(ValidationException.class,
+                () -> JsonbFilter.builder().contains(JsonbField.METADATA, Map.of("tags", List.of())));
+    }
+
+    /**
+     * Conflicting values should be rejected.
+     */
+    @Test
+    void conflictingValues_ShouldBeRejected() {
+        // Given
+        JsonbFilter.Builder builder = JsonbFilter.builder().where(JsonbField.METADATA, "model", "llama3");
+
+        // When & Then
+        assertThrows(ValidationException.class, () -> builder.where(JsonbField.METADATA, "model", "gpt-4o"));
+    }
+
+    /**
+     * Invalid path should be rejected.
+     */
+    @Test
+    void invalidPath_ShouldBeRejected() {
+        // When & Then
+        assertThrows(ValidationException.class,
+                () -> JsonbFilter.builder().where(JsonbField.METADATA, "model') OR true --", "x"));
+        assertThrows(ValidationException.class,
+                () -> JsonbFilter.builder().where(JsonbField.METADATA, "source..url", "x"));
+    }
+}
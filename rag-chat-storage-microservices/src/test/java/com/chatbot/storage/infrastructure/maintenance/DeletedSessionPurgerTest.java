@@ -0,0 +1,178 @@
+package com.chatbot.storage.infrastructure.maintenance;
+
+import com.chatbot.storage.config.properties.SessionPurgeProperties;
+import com.chatbot.storage.config.properties.ShardingProperties;
+import com.chatbot.storage.infrastructure.archive.ArchivePointer;
+import com.chatbot.storage.infrastructure.archive.ArchiveReclaimer;
+import com.chatbot.storage.infrastructure.cache.SecondLevelCacheEvictor;
+import com.chatbot.storage.infrastructure.sharding.ShardMoveStore;
+import com.chatbot.storage.infrastructure.sharding.ShardRouter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ *
+ * The type Deleted session purger test.
+ */
+@ExtendWith(MockitoExtension.class)
+class DeletedSessionPurgerTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private MaintenanceCheckpointStore checkpointStore;
+
+    @Mock
+    private ReplicationLagThrottle throttle;
+
+    @Mock
+    private SecondLevelCacheEvictor cacheEvictor;
+
+    @Mock
+    private ArchiveReclaimer archiveReclaimer;
+
+    private SessionPurgeProperties properties;
+    private DeletedSessionPurger purger;
+    private UUID sessionId;
+    private LocalDateTime updatedAt;
+
+    /**
+     * Sets up.
+     */
+    @BeforeEach
+    void setUp() {
+        properties = new SessionPurgeProperties();
+        properties.setMessageBatchSize(2);
+        properties.setPauseBetweenBatches(Duration.ZERO);
+        // Sharding disabled: the purge runs once, on the default data source
+        ShardRouter shardRouter = new ShardRouter(new ShardingProperties(), mock(ShardMoveStore.class),
+                mock(PlatformTransactionManager.class));
+        purger = new DeletedSessionPurger(jdbcTemplate, checkpointStore, throttle, cacheEvictor, archiveReclaimer,
+                properties, shardRouter);
+        sessionId = UUID.randomUUID();
+        updatedAt = LocalDateTime.now().minusDays(40);
+    }
+
+    /**
+     * Purge should delete messages in chunks then sessions and checkpoint.
+     */
+    @Test
+    void purge_ShouldDeleteMessagesInChunksThenSessionsAndCheckpoint() throws Exception {
+        // Given
+        when(checkpointStore.load(DeletedSessionPurger.JOB_NAME)).thenReturn(Optional.empty());
+        stubCandidates(List.of(sessionId), List.of());
+        when(throttle.awaitCatchUp(any(), any())).thenReturn(true);
+        when(jdbcTemplate.update(startsWith("DELETE FROM chat_messages"), any(Object[].class)))
+                .thenReturn(2, 1);
+        when(jdbcTemplate.queryForList(startsWith("DELETE FROM chat_sessions"), eq(UUID.class), any(Object[].class)))
+                .thenReturn(List.of(sessionId));
+
+        // When
+        purger.purgeDeletedSessions();
+
+        // Then
+        verify(jdbcTemplate, times(2)).update(startsWith("DELETE FROM chat_messages"), any(Object[].class));
+        verify(cacheEvictor).evictSession(sessionId);
+        verify(cacheEvictor).evictAllMessages();
+        ArgumentCaptor<MaintenanceCheckpointStore.Checkpoint> checkpoint =
+                ArgumentCaptor.forClass(MaintenanceCheckpointStore.Checkpoint.class);
+        verify(checkpointStore).save(eq(DeletedSessionPurger.JOB_NAME), checkpoint.capture());
+        assertEquals(sessionId, checkpoint.getValue().positionId());
+        assertEquals(1, checkpoint.getValue().processed());
+        verify(checkpointStore).clear(DeletedSessionPurger.JOB_NAME);
+    }
+
+    /**
+     * Purge should release the archive blobs of purged sessions.
+     */
+    @Test
+    void purge_ShouldReleaseArchivesOfPurgedSessions() throws Exception {
+        // Given
+        UUID restoredId = UUID.randomUUID();
+        ArchivePointer pointer = new ArchivePointer("segment-1.seg", 0, 64);
+        ArchivePointer restoredPointer = new ArchivePointer("segment-1.seg", 64, 64);
+        when(checkpointStore.load(DeletedSessionPurger.JOB_NAME)).thenReturn(Optional.empty());
+        stubCandidates(List.of(sessionId, restoredId), List.of());
+        when(throttle.awaitCatchUp(any(), any())).thenReturn(true);
+        when(archiveReclaimer.findPointers(List.of(sessionId, restoredId)))
+                .thenReturn(Map.of(sessionId, pointer, restoredId, restoredPointer));
+        // The other session was restored since the candidates were read
+        when(jdbcTemplate.queryForList(startsWith("DELETE FROM chat_sessions"), eq(UUID.class), any(Object[].class)))
+                .thenReturn(List.of(sessionId));
+
+        // When
+        purger.purgeDeletedSessions();
+
+        // Then
+        verify(archiveReclaimer).release(List.of(pointer));
+    }
+
+    /**
+     * Purge when replicas lag should stop and keep the checkpoint.
+     */
+    @Test
+    void purge_WhenReplicasLag_ShouldStopAndKeepCheckpoint() throws Exception {
+        // Given
+        when(checkpointStore.load(DeletedSessionPurger.JOB_NAME)).thenReturn(Optional.empty());
+        stubCandidates(List.of(sessionId));
+        when(throttle.awaitCatchUp(any(), any())).thenReturn(false);
+
+        // When
+        purger.purgeDeletedSessions();
+
+        // Then
+        verify(jdbcTemplate, never()).update(anyString(), any(Object[].class));
+        verify(archiveReclaimer, never()).release(any());
+        verify(checkpointStore, never()).save(anyString(), any());
+        verify(checkpointStore, never()).clear(anyString());
+    }
+
+    @SafeVarargs
+    @SuppressWarnings("unchecked")
+    private void stubCandidates(List<UUID>... batches) throws SQLException {
+        List<List<Object>> results = new ArrayList<>();
+        for (List<UUID> batch : batches) {
+            List<Object> rows = new ArrayList<>();
+            for (UUID id : batch) {
+                ResultSet rs = mock(ResultSet.class);
+                when(rs.getObject("id", UUID.class)).thenReturn(id);
+                when(rs.getTimestamp("updated_at")).thenReturn(Timestamp.valueOf(updatedAt));
+                rows.add(rs);
+            }
+            results.add(rows);
+        }
+        int[] call = {0};
+        when(jdbcTemplate.query(startsWith("SELECT id, updated_at FROM chat_sessions"),
+                any(RowMapper.class), any(Object[].class))).thenAnswer(invocation -> {
+            RowMapper<Object> mapper = invocation.getArgument(1);
+            List<Object> mapped = new ArrayList<>();
+            for (Object rs : results.get(Math.min(call[0]++, results.size() - 1))) {
+                mapped.add(mapper.mapRow((ResultSet) rs, mapped.size()));
+            }
+            return mapped;
+        });
+    }
+}
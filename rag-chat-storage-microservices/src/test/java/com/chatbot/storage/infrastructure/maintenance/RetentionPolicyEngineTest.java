@@ -0,0 +1,214 @@
+package com.chatbot.storage.infrastructure.maintenance;
+
+import com.chatbot.storage.config.properties.RetentionProperties;
+import com.chatbot.storage.config.properties.ShardingProperties;
+import com.chatbot.storage.enums.RetentionAction;
+import com.chatbot.storage.infrastructure.archive.ArchivePointer;
+import com.chatbot.storage.infrastructure.archive.ArchiveReclaimer;
+import com.chatbot.storage.infrastructure.cache.SecondLevelCacheEvictor;
+import com.chatbot.storage.infrastructure.sharding.ShardMoveStore;
+import com.chatbot.storage.infrastructure.sharding.ShardRouter;
+import com.chatbot.storage.infrastructure.sync.SyncChangeWriter;
+import com.chatbot.storage.service.SessionArchiveService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ *
+ * The type Retention policy engine test.
+ */
+@ExtendWith(MockitoExtension.class)
+class RetentionPolicyEngineTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private MaintenanceCheckpointStore checkpointStore;
+
+    @Mock
+    private ReplicationLagThrottle throttle;
+
+    @Mock
+    private SessionArchiveService sessionArchiveService;
+
+    @Mock
+    private ArchiveReclaimer archiveReclaimer;
+
+    @Mock
+    private SecondLevelCacheEvictor cacheEvictor;
+
+    @Mock
+    private SyncChangeWriter syncChangeWriter;
+
+    private RetentionProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+    private RetentionPolicyEngine engine;
+
+    /**
+     * Sets up.
+     */
+    @BeforeEach
+    void setUp() {
+        properties = new RetentionProperties();
+        properties.setPauseBetweenBatches(Duration.ZERO);
+        meterRegistry = new SimpleMeterRegistry();
+        engine = new RetentionPolicyEngine(jdbcTemplate, checkpointStore, throttle, sessionArchiveService,
+                archiveReclaimer, cacheEvictor, properties, meterRegistry,
+                new ShardRouter(new ShardingProperties(), mock(ShardMoveStore.class),
+                        mock(PlatformTransactionManager.class)), syncChangeWriter);
+    }
+
+    /**
+     * Validate rules should reject a second global rule.
+     */
+    @Test
+    void validateRules_ShouldRejectSecondGlobalRule() {
+        // Given
+        properties.setRules(List.of(rule("a", null, RetentionAction.DELETE), rule("b", null, RetentionAction.DELETE)));
+
+        // When & Then
+        assertThrows(IllegalStateException.class, () -> engine.validateRules());
+    }
+
+    /**
+     * Global delete rule should exclude users with their own rule.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void applyRules_GlobalDeleteRule_ShouldExcludeUsersWithOwnRule() throws Exception {
+        // Given
+        properties.setRules(List.of(rule("global", null, RetentionAction.DELETE),
+                rule("vip", "vip-user", RetentionAction.ARCHIVE)));
+        engine.validateRules();
+        when(checkpointStore.load(anyString())).thenReturn(Optional.empty());
+        when(throttle.awaitCatchUp(any(), any())).thenReturn(true);
+        when(syncChangeWriter.isEnabled()).thenReturn(true);
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), any(Object[].class))).thenReturn(List.of());
+        UUID sessionId = UUID.randomUUID();
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getObject("session_id", UUID.class)).thenReturn(sessionId);
+        when(rs.getLong("removed")).thenReturn(3L);
+        doAnswer(invocation -> {
+            invocation.<RowCallbackHandler>getArgument(1).processRow(rs);
+            return null;
+        }).when(jdbcTemplate).query(startsWith("WITH deleted"), any(RowCallbackHandler.class), any(Object[].class));
+
+        // When
+        engine.applyRules();
+
+        // Then
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+        verify(jdbcTemplate).query(sql.capture(), any(RowCallbackHandler.class), args.capture());
+        assertTrue(sql.getValue().contains("s.user_id NOT IN (?)"));
+        assertTrue(sql.getValue().contains("message_count = GREATEST(s.message_count - c.removed, 0)"));
+        assertTrue(sql.getValue().contains("INSERT INTO sync_changes"));
+        assertEquals("vip-user", args.getValue()[1]);
+        assertEquals(3.0, meterRegistry.counter("ragchat.retention.messages.deleted", "rule", "global").count());
+        verify(cacheEvictor).evictSession(sessionId);
+        verify(cacheEvictor).evictAllMessages();
+        verify(checkpointStore).clear(RetentionPolicyEngine.JOB_PREFIX + "global");
+        verify(checkpointStore).clear(RetentionPolicyEngine.JOB_PREFIX + "vip");
+    }
+
+    /**
+     * Archive rule should archive candidates and checkpoint.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void applyRules_ArchiveRule_ShouldArchiveCandidatesAndCheckpoint() throws Exception {
+        // Given
+        properties.setRules(List.of(rule("vip", "vip-user", RetentionAction.ARCHIVE)));
+        engine.validateRules();
+        UUID sessionId = UUID.randomUUID();
+        LocalDateTime updatedAt = LocalDateTime.now().minusDays(100);
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getObject("id", UUID.class)).thenReturn(sessionId);
+        when(rs.getTimestamp("updated_at")).thenReturn(Timestamp.valueOf(updatedAt));
+        when(checkpointStore.load(anyString())).thenReturn(Optional.empty());
+        when(throttle.awaitCatchUp(any(), any())).thenReturn(true);
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), any(Object[].class)))
+                .thenAnswer(invocation -> List.of(((RowMapper<Object>) invocation.getArgument(1)).mapRow(rs, 0)))
+                .thenReturn(List.of());
+        when(sessionArchiveService.archiveSession(sessionId)).thenReturn(true);
+
+        // When
+        engine.applyRules();
+
+        // Then
+        ArgumentCaptor<MaintenanceCheckpointStore.Checkpoint> checkpoint =
+                ArgumentCaptor.forClass(MaintenanceCheckpointStore.Checkpoint.class);
+        verify(checkpointStore).save(eq(RetentionPolicyEngine.JOB_PREFIX + "vip"), checkpoint.capture());
+        assertEquals(sessionId, checkpoint.getValue().positionId());
+        assertEquals(updatedAt, checkpoint.getValue().positionTime());
+        assertEquals(1.0, meterRegistry.counter("ragchat.retention.sessions.archived", "rule", "vip").count());
+        assertTrue(meterRegistry.get("ragchat.retention.last.completed").tag("rule", "vip").gauge().value() > 0);
+        verify(jdbcTemplate, never()).update(anyString(), any(Object[].class));
+    }
+
+    /**
+     * Delete rule should release the archive blobs of the sessions it deleted.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void applyRules_DeleteRule_ShouldReleaseArchivesOfDeletedSessions() throws Exception {
+        // Given
+        properties.setRules(List.of(rule("global", null, RetentionAction.DELETE)));
+        engine.validateRules();
+        UUID sessionId = UUID.randomUUID();
+        ArchivePointer pointer = new ArchivePointer("segment-1.seg", 128, 64);
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getObject("id", UUID.class)).thenReturn(sessionId);
+        when(rs.getTimestamp("updated_at")).thenReturn(Timestamp.valueOf(LocalDateTime.now().minusDays(100)));
+        when(checkpointStore.load(anyString())).thenReturn(Optional.empty());
+        when(throttle.awaitCatchUp(any(), any())).thenReturn(true);
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), any(Object[].class)))
+                .thenAnswer(invocation -> List.of(((RowMapper<Object>) invocation.getArgument(1)).mapRow(rs, 0)))
+                .thenReturn(List.of());
+        doAnswer(invocation -> null).when(jdbcTemplate)
+                .query(startsWith("WITH deleted"), any(RowCallbackHandler.class), any(Object[].class));
+        when(archiveReclaimer.findPointers(List.of(sessionId))).thenReturn(Map.of(sessionId, pointer));
+        when(jdbcTemplate.queryForList(startsWith("WITH deleted AS (DELETE FROM chat_sessions"), eq(UUID.class),
+                any(Object[].class))).thenReturn(List.of(sessionId));
+
+        // When
+        engine.applyRules();
+
+        // Then
+        verify(archiveReclaimer).release(List.of(pointer));
+        verify(cacheEvictor).evictSession(sessionId);
+        assertEquals(1.0, meterRegistry.counter("ragchat.retention.sessions.deleted", "rule", "global").count());
+    }
+
+    private static RetentionProperties.Rule rule(String name, String userId, RetentionAction action) {
+        RetentionProperties.Rule rule = new RetentionProperties.Rule();
+        rule.setName(name);
+        rule.setUserId(userId);
+        rule.setMaxAge(Duration.ofDays(90));
+        rule.setAction(action);
+        return rule;
+    }
+}
@@ -0,0 +1,133 @@
+package com.chatbot.storage.infrastructure.outbox;
+
+import com.chatbot.storage.config.properties.OutboxProperties;
+import com.chatbot.storage.config.properties.ShardingProperties;
+import com.chatbot.storage.enums.OutboxEventType;
+import com.chatbot.storage.infrastructure.sharding.ShardMoveStore;
+import com.chatbot.storage.infrastructure.sharding.ShardRouter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ *
+ * The type Outbox relay test.
+ */
+@ExtendWith(MockitoExtension.class)
+class OutboxRelayTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private OutboxProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+    private List<OutboxEvent> events;
+    private ShardRouter shardRouter;
+
+    /**
+     * Sets up.
+     */
+    @BeforeEach
+    void setUp() {
+        properties = new OutboxProperties();
+        properties.setEnabled(true);
+        meterRegistry = new SimpleMeterRegistry();
+        shardRouter = new ShardRouter(new ShardingProperties(), mock(ShardMoveStore.class), transactionManager);
+        UUID sessionId = UUID.randomUUID();
+        events = List.of(
+                new OutboxEvent(41, sessionId, OutboxEventType.MESSAGE_CREATED, "{}", LocalDateTime.now()),
+                new OutboxEvent(42, sessionId, OutboxEventType.MESSAGE_DELETED, "{}", LocalDateTime.now()));
+    }
+
+    /**
+     * Relay should publish claimed events in order and delete exactly them.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void relay_ShouldPublishClaimedEventsInOrderAndDeleteExactlyThem() throws Exception {
+        // Given
+        InMemoryOutboxSink sink = new InMemoryOutboxSink();
+        OutboxRelay relay = new OutboxRelay(jdbcTemplate, transactionManager, sink, properties, meterRegistry,
+                shardRouter);
+        when(jdbcTemplate.queryForObject(anyString(), eq(Boolean.class), any())).thenReturn(true);
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), any())).thenReturn(events);
+
+        // When
+        relay.relay();
+
+        // Then
+        assertEquals(events, sink.getEvents());
+        ArgumentCaptor<PreparedStatementSetter> delete = ArgumentCaptor.forClass(PreparedStatementSetter.class);
+        verify(jdbcTemplate).update(startsWith("DELETE FROM outbox_events"), delete.capture());
+        PreparedStatement statement = mock(PreparedStatement.class);
+        Connection connection = mock(Connection.class);
+        when(statement.getConnection()).thenReturn(connection);
+        delete.getValue().setValues(statement);
+        verify(connection).createArrayOf("bigint", new Long[]{41L, 42L});
+        assertEquals(2.0, meterRegistry.counter("ragchat.outbox.published").count());
+    }
+
+    /**
+     * Relay when sink fails should keep events in the outbox.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void relay_WhenSinkFails_ShouldKeepEventsInOutbox() {
+        // Given
+        OutboxSink sink = mock(OutboxSink.class);
+        doThrow(new IllegalStateException("stream unavailable")).when(sink).publish(events);
+        OutboxRelay relay = new OutboxRelay(jdbcTemplate, transactionManager, sink, properties, meterRegistry,
+                shardRouter);
+        when(jdbcTemplate.queryForObject(anyString(), eq(Boolean.class), any())).thenReturn(true);
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), any())).thenReturn(events);
+
+        // When
+        relay.relay();
+
+        // Then
+        verify(jdbcTemplate, never()).update(anyString(), any(PreparedStatementSetter.class));
+        verify(transactionManager).rollback(any());
+        assertEquals(1.0, meterRegistry.counter("ragchat.outbox.publish.failures").count());
+    }
+
+    /**
+     * Relay when another instance holds the lock should not claim events.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void relay_WhenAnotherInstanceHoldsLock_ShouldNotClaimEvents() {
+        // Given
+        OutboxSink sink = mock(OutboxSink.class);
+        OutboxRelay relay = new OutboxRelay(jdbcTemplate, transactionManager, sink, properties, meterRegistry,
+                shardRouter);
+        when(jdbcTemplate.queryForObject(anyString(), eq(Boolean.class), any())).thenReturn(false);
+
+        // When
+        relay.relay();
+
+        // Then
+        verify(jdbcTemplate, never()).query(anyString(), any(RowMapper.class), any());
+        verifyNoInteractions(sink);
+    }
+}
@@ -0,0 +1,22 @@
+package com.chatbot.storage.infrastructure.outbox;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ * The type Redis stream outbox sink test.
+ */
+class RedisStreamOutboxSinkTest {
+
+    /**
+     * Lag millis should compare the entry id timestamps.
+     */
+    @Test
+    void lagMillis_ShouldCompareEntryIdTimestamps() {
+        assertEquals(3000, RedisStreamOutboxSink.lagMillis("1700000005000-0", "1700000002000-3"));
+        assertEquals(0, RedisStreamOutboxSink.lagMillis("1700000005000-1", "1700000005000-1"));
+        assertEquals(1700000005000L, RedisStreamOutboxSink.lagMillis("1700000005000-0", "0-0"));
+    }
+}
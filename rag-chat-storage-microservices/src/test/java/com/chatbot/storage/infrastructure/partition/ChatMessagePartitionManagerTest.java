@@ -0,0 +1,218 @@
+package com.chatbot.storage.infrastructure.partition;
+
+import com.chatbot.storage.config.properties.PartitioningProperties;
+import com.chatbot.storage.config.properties.ShardingProperties;
+import com.chatbot.storage.infrastructure.cache.SecondLevelCacheEvictor;
+import com.chatbot.storage.infrastructure.maintenance.ReplicationLagThrottle;
+import com.chatbot.storage.infrastructure.sharding.ShardMoveStore;
+import com.chatbot.storage.infrastructure.sharding.ShardRouter;
+import com.chatbot.storage.repository.SessionAggregateRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static com.chatbot.storage.constants.AppConstants.PRIMARY_DATASOURCE;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ *
+ * The type Chat message partition manager test.
+ */
+@ExtendWith(MockitoExtension.class)
+class ChatMessagePartitionManagerTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private SecondLevelCacheEvictor cacheEvictor;
+
+    @Mock
+    private SessionAggregateRepository sessionAggregateRepository;
+
+    @Mock
+    private ReplicationLagThrottle throttle;
+
+    private PartitioningProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+    private ChatMessagePartitionManager partitionManager;
+
+    /**
+     * Sets up.
+     */
+    @BeforeEach
+    void setUp() {
+        properties = new PartitioningProperties();
+        properties.setPremakeMonths(2);
+        properties.setRecountBatchSize(2);
+        properties.setPauseBetweenBatches(Duration.ZERO);
+        meterRegistry = new SimpleMeterRegistry();
+        partitionManager = new ChatMessagePartitionManager(jdbcTemplate, properties, cacheEvictor,
+                sessionAggregateRepository, new ShardRouter(new ShardingProperties(), mock(ShardMoveStore.class),
+                        mock(PlatformTransactionManager.class)), throttle, meterRegistry);
+    }
+
+    /**
+     * Partition name should round trip through parse month.
+     */
+    @Test
+    void partitionName_ShouldRoundTripThroughParseMonth() {
+        YearMonth month = YearMonth.of(2026, 3);
+
+        String name = ChatMessagePartitionManager.partitionName(month);
+
+        assertEquals("chat_messages_p202603", name);
+        assertEquals(Optional.of(month), ChatMessagePartitionManager.parseMonth(name));
+        assertTrue(ChatMessagePartitionManager.parseMonth("chat_messages_default").isEmpty());
+    }
+
+    /**
+     * Maintain partitions should create current and upcoming months.
+     */
+    @Test
+    void maintainPartitions_ShouldCreateCurrentAndUpcomingMonths() {
+        // Given
+        when(jdbcTemplate.queryForObject(anyString(), eq(Integer.class), any())).thenReturn(1);
+
+        // When
+        partitionManager.maintainPartitions();
+
+        // Then
+        YearMonth now = YearMonth.now();
+        for (int i = 0; i <= 2; i++) {
+            String name = ChatMessagePartitionManager.partitionName(now.plusMonths(i));
+            verify(jdbcTemplate).execute(contains("CREATE TABLE IF NOT EXISTS " + name + " PARTITION OF"));
+        }
+        verify(jdbcTemplate, never()).queryForList(anyString(), eq(String.class), any());
+        assertEquals(0.0, meterRegistry.get("ragchat.partitions.missing").tag("shard", PRIMARY_DATASOURCE).gauge().value());
+    }
+
+    /**
+     * Maintain partitions when a month cannot be created should report it as missing.
+     */
+    @Test
+    void maintainPartitions_WhenMonthCannotBeCreated_ShouldReportItAsMissing() {
+        // Given
+        String next = ChatMessagePartitionManager.partitionName(YearMonth.now().plusMonths(1));
+        when(jdbcTemplate.queryForObject(anyString(), eq(Integer.class), any())).thenReturn(1);
+        doThrow(new DataIntegrityViolationException("default partition contains rows for this range"))
+                .when(jdbcTemplate).execute(contains("CREATE TABLE IF NOT EXISTS " + next + " "));
+
+        // When
+        partitionManager.maintainPartitions();
+
+        // Then
+        assertEquals(1.0, meterRegistry.get("ragchat.partitions.missing").tag("shard", PRIMARY_DATASOURCE).gauge().value());
+        assertEquals(1.0, meterRegistry.counter("ragchat.partitions.create.failures", "shard", PRIMARY_DATASOURCE).count());
+    }
+
+    /**
+     * Maintain partitions with toast tuple target should apply it to every partition.
+     */
+    @Test
+    void maintainPartitions_WithToastTupleTarget_ShouldApplyItToEveryPartition() {
+        // Given
+        properties.setToastTupleTarget(512);
+        when(jdbcTemplate.queryForObject(anyString(), eq(Integer.class), any())).thenReturn(1);
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), any()))
+                .thenReturn(List.of("chat_messages_p202601", "chat_messages_default"));
+
+        // When
+        partitionManager.maintainPartitions();
+
+        // Then
+        String current = ChatMessagePartitionManager.partitionName(YearMonth.now());
+        verify(jdbcTemplate).execute(argThat((String sql) -> sql.startsWith("CREATE TABLE IF NOT EXISTS " + current)
+                && sql.endsWith("WITH (toast_tuple_target = 512)")));
+        verify(jdbcTemplate).execute("ALTER TABLE chat_messages_p202601 SET (toast_tuple_target = 512)");
+        verify(jdbcTemplate).execute("ALTER TABLE chat_messages_default SET (toast_tuple_target = 512)");
+    }
+
+    /**
+     * Maintain partitions when table not partitioned should skip.
+     */
+    @Test
+    void maintainPartitions_WhenTableNotPartitioned_ShouldSkip() {
+        // Given
+        when(jdbcTemplate.queryForObject(anyString(), eq(Integer.class), any())).thenReturn(0);
+
+        // When
+        partitionManager.maintainPartitions();
+
+        // Then
+        verify(jdbcTemplate, never()).execute(anyString());
+    }
+
+    /**
+     * Drop partitions before should recount the sessions of expired partitions before dropping them.
+     */
+    @Test
+    void dropPartitionsBefore_ShouldRecountSessionsOfExpiredPartitionsBeforeDroppingThem() throws Exception {
+        // Given
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        UUID third = UUID.randomUUID();
+        when(jdbcTemplate.queryForList(startsWith("SELECT child.relname"), eq(String.class), any()))
+                .thenReturn(List.of("chat_messages_p202601", "chat_messages_p202606", "chat_messages_default"));
+        when(jdbcTemplate.queryForList(startsWith("SELECT c.relname"), eq(String.class), any()))
+                .thenReturn(List.of("chat_messages_p202601"));
+        when(jdbcTemplate.queryForList(startsWith("SELECT DISTINCT session_id FROM chat_messages_p202601"),
+                eq(UUID.class), any(), any()))
+                .thenReturn(List.of(first, second), List.of(third), List.of());
+        when(throttle.awaitCatchUp(any(), any())).thenReturn(true);
+
+        // When
+        partitionManager.dropPartitionsBefore(YearMonth.of(2026, 4));
+
+        // Then
+        InOrder inOrder = inOrder(jdbcTemplate, sessionAggregateRepository);
+        inOrder.verify(jdbcTemplate).execute("ALTER TABLE chat_messages DETACH PARTITION chat_messages_p202601");
+        inOrder.verify(sessionAggregateRepository).recountSessions(List.of(first, second));
+        inOrder.verify(sessionAggregateRepository).recountSessions(List.of(third));
+        inOrder.verify(jdbcTemplate).execute("DROP TABLE chat_messages_p202601");
+        verify(jdbcTemplate, never()).execute(contains("chat_messages_p202606"));
+        verify(jdbcTemplate, never()).execute(contains("chat_messages_default"));
+        verify(cacheEvictor).evictSession(first);
+        verify(cacheEvictor).evictSession(third);
+        verify(cacheEvictor, never()).evictAllSessions();
+        verify(cacheEvictor).evictAllMessages();
+    }
+
+    /**
+     * Drop partitions before when replicas lag should keep the partition detached.
+     */
+    @Test
+    void dropPartitionsBefore_WhenReplicasLag_ShouldKeepPartitionDetached() throws Exception {
+        // Given
+        when(jdbcTemplate.queryForList(startsWith("SELECT child.relname"), eq(String.class), any()))
+                .thenReturn(List.of());
+        when(jdbcTemplate.queryForList(startsWith("SELECT c.relname"), eq(String.class), any()))
+                .thenReturn(List.of("chat_messages_p202601"));
+        when(jdbcTemplate.queryForList(startsWith("SELECT DISTINCT session_id"), eq(UUID.class), any(), any()))
+                .thenReturn(List.of(UUID.randomUUID()));
+        when(throttle.awaitCatchUp(any(), any())).thenReturn(false);
+
+        // When
+        partitionManager.dropPartitionsBefore(YearMonth.of(2026, 4));
+
+        // Then
+        verify(sessionAggregateRepository, never()).recountSessions(any());
+        verify(jdbcTemplate, never()).execute(anyString());
+        verifyNoInteractions(cacheEvictor);
+    }
+}
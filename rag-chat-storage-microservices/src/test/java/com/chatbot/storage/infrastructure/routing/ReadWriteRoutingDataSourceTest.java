@@ -0,0 +1,146 @@
+package com.chatbot.storage.infrastructure.routing;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ *
+ * The type Read write routing data source test.
+ */
+@ExtendWith(MockitoExtension.class)
+class ReadWriteRoutingDataSourceTest {
+
+    @Mock
+    private DataSource primary;
+
+    @Mock
+    private DataSource replica;
+
+    @Mock
+    private Connection primaryConnection;
+
+    @Mock
+    private Connection replicaConnection;
+
+    @Mock
+    private ReplicaRegistry replicaRegistry;
+
+    private ReadWriteRoutingDataSource routingDataSource;
+
+    /**
+     * Sets up.
+     */
+    @BeforeEach
+    void setUp() {
+        when(replicaRegistry.getReplicas()).thenReturn(Map.of("replica-1", replica));
+        routingDataSource = new ReadWriteRoutingDataSource(primary, replicaRegistry);
+        routingDataSource.afterPropertiesSet();
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    /**
+     * Tear down.
+     */
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(synchronization -> synchronization.afterCompletion(0));
+        TransactionSynchronizationManager.clear();
+    }
+
+    /**
+     * Read write transaction should use primary.
+     */
+    @Test
+    void readWriteTransaction_ShouldUsePrimary() throws SQLException {
+        // Given
+        when(primary.getConnection()).thenReturn(primaryConnection);
+
+        // When
+        Connection connection = routingDataSource.getConnection();
+
+        // Then
+        assertSame(primaryConnection, connection);
+        verifyNoInteractions(replica);
+    }
+
+    /**
+     * Read only transaction should use healthy replica.
+     */
+    @Test
+    void readOnlyTransaction_ShouldUseHealthyReplica() throws SQLException {
+        // Given
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        when(replicaRegistry.nextAvailableReplica()).thenReturn("replica-1");
+        when(replica.getConnection()).thenReturn(replicaConnection);
+
+        // When
+        Connection connection = routingDataSource.getConnection();
+
+        // Then
+        assertSame(replicaConnection, connection);
+        verifyNoInteractions(primary);
+    }
+
+    /**
+     * Read only transaction without healthy replica should fall back to primary.
+     */
+    @Test
+    void readOnlyTransaction_WithoutHealthyReplica_ShouldFallBackToPrimary() throws SQLException {
+        // Given
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        when(replicaRegistry.nextAvailableReplica()).thenReturn(null);
+        when(primary.getConnection()).thenReturn(primaryConnection);
+
+        // When
+        Connection connection = routingDataSource.getConnection();
+
+        // Then
+        assertSame(primaryConnection, connection);
+    }
+
+    /**
+     * Read only transaction pinned to primary should skip replicas.
+     */
+    @Test
+    void readOnlyTransaction_PinnedToPrimary_ShouldSkipReplicas() throws SQLException {
+        // Given
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        ReplicaRoutingContext.pinToPrimary();
+        when(primary.getConnection()).thenReturn(primaryConnection);
+
+        // When
+        Connection connection = routingDataSource.getConnection();
+
+        // Then
+        assertSame(primaryConnection, connection);
+        verify(replicaRegistry, never()).nextAvailableReplica();
+    }
+
+    /**
+     * Pin should be cleared when the transaction completes.
+     */
+    @Test
+    void pinToPrimary_ShouldBeClearedOnCompletion() {
+        // When
+        ReplicaRoutingContext.pinToPrimary();
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(synchronization -> synchronization.afterCompletion(0));
+
+        // Then
+        assertFalse(ReplicaRoutingContext.isPrimaryPinned());
+    }
+}
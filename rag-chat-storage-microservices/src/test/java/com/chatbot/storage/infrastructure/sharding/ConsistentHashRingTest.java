@@ -0,0 +1,84 @@
+package com.chatbot.storage.infrastructure.sharding;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ * The type Consistent hash ring test.
+ */
+class ConsistentHashRingTest {
+
+    private static final int KEYS = 30_000;
+
+    /**
+     * Node for should not depend on the configured node order.
+     */
+    @Test
+    void nodeFor_ShouldNotDependOnNodeOrder() {
+        // Given
+        ConsistentHashRing ring = new ConsistentHashRing(List.of("primary", "shard-a", "shard-b"), 160);
+        ConsistentHashRing reordered = new ConsistentHashRing(List.of("shard-b", "primary", "shard-a"), 160);
+
+        // When / Then
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(ring.nodeFor("user-" + i), reordered.nodeFor("user-" + i));
+        }
+    }
+
+    /**
+     * Node for should spread keys evenly.
+     */
+    @Test
+    void nodeFor_ShouldSpreadKeysEvenly() {
+        // Given
+        ConsistentHashRing ring = new ConsistentHashRing(List.of("primary", "shard-a", "shard-b"), 160);
+
+        // When
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < KEYS; i++) {
+            counts.merge(ring.nodeFor("user-" + i), 1, Integer::sum);
+        }
+
+        // Then
+        assertEquals(3, counts.size());
+        counts.values().forEach(count -> assertEquals(KEYS / 3.0, count, KEYS / 3.0 * 0.2));
+    }
+
+    /**
+     * Adding a node should only move keys onto it.
+     */
+    @Test
+    void addingNode_ShouldOnlyMoveKeysOntoIt() {
+        // Given
+        ConsistentHashRing before = new ConsistentHashRing(List.of("primary", "shard-a", "shard-b"), 160);
+        ConsistentHashRing after = new ConsistentHashRing(List.of("primary", "shard-a", "shard-b", "shard-c"), 160);
+
+        // When
+        int moved = 0;
+        for (int i = 0; i < KEYS; i++) {
+            String owner = after.nodeFor("user-" + i);
+            if (!owner.equals(before.nodeFor("user-" + i))) {
+                assertEquals("shard-c", owner);
+                moved++;
+            }
+        }
+
+        // Then
+        assertEquals(KEYS / 4.0, moved, KEYS / 4.0 * 0.2);
+    }
+
+    /**
+     * Constructor without nodes should throw.
+     */
+    @Test
+    void constructor_WithoutNodes_ShouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> new ConsistentHashRing(List.of(), 160));
+        assertThrows(IllegalArgumentException.class, () -> new ConsistentHashRing(List.of("primary"), 0));
+    }
+}
@@ -0,0 +1,273 @@
+package com.chatbot.storage.infrastructure.sharding;
+
+import com.chatbot.storage.config.properties.ShardingProperties;
+import com.chatbot.storage.infrastructure.cache.SecondLevelCacheEvictor;
+import com.chatbot.storage.service.SessionArchiveService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static com.chatbot.storage.constants.AppConstants.PRIMARY_DATASOURCE;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ *
+ * The type Shard rebalancer test.
+ */
+@ExtendWith(MockitoExtension.class)
+class ShardRebalancerTest {
+
+    private static final String USER_ID = "user123";
+
+    @Mock
+    private JdbcTemplate primaryJdbc;
+
+    @Mock
+    private JdbcTemplate shardJdbc;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ShardRouter shardRouter;
+
+    @Mock
+    private ShardMoveStore moveStore;
+
+    @Mock
+    private SecondLevelCacheEvictor cacheEvictor;
+
+    @Mock
+    private SessionArchiveService sessionArchiveService;
+
+    private final Map<String, List<Object[]>> sourceRows = new LinkedHashMap<>();
+    private ShardingProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+    private ShardRebalancer rebalancer;
+    private UUID sessionId;
+
+    /**
+     * Sets up a user on the primary that belongs on shard-a.
+     */
+    @BeforeEach
+    void setUp() {
+        properties = new ShardingProperties();
+        properties.getRebalance().setDrainWait(Duration.ZERO);
+        meterRegistry = new SimpleMeterRegistry();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        Map<String, ShardRebalancer.ShardAccess> shards = new LinkedHashMap<>();
+        shards.put(PRIMARY_DATASOURCE, new ShardRebalancer.ShardAccess(primaryJdbc, transactionTemplate));
+        shards.put("shard-a", new ShardRebalancer.ShardAccess(shardJdbc, transactionTemplate));
+        rebalancer = new ShardRebalancer(shardRouter, shards, moveStore, cacheEvictor, sessionArchiveService,
+                properties, meterRegistry);
+
+        sessionId = UUID.randomUUID();
+        when(primaryJdbc.queryForList(startsWith("SELECT DISTINCT user_id"), eq(String.class), any(Object[].class)))
+                .thenReturn(List.of(USER_ID));
+        when(shardRouter.targetShardOf(USER_ID)).thenReturn("shard-a");
+    }
+
+    /**
+     * Rebalance should copy, flip and then delete the user from the source.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void rebalance_ShouldCopyFlipAndThenDeleteUserFromSource() {
+        // Given
+        when(moveStore.find(USER_ID)).thenReturn(Optional.empty());
+        when(moveStore.claim(eq(USER_ID), eq(PRIMARY_DATASOURCE), eq("shard-a"), any())).thenReturn(true);
+        givenUnindexedArchives(List.of());
+        givenUserData();
+
+        // When
+        rebalancer.rebalance();
+
+        // Then
+        verify(shardJdbc, times(2)).batchUpdate(startsWith("INSERT INTO chat_sessions"), anyList());
+        verify(shardJdbc, times(2)).batchUpdate(startsWith("INSERT INTO chat_messages"), anyList());
+        verify(moveStore).markMoved(USER_ID, "shard-a");
+        verify(shardJdbc).update(startsWith("UPDATE chat_sessions s SET message_count"), eq(USER_ID));
+        verify(primaryJdbc).update(startsWith("DELETE FROM chat_messages"), eq(sessionId), eq(1000));
+        verify(primaryJdbc).update(startsWith("DELETE FROM chat_sessions"), eq(USER_ID), eq(sessionId));
+        verify(cacheEvictor).evictSession(sessionId);
+        assertEquals(1.0, meterRegistry.counter("ragchat.sharding.moved.users").count());
+    }
+
+    /**
+     * Rebalance when another instance moves the user should leave it alone.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void rebalance_WhenAnotherInstanceMovesUser_ShouldLeaveItAlone() {
+        // Given
+        when(moveStore.find(USER_ID)).thenReturn(Optional.empty());
+        when(moveStore.claim(eq(USER_ID), eq(PRIMARY_DATASOURCE), eq("shard-a"), any())).thenReturn(false);
+        givenUnindexedArchives(List.of());
+
+        // When
+        rebalancer.rebalance();
+
+        // Then
+        verify(shardJdbc, never()).batchUpdate(anyString(), anyList());
+        verify(primaryJdbc, never()).update(anyString(), any(Object[].class));
+        verify(moveStore, never()).markMoved(any(), any());
+    }
+
+    /**
+     * Rebalance when move already finished should only clean up the source.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void rebalance_WhenMoveAlreadyFinished_ShouldOnlyCleanUpSource() {
+        // Given
+        when(moveStore.find(USER_ID))
+                .thenReturn(Optional.of(new ShardMoveStore.Move(PRIMARY_DATASOURCE, "shard-a", true)));
+        givenUserData();
+
+        // When
+        rebalancer.rebalance();
+
+        // Then
+        verify(moveStore, never()).claim(any(), any(), any(), any());
+        verify(shardJdbc, times(1)).batchUpdate(startsWith("INSERT INTO chat_sessions"), anyList());
+        verify(primaryJdbc).update(startsWith("DELETE FROM chat_sessions"), eq(USER_ID), eq(sessionId));
+    }
+
+    /**
+     * Rebalance should delete the source's messages in bounded batches.
+     */
+    @Test
+    void rebalance_ShouldDeleteSourceMessagesInBatches() {
+        // Given
+        properties.getRebalance().setMessageBatchSize(2);
+        when(moveStore.find(USER_ID))
+                .thenReturn(Optional.of(new ShardMoveStore.Move(PRIMARY_DATASOURCE, "shard-a", true)));
+        givenUserData();
+        when(primaryJdbc.update(startsWith("DELETE FROM chat_messages"), any(Object[].class))).thenReturn(2, 1);
+
+        // When
+        rebalancer.rebalance();
+
+        // Then
+        verify(primaryJdbc, times(2)).update(startsWith("DELETE FROM chat_messages"), eq(sessionId), eq(2));
+        verify(primaryJdbc).update(startsWith("DELETE FROM chat_sessions"), eq(USER_ID), eq(sessionId));
+        assertEquals(1.0, meterRegistry.counter("ragchat.sharding.moved.users").count());
+    }
+
+    /**
+     * Rebalance when source replicas lag should keep the user's rows on the source for a later run.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void rebalance_WhenSourceReplicasLag_ShouldKeepRowsForLaterRun() {
+        // Given
+        properties.getRebalance().setMaxThrottleWait(Duration.ZERO);
+        when(moveStore.find(USER_ID))
+                .thenReturn(Optional.of(new ShardMoveStore.Move(PRIMARY_DATASOURCE, "shard-a", true)));
+        givenUserData();
+        when(primaryJdbc.queryForObject(startsWith("SELECT COALESCE"), eq(Double.class))).thenReturn(60.0);
+
+        // When
+        rebalancer.rebalance();
+
+        // Then
+        verify(shardJdbc).batchUpdate(startsWith("INSERT INTO chat_sessions"), anyList());
+        verify(primaryJdbc, never()).update(anyString(), any(Object[].class));
+        assertEquals(0.0, meterRegistry.counter("ragchat.sharding.moved.users").count());
+    }
+
+    /**
+     * Rebalance should copy the chunks referenced from archived sessions, indexing older archives on the source first.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void rebalance_ShouldCopyChunksReferencedFromArchives() {
+        // Given
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        Object[] chunk = {"abc123", "{\"text\":\"chunk\"}", now};
+        Object[] reference = {sessionId, "abc123"};
+        List<String> indexedOn = new ArrayList<>();
+        when(moveStore.find(USER_ID)).thenReturn(Optional.empty());
+        when(moveStore.claim(eq(USER_ID), eq(PRIMARY_DATASOURCE), eq("shard-a"), any())).thenReturn(true);
+        givenUnindexedArchives(List.of(sessionId));
+        when(sessionArchiveService.indexChunkReferences(sessionId)).thenAnswer(invocation -> {
+            indexedOn.add(ShardRoutingContext.currentShard());
+            return true;
+        });
+        givenUserData();
+        sourceRows.put("SELECT hash", List.<Object[]>of(chunk));
+        sourceRows.put("SELECT r.session_id", List.<Object[]>of(reference));
+
+        // When
+        rebalancer.rebalance();
+
+        // Then
+        assertEquals(List.of(PRIMARY_DATASOURCE), indexedOn);
+        verify(primaryJdbc, atLeastOnce()).query(contains("FROM session_archive_chunks"), any(RowMapper.class),
+                eq(USER_ID), eq(USER_ID));
+        verify(shardJdbc, times(2)).batchUpdate(startsWith("INSERT INTO context_chunks"), eq(List.<Object[]>of(chunk)));
+        verify(shardJdbc, times(2)).batchUpdate(startsWith("INSERT INTO session_archive_chunks"),
+                eq(List.<Object[]>of(reference)));
+    }
+
+    /**
+     * Rebalance should skip users on their shard.
+     */
+    @Test
+    void rebalance_ShouldSkipUsersOnTheirShard() {
+        // Given
+        when(shardRouter.targetShardOf(USER_ID)).thenReturn(PRIMARY_DATASOURCE);
+
+        // When
+        rebalancer.rebalance();
+
+        // Then
+        verifyNoInteractions(moveStore);
+    }
+
+    // ---------- Helper Methods ----------
+
+    private void givenUnindexedArchives(List<UUID> sessionIds) {
+        when(primaryJdbc.queryForList(startsWith("SELECT a.session_id"), eq(UUID.class), any(Object[].class)))
+                .thenReturn(sessionIds);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void givenUserData() {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        Object[] session = {sessionId, USER_ID, "Test Session", null, false, "ACTIVE", 1L, now, now, now, 0L};
+        Object[] message = {UUID.randomUUID(), sessionId, "USER", "Hello", null, null, now, now, 0L};
+        sourceRows.put("SELECT id, user_id", List.<Object[]>of(session));
+        sourceRows.put("SELECT id, session_id", List.<Object[]>of(message));
+        // One stubbing for every select, the source's tables are told apart by the statement
+        when(primaryJdbc.query(anyString(), any(RowMapper.class), any(Object[].class))).thenAnswer(invocation -> {
+            String sql = invocation.getArgument(0);
+            return sourceRows.entrySet().stream()
+                    .filter(rows -> sql.startsWith(rows.getKey()))
+                    .map(Map.Entry::getValue)
+                    .findFirst()
+                    .orElse(List.of());
+        });
+        when(primaryJdbc.queryForList(startsWith("SELECT id FROM chat_sessions"), eq(UUID.class), any(Object[].class)))
+                .thenReturn(List.of(sessionId));
+    }
+}
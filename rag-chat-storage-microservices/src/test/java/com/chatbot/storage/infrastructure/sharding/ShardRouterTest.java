@@ -0,0 +1,221 @@
+package com.chatbot.storage.infrastructure.sharding;
+
+import com.chatbot.storage.config.properties.ShardingProperties;
+import com.chatbot.storage.exception.ResourceNotFoundException;
+import com.chatbot.storage.exception.ShardMoveInProgressException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.chatbot.storage.constants.AppConstants.PRIMARY_DATASOURCE;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ *
+ * The type Shard router test.
+ */
+@ExtendWith(MockitoExtension.class)
+class ShardRouterTest {
+
+    @Mock
+    private ShardMoveStore moveStore;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ShardingProperties properties;
+    private ShardRouter shardRouter;
+
+    /**
+     * Sets up a primary and shard-a, rebalancing from a ring of the primary alone.
+     */
+    @BeforeEach
+    void setUp() {
+        ShardingProperties.Shard shard = new ShardingProperties.Shard();
+        shard.setName("shard-a");
+        shard.setUrl("jdbc:postgresql://localhost:5433/chatdb");
+        properties = new ShardingProperties();
+        properties.setEnabled(true);
+        properties.setShards(List.of(shard));
+        properties.setPreviousRing(List.of(PRIMARY_DATASOURCE));
+        shardRouter = new ShardRouter(properties, moveStore, transactionManager);
+    }
+
+    /**
+     * Placement of user staying on its shard should not look up moves.
+     */
+    @Test
+    void placementOf_UserStayingOnItsShard_ShouldNotLookUpMoves() {
+        // Given
+        String userId = userOn(PRIMARY_DATASOURCE);
+
+        // When
+        ShardRouter.Placement placement = shardRouter.placementOf(userId);
+
+        // Then
+        assertEquals(new ShardRouter.Placement(PRIMARY_DATASOURCE, null, false), placement);
+        verifyNoInteractions(moveStore);
+    }
+
+    /**
+     * Placement of user not moved yet should stay on source.
+     */
+    @Test
+    void placementOf_UserNotMovedYet_ShouldStayOnSource() {
+        // Given
+        String userId = userOn("shard-a");
+        when(moveStore.find(userId)).thenReturn(Optional.empty());
+
+        // When
+        ShardRouter.Placement placement = shardRouter.placementOf(userId);
+
+        // Then
+        assertEquals(new ShardRouter.Placement(PRIMARY_DATASOURCE, "shard-a", false), placement);
+    }
+
+    /**
+     * Route write while user is moving should be refused.
+     */
+    @Test
+    void routeWrite_WhileUserIsMoving_ShouldBeRefused() {
+        // Given
+        String userId = userOn("shard-a");
+        when(moveStore.find(userId))
+                .thenReturn(Optional.of(new ShardMoveStore.Move(PRIMARY_DATASOURCE, "shard-a", false)));
+
+        // When / Then
+        assertThrows(ShardMoveInProgressException.class, () -> shardRouter.routeWrite(userId));
+        assertNull(ShardRoutingContext.currentShard());
+    }
+
+    /**
+     * Placement of moved user should use target and remember the move.
+     */
+    @Test
+    void placementOf_MovedUser_ShouldUseTargetAndRememberTheMove() {
+        // Given
+        String userId = userOn("shard-a");
+        when(moveStore.find(userId))
+                .thenReturn(Optional.of(new ShardMoveStore.Move(PRIMARY_DATASOURCE, "shard-a", true)));
+
+        // When
+        shardRouter.placementOf(userId);
+        ShardRouter.Placement placement = shardRouter.placementOf(userId);
+
+        // Then
+        assertEquals(new ShardRouter.Placement("shard-a", PRIMARY_DATASOURCE, false), placement);
+        verify(moveStore, times(1)).find(userId);
+    }
+
+    /**
+     * Read with fallback when missing on owner should read from the other shard.
+     */
+    @Test
+    void readWithFallback_WhenMissingOnOwner_ShouldReadFromOtherShard() {
+        // Given
+        String userId = userOn("shard-a");
+        when(moveStore.find(userId)).thenReturn(Optional.empty());
+        List<String> readOn = new ArrayList<>();
+
+        // When
+        String result = shardRouter.readWithFallback(userId, () -> {
+            readOn.add(String.valueOf(ShardRoutingContext.currentShard()));
+            if (readOn.size() == 1) {
+                throw new ResourceNotFoundException("Session not found");
+            }
+            return "session";
+        });
+
+        // Then
+        assertEquals("session", result);
+        assertEquals(List.of("null", "shard-a"), readOn);
+        assertNull(ShardRoutingContext.currentShard());
+    }
+
+    /**
+     * Read with fallback for user staying on its shard should rethrow.
+     */
+    @Test
+    void readWithFallback_ForUserStayingOnItsShard_ShouldRethrow() {
+        // Given
+        String userId = userOn(PRIMARY_DATASOURCE);
+
+        // When / Then
+        assertThrows(ResourceNotFoundException.class, () -> shardRouter.readWithFallback(userId, () -> {
+            throw new ResourceNotFoundException("Session not found");
+        }));
+        verifyNoInteractions(transactionManager);
+    }
+
+    /**
+     * For each shard should continue after a failing shard.
+     */
+    @Test
+    void forEachShard_ShouldContinueAfterFailingShard() {
+        // Given
+        List<String> visited = new ArrayList<>();
+
+        // When
+        shardRouter.forEachShard(() -> {
+            visited.add(ShardRoutingContext.currentShard());
+            if (visited.size() == 1) {
+                throw new IllegalStateException("shard down");
+            }
+        });
+
+        // Then
+        assertEquals(List.of(PRIMARY_DATASOURCE, "shard-a"), visited);
+        assertNull(ShardRoutingContext.currentShard());
+    }
+
+    /**
+     * For each shard when disabled should run once unrouted.
+     */
+    @Test
+    void forEachShard_WhenDisabled_ShouldRunOnceUnrouted() {
+        // Given
+        ShardRouter disabled = new ShardRouter(new ShardingProperties(), moveStore, transactionManager);
+        AtomicInteger runs = new AtomicInteger();
+
+        // When
+        disabled.forEachShard(() -> {
+            assertNull(ShardRoutingContext.currentShard());
+            runs.incrementAndGet();
+        });
+
+        // Then
+        assertEquals(1, runs.get());
+        assertEquals(PRIMARY_DATASOURCE, disabled.targetShardOf("user123"));
+    }
+
+    /**
+     * Constructor with unknown shard on ring should throw.
+     */
+    @Test
+    void constructor_WithUnknownShardOnRing_ShouldThrow() {
+        // Given
+        properties.setRing(List.of(PRIMARY_DATASOURCE, "shard-b"));
+
+        // When / Then
+        assertThrows(IllegalStateException.class, () -> new ShardRouter(properties, moveStore, transactionManager));
+    }
+
+    // ---------- Helper Methods ----------
+
+    private String userOn(String shard) {
+        for (int i = 0; ; i++) {
+            if (shardRouter.targetShardOf("user-" + i).equals(shard)) {
+                return "user-" + i;
+            }
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.chatbot.storage.infrastructure.sharding;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+
+import static com.chatbot.storage.constants.AppConstants.PRIMARY_DATASOURCE;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ *
+ * The type Shard routing data source test.
+ */
+@ExtendWith(MockitoExtension.class)
+class ShardRoutingDataSourceTest {
+
+    @Mock
+    private DataSource primary;
+
+    @Mock
+    private DataSource shardA;
+
+    @Mock
+    private Connection primaryConnection;
+
+    @Mock
+    private Connection shardConnection;
+
+    private ShardRoutingDataSource routingDataSource;
+
+    /**
+     * Sets up.
+     */
+    @BeforeEach
+    void setUp() {
+        routingDataSource = new ShardRoutingDataSource(Map.of(PRIMARY_DATASOURCE, primary, "shard-a", shardA));
+        routingDataSource.afterPropertiesSet();
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    /**
+     * Tear down.
+     */
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(synchronization -> synchronization.afterCompletion(0));
+        TransactionSynchronizationManager.clear();
+    }
+
+    /**
+     * Unrouted connection should use primary.
+     */
+    @Test
+    void unroutedConnection_ShouldUsePrimary() throws SQLException {
+        // Given
+        when(primary.getConnection()).thenReturn(primaryConnection);
+
+        // When
+        Connection connection = routingDataSource.getConnection();
+
+        // Then
+        assertSame(primaryConnection, connection);
+        verifyNoInteractions(shardA);
+    }
+
+    /**
+     * Routed transaction should use its shard until it completes.
+     */
+    @Test
+    void routedTransaction_ShouldUseItsShardUntilItCompletes() throws SQLException {
+        // Given
+        when(shardA.getConnection()).thenReturn(shardConnection);
+        ShardRoutingContext.bindToTransaction("shard-a");
+
+        // When
+        Connection connection = routingDataSource.getConnection();
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(synchronization -> synchronization.afterCompletion(0));
+
+        // Then
+        assertSame(shardConnection, connection);
+        assertNull(ShardRoutingContext.currentShard());
+    }
+
+    /**
+     * Bind to transaction when routed elsewhere should throw.
+     */
+    @Test
+    void bindToTransaction_WhenRoutedElsewhere_ShouldThrow() {
+        // Given
+        ShardRoutingContext.bindToTransaction("shard-a");
+
+        // When / Then
+        assertDoesNotThrow(() -> ShardRoutingContext.bindToTransaction("shard-a"));
+        assertThrows(IllegalStateException.class, () -> ShardRoutingContext.bindToTransaction(PRIMARY_DATASOURCE));
+    }
+
+    /**
+     * Call on should restore the previous shard.
+     */
+    @Test
+    void callOn_ShouldRestorePreviousShard() throws SQLException {
+        // Given
+        when(shardA.getConnection()).thenReturn(shardConnection);
+
+        // When
+        Connection connection = ShardRoutingContext.callOn("shard-a", () -> {
+            try {
+                return routingDataSource.getConnection();
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        // Then
+        assertSame(shardConnection, connection);
+        assertNull(ShardRoutingContext.currentShard());
+    }
+
+    /**
+     * Unknown shard should not fall back to primary.
+     */
+    @Test
+    void unknownShard_ShouldNotFallBackToPrimary() {
+        // When / Then
+        assertThrows(IllegalStateException.class,
+                () -> ShardRoutingContext.runOn("shard-x", () -> {
+                    try {
+                        routingDataSource.getConnection();
+                    } catch (SQLException e) {
+                        throw new IllegalStateException(e);
+                    }
+                }));
+        verifyNoInteractions(primary);
+    }
+}
@@ -0,0 +1,146 @@
+package com.chatbot.storage.infrastructure.stream;
+
+import com.chatbot.storage.config.properties.StreamingProperties;
+import com.chatbot.storage.dto.response.MessageResponse;
+import com.chatbot.storage.enums.MessageSender;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ *
+ * The type Session message broadcaster test.
+ */
+@ExtendWith(MockitoExtension.class)
+class SessionMessageBroadcasterTest {
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private RedisMessageListenerContainer listenerContainer;
+
+    @Mock
+    private SessionSubscriptions subscriptions;
+
+    private StreamingProperties properties;
+    private SessionMessageBroadcaster broadcaster;
+    private MessageResponse message;
+
+    /**
+     * Sets up.
+     */
+    @BeforeEach
+    void setUp() {
+        properties = new StreamingProperties();
+        broadcaster = new SessionMessageBroadcaster(redisTemplate, listenerContainer,
+                new ObjectMapper().findAndRegisterModules(), subscriptions, properties);
+        message = MessageResponse.builder()
+                .id(UUID.randomUUID())
+                .sessionId(UUID.randomUUID())
+                .senderType(MessageSender.ASSISTANT)
+                .content("Hello!")
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+
+    /**
+     * Tear down.
+     */
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    /**
+     * Publish outside a transaction should deliver locally and broadcast.
+     */
+    @Test
+    void publish_OutsideATransaction_ShouldDeliverLocallyAndBroadcast() {
+        // When
+        broadcaster.publish(message);
+
+        // Then
+        verify(subscriptions).deliver(message);
+        ArgumentCaptor<String> payload = ArgumentCaptor.forClass(String.class);
+        verify(redisTemplate).convertAndSend(eq(properties.getChannel()), payload.capture());
+        assertTrue(payload.getValue().contains(message.getId().toString()));
+    }
+
+    /**
+     * Publish in a transaction should wait for the commit.
+     */
+    @Test
+    void publish_InATransaction_ShouldWaitForTheCommit() {
+        // Given
+        TransactionSynchronizationManager.initSynchronization();
+
+        // When
+        broadcaster.publish(message);
+
+        // Then
+        verifyNoInteractions(subscriptions, redisTemplate);
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        verify(subscriptions).deliver(message);
+        verify(redisTemplate).convertAndSend(eq(properties.getChannel()), anyString());
+    }
+
+    /**
+     * On message from another instance should deliver locally.
+     */
+    @Test
+    void onMessage_FromAnotherInstance_ShouldDeliverLocally() throws Exception {
+        // Given
+        String payload = "other-node|" + new ObjectMapper().findAndRegisterModules().writeValueAsString(message);
+
+        // When
+        broadcaster.onMessage(redisMessage(payload), null);
+
+        // Then
+        verify(subscriptions).deliver(message);
+    }
+
+    /**
+     * On message from this instance should be ignored.
+     */
+    @Test
+    void onMessage_FromThisInstance_ShouldBeIgnored() {
+        // Given
+        broadcaster.publish(message);
+        ArgumentCaptor<String> payload = ArgumentCaptor.forClass(String.class);
+        verify(redisTemplate).convertAndSend(eq(properties.getChannel()), payload.capture());
+
+        // When
+        broadcaster.onMessage(redisMessage(payload.getValue()), null);
+
+        // Then
+        verify(subscriptions, times(1)).deliver(any());
+    }
+
+    // ---------- Helper Methods ----------
+
+    private DefaultMessage redisMessage(String payload) {
+        return new DefaultMessage(properties.getChannel().getBytes(StandardCharsets.UTF_8),
+                payload.getBytes(StandardCharsets.UTF_8));
+    }
+}
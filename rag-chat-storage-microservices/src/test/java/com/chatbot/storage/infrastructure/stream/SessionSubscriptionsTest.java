@@ -0,0 +1,142 @@
+package com.chatbot.storage.infrastructure.stream;
+
+import com.chatbot.storage.config.properties.StreamingProperties;
+import com.chatbot.storage.dto.response.MessageResponse;
+import com.chatbot.storage.enums.MessageSender;
+import com.chatbot.storage.exception.StreamLimitExceededException;
+import com.chatbot.storage.exception.ValidationException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ * The type Session subscriptions test.
+ */
+class SessionSubscriptionsTest {
+
+    private StreamingProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+    private SessionSubscriptions subscriptions;
+    private UUID sessionId;
+
+    /**
+     * Sets up.
+     */
+    @BeforeEach
+    void setUp() {
+        properties = new StreamingProperties();
+        properties.setEnabled(true);
+        properties.setHeartbeatInterval(Duration.ofMinutes(1));
+        meterRegistry = new SimpleMeterRegistry();
+        subscriptions = new SessionSubscriptions(properties, meterRegistry);
+        sessionId = UUID.randomUUID();
+    }
+
+    /**
+     * Tear down.
+     */
+    @AfterEach
+    void tearDown() {
+        subscriptions.closeAll();
+    }
+
+    /**
+     * Subscribe when disabled should be rejected.
+     */
+    @Test
+    void subscribe_WhenDisabled_ShouldBeRejected() {
+        // Given
+        properties.setEnabled(false);
+
+        // When / Then
+        assertThrows(ValidationException.class, () -> subscriptions.subscribe(sessionId));
+        assertEquals(0, subscriptions.getSubscriberCount());
+    }
+
+    /**
+     * Subscribe beyond the limit should be refused.
+     */
+    @Test
+    void subscribe_BeyondTheLimit_ShouldBeRefused() {
+        // Given
+        properties.setMaxSubscribers(1);
+        subscriptions.subscribe(sessionId);
+
+        // When / Then
+        assertThrows(StreamLimitExceededException.class, () -> subscriptions.subscribe(UUID.randomUUID()));
+        assertEquals(1, subscriptions.getSubscriberCount());
+    }
+
+    /**
+     * Deliver to a stream that falls behind should count one overflow.
+     */
+    @Test
+    void deliver_ToAStreamThatFallsBehind_ShouldCountOneOverflow() {
+        // Given
+        properties.setBufferSize(1);
+        subscriptions.subscribe(sessionId);
+
+        // When
+        for (int i = 0; i < 1000; i++) {
+            subscriptions.deliver(message(sessionId));
+        }
+
+        // Then
+        assertEquals(1.0, meterRegistry.counter("ragchat.stream.overflows").count());
+    }
+
+    /**
+     * Deliver to another session should not reach the stream.
+     */
+    @Test
+    void deliver_ToAnotherSession_ShouldNotReachTheStream() {
+        // Given
+        properties.setBufferSize(1);
+        subscriptions.subscribe(sessionId);
+
+        // When
+        for (int i = 0; i < 1000; i++) {
+            subscriptions.deliver(message(UUID.randomUUID()));
+        }
+
+        // Then
+        assertEquals(0.0, meterRegistry.counter("ragchat.stream.overflows").count());
+    }
+
+    /**
+     * Close all should release every stream.
+     */
+    @Test
+    void closeAll_ShouldReleaseEveryStream() {
+        // Given
+        subscriptions.subscribe(sessionId);
+        subscriptions.subscribe(sessionId);
+
+        // When
+        subscriptions.closeAll();
+
+        // Then
+        assertEquals(0, subscriptions.getSubscriberCount());
+        assertEquals(0.0, meterRegistry.get("ragchat.stream.subscribers").gauge().value());
+    }
+
+    // ---------- Helper Methods ----------
+
+    private static MessageResponse message(UUID sessionId) {
+        return MessageResponse.builder()
+                .id(UUID.randomUUID())
+                .sessionId(sessionId)
+                .senderType(MessageSender.ASSISTANT)
+                .content("Hello!")
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+}
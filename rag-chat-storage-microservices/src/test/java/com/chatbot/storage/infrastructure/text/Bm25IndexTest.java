@@ -0,0 +1,57 @@
+package com.chatbot.storage.infrastructure.text;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ * The type Bm25 index test.
+ */
+class Bm25IndexTest {
+
+    /**
+     * Search should rank rarer matching terms higher.
+     */
+    @Test
+    void search_ShouldRankRarerMatchingTermsHigher() {
+        // Given
+        Bm25Index index = new Bm25Index();
+        index.add("How do I configure the database connection pool?");
+        index.add("What is the weather like today?");
+        index.add("The database stores every chat message.");
+        index.add("Tell me about the weather in Paris.");
+
+        // When
+        List<Bm25Index.ScoredDocument> results = index.search("database connection pool", 10);
+
+        // Then
+        assertEquals(2, results.size());
+        assertEquals(0, results.get(0).document());
+        assertEquals(2, results.get(1).document());
+        assertTrue(results.get(0).score() > results.get(1).score());
+    }
+
+    /**
+     * Search should respect the limit and skip non matching documents.
+     */
+    @Test
+    void search_ShouldRespectLimitAndSkipNonMatchingDocuments() {
+        // Given
+        Bm25Index index = new Bm25Index();
+        for (int i = 0; i < 20; i++) {
+            index.add("message number " + i + (i % 2 == 0 ? " about vectors" : ""));
+        }
+
+        // When
+        List<Bm25Index.ScoredDocument> results = index.search("Vectors!", 3);
+
+        // Then
+        assertEquals(3, results.size());
+        results.forEach(result -> assertEquals(0, result.document() % 2));
+        assertTrue(index.search("unknown", 3).isEmpty());
+        assertEquals(20, index.size());
+    }
+}
@@ -0,0 +1,57 @@
+package com.chatbot.storage.infrastructure.text;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ * The type Rank fusion test.
+ */
+class RankFusionTest {
+
+    /**
+     * Fuse should favour results ranked by both rankers.
+     */
+    @Test
+    void fuse_ShouldFavourResultsRankedByBothRankers() {
+        // Given
+        UUID both = UUID.randomUUID();
+        UUID lexicalOnly = UUID.randomUUID();
+        UUID vectorOnly = UUID.randomUUID();
+
+        // When
+        List<RankFusion.Fused> results = RankFusion.fuse(
+                List.of(lexicalOnly, both), List.of(vectorOnly, both), 60, 10);
+
+        // Then
+        assertEquals(3, results.size());
+        RankFusion.Fused first = results.get(0);
+        assertEquals(both, first.id());
+        assertEquals(2, first.lexicalRank());
+        assertEquals(2, first.vectorRank());
+        assertEquals(2f / 62, first.score(), 1e-6);
+        assertNull(results.stream().filter(result -> result.id().equals(lexicalOnly))
+                .findFirst().orElseThrow().vectorRank());
+    }
+
+    /**
+     * Fuse should respect the limit.
+     */
+    @Test
+    void fuse_ShouldRespectLimit() {
+        // Given
+        List<UUID> lexical = List.of(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID());
+
+        // When
+        List<RankFusion.Fused> results = RankFusion.fuse(lexical, List.of(), 60, 2);
+
+        // Then
+        assertEquals(2, results.size());
+        assertEquals(lexical.get(0), results.get(0).id());
+        assertEquals(lexical.get(1), results.get(1).id());
+    }
+}
@@ -0,0 +1,64 @@
+package com.chatbot.storage.infrastructure.vector;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ * The type Hashing embedder test.
+ */
+class HashingEmbedderTest {
+
+    private final HashingEmbedder embedder = new HashingEmbedder(256);
+
+    /**
+     * Embed should be deterministic and unit length.
+     */
+    @Test
+    void embed_ShouldBeDeterministicAndUnitLength() {
+        // When
+        float[] first = embedder.embed("How do I rotate the API key?");
+        float[] second = embedder.embed("how do i rotate the api key");
+
+        // Then
+        assertArrayEquals(first, second);
+        assertEquals(1.0, dot(first, first), 1e-5);
+    }
+
+    /**
+     * Embed should score overlapping text higher.
+     */
+    @Test
+    void embed_ShouldScoreOverlappingTextHigher() {
+        // Given
+        float[] query = embedder.embed("rotate the api key");
+
+        // When
+        double related = dot(query, embedder.embed("Steps to rotate an API key safely"));
+        double unrelated = dot(query, embedder.embed("Vacation policy for the summer"));
+
+        // Then
+        assertTrue(related > unrelated);
+    }
+
+    /**
+     * Embed without tokens should return zero vector.
+     */
+    @Test
+    void embed_WithoutTokens_ShouldReturnZeroVector() {
+        // When
+        float[] vector = embedder.embed(" ?! ");
+
+        // Then
+        assertEquals(0.0, dot(vector, vector));
+    }
+
+    private static double dot(float[] a, float[] b) {
+        double sum = 0;
+        for (int i = 0; i < a.length; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+}
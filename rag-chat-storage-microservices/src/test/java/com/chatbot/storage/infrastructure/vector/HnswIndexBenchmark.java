@@ -0,0 +1,92 @@
+package com.chatbot.storage.infrastructure.vector;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static com.chatbot.storage.infrastructure.vector.HnswIndexTest.K;
+import static com.chatbot.storage.infrastructure.vector.HnswIndexTest.normalize;
+import static com.chatbot.storage.infrastructure.vector.HnswIndexTest.randomVectors;
+import static com.chatbot.storage.infrastructure.vector.HnswIndexTest.recallAtK;
+
+/**
+ *
+ * Recall and latency benchmark of the HNSW index, kept out of the test suite. Builds an
+ * index over clustered vectors, which resemble text embeddings far better than isotropic
+ * noise, and reports recall@10 against brute force with p50/p99 search latency per ef.
+ * <p>
+ * Usage: mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.chatbot.storage.infrastructure.vector.HnswIndexBenchmark
+ * -Dexec.args="[vectors] [dimensions]"
+ */
+public final class HnswIndexBenchmark {
+
+    private static final int[] EF_VALUES = {16, 32, 64, 128, 256};
+    private static final int CENTROIDS = 500;
+    private static final int QUERIES = 200;
+    // Searches run before measuring, so that the JIT has compiled the search path
+    private static final int WARMUP_SEARCHES = 2000;
+
+    private HnswIndexBenchmark() {
+    }
+
+    /**
+     * Run the benchmark.
+     *
+     * @param args the number of vectors and their dimensions, 50000 and 256 by default
+     */
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 50_000;
+        int dimensions = args.length > 1 ? Integer.parseInt(args[1]) : 256;
+        Random random = new Random(11);
+        List<float[]> centroids = randomVectors(random, CENTROIDS, dimensions);
+        List<float[]> vectors = clusteredVectors(random, centroids, count);
+        List<UUID> ids = new ArrayList<>(count);
+        HnswIndex index = new HnswIndex(dimensions, 16, 200, 7);
+
+        long buildStart = System.nanoTime();
+        for (float[] vector : vectors) {
+            UUID id = UUID.randomUUID();
+            ids.add(id);
+            index.add(id, vector);
+        }
+        long buildMillis = (System.nanoTime() - buildStart) / 1_000_000;
+        System.out.printf("n=%d dim=%d build=%dms%n", count, dimensions, buildMillis);
+
+        List<float[]> warmup = clusteredVectors(random, centroids, QUERIES);
+        for (int i = 0; i < WARMUP_SEARCHES; i++) {
+            index.search(warmup.get(i % warmup.size()), K, EF_VALUES[i % EF_VALUES.length]);
+        }
+
+        List<float[]> queries = clusteredVectors(random, centroids, QUERIES);
+        for (int ef : EF_VALUES) {
+            long[] latencies = new long[queries.size()];
+            for (int i = 0; i < queries.size(); i++) {
+                long start = System.nanoTime();
+                index.search(queries.get(i), K, ef);
+                latencies[i] = System.nanoTime() - start;
+            }
+            Arrays.sort(latencies);
+            System.out.printf("ef=%d recall@%d=%.3f p50=%.2fms p99=%.2fms%n",
+                    ef, K, recallAtK(index, vectors, ids, queries, ef),
+                    latencies[latencies.length / 2] / 1e6, latencies[latencies.length * 99 / 100] / 1e6);
+        }
+    }
+
+    // ---------- Helper Methods ----------
+
+    private static List<float[]> clusteredVectors(Random random, List<float[]> centroids, int count) {
+        List<float[]> vectors = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            float[] centroid = centroids.get(random.nextInt(centroids.size()));
+            float[] vector = new float[centroid.length];
+            for (int d = 0; d < vector.length; d++) {
+                vector[d] = centroid[d] + (float) (random.nextGaussian() * 0.08);
+            }
+            vectors.add(normalize(vector));
+        }
+        return vectors;
+    }
+}
@@ -0,0 +1,156 @@
+package com.chatbot.storage.infrastructure.vector;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ * The type Hnsw index test.
+ */
+class HnswIndexTest {
+
+    private static final int DIMENSIONS = 32;
+    static final int K = 10;
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Search should find most true nearest neighbours.
+     */
+    @Test
+    void search_ShouldFindMostTrueNearestNeighbours() {
+        // Given
+        Random random = new Random(42);
+        List<float[]> vectors = randomVectors(random, 2000, DIMENSIONS);
+        List<UUID> ids = new ArrayList<>();
+        HnswIndex index = new HnswIndex(DIMENSIONS, 16, 200, 7);
+        for (float[] vector : vectors) {
+            UUID id = UUID.randomUUID();
+            ids.add(id);
+            index.add(id, vector);
+        }
+
+        // When
+        double recall = recallAtK(index, vectors, ids, randomVectors(random, 100, DIMENSIONS), 64);
+
+        // Then
+        assertTrue(recall >= 0.95, "recall@10 was " + recall);
+    }
+
+    /**
+     * Add should ignore ids that are already indexed.
+     */
+    @Test
+    void add_ShouldIgnoreDuplicateIds() {
+        // Given
+        HnswIndex index = new HnswIndex(DIMENSIONS, 16, 200, 7);
+        UUID id = UUID.randomUUID();
+        float[] vector = randomVectors(new Random(1), 1, DIMENSIONS).get(0);
+
+        // When
+        boolean first = index.add(id, vector);
+        boolean second = index.add(id, vector);
+
+        // Then
+        assertTrue(first);
+        assertFalse(second);
+        assertEquals(1, index.size());
+        assertEquals(id, index.search(vector, 1, 10).get(0).id());
+    }
+
+    /**
+     * Snapshot should round trip graph and header.
+     */
+    @Test
+    void snapshot_ShouldRoundTripGraphAndHeader() throws Exception {
+        // Given
+        Random random = new Random(3);
+        HnswIndex index = new HnswIndex(DIMENSIONS, 8, 100, 7);
+        for (float[] vector : randomVectors(random, 500, DIMENSIONS)) {
+            index.add(UUID.randomUUID(), vector);
+        }
+        float[] query = randomVectors(random, 1, DIMENSIONS).get(0);
+        Path file = tempDir.resolve("user.hnsw");
+
+        // When
+        index.writeSnapshot(file, "user123".getBytes(StandardCharsets.UTF_8));
+        HnswIndex.Snapshot snapshot = HnswIndex.readSnapshot(file);
+
+        // Then
+        assertEquals("user123", new String(snapshot.header(), StandardCharsets.UTF_8));
+        assertEquals(index.size(), snapshot.index().size());
+        assertEquals(index.search(query, K, 64), snapshot.index().search(query, K, 64));
+        assertTrue(snapshot.index().add(UUID.randomUUID(), query));
+    }
+
+    // ---------- Helper Methods ----------
+
+    // Shared with HnswIndexBenchmark
+    static double recallAtK(HnswIndex index, List<float[]> vectors, List<UUID> ids,
+                                    List<float[]> queries, int ef) {
+        int found = 0;
+        for (float[] query : queries) {
+            Set<UUID> expected = new HashSet<>(bruteForce(vectors, ids, query));
+            for (HnswIndex.Neighbor neighbor : index.search(query, K, ef)) {
+                if (expected.contains(neighbor.id())) {
+                    found++;
+                }
+            }
+        }
+        return (double) found / (queries.size() * K);
+    }
+
+    private static List<UUID> bruteForce(List<float[]> vectors, List<UUID> ids, float[] query) {
+        Integer[] order = new Integer[vectors.size()];
+        float[] scores = new float[vectors.size()];
+        for (int i = 0; i < vectors.size(); i++) {
+            order[i] = i;
+            for (int d = 0; d < query.length; d++) {
+                scores[i] += query[d] * vectors.get(i)[d];
+            }
+        }
+        Arrays.sort(order, Comparator.comparingDouble((Integer i) -> scores[i]).reversed());
+        List<UUID> nearest = new ArrayList<>(K);
+        for (int i = 0; i < K; i++) {
+            nearest.add(ids.get(order[i]));
+        }
+        return nearest;
+    }
+
+    static List<float[]> randomVectors(Random random, int count, int dimensions) {
+        List<float[]> vectors = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            float[] vector = new float[dimensions];
+            for (int d = 0; d < dimensions; d++) {
+                vector[d] = (float) random.nextGaussian();
+            }
+            vectors.add(normalize(vector));
+        }
+        return vectors;
+    }
+
+    static float[] normalize(float[] vector) {
+        double norm = 0;
+        for (float value : vector) {
+            norm += value * value;
+        }
+        for (int d = 0; d < vector.length; d++) {
+            vector[d] /= (float) Math.sqrt(norm);
+        }
+        return vector;
+    }
+}
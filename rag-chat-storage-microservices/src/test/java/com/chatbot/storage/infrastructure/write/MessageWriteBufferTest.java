@@ -0,0 +1,178 @@
+package com.chatbot.storage.infrastructure.write;
+
+import com.chatbot.storage.config.properties.WriteBufferProperties;
+import com.chatbot.storage.enums.MessageSender;
+import com.chatbot.storage.infrastructure.cache.SecondLevelCacheEvictor;
+import com.chatbot.storage.infrastructure.outbox.OutboxWriter;
+import com.chatbot.storage.infrastructure.stream.SessionMessageBroadcaster;
+import com.chatbot.storage.infrastructure.sync.SyncChangeWriter;
+import com.chatbot.storage.infrastructure.text.LexicalIndexService;
+import com.chatbot.storage.repository.SessionAggregateRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ *
+ * The type Message write buffer test.
+ */
+@ExtendWith(MockitoExtension.class)
+class MessageWriteBufferTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private SessionAggregateRepository sessionAggregateRepository;
+
+    @Mock
+    private SecondLevelCacheEvictor cacheEvictor;
+
+    @Mock
+    private OutboxWriter outboxWriter;
+
+    @Mock
+    private SyncChangeWriter syncChangeWriter;
+
+    @Mock
+    private ObjectProvider<LexicalIndexService> lexicalIndexServiceProvider;
+
+    @Mock
+    private ObjectProvider<SessionMessageBroadcaster> messageBroadcasterProvider;
+
+    private MessageWriteBuffer writeBuffer;
+    private UUID sessionId;
+
+    /**
+     * Sets up.
+     */
+    @BeforeEach
+    void setUp() {
+        WriteBufferProperties properties = new WriteBufferProperties();
+        // Wide enough that every message offered by a test lands in one batch
+        properties.setMaxDelay(Duration.ofMillis(200));
+        writeBuffer = new MessageWriteBuffer(jdbcTemplate, transactionManager, sessionAggregateRepository,
+                cacheEvictor, outboxWriter, syncChangeWriter, lexicalIndexServiceProvider, messageBroadcasterProvider,
+                new ObjectMapper(), properties, new SimpleMeterRegistry());
+        writeBuffer.start();
+        sessionId = UUID.randomUUID();
+    }
+
+    /**
+     * Tear down.
+     */
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        writeBuffer.stop();
+    }
+
+    /**
+     * Offered messages should be written with one multi row insert.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void offer_ShouldWriteMessagesWithOneMultiRowInsert() throws Exception {
+        // Given
+        List<CompletableFuture<Void>> writes = new ArrayList<>();
+
+        // When
+        for (int i = 0; i < 10; i++) {
+            CompletableFuture<Void> committed = new CompletableFuture<>();
+            assertTrue(writeBuffer.offer("user123", row(UUID.randomUUID()), committed));
+            writes.add(committed);
+        }
+        for (CompletableFuture<Void> committed : writes) {
+            committed.get(5, TimeUnit.SECONDS);
+        }
+
+        // Then
+        ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+        verify(jdbcTemplate).update(startsWith("INSERT INTO chat_messages"), args.capture());
+        assertEquals(10 * 8, args.getValue().length);
+        ArgumentCaptor<List<SessionAggregateRepository.Appends>> appends = ArgumentCaptor.forClass(List.class);
+        verify(sessionAggregateRepository).recordAppends(appends.capture());
+        assertEquals(1, appends.getValue().size());
+        assertEquals(10, appends.getValue().get(0).count());
+        ArgumentCaptor<List<OutboxWriter.PendingEvent>> events = ArgumentCaptor.forClass(List.class);
+        verify(outboxWriter).appendAll(events.capture());
+        assertEquals(10, events.getValue().size());
+        ArgumentCaptor<List<SyncChangeWriter.Change>> changes = ArgumentCaptor.forClass(List.class);
+        verify(syncChangeWriter).recordAll(changes.capture());
+        assertEquals(10, changes.getValue().size());
+        verify(transactionManager, times(1)).commit(any());
+    }
+
+    /**
+     * A failing batch should be retried row by row so only the bad row fails.
+     */
+    @Test
+    void offer_WhenBatchFails_ShouldFailOnlyTheBadRow() throws Exception {
+        // Given
+        UUID badId = UUID.randomUUID();
+        when(jdbcTemplate.update(startsWith("INSERT INTO chat_messages"), any(Object[].class))).thenAnswer(invocation -> {
+            Object[] args = invocation.getArgument(1);
+            if (args.length > 8 || badId.equals(args[0])) {
+                throw new DataIntegrityViolationException("insert failed");
+            }
+            return 1;
+        });
+        CompletableFuture<Void> good = new CompletableFuture<>();
+        CompletableFuture<Void> bad = new CompletableFuture<>();
+
+        // When
+        writeBuffer.offer("user123", row(UUID.randomUUID()), good);
+        writeBuffer.offer("user123", row(badId), bad);
+
+        // Then
+        good.get(5, TimeUnit.SECONDS);
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> bad.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(DataIntegrityViolationException.class, failure.getCause());
+    }
+
+    /**
+     * Offer after stop should be refused.
+     */
+    @Test
+    void offer_AfterStop_ShouldBeRefused() throws InterruptedException {
+        // Given
+        writeBuffer.stop();
+
+        // When
+        boolean accepted = writeBuffer.offer("user123", row(UUID.randomUUID()), new CompletableFuture<>());
+
+        // Then
+        assertFalse(accepted);
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    private MessageWriteBuffer.MessageRow row(UUID id) {
+        return new MessageWriteBuffer.MessageRow(id, sessionId, MessageSender.USER, "Hello, world!",
+                null, null, LocalDateTime.now());
+    }
+}
@@ -4,6 +4,7 @@ import com.chatbot.storage.dto.request.CreateSessionRequest;
 import com.chatbot.storage.dto.response.MessageResponse;
 import com.chatbot.storage.dto.response.SessionResponse;
 import com.chatbot.storage.enums.MessageSender;
+import com.chatbot.storage.infrastructure.idempotency.IdempotencyService;
 import com.chatbot.storage.llm.model.LlmStatusResponse;
 import com.chatbot.storage.llm.service.LLMIntegrationService;
 import com.chatbot.storage.service.ChatMessageService;
@@ -22,6 +23,8 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -43,6 +46,9 @@ class DemoChatControllerTest {
     @Mock
     private ChatMessageService chatMessageService;
 
+    @Mock
+    private IdempotencyService idempotencyService;
+
     @InjectMocks
     private ChatController demoChatController;
 
@@ -60,6 +66,8 @@ class DemoChatControllerTest {
      */
     @BeforeEach
     void setUp() {
+        lenient().when(idempotencyService.execute(any(), any(), any(), any(), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(4).get());
         sessionId = UUID.randomUUID();
         userId = "demo-user-123";
         userMessage = "What is machine learning?";
@@ -108,15 +116,15 @@ class DemoChatControllerTest {
         // Given
         when(chatMessageService.getAllSessionMessages(sessionId, userId))
                 .thenReturn(conversationHistory);
-        when(chatMessageService.addMessage(sessionId, userId, MessageSender.USER, userMessage))
-                .thenReturn(userMessageResponse);
+        when(chatMessageService.appendMessage(sessionId, userId, MessageSender.USER, userMessage))
+                .thenReturn(CompletableFuture.completedFuture(userMessageResponse));
         when(llmIntegrationService.processMessageWithContext(userMessage, conversationHistory))
                 .thenReturn(aiResponse);
-        when(chatMessageService.addMessage(sessionId, userId, MessageSender.ASSISTANT, aiResponse))
-                .thenReturn(aiMessageResponse);
+        when(chatMessageService.appendMessage(sessionId, userId, MessageSender.ASSISTANT, aiResponse))
+                .thenReturn(CompletableFuture.completedFuture(aiMessageResponse));
 
         // When
-        ResponseEntity<MessageResponse> result = demoChatController.chatWithSession(sessionId, userId, userMessage);
+        ResponseEntity<MessageResponse> result = demoChatController.chatWithSession(sessionId, userId, userMessage, null);
 
         // Then
         assertEquals(HttpStatus.OK, result.getStatusCode());
@@ -127,9 +135,9 @@ class DemoChatControllerTest {
 
         // Verify the correct sequence of calls
         verify(chatMessageService).getAllSessionMessages(sessionId, userId);
-        verify(chatMessageService).addMessage(sessionId, userId, MessageSender.USER, userMessage);
+        verify(chatMessageService).appendMessage(sessionId, userId, MessageSender.USER, userMessage);
         verify(llmIntegrationService).processMessageWithContext(userMessage, conversationHistory);
-        verify(chatMessageService).addMessage(sessionId, userId, MessageSender.ASSISTANT, aiResponse);
+        verify(chatMessageService).appendMessage(sessionId, userId, MessageSender.ASSISTANT, aiResponse);
     }
 
     /**
@@ -141,15 +149,15 @@ class DemoChatControllerTest {
         List<MessageResponse> emptyHistory = new ArrayList<>();
         when(chatMessageService.getAllSessionMessages(sessionId, userId))
                 .thenReturn(emptyHistory);
-        when(chatMessageService.addMessage(sessionId, userId, MessageSender.USER, userMessage))
-                .thenReturn(userMessageResponse);
+        when(chatMessageService.appendMessage(sessionId, userId, MessageSender.USER, userMessage))
+                .thenReturn(CompletableFuture.completedFuture(userMessageResponse));
         when(llmIntegrationService.processMessageWithContext(userMessage, emptyHistory))
                 .thenReturn(aiResponse);
-        when(chatMessageService.addMessage(sessionId, userId, MessageSender.ASSISTANT, aiResponse))
-                .thenReturn(aiMessageResponse);
+        when(chatMessageService.appendMessage(sessionId, userId, MessageSender.ASSISTANT, aiResponse))
+                .thenReturn(CompletableFuture.completedFuture(aiMessageResponse));
 
         // When
-        ResponseEntity<MessageResponse> result = demoChatController.chatWithSession(sessionId, userId, userMessage);
+        ResponseEntity<MessageResponse> result = demoChatController.chatWithSession(sessionId, userId, userMessage, null);
 
         // Then
         assertEquals(HttpStatus.OK, result.getStatusCode());
@@ -165,20 +173,20 @@ class DemoChatControllerTest {
         String errorResponse = "Sorry, I'm having trouble processing your request.";
         when(chatMessageService.getAllSessionMessages(sessionId, userId))
                 .thenReturn(conversationHistory);
-        when(chatMessageService.addMessage(sessionId, userId, MessageSender.USER, userMessage))
-                .thenReturn(userMessageResponse);
+        when(chatMessageService.appendMessage(sessionId, userId, MessageSender.USER, userMessage))
+                .thenReturn(CompletableFuture.completedFuture(userMessageResponse));
         when(llmIntegrationService.processMessageWithContext(userMessage, conversationHistory))
                 .thenReturn(errorResponse);
-        when(chatMessageService.addMessage(sessionId, userId, MessageSender.ASSISTANT, errorResponse))
-                .thenReturn(aiMessageResponse);
+        when(chatMessageService.appendMessage(sessionId, userId, MessageSender.ASSISTANT, errorResponse))
+                .thenReturn(CompletableFuture.completedFuture(aiMessageResponse));
 
         // When
-        ResponseEntity<MessageResponse> result = demoChatController.chatWithSession(sessionId, userId, userMessage);
+        ResponseEntity<MessageResponse> result = demoChatController.chatWithSession(sessionId, userId, userMessage, null);
 
         // Then
         assertEquals(HttpStatus.OK, result.getStatusCode());
         verify(chatMessageService).getAllSessionMessages(sessionId, userId);
-        verify(chatMessageService, times(2)).addMessage(eq(sessionId), eq(userId), any(MessageSender.class), anyString());
+        verify(chatMessageService, times(2)).appendMessage(eq(sessionId), eq(userId), any(MessageSender.class), anyString());
         verify(llmIntegrationService).processMessageWithContext(userMessage, conversationHistory);
     }
 
@@ -199,7 +207,7 @@ class DemoChatControllerTest {
                 .thenReturn(aiMessageResponse);
 
         // When
-        ResponseEntity<SessionResponse> result = demoChatController.startNewChat(userId, userMessage, title);
+        ResponseEntity<SessionResponse> result = demoChatController.startNewChat(userId, userMessage, title, null);
 
         // Then
         assertEquals(HttpStatus.OK, result.getStatusCode());
@@ -228,7 +236,7 @@ class DemoChatControllerTest {
                 .thenReturn(aiMessageResponse);
 
         // When
-        ResponseEntity<SessionResponse> result = demoChatController.startNewChat(userId, userMessage, null);
+        ResponseEntity<SessionResponse> result = demoChatController.startNewChat(userId, userMessage, null, null);
 
         // Then
         assertEquals(HttpStatus.OK, result.getStatusCode());
@@ -292,7 +300,7 @@ class DemoChatControllerTest {
 
         // When & Then
         RuntimeException exception = assertThrows(RuntimeException.class,
-                () -> demoChatController.chatWithSession(sessionId, userId, userMessage));
+                () -> demoChatController.chatWithSession(sessionId, userId, userMessage, null));
 
         assertEquals("Session not found", exception.getMessage());
         verify(chatMessageService).getAllSessionMessages(sessionId, userId);
@@ -308,17 +316,37 @@ class DemoChatControllerTest {
         // Given
         when(chatMessageService.getAllSessionMessages(sessionId, userId))
                 .thenReturn(conversationHistory);
-        when(chatMessageService.addMessage(sessionId, userId, MessageSender.USER, userMessage))
+        when(chatMessageService.appendMessage(sessionId, userId, MessageSender.USER, userMessage))
                 .thenThrow(new RuntimeException("Failed to store user message"));
 
         // When & Then
         RuntimeException exception = assertThrows(RuntimeException.class,
-                () -> demoChatController.chatWithSession(sessionId, userId, userMessage));
+                () -> demoChatController.chatWithSession(sessionId, userId, userMessage, null));
 
         assertEquals("Failed to store user message", exception.getMessage());
         verify(chatMessageService).getAllSessionMessages(sessionId, userId);
-        verify(chatMessageService).addMessage(sessionId, userId, MessageSender.USER, userMessage);
+        verify(chatMessageService).appendMessage(sessionId, userId, MessageSender.USER, userMessage);
+        verifyNoInteractions(llmIntegrationService);
+    }
+
+    /**
+     * Chat with session when buffered write fails should surface the write failure before calling the LLM.
+     */
+    @Test
+    void chatWithSession_WhenBufferedWriteFails_ShouldSurfaceWriteFailureBeforeCallingLlm() {
+        // Given
+        when(chatMessageService.getAllSessionMessages(sessionId, userId))
+                .thenReturn(conversationHistory);
+        when(chatMessageService.appendMessage(sessionId, userId, MessageSender.USER, userMessage))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("Batch insert failed")));
+
+        // When & Then
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> demoChatController.chatWithSession(sessionId, userId, userMessage, null));
+
+        assertEquals("Batch insert failed", exception.getMessage());
         verifyNoInteractions(llmIntegrationService);
+        verify(chatMessageService, never()).appendMessage(sessionId, userId, MessageSender.ASSISTANT, aiResponse);
     }
 
     /**
@@ -332,7 +360,7 @@ class DemoChatControllerTest {
 
         // When & Then
         RuntimeException exception = assertThrows(RuntimeException.class,
-                () -> demoChatController.startNewChat(userId, userMessage, "Test Chat"));
+                () -> demoChatController.startNewChat(userId, userMessage, "Test Chat", null));
 
         assertEquals("Unable to create session", exception.getMessage());
         verify(chatSessionService).createSession(any(CreateSessionRequest.class));
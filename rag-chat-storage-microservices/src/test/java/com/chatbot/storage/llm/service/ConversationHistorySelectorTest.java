@@ -0,0 +1,129 @@
+package com.chatbot.storage.llm.service;
+
+import com.chatbot.storage.config.properties.HistorySelectionProperties;
+import com.chatbot.storage.dto.response.MessageResponse;
+import com.chatbot.storage.enums.MessageSender;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ * The type Conversation history selector test.
+ */
+class ConversationHistorySelectorTest {
+
+    private static final String FILLER = " Some general small talk to pad this turn out a little further.";
+
+    private HistorySelectionProperties properties;
+    private ConversationHistorySelector selector;
+    private UUID sessionId;
+
+    /**
+     * Sets up.
+     */
+    @BeforeEach
+    void setUp() {
+        properties = new HistorySelectionProperties();
+        properties.setRecentMessages(2);
+        properties.setRelevantTurns(1);
+        properties.setTokenBudget(130);
+        selector = new ConversationHistorySelector(properties);
+        sessionId = UUID.randomUUID();
+    }
+
+    /**
+     * Select when history fits the budget should return it unchanged.
+     */
+    @Test
+    void select_WhenHistoryFitsBudget_ShouldReturnItUnchanged() {
+        // Given
+        List<MessageResponse> history = List.of(
+                message(MessageSender.USER, "Hello"),
+                message(MessageSender.ASSISTANT, "Hi there"));
+
+        // When
+        List<MessageResponse> result = selector.select("How are you?", history);
+
+        // Then
+        assertSame(history, result);
+    }
+
+    /**
+     * Select should keep recent messages and the most relevant older turn.
+     */
+    @Test
+    void select_ShouldKeepRecentMessagesAndMostRelevantOlderTurn() {
+        // Given
+        List<MessageResponse> history = longHistory();
+
+        // When
+        List<MessageResponse> result = selector.select("Which port does postgres listen on?", history);
+
+        // Then
+        assertEquals(List.of(history.get(2), history.get(3), history.get(8), history.get(9)), result);
+    }
+
+    /**
+     * Select should reuse and extend the cached session index.
+     */
+    @Test
+    void select_ShouldExtendCachedSessionIndex() {
+        // Given
+        List<MessageResponse> history = longHistory();
+        selector.select("weather", history);
+        history.add(message(MessageSender.USER, "Also, what about redis persistence?" + FILLER));
+        history.add(message(MessageSender.ASSISTANT, "Redis can persist with RDB snapshots or AOF." + FILLER));
+
+        // When
+        List<MessageResponse> result = selector.select("postgres port", history);
+
+        // Then
+        assertEquals(List.of(history.get(2), history.get(3), history.get(10), history.get(11)), result);
+    }
+
+    /**
+     * Select when disabled should return history unchanged.
+     */
+    @Test
+    void select_WhenDisabled_ShouldReturnHistoryUnchanged() {
+        // Given
+        properties.setEnabled(false);
+        List<MessageResponse> history = longHistory();
+
+        // When
+        List<MessageResponse> result = selector.select("postgres port", history);
+
+        // Then
+        assertSame(history, result);
+    }
+
+    private List<MessageResponse> longHistory() {
+        List<MessageResponse> history = new ArrayList<>();
+        history.add(message(MessageSender.USER, "What is the weather like today?" + FILLER));
+        history.add(message(MessageSender.ASSISTANT, "I cannot check the weather for you." + FILLER));
+        history.add(message(MessageSender.USER, "Which port should postgres listen on?" + FILLER));
+        history.add(message(MessageSender.ASSISTANT, "Postgres listens on port 5432 by default." + FILLER));
+        history.add(message(MessageSender.USER, "Recommend a good book." + FILLER));
+        history.add(message(MessageSender.ASSISTANT, "Try a classic novel." + FILLER));
+        history.add(message(MessageSender.USER, "And a film?" + FILLER));
+        history.add(message(MessageSender.ASSISTANT, "Any well reviewed comedy." + FILLER));
+        history.add(message(MessageSender.USER, "Thanks for that." + FILLER));
+        history.add(message(MessageSender.ASSISTANT, "You are welcome." + FILLER));
+        return history;
+    }
+
+    private MessageResponse message(MessageSender sender, String content) {
+        return MessageResponse.builder()
+                .id(UUID.randomUUID())
+                .sessionId(sessionId)
+                .senderType(sender)
+                .content(content)
+                .build();
+    }
+}
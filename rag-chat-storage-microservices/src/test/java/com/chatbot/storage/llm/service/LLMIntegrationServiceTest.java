@@ -1,5 +1,6 @@
 package com.chatbot.storage.llm.service;
 
+import com.chatbot.storage.config.properties.HistorySelectionProperties;
 import com.chatbot.storage.dto.response.MessageResponse;
 import com.chatbot.storage.enums.MessageSender;
 import com.chatbot.storage.llm.client.LLMClient;
@@ -36,6 +37,7 @@ class LLMIntegrationServiceTest {
 
     private LLMIntegrationService llmIntegrationService;
     private LLMIntegrationService groqIntegrationService;
+    private ConversationHistorySelector historySelector;
 
     private String userMessage;
     private String expectedResponse;
@@ -44,8 +46,9 @@ class LLMIntegrationServiceTest {
     @BeforeEach
     void setUp() {
         // Create service instances with mocked clients
-        llmIntegrationService = new LLMIntegrationService(mockLLMClient);
-        groqIntegrationService = new LLMIntegrationService(mockGroqClient);
+        historySelector = new ConversationHistorySelector(new HistorySelectionProperties());
+        llmIntegrationService = new LLMIntegrationService(mockLLMClient, historySelector);
+        groqIntegrationService = new LLMIntegrationService(mockGroqClient, historySelector);
         
         userMessage = "What is machine learning?";
         expectedResponse = "Machine learning is a subset of artificial intelligence...";
@@ -240,7 +243,7 @@ class LLMIntegrationServiceTest {
     @Test
     void getLlmStatus_WithNoOpClient_ShouldReturnDisabledStatus() {
         // Given
-        LLMIntegrationService serviceWithNoOp = new LLMIntegrationService(new NoOpLLMClient());
+        LLMIntegrationService serviceWithNoOp = new LLMIntegrationService(new NoOpLLMClient(), historySelector);
 
         // When
         String status = serviceWithNoOp.getLlmStatus();
@@ -1,32 +1,54 @@
 package com.chatbot.storage.service;
 
+import com.chatbot.storage.dto.projection.MessageSummaryView;
+import com.chatbot.storage.dto.projection.MessageView;
 import com.chatbot.storage.dto.request.SendMessageRequest;
 import com.chatbot.storage.dto.response.MessageResponse;
 import com.chatbot.storage.dto.response.PagedResponse;
 import com.chatbot.storage.entity.ChatMessage;
 import com.chatbot.storage.entity.ChatSession;
 import com.chatbot.storage.enums.MessageSender;
+import com.chatbot.storage.enums.OutboxEventType;
+import com.chatbot.storage.enums.ResponseView;
 import com.chatbot.storage.exception.ResourceNotFoundException;
+import com.chatbot.storage.infrastructure.cache.SecondLevelCacheEvictor;
+import com.chatbot.storage.infrastructure.outbox.MessageEvent;
+import com.chatbot.storage.infrastructure.outbox.OutboxWriter;
+import com.chatbot.storage.infrastructure.routing.ReplicaReadRouter;
+import com.chatbot.storage.infrastructure.sharding.ShardRouter;
+import com.chatbot.storage.infrastructure.stream.SessionMessageBroadcaster;
+import com.chatbot.storage.infrastructure.sync.SyncChangeWriter;
+import com.chatbot.storage.infrastructure.text.LexicalIndexService;
+import com.chatbot.storage.infrastructure.write.MessageWriteBuffer;
 import com.chatbot.storage.mapper.MessageMapper;
 import com.chatbot.storage.repository.ChatMessageRepository;
 import com.chatbot.storage.repository.ChatSessionRepository;
+import com.chatbot.storage.repository.SessionAggregateRepository;
 import com.chatbot.storage.service.impl.ChatMessageServiceImpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -48,7 +70,42 @@ class ChatMessageServiceImplTest {
     @Mock
     private MessageMapper messageMapper;
 
-    @InjectMocks
+    @Mock
+    private SessionArchiveService sessionArchiveService;
+
+    @Mock
+    private ContextChunkService contextChunkService;
+
+    @Mock
+    private ReplicaReadRouter replicaReadRouter;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @Mock
+    private ObjectProvider<LexicalIndexService> lexicalIndexServiceProvider;
+
+    @Mock
+    private SessionAggregateRepository sessionAggregateRepository;
+
+    @Mock
+    private SecondLevelCacheEvictor cacheEvictor;
+
+    @Mock
+    private ObjectProvider<MessageWriteBuffer> writeBufferProvider;
+
+    @Mock
+    private ObjectProvider<SessionMessageBroadcaster> messageBroadcasterProvider;
+
+    @Mock
+    private OutboxWriter outboxWriter;
+
+    @Mock
+    private SyncChangeWriter syncChangeWriter;
+
+    @Mock
+    private ShardRouter shardRouter;
+
     private ChatMessageServiceImpl chatMessageService;
 
     private UUID sessionId;
@@ -56,6 +113,7 @@ class ChatMessageServiceImplTest {
     private String userId;
     private ChatSession chatSession;
     private ChatMessage chatMessage;
+    private MessageView messageView;
     private MessageResponse messageResponse;
     private SendMessageRequest sendMessageRequest;
 
@@ -64,6 +122,13 @@ class ChatMessageServiceImplTest {
      */
     @BeforeEach
     void setUp() {
+        // Several ObjectProvider dependencies rule out @InjectMocks, which matches by raw type
+        chatMessageService = new ChatMessageServiceImpl(messageRepository, sessionRepository, messageMapper,
+                sessionArchiveService, contextChunkService, replicaReadRouter, objectMapper,
+                lexicalIndexServiceProvider, sessionAggregateRepository, cacheEvictor, writeBufferProvider,
+                messageBroadcasterProvider, outboxWriter, syncChangeWriter, shardRouter);
+        lenient().when(shardRouter.readWithFallback(any(), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(1).get());
         sessionId = UUID.randomUUID();
         messageId = UUID.randomUUID();
         userId = "user123";
@@ -83,6 +148,9 @@ class ChatMessageServiceImplTest {
                 .createdAt(LocalDateTime.now())
                 .build();
 
+        messageView = new MessageView(messageId, sessionId, MessageSender.USER, "Hello, world!",
+                null, null, chatMessage.getCreatedAt());
+
         messageResponse = MessageResponse.builder()
                 .id(messageId)
                 .content("Hello, world!")
@@ -102,8 +170,8 @@ class ChatMessageServiceImplTest {
     @Test
     void sendMessage_ShouldCreateAndReturnMessage() {
         // Given
-        when(sessionRepository.findByIdAndUserId(sessionId, userId))
-                .thenReturn(Optional.of(chatSession));
+        when(sessionRepository.existsByIdAndUserId(sessionId, userId)).thenReturn(true);
+        when(sessionRepository.getReferenceById(sessionId)).thenReturn(chatSession);
         when(messageRepository.save(any(ChatMessage.class)))
                 .thenReturn(chatMessage);
         when(messageMapper.toResponse(chatMessage))
@@ -115,26 +183,146 @@ class ChatMessageServiceImplTest {
         // Then
         assertNotNull(result);
         assertEquals(messageResponse, result);
-        verify(sessionRepository).findByIdAndUserId(sessionId, userId);
+        verify(sessionRepository).existsByIdAndUserId(sessionId, userId);
+        verify(sessionRepository, never()).findById(any());
         verify(messageRepository).save(any(ChatMessage.class));
+        verify(sessionAggregateRepository).recordAppend(sessionId, chatMessage.getCreatedAt());
+        verify(outboxWriter).append(sessionId, OutboxEventType.MESSAGE_CREATED, new MessageEvent(messageId, sessionId,
+                userId, MessageSender.USER, "Hello, world!", chatMessage.getCreatedAt()));
+        verify(syncChangeWriter).record(SyncChangeWriter.Change.message(userId, sessionId, messageId));
+        verify(cacheEvictor).evictSession(sessionId);
         verify(messageMapper).toResponse(chatMessage);
     }
 
+    /**
+     * Send message repeatedly to one session should append without loading or saving the session.
+     */
+    @Test
+    void sendMessage_RepeatedlyToOneSession_ShouldAppendWithoutLoadingOrSavingSession() {
+        // Given
+        when(sessionRepository.existsByIdAndUserId(sessionId, userId)).thenReturn(true);
+        when(sessionRepository.getReferenceById(sessionId)).thenReturn(chatSession);
+        when(messageRepository.save(any(ChatMessage.class))).thenReturn(chatMessage);
+        when(messageMapper.toResponse(chatMessage)).thenReturn(messageResponse);
+
+        // When
+        chatMessageService.sendMessage(sessionId, userId, sendMessageRequest);
+        chatMessageService.sendMessage(sessionId, userId, sendMessageRequest);
+
+        // Then
+        verify(messageRepository, times(2)).save(any(ChatMessage.class));
+        verify(sessionAggregateRepository, times(2)).recordAppend(eq(sessionId), any());
+        verify(sessionRepository, never()).findById(any());
+        verify(sessionRepository, never()).save(any());
+    }
+
+    /**
+     * Append message with write buffer should complete once the batch committed.
+     */
+    @Test
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    void appendMessage_WithWriteBuffer_ShouldCompleteOnceBatchCommitted() {
+        // Given
+        MessageWriteBuffer writeBuffer = mock(MessageWriteBuffer.class);
+        when(writeBufferProvider.getIfAvailable()).thenReturn(writeBuffer);
+        when(sessionRepository.existsByIdAndUserId(sessionId, userId)).thenReturn(true);
+        ArgumentCaptor<MessageWriteBuffer.MessageRow> row = ArgumentCaptor.forClass(MessageWriteBuffer.MessageRow.class);
+        ArgumentCaptor<CompletableFuture<Void>> committed = (ArgumentCaptor) ArgumentCaptor.forClass(CompletableFuture.class);
+        when(writeBuffer.offer(eq(userId), row.capture(), committed.capture())).thenReturn(true);
+
+        // When
+        CompletableFuture<MessageResponse> result =
+                chatMessageService.appendMessage(sessionId, userId, MessageSender.USER, "Hello, world!");
+
+        // Then
+        assertFalse(result.isDone());
+        committed.getValue().complete(null);
+        MessageResponse response = result.join();
+        assertEquals(row.getValue().id(), response.getId());
+        assertEquals(sessionId, response.getSessionId());
+        assertEquals("Hello, world!", response.getContent());
+        verify(messageRepository, never()).save(any());
+    }
+
+    /**
+     * Append message without write buffer should write synchronously.
+     */
+    @Test
+    void appendMessage_WithoutWriteBuffer_ShouldWriteSynchronously() {
+        // Given
+        when(sessionRepository.existsByIdAndUserId(sessionId, userId)).thenReturn(true);
+        when(sessionRepository.getReferenceById(sessionId)).thenReturn(chatSession);
+        when(messageRepository.save(any(ChatMessage.class))).thenReturn(chatMessage);
+        when(messageMapper.toResponse(chatMessage)).thenReturn(messageResponse);
+
+        // When
+        CompletableFuture<MessageResponse> result =
+                chatMessageService.appendMessage(sessionId, userId, MessageSender.USER, "Hello, world!");
+
+        // Then
+        assertTrue(result.isDone());
+        assertEquals(messageResponse, result.join());
+        verify(sessionAggregateRepository).recordAppend(sessionId, chatMessage.getCreatedAt());
+    }
+
+    /**
+     * Send message with lexical index should index saved message.
+     */
+    @Test
+    void sendMessage_WithLexicalIndex_ShouldIndexSavedMessage() {
+        // Given
+        LexicalIndexService lexicalIndexService = mock(LexicalIndexService.class);
+        when(lexicalIndexServiceProvider.getIfAvailable()).thenReturn(lexicalIndexService);
+        when(sessionRepository.existsByIdAndUserId(sessionId, userId)).thenReturn(true);
+        when(sessionRepository.getReferenceById(sessionId)).thenReturn(chatSession);
+        when(messageRepository.save(any(ChatMessage.class)))
+                .thenReturn(chatMessage);
+        when(messageMapper.toResponse(chatMessage))
+                .thenReturn(messageResponse);
+
+        // When
+        chatMessageService.sendMessage(sessionId, userId, sendMessageRequest);
+
+        // Then
+        verify(lexicalIndexService).add(userId, messageId, "Hello, world!");
+    }
+
+    /**
+     * Send message with streaming should publish saved message.
+     */
+    @Test
+    void sendMessage_WithStreaming_ShouldPublishSavedMessage() {
+        // Given
+        SessionMessageBroadcaster messageBroadcaster = mock(SessionMessageBroadcaster.class);
+        when(messageBroadcasterProvider.getIfAvailable()).thenReturn(messageBroadcaster);
+        when(sessionRepository.existsByIdAndUserId(sessionId, userId)).thenReturn(true);
+        when(sessionRepository.getReferenceById(sessionId)).thenReturn(chatSession);
+        when(messageRepository.save(any(ChatMessage.class)))
+                .thenReturn(chatMessage);
+        when(messageMapper.toResponse(chatMessage))
+                .thenReturn(messageResponse);
+
+        // When
+        chatMessageService.sendMessage(sessionId, userId, sendMessageRequest);
+
+        // Then
+        verify(messageBroadcaster).publish(messageResponse);
+    }
+
     /**
      * Send message when session not found should throw exception.
      */
     @Test
     void sendMessage_WhenSessionNotFound_ShouldThrowException() {
         // Given
-        when(sessionRepository.findByIdAndUserId(sessionId, userId))
-                .thenReturn(Optional.empty());
+        when(sessionRepository.existsByIdAndUserId(sessionId, userId)).thenReturn(false);
 
         // When & Then
         ResourceNotFoundException exception = assertThrows(ResourceNotFoundException.class,
                 () -> chatMessageService.sendMessage(sessionId, userId, sendMessageRequest));
 
         assertEquals("Session not found", exception.getMessage());
-        verify(sessionRepository).findByIdAndUserId(sessionId, userId);
+        verify(sessionRepository).existsByIdAndUserId(sessionId, userId);
         verifyNoInteractions(messageRepository, messageMapper);
     }
 
@@ -145,15 +333,14 @@ class ChatMessageServiceImplTest {
     void getSessionMessages_ShouldReturnPagedResponse() {
         // Given
         Pageable pageable = PageRequest.of(0, 50);
-        Page<ChatMessage> messagePage = new PageImpl<>(List.of(chatMessage));
+        Page<MessageView> messagePage = new PageImpl<>(List.of(messageView));
         PagedResponse<MessageResponse> pagedResponse = PagedResponse.<MessageResponse>builder()
                 .content(List.of(messageResponse))
                 .totalElements(1L)
                 .build();
 
-        when(sessionRepository.existsByIdAndUserId(sessionId, userId))
-                .thenReturn(true);
-        when(messageRepository.findBySessionIdOrderByCreatedAtAsc(sessionId, pageable))
+        when(sessionRepository.existsByIdAndUserId(sessionId, userId)).thenReturn(true);
+        when(messageRepository.findViewsBySessionId(sessionId, pageable))
                 .thenReturn(messagePage);
         when(messageMapper.toPagedResponse(messagePage))
                 .thenReturn(pagedResponse);
@@ -165,7 +352,7 @@ class ChatMessageServiceImplTest {
         assertNotNull(result);
         assertEquals(pagedResponse, result);
         verify(sessionRepository).existsByIdAndUserId(sessionId, userId);
-        verify(messageRepository).findBySessionIdOrderByCreatedAtAsc(sessionId, pageable);
+        verify(messageRepository).findViewsBySessionId(sessionId, pageable);
         verify(messageMapper).toPagedResponse(messagePage);
     }
 
@@ -176,8 +363,7 @@ class ChatMessageServiceImplTest {
     void getSessionMessages_WhenSessionNotOwned_ShouldThrowException() {
         // Given
         Pageable pageable = PageRequest.of(0, 50);
-        when(sessionRepository.existsByIdAndUserId(sessionId, userId))
-                .thenReturn(false);
+        when(sessionRepository.existsByIdAndUserId(sessionId, userId)).thenReturn(false);
 
         // When & Then
         ResourceNotFoundException exception = assertThrows(ResourceNotFoundException.class,
@@ -188,18 +374,108 @@ class ChatMessageServiceImplTest {
         verifyNoInteractions(messageRepository, messageMapper);
     }
 
+    /**
+     * Gets session messages if modified when the tag matches should not load the messages.
+     */
+    @Test
+    void getSessionMessagesIfModified_WhenTagMatches_ShouldNotLoadMessages() {
+        // Given
+        when(sessionAggregateRepository.findMessageVersion(sessionId, userId)).thenReturn(Optional.of(4L));
+
+        // When
+        Optional<PagedResponse<MessageResponse>> result = chatMessageService.getSessionMessagesIfModified(
+                sessionId, userId, PageRequest.of(0, 50), ResponseView.FULL, "\"4\""::equals);
+
+        // Then
+        assertTrue(result.isEmpty());
+        verifyNoInteractions(messageRepository, messageMapper);
+    }
+
+    /**
+     * Gets session messages if modified after a new message should return the page.
+     */
+    @Test
+    void getSessionMessagesIfModified_AfterNewMessage_ShouldReturnPage() {
+        // Given
+        Pageable pageable = PageRequest.of(0, 50);
+        Page<MessageView> messagePage = new PageImpl<>(List.of(messageView));
+        PagedResponse<MessageResponse> pagedResponse = PagedResponse.<MessageResponse>builder()
+                .content(List.of(messageResponse))
+                .totalElements(1L)
+                .build();
+
+        when(sessionAggregateRepository.findMessageVersion(sessionId, userId)).thenReturn(Optional.of(5L));
+        when(sessionRepository.existsByIdAndUserId(sessionId, userId)).thenReturn(true);
+        when(messageRepository.findViewsBySessionId(sessionId, pageable))
+                .thenReturn(messagePage);
+        when(messageMapper.toPagedResponse(messagePage)).thenReturn(pagedResponse);
+
+        // When
+        Optional<PagedResponse<MessageResponse>> result = chatMessageService.getSessionMessagesIfModified(
+                sessionId, userId, pageable, ResponseView.FULL, "\"4\""::equals);
+
+        // Then
+        assertEquals(Optional.of(pagedResponse), result);
+    }
+
+    /**
+     * Gets session messages if modified with the summary view should skip the full rows.
+     */
+    @Test
+    void getSessionMessagesIfModified_WithSummaryView_ShouldSkipFullRows() {
+        // Given
+        Pageable pageable = PageRequest.of(0, 50);
+        Page<MessageSummaryView> summaryPage = new PageImpl<>(List.of(new MessageSummaryView(messageId, sessionId,
+                MessageSender.USER, "Hello", chatSession.getCreatedAt())));
+        PagedResponse<MessageResponse> pagedResponse = PagedResponse.<MessageResponse>builder()
+                .content(List.of(messageResponse))
+                .totalElements(1L)
+                .build();
+
+        when(sessionAggregateRepository.findMessageVersion(sessionId, userId)).thenReturn(Optional.of(5L));
+        when(sessionRepository.existsByIdAndUserId(sessionId, userId)).thenReturn(true);
+        when(messageRepository.findSummariesBySessionId(sessionId, pageable))
+                .thenReturn(summaryPage);
+        when(messageMapper.toSummaryPagedResponse(summaryPage)).thenReturn(pagedResponse);
+
+        // When
+        Optional<PagedResponse<MessageResponse>> result = chatMessageService.getSessionMessagesIfModified(
+                sessionId, userId, pageable, ResponseView.SUMMARY, "\"5\""::equals);
+
+        // Then
+        assertEquals(Optional.of(pagedResponse), result);
+        verify(messageRepository, never()).findViewsBySessionId(any(), any(Pageable.class));
+        verifyNoInteractions(contextChunkService);
+    }
+
+    /**
+     * Gets all session messages if modified when session not owned should throw exception.
+     */
+    @Test
+    void getAllSessionMessagesIfModified_WhenSessionNotOwned_ShouldThrowException() {
+        // Given
+        when(sessionAggregateRepository.findMessageVersion(sessionId, userId)).thenReturn(Optional.empty());
+
+        // When & Then
+        ResourceNotFoundException exception = assertThrows(ResourceNotFoundException.class,
+                () -> chatMessageService.getAllSessionMessagesIfModified(sessionId, userId, ResponseView.FULL,
+                        tag -> true));
+
+        assertEquals("Session not found", exception.getMessage());
+        verifyNoInteractions(messageRepository, messageMapper);
+    }
+
     /**
      * Gets all session messages should return all messages.
      */
     @Test
     void getAllSessionMessages_ShouldReturnAllMessages() {
         // Given
-        List<ChatMessage> messages = List.of(chatMessage);
+        List<MessageView> messages = List.of(messageView);
         List<MessageResponse> messageResponses = List.of(messageResponse);
 
-        when(sessionRepository.existsByIdAndUserId(sessionId, userId))
-                .thenReturn(true);
-        when(messageRepository.findBySessionIdOrderByCreatedAtAsc(sessionId))
+        when(sessionRepository.existsByIdAndUserId(sessionId, userId)).thenReturn(true);
+        when(messageRepository.findViewsBySessionId(sessionId))
                 .thenReturn(messages);
         when(messageMapper.toResponseList(messages))
                 .thenReturn(messageResponses);
@@ -212,10 +488,58 @@ class ChatMessageServiceImplTest {
         assertEquals(messageResponses, result);
         assertEquals(1, result.size());
         verify(sessionRepository).existsByIdAndUserId(sessionId, userId);
-        verify(messageRepository).findBySessionIdOrderByCreatedAtAsc(sessionId);
+        verify(messageRepository).findViewsBySessionId(sessionId);
         verify(messageMapper).toResponseList(messages);
     }
 
+    /**
+     * Export session messages should write one json line per message.
+     */
+    @Test
+    void exportSessionMessages_ShouldWriteOneJsonLinePerMessage() throws Exception {
+        // Given
+        MessageView secondMessage = new MessageView(UUID.randomUUID(), sessionId, MessageSender.ASSISTANT,
+                "Hi there", null, null, LocalDateTime.now());
+        MessageResponse secondResponse = MessageResponse.builder()
+                .id(secondMessage.id())
+                .sessionId(sessionId)
+                .senderType(MessageSender.ASSISTANT)
+                .content("Hi there")
+                .build();
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        when(sessionRepository.existsByIdAndUserId(sessionId, userId)).thenReturn(true);
+        when(messageRepository.streamViewsBySessionId(sessionId))
+                .thenReturn(Stream.of(messageView, secondMessage));
+        when(messageMapper.toResponse(messageView)).thenReturn(messageResponse);
+        when(messageMapper.toResponse(secondMessage)).thenReturn(secondResponse);
+
+        // When
+        chatMessageService.exportSessionMessages(sessionId, userId, outputStream);
+
+        // Then
+        String[] lines = outputStream.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("Hello, world!", objectMapper.readTree(lines[0]).get("content").asText());
+        assertEquals("Hi there", objectMapper.readTree(lines[1]).get("content").asText());
+        verify(messageRepository, never()).findViewsBySessionId(any());
+    }
+
+    /**
+     * Export session messages when session not owned should throw exception.
+     */
+    @Test
+    void exportSessionMessages_WhenSessionNotOwned_ShouldThrowException() {
+        // Given
+        when(sessionRepository.existsByIdAndUserId(sessionId, userId)).thenReturn(false);
+
+        // When & Then
+        assertThrows(ResourceNotFoundException.class,
+                () -> chatMessageService.exportSessionMessages(sessionId, userId, new ByteArrayOutputStream()));
+
+        verifyNoInteractions(messageRepository, messageMapper);
+    }
+
     /**
      * Delete message should delete message.
      */
@@ -232,6 +556,9 @@ class ChatMessageServiceImplTest {
         // Then
         verify(messageRepository).findById(messageId);
         verify(messageRepository).delete(chatMessage);
+        verify(sessionAggregateRepository).recordRemoval(sessionId, 1);
+        verify(outboxWriter).append(eq(sessionId), eq(OutboxEventType.MESSAGE_DELETED), any(MessageEvent.class));
+        verify(syncChangeWriter).record(SyncChangeWriter.Change.message(userId, sessionId, messageId).asDeleted());
     }
 
     /**
@@ -306,8 +633,8 @@ class ChatMessageServiceImplTest {
     void addMessage_WithoutContextData_ShouldCreateMessage() {
         // Given
         String content = "Test message";
-        when(sessionRepository.findByIdAndUserId(sessionId, userId))
-                .thenReturn(Optional.of(chatSession));
+        when(sessionRepository.existsByIdAndUserId(sessionId, userId)).thenReturn(true);
+        when(sessionRepository.getReferenceById(sessionId)).thenReturn(chatSession);
         when(messageRepository.save(any(ChatMessage.class)))
                 .thenReturn(chatMessage);
         when(messageMapper.toResponse(chatMessage))
@@ -319,7 +646,7 @@ class ChatMessageServiceImplTest {
         // Then
         assertNotNull(result);
         assertEquals(messageResponse, result);
-        verify(sessionRepository).findByIdAndUserId(sessionId, userId);
+        verify(sessionRepository).existsByIdAndUserId(sessionId, userId);
         verify(messageRepository).save(any(ChatMessage.class));
         verify(messageMapper).toResponse(chatMessage);
     }
@@ -333,8 +660,8 @@ class ChatMessageServiceImplTest {
         String content = "Test message";
         Map<String, Object> contextData = Map.of("source", "test");
         
-        when(sessionRepository.findByIdAndUserId(sessionId, userId))
-                .thenReturn(Optional.of(chatSession));
+        when(sessionRepository.existsByIdAndUserId(sessionId, userId)).thenReturn(true);
+        when(sessionRepository.getReferenceById(sessionId)).thenReturn(chatSession);
         when(messageRepository.save(any(ChatMessage.class)))
                 .thenReturn(chatMessage);
         when(messageMapper.toResponse(chatMessage))
@@ -346,7 +673,7 @@ class ChatMessageServiceImplTest {
         // Then
         assertNotNull(result);
         assertEquals(messageResponse, result);
-        verify(sessionRepository).findByIdAndUserId(sessionId, userId);
+        verify(sessionRepository).existsByIdAndUserId(sessionId, userId);
         verify(messageRepository).save(any(ChatMessage.class));
         verify(messageMapper).toResponse(chatMessage);
     }
@@ -357,15 +684,14 @@ class ChatMessageServiceImplTest {
     @Test
     void addMessage_WhenSessionNotFound_ShouldThrowException() {
         // Given
-        when(sessionRepository.findByIdAndUserId(sessionId, userId))
-                .thenReturn(Optional.empty());
+        when(sessionRepository.existsByIdAndUserId(sessionId, userId)).thenReturn(false);
 
         // When & Then
         ResourceNotFoundException exception = assertThrows(ResourceNotFoundException.class,
                 () -> chatMessageService.addMessage(sessionId, userId, MessageSender.USER, "content"));
 
         assertEquals("Session not found", exception.getMessage());
-        verify(sessionRepository).findByIdAndUserId(sessionId, userId);
+        verify(sessionRepository).existsByIdAndUserId(sessionId, userId);
         verifyNoInteractions(messageRepository, messageMapper);
     }
 }
\ No newline at end of file
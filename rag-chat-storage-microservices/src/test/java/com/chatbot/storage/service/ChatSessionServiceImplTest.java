@@ -1,12 +1,21 @@
 package com.chatbot.storage.service;
 
+import com.chatbot.storage.dto.projection.SessionView;
 import com.chatbot.storage.dto.request.CreateSessionRequest;
 import com.chatbot.storage.dto.response.SessionResponse;
 import com.chatbot.storage.entity.ChatSession;
+import com.chatbot.storage.enums.OutboxEventType;
 import com.chatbot.storage.enums.SessionStatus;
 import com.chatbot.storage.exception.ResourceNotFoundException;
+import com.chatbot.storage.exception.ValidationException;
+import com.chatbot.storage.infrastructure.cache.CacheBatchLoader;
+import com.chatbot.storage.infrastructure.outbox.OutboxWriter;
+import com.chatbot.storage.infrastructure.routing.ReplicaReadRouter;
+import com.chatbot.storage.infrastructure.sharding.ShardRouter;
+import com.chatbot.storage.infrastructure.sync.SyncChangeWriter;
 import com.chatbot.storage.mapper.SessionMapper;
 import com.chatbot.storage.repository.ChatSessionRepository;
+import com.chatbot.storage.repository.SessionAggregateRepository;
 import com.chatbot.storage.service.impl.ChatSessionServiceImpl;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -16,11 +25,22 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
+import static com.chatbot.storage.constants.AppConstants.CACHE_SESSIONS;
+import static com.chatbot.storage.constants.AppConstants.SESSION_BATCH_MAX_SIZE;
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 /**
@@ -36,12 +56,31 @@ class ChatSessionServiceImplTest {
     @Mock
     private SessionMapper sessionMapper;
 
+    @Mock
+    private OutboxWriter outboxWriter;
+
+    @Mock
+    private ShardRouter shardRouter;
+
+    @Mock
+    private CacheBatchLoader cacheBatchLoader;
+
+    @Mock
+    private SyncChangeWriter syncChangeWriter;
+
+    @Mock
+    private SessionAggregateRepository sessionAggregateRepository;
+
+    @Mock
+    private ReplicaReadRouter replicaReadRouter;
+
     @InjectMocks
     private ChatSessionServiceImpl chatSessionService;
 
     private UUID sessionId;
     private String userId;
     private ChatSession chatSession;
+    private SessionView sessionView;
     private SessionResponse sessionResponse;
 
     /**
@@ -49,6 +88,9 @@ class ChatSessionServiceImplTest {
      */
     @BeforeEach
     void setUp() {
+        lenient().when(shardRouter.readWithFallback(any(), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(1).get());
+
         sessionId = UUID.randomUUID();
         userId = "user123";
 
@@ -61,6 +103,9 @@ class ChatSessionServiceImplTest {
                 .status(SessionStatus.ACTIVE)
                 .build();
 
+        sessionView = new SessionView(sessionId, userId, "Test Session", "Test Description",
+                false, SessionStatus.ACTIVE, 0L, null, null);
+
         sessionResponse = SessionResponse.builder()
                 .id(sessionId)
                 .userId(userId)
@@ -97,6 +142,8 @@ class ChatSessionServiceImplTest {
 
         verify(sessionRepository).save(any(ChatSession.class));
         verify(sessionMapper).toResponse(chatSession);
+        verify(outboxWriter).append(sessionId, OutboxEventType.SESSION_CREATED, sessionResponse);
+        verify(syncChangeWriter).record(SyncChangeWriter.Change.session(userId, sessionId));
     }
 
     /**
@@ -106,9 +153,9 @@ class ChatSessionServiceImplTest {
     @DisplayName("Should get session by ID successfully")
     void getSessionById_Success() {
         // Given
-        when(sessionRepository.findByIdAndUserId(sessionId, userId))
-                .thenReturn(Optional.of(chatSession));
-        when(sessionMapper.toResponse(chatSession)).thenReturn(sessionResponse);
+        when(sessionRepository.findViewByIdAndUserId(sessionId, userId))
+                .thenReturn(Optional.of(sessionView));
+        when(sessionMapper.toResponse(sessionView)).thenReturn(sessionResponse);
 
         // When
         SessionResponse result = chatSessionService.getSessionById(sessionId, userId);
@@ -118,8 +165,8 @@ class ChatSessionServiceImplTest {
         assertThat(result.getId()).isEqualTo(sessionId);
         assertThat(result.getUserId()).isEqualTo(userId);
 
-        verify(sessionRepository).findByIdAndUserId(sessionId, userId);
-        verify(sessionMapper).toResponse(chatSession);
+        verify(sessionRepository).findViewByIdAndUserId(sessionId, userId);
+        verify(sessionMapper).toResponse(sessionView);
     }
 
     /**
@@ -129,7 +176,7 @@ class ChatSessionServiceImplTest {
     @DisplayName("Should throw ResourceNotFoundException when session not found")
     void getSessionById_NotFound() {
         // Given
-        when(sessionRepository.findByIdAndUserId(sessionId, userId))
+        when(sessionRepository.findViewByIdAndUserId(sessionId, userId))
                 .thenReturn(Optional.empty());
 
         // When & Then
@@ -137,10 +184,117 @@ class ChatSessionServiceImplTest {
                 .isInstanceOf(ResourceNotFoundException.class)
                 .hasMessage("Session not found");
 
-        verify(sessionRepository).findByIdAndUserId(sessionId, userId);
+        verify(sessionRepository).findViewByIdAndUserId(sessionId, userId);
         verifyNoInteractions(sessionMapper);
     }
 
+    /**
+     * Gets session if modified when the tag matches returns nothing.
+     */
+    @Test
+    @DisplayName("Should skip the body when the client's entity tag is current")
+    void getSessionIfModified_TagMatches_ReturnsEmpty() {
+        // Given
+        when(sessionAggregateRepository.findVersions(sessionId, userId))
+                .thenReturn(Optional.of(new SessionAggregateRepository.SessionVersions(2L, 5L)));
+
+        // When
+        Optional<SessionResponse> result =
+                chatSessionService.getSessionIfModified(sessionId, userId, "\"2.5\""::equals);
+
+        // Then
+        assertThat(result).isEmpty();
+        verify(replicaReadRouter).routeRead(eq(userId), any());
+        verifyNoInteractions(sessionRepository, sessionMapper);
+    }
+
+    /**
+     * Gets session if modified after a new message returns the session.
+     */
+    @Test
+    @DisplayName("Should return the session when a message was added since the client's copy")
+    void getSessionIfModified_AfterNewMessage_ReturnsSession() {
+        // Given
+        when(sessionAggregateRepository.findVersions(sessionId, userId))
+                .thenReturn(Optional.of(new SessionAggregateRepository.SessionVersions(2L, 6L)));
+        when(sessionRepository.findViewByIdAndUserId(sessionId, userId)).thenReturn(Optional.of(sessionView));
+        when(sessionMapper.toResponse(sessionView)).thenReturn(sessionResponse);
+
+        // When
+        Optional<SessionResponse> result =
+                chatSessionService.getSessionIfModified(sessionId, userId, "\"2.5\""::equals);
+
+        // Then
+        assertThat(result).contains(sessionResponse);
+    }
+
+    /**
+     * Gets session if modified not found.
+     */
+    @Test
+    @DisplayName("Should throw ResourceNotFoundException when the conditionally fetched session is missing")
+    void getSessionIfModified_NotFound() {
+        // Given
+        when(sessionAggregateRepository.findVersions(sessionId, userId)).thenReturn(Optional.empty());
+
+        // When & Then
+        assertThatThrownBy(() -> chatSessionService.getSessionIfModified(sessionId, userId, tag -> true))
+                .isInstanceOf(ResourceNotFoundException.class)
+                .hasMessage("Session not found");
+    }
+
+    /**
+     * Gets sessions by ids loads misses in one query and keeps request order.
+     */
+    @Test
+    @DisplayName("Should load uncached sessions in one query and return them in request order")
+    @SuppressWarnings("unchecked")
+    void getSessionsByIds_LoadsMissesAndKeepsOrder() {
+        // Given
+        UUID otherId = UUID.randomUUID();
+        UUID unknownId = UUID.randomUUID();
+        SessionView otherView = new SessionView(otherId, userId, "Other", null,
+                false, SessionStatus.ACTIVE, 0L, null, null);
+        SessionResponse otherResponse = SessionResponse.builder().id(otherId).userId(userId).build();
+
+        when(cacheBatchLoader.getAll(eq(CACHE_SESSIONS), anyCollection(), any(), eq(SessionResponse.class), any()))
+                .thenAnswer(invocation -> {
+                    Collection<UUID> ids = invocation.getArgument(1);
+                    Function<UUID, String> cacheKey = invocation.getArgument(2);
+                    assertThat(cacheKey.apply(sessionId)).isEqualTo(sessionId + "_" + userId);
+                    return invocation.<Function<Collection<UUID>, Map<UUID, SessionResponse>>>getArgument(4)
+                            .apply(ids);
+                });
+        when(sessionRepository.findViewsByIdInAndUserId(anyCollection(), eq(userId)))
+                .thenReturn(List.of(sessionView, otherView));
+        when(sessionMapper.toResponse(sessionView)).thenReturn(sessionResponse);
+        when(sessionMapper.toResponse(otherView)).thenReturn(otherResponse);
+
+        // When
+        List<SessionResponse> result = chatSessionService.getSessionsByIds(
+                List.of(otherId, unknownId, sessionId, otherId), userId);
+
+        // Then
+        assertThat(result).containsExactly(otherResponse, sessionResponse);
+        verify(shardRouter).route(userId);
+        verify(sessionRepository).findViewsByIdInAndUserId(Set.of(otherId, unknownId, sessionId), userId);
+    }
+
+    /**
+     * Gets sessions by ids rejects oversized batches.
+     */
+    @Test
+    @DisplayName("Should reject more session IDs than a batch allows")
+    void getSessionsByIds_TooMany() {
+        // Given
+        List<UUID> sessionIds = Stream.generate(UUID::randomUUID).limit(SESSION_BATCH_MAX_SIZE + 1).toList();
+
+        // When & Then
+        assertThatThrownBy(() -> chatSessionService.getSessionsByIds(sessionIds, userId))
+                .isInstanceOf(ValidationException.class);
+        verifyNoInteractions(cacheBatchLoader, sessionRepository);
+    }
+
     /**
      * Toggle favorite success.
      */
@@ -0,0 +1,145 @@
+package com.chatbot.storage.service;
+
+import com.chatbot.storage.config.properties.ChunkDeduplicationProperties;
+import com.chatbot.storage.dto.response.MessageResponse;
+import com.chatbot.storage.entity.ContextChunk;
+import com.chatbot.storage.infrastructure.sharding.ShardRoutingContext;
+import com.chatbot.storage.repository.ContextChunkRepository;
+import com.chatbot.storage.service.impl.ContextChunkServiceImpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static com.chatbot.storage.constants.AppConstants.CHUNK_REF_KEY;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ *
+ * The type Context chunk service impl test.
+ */
+@ExtendWith(MockitoExtension.class)
+class ContextChunkServiceImplTest {
+
+    @Mock
+    private ContextChunkRepository chunkRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private ChunkDeduplicationProperties properties;
+    private ContextChunkServiceImpl chunkService;
+
+    private Map<String, Object> chunk;
+
+    /**
+     * Sets up.
+     */
+    @BeforeEach
+    void setUp() {
+        properties = new ChunkDeduplicationProperties();
+        properties.setEnabled(true);
+        properties.setMinBytes(16);
+        chunkService = new ContextChunkServiceImpl(chunkRepository, jdbcTemplate, properties, new ObjectMapper());
+
+        chunk = Map.of(
+                "documentId", "doc-1",
+                "text", "Retrieval augmented generation combines search with generation.",
+                "score", 0.87);
+    }
+
+    /**
+     * Deduplicate should replace chunks with references.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void deduplicate_ShouldReplaceChunksWithReferences() {
+        // When
+        Map<String, Object> result = chunkService.deduplicate(Map.of("chunks", List.of(chunk, chunk)));
+
+        // Then
+        List<Map<String, Object>> references = (List<Map<String, Object>>) result.get("chunks");
+        assertEquals(2, references.size());
+        Map<String, Object> reference = references.get(0);
+        assertNotNull(reference.get(CHUNK_REF_KEY));
+        assertEquals("doc-1", reference.get("documentId"));
+        assertEquals(0.87, reference.get("score"));
+        assertFalse(reference.containsKey("text"));
+        assertEquals(reference.get(CHUNK_REF_KEY), references.get(1).get(CHUNK_REF_KEY));
+        verify(jdbcTemplate).batchUpdate(anyString(), anyList(), eq(1),
+                any(ParameterizedPreparedStatementSetter.class));
+    }
+
+    /**
+     * Deduplicate the same chunk through two shards should store it on both.
+     */
+    @Test
+    void deduplicate_SameChunkThroughTwoShards_ShouldStoreItOnBoth() {
+        // Given
+        Map<String, Object> contextData = Map.of("chunks", List.of(chunk));
+
+        // When
+        ShardRoutingContext.runOn("shard-a", () -> chunkService.deduplicate(contextData));
+        ShardRoutingContext.runOn("shard-a", () -> chunkService.deduplicate(contextData));
+        ShardRoutingContext.runOn("shard-b", () -> chunkService.deduplicate(contextData));
+
+        // Then
+        verify(jdbcTemplate, times(2)).batchUpdate(anyString(), anyList(), eq(1),
+                any(ParameterizedPreparedStatementSetter.class));
+    }
+
+    /**
+     * Deduplicate when disabled should return context unchanged.
+     */
+    @Test
+    void deduplicate_WhenDisabled_ShouldReturnContextUnchanged() {
+        // Given
+        properties.setEnabled(false);
+        Map<String, Object> contextData = Map.of("chunks", List.of(chunk));
+
+        // When
+        Map<String, Object> result = chunkService.deduplicate(contextData);
+
+        // Then
+        assertSame(contextData, result);
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    /**
+     * Resolve should expand references from the store.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void resolve_ShouldExpandReferencesFromStore() {
+        // Given
+        Map<String, Object> stored = chunkService.deduplicate(Map.of("chunks", List.of(chunk)));
+        String hash = (String) ((List<Map<String, Object>>) stored.get("chunks")).get(0).get(CHUNK_REF_KEY);
+        ContextChunkServiceImpl freshService =
+                new ContextChunkServiceImpl(chunkRepository, jdbcTemplate, properties, new ObjectMapper());
+        when(chunkRepository.findAllById(List.of(hash))).thenReturn(List.of(ContextChunk.builder()
+                .hash(hash)
+                .payload(Map.of("documentId", "doc-1", "text", chunk.get("text")))
+                .createdAt(LocalDateTime.now())
+                .build()));
+        MessageResponse response = MessageResponse.builder().contextData(stored).build();
+
+        // When
+        freshService.resolve(List.of(response));
+        freshService.resolve(List.of(MessageResponse.builder().contextData(stored).build()));
+
+        // Then
+        Map<String, Object> resolved = ((List<Map<String, Object>>) response.getContextData().get("chunks")).get(0);
+        assertEquals(chunk, resolved);
+        verify(chunkRepository, times(1)).findAllById(anyCollection());
+    }
+}
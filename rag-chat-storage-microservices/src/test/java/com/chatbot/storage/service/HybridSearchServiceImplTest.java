@@ -0,0 +1,158 @@
+package com.chatbot.storage.service;
+
+import com.chatbot.storage.config.properties.HybridSearchProperties;
+import com.chatbot.storage.dto.projection.MessageView;
+import com.chatbot.storage.dto.response.HybridSearchResult;
+import com.chatbot.storage.dto.response.MessageResponse;
+import com.chatbot.storage.enums.MessageSender;
+import com.chatbot.storage.exception.ValidationException;
+import com.chatbot.storage.infrastructure.routing.ReplicaReadRouter;
+import com.chatbot.storage.infrastructure.sharding.ShardRouter;
+import com.chatbot.storage.infrastructure.text.LexicalIndexService;
+import com.chatbot.storage.infrastructure.vector.HnswIndex;
+import com.chatbot.storage.infrastructure.vector.VectorIndexService;
+import com.chatbot.storage.mapper.MessageMapper;
+import com.chatbot.storage.repository.ChatMessageRepository;
+import com.chatbot.storage.service.impl.HybridSearchServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ *
+ * The type Hybrid search service impl test.
+ */
+@ExtendWith(MockitoExtension.class)
+class HybridSearchServiceImplTest {
+
+    @Mock
+    private ObjectProvider<LexicalIndexService> lexicalIndexServiceProvider;
+
+    @Mock
+    private ObjectProvider<VectorIndexService> vectorIndexServiceProvider;
+
+    @Mock
+    private LexicalIndexService lexicalIndexService;
+
+    @Mock
+    private VectorIndexService vectorIndexService;
+
+    @Mock
+    private ChatMessageRepository messageRepository;
+
+    @Mock
+    private MessageMapper messageMapper;
+
+    @Mock
+    private ContextChunkService contextChunkService;
+
+    @Mock
+    private ReplicaReadRouter replicaReadRouter;
+
+    @Mock
+    private ShardRouter shardRouter;
+
+    private HybridSearchServiceImpl hybridSearchService;
+    private String userId;
+
+    /**
+     * Sets up.
+     */
+    @BeforeEach
+    void setUp() {
+        hybridSearchService = new HybridSearchServiceImpl(lexicalIndexServiceProvider, vectorIndexServiceProvider,
+                messageRepository, messageMapper, contextChunkService, replicaReadRouter, shardRouter,
+                new HybridSearchProperties());
+        userId = "user123";
+    }
+
+    /**
+     * Search should fuse rankings and drop messages deleted since indexing.
+     */
+    @Test
+    void search_ShouldFuseRankingsAndDropDeletedMessages() {
+        // Given
+        UUID both = UUID.randomUUID();
+        UUID lexicalOnly = UUID.randomUUID();
+        UUID deleted = UUID.randomUUID();
+        when(lexicalIndexServiceProvider.getIfAvailable()).thenReturn(lexicalIndexService);
+        when(vectorIndexServiceProvider.getIfAvailable()).thenReturn(vectorIndexService);
+        when(lexicalIndexService.search(userId, "postgres port", 100)).thenReturn(List.of(
+                new LexicalIndexService.Match(lexicalOnly, 3.2f),
+                new LexicalIndexService.Match(both, 2.9f)));
+        when(vectorIndexService.search(userId, "postgres port", 100)).thenReturn(List.of(
+                new HnswIndex.Neighbor(both, 0.91f),
+                new HnswIndex.Neighbor(deleted, 0.85f)));
+        MessageView bothView = view(both);
+        MessageView lexicalView = view(lexicalOnly);
+        when(messageRepository.findViewsByIdInAndUserId(anyCollection(), eq(userId)))
+                .thenReturn(List.of(lexicalView, bothView));
+        when(messageMapper.toResponse(any(MessageView.class))).thenAnswer(invocation ->
+                MessageResponse.builder().id(((MessageView) invocation.getArgument(0)).id()).build());
+
+        // When
+        List<HybridSearchResult> results = hybridSearchService.search(userId, "postgres port", 10);
+
+        // Then
+        assertEquals(2, results.size());
+        assertEquals(both, results.get(0).getMessage().getId());
+        assertEquals(2, results.get(0).getLexicalRank());
+        assertEquals(1, results.get(0).getVectorRank());
+        assertEquals(lexicalOnly, results.get(1).getMessage().getId());
+        assertNull(results.get(1).getVectorRank());
+        verify(replicaReadRouter).routeRead(eq(userId), any());
+        verify(contextChunkService).resolve(anyList());
+    }
+
+    /**
+     * Search without vector index should rank lexically.
+     */
+    @Test
+    void search_WithoutVectorIndex_ShouldRankLexically() {
+        // Given
+        UUID messageId = UUID.randomUUID();
+        when(lexicalIndexServiceProvider.getIfAvailable()).thenReturn(lexicalIndexService);
+        when(lexicalIndexService.search(userId, "redis", 100))
+                .thenReturn(List.of(new LexicalIndexService.Match(messageId, 1.5f)));
+        when(messageRepository.findViewsByIdInAndUserId(List.of(messageId), userId))
+                .thenReturn(List.of(view(messageId)));
+        when(messageMapper.toResponse(any(MessageView.class)))
+                .thenReturn(MessageResponse.builder().id(messageId).build());
+
+        // When
+        List<HybridSearchResult> results = hybridSearchService.search(userId, "redis", 10);
+
+        // Then
+        assertEquals(1, results.size());
+        assertEquals(1, results.get(0).getLexicalRank());
+        assertNull(results.get(0).getVectorRank());
+    }
+
+    /**
+     * Search when disabled should throw validation exception.
+     */
+    @Test
+    void search_WhenDisabled_ShouldThrowValidationException() {
+        // Given
+        when(lexicalIndexServiceProvider.getIfAvailable()).thenReturn(null);
+
+        // When & Then
+        assertThrows(ValidationException.class, () -> hybridSearchService.search(userId, "redis", 10));
+        verifyNoInteractions(messageRepository);
+    }
+
+    private static MessageView view(UUID id) {
+        return new MessageView(id, UUID.randomUUID(), MessageSender.USER, "content", null, null, LocalDateTime.now());
+    }
+}
@@ -0,0 +1,238 @@
+package com.chatbot.storage.service;
+
+import com.chatbot.storage.config.properties.VectorIndexProperties;
+import com.chatbot.storage.dto.projection.MessageView;
+import com.chatbot.storage.dto.request.MessageSearchRequest;
+import com.chatbot.storage.dto.response.CursorPagedResponse;
+import com.chatbot.storage.dto.response.MessageResponse;
+import com.chatbot.storage.dto.response.MessageSearchHit;
+import com.chatbot.storage.dto.response.PagedResponse;
+import com.chatbot.storage.dto.response.SimilarMessageResponse;
+import com.chatbot.storage.enums.JsonbField;
+import com.chatbot.storage.enums.MessageSender;
+import com.chatbot.storage.exception.ValidationException;
+import com.chatbot.storage.infrastructure.jsonb.JsonbFilter;
+import com.chatbot.storage.infrastructure.routing.ReplicaReadRouter;
+import com.chatbot.storage.infrastructure.sharding.ShardRouter;
+import com.chatbot.storage.infrastructure.vector.HnswIndex;
+import com.chatbot.storage.infrastructure.vector.VectorIndexService;
+import com.chatbot.storage.mapper.MessageMapper;
+import com.chatbot.storage.repository.ChatMessageRepository;
+import com.chatbot.storage.repository.MessageSearchRepository;
+import com.chatbot.storage.service.impl.MessageSearchServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ *
+ * The type Message search service impl test.
+ */
+@ExtendWith(MockitoExtension.class)
+class MessageSearchServiceImplTest {
+
+    @Mock
+    private MessageSearchRepository searchRepository;
+
+    @Mock
+    private MessageMapper messageMapper;
+
+    @Mock
+    private ContextChunkService contextChunkService;
+
+    @Mock
+    private ReplicaReadRouter replicaReadRouter;
+
+    @Mock
+    private ShardRouter shardRouter;
+
+    @Mock
+    private ChatMessageRepository messageRepository;
+
+    @Mock
+    private ObjectProvider<VectorIndexService> vectorIndexServiceProvider;
+
+    @Mock
+    private VectorIndexService vectorIndexService;
+
+    @Spy
+    private VectorIndexProperties vectorIndexProperties = new VectorIndexProperties();
+
+    @InjectMocks
+    private MessageSearchServiceImpl messageSearchService;
+
+    private String userId;
+    private Pageable pageable;
+
+    /**
+     * Sets up.
+     */
+    @BeforeEach
+    void setUp() {
+        userId = "user123";
+        pageable = PageRequest.of(0, 20);
+    }
+
+    /**
+     * Search messages should combine request into filter.
+     */
+    @Test
+    void searchMessages_ShouldCombineRequestIntoFilter() {
+        // Given
+        MessageSearchRequest request = new MessageSearchRequest();
+        request.setMetadata(Map.of("model", "llama3"));
+        request.setFilters(List.of(new MessageSearchRequest.FieldFilter(
+                JsonbField.CONTEXT_DATA, "chunks[].documentId", "doc-1")));
+
+        MessageView view = new MessageView(UUID.randomUUID(), UUID.randomUUID(), MessageSender.ASSISTANT,
+                "Answer", null, Map.of("model", "llama3"), LocalDateTime.now());
+        Page<MessageView> page = new PageImpl<>(List.of(view), pageable, 1);
+        PagedResponse<MessageResponse> pagedResponse = PagedResponse.<MessageResponse>builder()
+                .content(List.of(MessageResponse.builder().id(view.id()).build()))
+                .totalElements(1L)
+                .build();
+
+        when(searchRepository.search(eq(userId), any(JsonbFilter.class), eq(pageable))).thenReturn(page);
+        when(messageMapper.toPagedResponse(page)).thenReturn(pagedResponse);
+
+        // When
+        PagedResponse<MessageResponse> result = messageSearchService.searchMessages(userId, request, pageable);
+
+        // Then
+        assertEquals(pagedResponse, result);
+        ArgumentCaptor<JsonbFilter> filter = ArgumentCaptor.forClass(JsonbFilter.class);
+        verify(searchRepository).search(eq(userId), filter.capture(), eq(pageable));
+        assertEquals(Map.of("model", "llama3"), filter.getValue().getDocuments().get(JsonbField.METADATA));
+        assertEquals(Map.of("chunks", List.of(Map.of("documentId", "doc-1"))),
+                filter.getValue().getDocuments().get(JsonbField.CONTEXT_DATA));
+        verify(replicaReadRouter).routeRead(eq(userId), any());
+        verify(contextChunkService).resolve(pagedResponse.getContent());
+    }
+
+    /**
+     * Search messages without filters should throw exception.
+     */
+    @Test
+    void searchMessages_WithoutFilters_ShouldThrowException() {
+        // When & Then
+        assertThrows(ValidationException.class,
+                () -> messageSearchService.searchMessages(userId, new MessageSearchRequest(), pageable));
+
+        verifyNoInteractions(searchRepository, messageMapper);
+    }
+
+    /**
+     * Search content should return cursor to next page.
+     */
+    @Test
+    void searchContent_ShouldReturnCursorToNextPage() {
+        // Given
+        MessageSearchHit first = hit(0.9f);
+        MessageSearchHit second = hit(0.5f);
+        MessageSearchHit third = hit(0.1f);
+        when(searchRepository.searchContent(userId, "vector index", null, null, 3))
+                .thenReturn(List.of(first, second, third));
+
+        // When
+        CursorPagedResponse<MessageSearchHit> result =
+                messageSearchService.searchContent(userId, " vector index ", null, 2);
+
+        // Then
+        assertEquals(List.of(first, second), result.getContent());
+        assertTrue(result.isHasNext());
+        assertNotNull(result.getNextCursor());
+
+        // When the cursor is passed back
+        when(searchRepository.searchContent(userId, "vector index", 0.5f, second.getMessageId(), 3))
+                .thenReturn(List.of(third));
+        CursorPagedResponse<MessageSearchHit> next =
+                messageSearchService.searchContent(userId, "vector index", result.getNextCursor(), 2);
+
+        // Then
+        assertEquals(List.of(third), next.getContent());
+        assertFalse(next.isHasNext());
+        assertNull(next.getNextCursor());
+    }
+
+    /**
+     * Search content with invalid input should throw exception.
+     */
+    @Test
+    void searchContent_WithInvalidInput_ShouldThrowException() {
+        // When & Then
+        assertThrows(ValidationException.class,
+                () -> messageSearchService.searchContent(userId, "  ", null, 20));
+        assertThrows(ValidationException.class,
+                () -> messageSearchService.searchContent(userId, "rag", "not-a-cursor", 20));
+
+        verifyNoInteractions(searchRepository);
+    }
+
+    /**
+     * Find similar should drop neighbours no longer in the database.
+     */
+    @Test
+    void findSimilar_ShouldDropNeighboursNoLongerInDatabase() {
+        // Given
+        UUID kept = UUID.randomUUID();
+        UUID deleted = UUID.randomUUID();
+        MessageView view = new MessageView(kept, UUID.randomUUID(), MessageSender.USER,
+                "Rotate the API key", null, null, LocalDateTime.now());
+        MessageResponse response = MessageResponse.builder().id(kept).content("Rotate the API key").build();
+
+        when(vectorIndexServiceProvider.getIfAvailable()).thenReturn(vectorIndexService);
+        when(vectorIndexService.search(userId, "api key rotation", 10)).thenReturn(List.of(
+                new HnswIndex.Neighbor(deleted, 0.9f), new HnswIndex.Neighbor(kept, 0.7f)));
+        when(messageRepository.findViewsByIdInAndUserId(List.of(deleted, kept), userId)).thenReturn(List.of(view));
+        when(messageMapper.toResponse(view)).thenReturn(response);
+
+        // When
+        List<SimilarMessageResponse> result = messageSearchService.findSimilar(userId, "api key rotation", 10);
+
+        // Then
+        assertEquals(1, result.size());
+        assertEquals(response, result.get(0).getMessage());
+        assertEquals(0.7f, result.get(0).getScore());
+    }
+
+    /**
+     * Find similar when vector search disabled should throw exception.
+     */
+    @Test
+    void findSimilar_WhenVectorSearchDisabled_ShouldThrowException() {
+        // Given
+        when(vectorIndexServiceProvider.getIfAvailable()).thenReturn(null);
+
+        // When & Then
+        assertThrows(ValidationException.class, () -> messageSearchService.findSimilar(userId, "api key", 10));
+    }
+
+    private static MessageSearchHit hit(float rank) {
+        return MessageSearchHit.builder()
+                .messageId(UUID.randomUUID())
+                .sessionId(UUID.randomUUID())
+                .senderType(MessageSender.USER)
+                .highlight("<mark>vector</mark> <mark>index</mark>")
+                .rank(rank)
+                .build();
+    }
+}
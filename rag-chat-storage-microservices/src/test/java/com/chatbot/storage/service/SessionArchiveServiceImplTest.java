@@ -0,0 +1,266 @@
+package com.chatbot.storage.service;
+
+import com.chatbot.storage.config.properties.ArchiveProperties;
+import com.chatbot.storage.entity.ChatMessage;
+import com.chatbot.storage.entity.ChatSession;
+import com.chatbot.storage.entity.SessionArchive;
+import com.chatbot.storage.enums.MessageSender;
+import com.chatbot.storage.infrastructure.archive.ArchivePointer;
+import com.chatbot.storage.infrastructure.archive.ArchiveReclaimer;
+import com.chatbot.storage.infrastructure.archive.ArchiveSegment;
+import com.chatbot.storage.infrastructure.archive.ArchiveSegmentStore;
+import com.chatbot.storage.infrastructure.archive.ArchivedMessage;
+import com.chatbot.storage.infrastructure.cache.SecondLevelCacheEvictor;
+import com.chatbot.storage.repository.ChatMessageRepository;
+import com.chatbot.storage.repository.ChatSessionRepository;
+import com.chatbot.storage.repository.SessionArchiveRepository;
+import com.chatbot.storage.service.impl.SessionArchiveServiceImpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ *
+ * The type Session archive service impl test.
+ */
+@ExtendWith(MockitoExtension.class)
+class SessionArchiveServiceImplTest {
+
+    @Mock
+    private ChatSessionRepository sessionRepository;
+
+    @Mock
+    private ChatMessageRepository messageRepository;
+
+    @Mock
+    private SessionArchiveRepository archiveRepository;
+
+    @Mock
+    private ArchiveReclaimer archiveReclaimer;
+
+    @Mock
+    private ContextChunkService contextChunkService;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private SecondLevelCacheEvictor cacheEvictor;
+
+    private InMemorySegmentStore segmentStore;
+    private SessionArchiveServiceImpl archiveService;
+
+    private UUID sessionId;
+    private ChatSession chatSession;
+    private ChatMessage chatMessage;
+
+    /**
+     * Sets up.
+     */
+    @BeforeEach
+    void setUp() {
+        segmentStore = new InMemorySegmentStore();
+        archiveService = new SessionArchiveServiceImpl(sessionRepository, messageRepository, archiveRepository,
+                segmentStore, archiveReclaimer, contextChunkService, new ArchiveProperties(), entityManager, jdbcTemplate,
+                new ObjectMapper().findAndRegisterModules(), cacheEvictor);
+
+        sessionId = UUID.randomUUID();
+        chatSession = ChatSession.builder()
+                .id(sessionId)
+                .userId("user123")
+                .sessionName("Cold Session")
+                .createdAt(LocalDateTime.now().minusDays(90))
+                .build();
+        chatMessage = ChatMessage.builder()
+                .id(UUID.randomUUID())
+                .session(chatSession)
+                .senderType(MessageSender.ASSISTANT)
+                .content("Archived answer")
+                .contextData(Map.of("source", "doc-1"))
+                .createdAt(LocalDateTime.now().minusDays(89))
+                .version(0L)
+                .build();
+    }
+
+    /**
+     * Archive then rehydrate should restore the original messages.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void archiveThenRehydrate_ShouldRestoreOriginalMessages() {
+        // Given
+        when(archiveRepository.existsBySessionId(sessionId)).thenReturn(false);
+        when(sessionRepository.existsById(sessionId)).thenReturn(true);
+        when(messageRepository.streamBySessionId(sessionId))
+                .thenReturn(Stream.of(chatMessage));
+
+        // When
+        assertTrue(archiveService.archiveSession(sessionId));
+
+        // Then
+        ArgumentCaptor<SessionArchive> archiveCaptor = ArgumentCaptor.forClass(SessionArchive.class);
+        verify(archiveRepository).saveAndFlush(archiveCaptor.capture());
+        // Only the rows written to the segment are removed, never one stored meanwhile
+        verify(messageRepository).bulkDeleteBySessionIdAndIdIn(sessionId, List.of(chatMessage.getId()));
+        SessionArchive archive = archiveCaptor.getValue();
+        assertEquals(1L, archive.getMessageCount());
+        assertTrue(archive.getChunksIndexed());
+
+        // When
+        when(archiveRepository.findForUpdateBySessionId(sessionId)).thenReturn(Optional.of(archive));
+        archiveService.rehydrate(sessionId);
+
+        // Then
+        ArgumentCaptor<Collection<ArchivedMessage>> rowsCaptor = ArgumentCaptor.forClass(Collection.class);
+        verify(jdbcTemplate).batchUpdate(anyString(), rowsCaptor.capture(), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class));
+        ArchivedMessage restored = rowsCaptor.getValue().iterator().next();
+        assertEquals(chatMessage.getId(), restored.id());
+        assertEquals("Archived answer", restored.content());
+        assertEquals("doc-1", restored.contextData().get("source"));
+        assertEquals(chatMessage.getCreatedAt(), restored.createdAt());
+        verify(archiveRepository).delete(archive);
+        // The blob is only released once the pointer row is gone for good
+        verify(archiveReclaimer).releaseAfterCommit(new ArchivePointer(
+                archive.getSegment(), archive.getSegmentOffset(), archive.getLength()));
+        verify(cacheEvictor).evictSessionMessages(sessionId);
+    }
+
+    /**
+     * Archive session should record the chunks referenced by the archived messages.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void archiveSession_ShouldRecordChunkReferences() {
+        // Given
+        when(archiveRepository.existsBySessionId(sessionId)).thenReturn(false);
+        when(sessionRepository.existsById(sessionId)).thenReturn(true);
+        when(messageRepository.streamBySessionId(sessionId)).thenReturn(Stream.of(chatMessage));
+        doAnswer(invocation -> invocation.<Collection<String>>getArgument(1).add("chunk-hash"))
+                .when(contextChunkService).collectReferences(eq(chatMessage.getContextData()), anyCollection());
+
+        // When
+        assertTrue(archiveService.archiveSession(sessionId));
+
+        // Then
+        ArgumentCaptor<List<String>> hashes = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(startsWith("INSERT INTO session_archive_chunks"), hashes.capture(), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class));
+        assertEquals(List.of("chunk-hash"), hashes.getValue());
+    }
+
+    /**
+     * Index chunk references should read an archive written before they were recorded.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void indexChunkReferences_ShouldRecordReferencesOfUnindexedArchive() {
+        // Given
+        when(archiveRepository.existsBySessionId(sessionId)).thenReturn(false);
+        when(sessionRepository.existsById(sessionId)).thenReturn(true);
+        when(messageRepository.streamBySessionId(sessionId)).thenReturn(Stream.of(chatMessage));
+        archiveService.archiveSession(sessionId);
+        ArgumentCaptor<SessionArchive> archiveCaptor = ArgumentCaptor.forClass(SessionArchive.class);
+        verify(archiveRepository).saveAndFlush(archiveCaptor.capture());
+        SessionArchive archive = archiveCaptor.getValue();
+        archive.setChunksIndexed(false);
+        when(archiveRepository.findForUpdateBySessionId(sessionId)).thenReturn(Optional.of(archive));
+        doAnswer(invocation -> invocation.<Collection<String>>getArgument(1).add("chunk-hash"))
+                .when(contextChunkService).collectReferences(any(), anyCollection());
+
+        // When
+        assertTrue(archiveService.indexChunkReferences(sessionId));
+
+        // Then
+        ArgumentCaptor<List<String>> hashes = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(startsWith("INSERT INTO session_archive_chunks"), hashes.capture(), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class));
+        assertEquals(List.of("chunk-hash"), hashes.getValue());
+        assertTrue(archive.getChunksIndexed());
+        assertFalse(archiveService.indexChunkReferences(sessionId));
+    }
+
+    /**
+     * Archive session when already archived should skip.
+     */
+    @Test
+    void archiveSession_WhenAlreadyArchived_ShouldSkip() {
+        when(archiveRepository.existsBySessionId(sessionId)).thenReturn(true);
+
+        assertFalse(archiveService.archiveSession(sessionId));
+
+        verifyNoInteractions(messageRepository);
+        assertTrue(segmentStore.segments.isEmpty());
+    }
+
+    /**
+     * Rehydrate when not archived should do nothing.
+     */
+    @Test
+    void rehydrate_WhenNotArchived_ShouldDoNothing() {
+        when(archiveRepository.findForUpdateBySessionId(sessionId)).thenReturn(Optional.empty());
+
+        archiveService.rehydrate(sessionId);
+
+        verifyNoInteractions(jdbcTemplate);
+        verify(archiveRepository, never()).delete(any());
+    }
+
+    private static final class InMemorySegmentStore implements ArchiveSegmentStore {
+
+        private final List<byte[]> segments = new java.util.ArrayList<>();
+
+        @Override
+        public ArchivePointer append(BlobWriter writer) throws IOException {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            writer.writeTo(out);
+            byte[] payload = out.toByteArray();
+            segments.add(payload);
+            return new ArchivePointer(String.valueOf(segments.size() - 1), 0, payload.length);
+        }
+
+        @Override
+        public byte[] read(ArchivePointer pointer) {
+            return segments.get(Integer.parseInt(pointer.segment()));
+        }
+
+        @Override
+        public void delete(ArchivePointer pointer) {
+            // Nothing to reclaim in memory
+        }
+
+        @Override
+        public List<ArchiveSegment> listSealedSegments() {
+            return List.of();
+        }
+
+        @Override
+        public void deleteSegment(String segment) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
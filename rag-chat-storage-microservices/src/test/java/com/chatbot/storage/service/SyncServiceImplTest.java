@@ -0,0 +1,240 @@
+package com.chatbot.storage.service;
+
+import com.chatbot.storage.config.properties.SyncProperties;
+import com.chatbot.storage.dto.projection.MessageView;
+import com.chatbot.storage.dto.projection.SessionView;
+import com.chatbot.storage.dto.response.MessageResponse;
+import com.chatbot.storage.dto.response.SessionResponse;
+import com.chatbot.storage.dto.response.SyncResponse;
+import com.chatbot.storage.enums.MessageSender;
+import com.chatbot.storage.enums.SessionStatus;
+import com.chatbot.storage.enums.SyncEntityType;
+import com.chatbot.storage.exception.ValidationException;
+import com.chatbot.storage.infrastructure.sharding.ShardRouter;
+import com.chatbot.storage.mapper.MessageMapper;
+import com.chatbot.storage.mapper.SessionMapper;
+import com.chatbot.storage.repository.ChatMessageRepository;
+import com.chatbot.storage.repository.ChatSessionRepository;
+import com.chatbot.storage.repository.SyncChangeRepository;
+import com.chatbot.storage.service.impl.SyncServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ *
+ * The type Sync service impl test.
+ */
+@ExtendWith(MockitoExtension.class)
+class SyncServiceImplTest {
+
+    @Mock
+    private SyncChangeRepository changeRepository;
+
+    @Mock
+    private ChatSessionRepository sessionRepository;
+
+    @Mock
+    private ChatMessageRepository messageRepository;
+
+    @Mock
+    private SessionMapper sessionMapper;
+
+    @Mock
+    private MessageMapper messageMapper;
+
+    @Mock
+    private ContextChunkService contextChunkService;
+
+    @Mock
+    private ShardRouter shardRouter;
+
+    @Spy
+    private SyncProperties properties = new SyncProperties();
+
+    @InjectMocks
+    private SyncServiceImpl syncService;
+
+    private String userId;
+
+    /**
+     * Sets up.
+     */
+    @BeforeEach
+    void setUp() {
+        properties.setEnabled(true);
+        userId = "user123";
+    }
+
+    /**
+     * Sync when disabled should be rejected.
+     */
+    @Test
+    void sync_WhenDisabled_ShouldBeRejected() {
+        // Given
+        properties.setEnabled(false);
+
+        // When / Then
+        assertThrows(ValidationException.class, () -> syncService.sync(userId, null));
+        verifyNoInteractions(changeRepository);
+    }
+
+    /**
+     * Sync without cursor should start over at the horizon.
+     */
+    @Test
+    void sync_WithoutCursor_ShouldStartOverAtTheHorizon() {
+        // Given
+        when(changeRepository.currentHorizon()).thenReturn(100L, 120L);
+
+        // When
+        SyncResponse start = syncService.sync(userId, null);
+        SyncResponse next = syncService.sync(userId, start.getNextCursor());
+
+        // Then
+        assertTrue(start.isReset());
+        assertTrue(start.getSessions().isEmpty());
+        assertFalse(next.isReset());
+        verify(changeRepository).findChanges(userId, 100L, 0L, 120L, properties.getPageSize() + 1);
+        verify(shardRouter, times(2)).route(userId);
+    }
+
+    /**
+     * Sync should collapse changes and load their current state.
+     */
+    @Test
+    void sync_ShouldCollapseChangesAndLoadTheirCurrentState() {
+        // Given
+        UUID sessionId = UUID.randomUUID();
+        UUID deletedSessionId = UUID.randomUUID();
+        UUID messageId = UUID.randomUUID();
+        UUID deletedMessageId = UUID.randomUUID();
+        when(changeRepository.findChanges(userId, 100L, 0L, 120L, properties.getPageSize() + 1)).thenReturn(List.of(
+                change(1, 101, sessionId, SyncEntityType.SESSION, sessionId, false),
+                change(2, 101, sessionId, SyncEntityType.MESSAGE, messageId, false),
+                change(3, 102, sessionId, SyncEntityType.MESSAGE, deletedMessageId, false),
+                change(4, 103, sessionId, SyncEntityType.MESSAGE, deletedMessageId, true),
+                change(5, 104, deletedSessionId, SyncEntityType.SESSION, deletedSessionId, true)));
+        when(changeRepository.currentHorizon()).thenReturn(120L);
+
+        SessionView sessionView = new SessionView(sessionId, userId, "Chat", null, false,
+                SessionStatus.ACTIVE, 1L, LocalDateTime.now(), LocalDateTime.now());
+        MessageView messageView = new MessageView(messageId, sessionId, MessageSender.USER, "Hello", null, null,
+                LocalDateTime.now());
+        SessionResponse sessionResponse = SessionResponse.builder().id(sessionId).build();
+        MessageResponse messageResponse = MessageResponse.builder().id(messageId).build();
+        when(sessionRepository.findViewsByIdInAndUserId(Set.of(sessionId), userId)).thenReturn(List.of(sessionView));
+        when(messageRepository.findViewsByIdInAndUserId(List.of(messageId), userId)).thenReturn(List.of(messageView));
+        when(sessionMapper.toResponse(sessionView)).thenReturn(sessionResponse);
+        when(messageMapper.toResponse(messageView)).thenReturn(messageResponse);
+
+        // When
+        SyncResponse response = syncService.sync(userId, cursor(100, 0, 0, System.currentTimeMillis(), "primary"));
+
+        // Then
+        assertFalse(response.isReset());
+        assertFalse(response.isHasMore());
+        assertEquals(List.of(sessionResponse), response.getSessions());
+        assertEquals(List.of(messageResponse), response.getMessages());
+        assertEquals(List.of(deletedSessionId), response.getDeletedSessionIds());
+        assertEquals(List.of(deletedMessageId), response.getDeletedMessageIds());
+        verify(contextChunkService).resolve(List.of(messageResponse));
+    }
+
+    /**
+     * Sync with more changes than a page should keep the horizon for the next page.
+     */
+    @Test
+    void sync_WithMoreChangesThanAPage_ShouldKeepTheHorizonForTheNextPage() {
+        // Given
+        properties.setPageSize(2);
+        UUID sessionId = UUID.randomUUID();
+        when(changeRepository.currentHorizon()).thenReturn(120L);
+        when(changeRepository.findChanges(userId, 100L, 0L, 120L, 3)).thenReturn(List.of(
+                change(1, 101, sessionId, SyncEntityType.SESSION, sessionId, false),
+                change(2, 105, sessionId, SyncEntityType.SESSION, sessionId, false),
+                change(3, 110, sessionId, SyncEntityType.SESSION, sessionId, false)));
+        when(changeRepository.findChanges(userId, 105L, 2L, 120L, 3)).thenReturn(List.of(
+                change(3, 110, sessionId, SyncEntityType.SESSION, sessionId, false)));
+
+        // When
+        SyncResponse first = syncService.sync(userId, cursor(100, 0, 0, System.currentTimeMillis(), "primary"));
+        SyncResponse second = syncService.sync(userId, first.getNextCursor());
+
+        // Then
+        assertTrue(first.isHasMore());
+        assertFalse(second.isHasMore());
+        verify(changeRepository, times(1)).currentHorizon();
+    }
+
+    /**
+     * Sync with expired cursor should start over.
+     */
+    @Test
+    void sync_WithExpiredCursor_ShouldStartOver() {
+        // Given
+        when(changeRepository.currentHorizon()).thenReturn(500L);
+        long issuedAt = System.currentTimeMillis() - properties.getRetention().plus(Duration.ofHours(1)).toMillis();
+
+        // When
+        SyncResponse response = syncService.sync(userId, cursor(100, 0, 0, issuedAt, "primary"));
+
+        // Then
+        assertTrue(response.isReset());
+        verify(changeRepository, never()).findChanges(anyString(), anyLong(), anyLong(), anyLong(), anyInt());
+    }
+
+    /**
+     * Sync with cursor of another shard should start over.
+     */
+    @Test
+    void sync_WithCursorOfAnotherShard_ShouldStartOver() {
+        // Given
+        when(changeRepository.currentHorizon()).thenReturn(500L);
+
+        // When
+        SyncResponse response = syncService.sync(userId, cursor(100, 0, 0, System.currentTimeMillis(), "shard-b"));
+
+        // Then
+        assertTrue(response.isReset());
+        verify(changeRepository, never()).findChanges(anyString(), anyLong(), anyLong(), anyLong(), anyInt());
+    }
+
+    /**
+     * Sync with malformed cursor should be rejected.
+     */
+    @Test
+    void sync_WithMalformedCursor_ShouldBeRejected() {
+        // When / Then
+        assertThrows(ValidationException.class, () -> syncService.sync(userId, "not-a-cursor"));
+        verifyNoInteractions(changeRepository);
+    }
+
+    // ---------- Helper Methods ----------
+
+    private static SyncChangeRepository.Change change(long id, long txid, UUID sessionId, SyncEntityType type,
+                                                      UUID entityId, boolean deleted) {
+        return new SyncChangeRepository.Change(id, txid, sessionId, type, entityId, deleted);
+    }
+
+    private static String cursor(long afterTxid, long afterId, long horizon, long issuedAt, String shard) {
+        String position = "1:" + afterTxid + ":" + afterId + ":" + horizon + ":" + issuedAt + ":" + shard;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+}